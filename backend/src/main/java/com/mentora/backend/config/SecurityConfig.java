@@ -34,6 +34,9 @@ public class SecurityConfig {
 
                 // Configuración de autorización
                 .authorizeHttpRequests(auth -> auth
+                        // Métricas (cache de URLs firmadas, subidas, etc.) solo para administradores; va primero
+                        // porque la regla de OPTIONS de más abajo también coincide con cualquier path
+                        .requestMatchers("/actuator/metrics", "/actuator/metrics/**").hasRole("ADMIN")
                         .requestMatchers(
                             "/auth/**",
                             "/v3/api-docs/**",
@@ -41,7 +44,9 @@ public class SecurityConfig {
                             "/swagger-ui.html",
                             "/swagger-ui/index.html",
                             "/users/password-recovery",
-                            "/users/reset-password"
+                            "/users/reset-password",
+                            "/files/download", // la autorización va en la firma del enlace
+                            "/ws/**" // el handshake es anónimo; el token se valida en el CONNECT de STOMP
                             )
                             .permitAll()
                         .requestMatchers("OPTIONS", "/**").permitAll() // Permitir peticiones OPTIONS para CORS
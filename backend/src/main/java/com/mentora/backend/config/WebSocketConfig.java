@@ -0,0 +1,145 @@
+package com.mentora.backend.config;
+
+import com.mentora.backend.security.JwtService;
+import io.jsonwebtoken.Claims;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.simp.config.ChannelRegistration;
+import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
+import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
+import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+
+import java.util.Arrays;
+import java.util.List;
+
+// Canal push para chat y notificaciones. Broker en memoria por defecto; con
+// websocket.relay.enabled=true se usa un broker STOMP externo (RabbitMQ, ActiveMQ) para varios nodos
+@Configuration
+@EnableWebSocketMessageBroker
+public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
+
+    private static final long[] HEARTBEAT = {10000, 10000};
+
+    private final JwtService jwtService;
+    private final TaskScheduler brokerScheduler;
+
+    @Value("${cors.allowed-origins:http://localhost:3000}")
+    private String allowedOriginsProperty;
+
+    @Value("${websocket.relay.enabled:false}")
+    private boolean relayEnabled;
+
+    @Value("${websocket.relay.host:localhost}")
+    private String relayHost;
+
+    @Value("${websocket.relay.port:61613}")
+    private int relayPort;
+
+    @Value("${websocket.relay.login:guest}")
+    private String relayLogin;
+
+    @Value("${websocket.relay.passcode:guest}")
+    private String relayPasscode;
+
+    public WebSocketConfig(
+            JwtService jwtService,
+            @Lazy @Qualifier("messageBrokerTaskScheduler") TaskScheduler brokerScheduler
+    ) {
+        this.jwtService = jwtService;
+        this.brokerScheduler = brokerScheduler;
+    }
+
+    @Override
+    public void registerStompEndpoints(StompEndpointRegistry registry) {
+        String[] origins = Arrays.stream(allowedOriginsProperty.split(","))
+                .map(String::trim)
+                .filter(o -> !o.isEmpty())
+                .toArray(String[]::new);
+        registry.addEndpoint("/ws").setAllowedOriginPatterns(origins);
+    }
+
+    @Override
+    public void configureMessageBroker(MessageBrokerRegistry registry) {
+        registry.setApplicationDestinationPrefixes("/app");
+        registry.setUserDestinationPrefix("/user");
+
+        if (relayEnabled) {
+            registry.enableStompBrokerRelay("/queue", "/topic")
+                    .setRelayHost(relayHost)
+                    .setRelayPort(relayPort)
+                    .setClientLogin(relayLogin)
+                    .setClientPasscode(relayPasscode)
+                    .setSystemLogin(relayLogin)
+                    .setSystemPasscode(relayPasscode)
+                    // Con varios nodos, los mensajes a /user se reenvían al nodo que tiene la sesión
+                    .setUserDestinationBroadcast("/topic/unresolved-user-destination")
+                    .setUserRegistryBroadcast("/topic/user-registry");
+        } else {
+            registry.enableSimpleBroker("/queue", "/topic")
+                    .setHeartbeatValue(HEARTBEAT)
+                    .setTaskScheduler(brokerScheduler);
+        }
+    }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.interceptors(new ChannelInterceptor() {
+            @Override
+            public Message<?> preSend(Message<?> message, MessageChannel channel) {
+                StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+                if (accessor == null || accessor.getCommand() == null) {
+                    return message;
+                }
+
+                // El token se manda en el header Authorization del frame CONNECT, igual que en la API REST
+                if (StompCommand.CONNECT.equals(accessor.getCommand())) {
+                    String header = accessor.getFirstNativeHeader("Authorization");
+                    if (header == null || !header.startsWith("Bearer ")) {
+                        throw new MessagingException("Token requerido");
+                    }
+                    Claims claims = jwtService.parseAndValidate(header.substring(7))
+                            .orElseThrow(() -> new MessagingException("Token inválido o expirado"));
+                    String role = claims.get("role", String.class);
+                    accessor.setUser(new UsernamePasswordAuthenticationToken(
+                            claims.getSubject(), null, List.of(new SimpleGrantedAuthority("ROLE_" + role))));
+                }
+
+                StompCommand command = accessor.getCommand();
+
+                // El canal es solo de salida: no hay @MessageMapping, y un SEND a /user/{ci}/queue/... o a los
+                // topics del relay permitiría inyectar mensajes en las colas de otro usuario
+                if (StompCommand.SEND.equals(command)) {
+                    throw new MessagingException("Envío de mensajes no permitido");
+                }
+
+                // Fuera del CONNECT y el DISCONNECT, todo frame requiere la sesión autenticada
+                if (!StompCommand.CONNECT.equals(command) && !StompCommand.DISCONNECT.equals(command)
+                        && accessor.getUser() == null) {
+                    throw new MessagingException("Sesión no autenticada");
+                }
+
+                // Solo se permite suscribirse a las colas propias
+                if (StompCommand.SUBSCRIBE.equals(command)) {
+                    String destination = accessor.getDestination();
+                    if (destination == null || !destination.startsWith("/user/queue/")) {
+                        throw new MessagingException("Suscripción no permitida");
+                    }
+                }
+                return message;
+            }
+        });
+    }
+}
@@ -6,6 +6,7 @@ import com.mentora.backend.responses.DtApiResponse;
 import com.mentora.backend.service.ChatService;
 import com.mentora.backend.requests.SendMessageRequest;
 
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -13,6 +14,7 @@ import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 import io.swagger.v3.oas.annotations.Operation;
@@ -66,7 +68,8 @@ public class ChatController {
 
     @Operation(
         summary = "Obtener chats de un usuario",
-        description = "Permite obtener chats de un usuario.",
+        description = "Devuelve la bandeja de entrada: cada chat con su último mensaje y la cantidad de mensajes no leídos, " +
+                "del más reciente al más viejo. Con 'limit' se pagina; 'after' es el id del último chat de la página anterior.",
         security = @SecurityRequirement(name = "bearerAuth"))
     @ApiResponse(responseCode = "200", description = "Chats obtenidos correctamente")
     @ApiResponse(responseCode = "403", description = "No tienes permisos para obtener chats")
@@ -75,11 +78,13 @@ public class ChatController {
     @GetMapping
     @PreAuthorize("hasRole('PROFESOR') or hasRole('ESTUDIANTE')")
     public ResponseEntity<DtApiResponse<List<DtChat>>> getChats(
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit,
             Authentication authentication
     ) {
         try {
             String requesterCi = authentication.getName();
-            List<DtChat> chats = chatService.getChats(requesterCi);
+            List<DtChat> chats = chatService.getChats(requesterCi, after, limit);
             return ResponseEntity.ok().body(new DtApiResponse<>(
                 true,
                 HttpStatus.OK.value(),
@@ -96,11 +101,47 @@ public class ChatController {
         }
     }
 
+    @Operation(
+        summary = "Marcar un chat como leído",
+        description = "Marca como leídos los mensajes del chat hasta 'messageId' (o hasta el último si no se indica).",
+        security = @SecurityRequirement(name = "bearerAuth"))
+    @ApiResponse(responseCode = "200", description = "Chat marcado como leído")
+    @ApiResponse(responseCode = "400", description = "El mensaje no pertenece al chat")
+    @ApiResponse(responseCode = "403", description = "No tienes permisos para ver este chat")
+    @ApiResponse(responseCode = "404", description = "Chat no encontrado")
+    @PostMapping("/{chatId}/read")
+    @PreAuthorize("hasRole('PROFESOR') or hasRole('ESTUDIANTE')")
+    public ResponseEntity<DtApiResponse<Void>> markAsRead(
+            @PathVariable Long chatId,
+            @RequestParam(required = false) Long messageId,
+            Authentication authentication
+    ) {
+        try {
+            chatService.markAsRead(chatId, authentication.getName(), messageId);
+            return ResponseEntity.ok().body(new DtApiResponse<>(
+                true,
+                HttpStatus.OK.value(),
+                "Chat marcado como leído",
+                null
+            ));
+        } catch (ResponseStatusException e) {
+            return ResponseEntity.status(e.getStatusCode()).body(new DtApiResponse<>(
+                false,
+                e.getStatusCode().value(),
+                e.getReason(),
+                null
+            ));
+        }
+    }
+
     @Operation(
         summary = "Obtener mensajes de un chat",
-        description = "Permite obtener mensajes de un chat.",
+        description = "Permite obtener mensajes de un chat en orden cronológico. Sin parámetros devuelve todo el historial; " +
+                "'before' (id de mensaje) pagina hacia atrás, 'after' (id de mensaje) y 'since' (fecha) devuelven solo los mensajes nuevos. " +
+                "'limit' acota la cantidad (por defecto 50 con cursor).",
         security = @SecurityRequirement(name = "bearerAuth"))
     @ApiResponse(responseCode = "200", description = "Mensajes obtenidos correctamente")
+    @ApiResponse(responseCode = "400", description = "Cursor o límite inválido")
     @ApiResponse(responseCode = "403", description = "No tienes permisos para obtener mensajes")
     @ApiResponse(responseCode = "404", description = "Chat no encontrado")
     @ApiResponse(responseCode = "500", description = "Error interno del servidor")
@@ -108,11 +149,15 @@ public class ChatController {
     @PreAuthorize("hasRole('PROFESOR') or hasRole('ESTUDIANTE')")
     public ResponseEntity<DtApiResponse<List<DtMessage>>> getMessages(
             @PathVariable Long chatId,
+            @RequestParam(required = false) Long before,
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since,
+            @RequestParam(required = false) Integer limit,
             Authentication authentication
     ) {
         try {
             String requesterCi = authentication.getName();
-            List<DtMessage> messages = chatService.getMessages(chatId, requesterCi);
+            List<DtMessage> messages = chatService.getMessages(chatId, requesterCi, before, after, since, limit);
 
             return ResponseEntity.ok().body(new DtApiResponse<>(
                 true,
@@ -132,9 +177,11 @@ public class ChatController {
 
     @Operation(
         summary = "Obtener mensajes con un usuario",
-        description = "Obtiene (y crea si no existe) el chat 1:1 con el usuario dado y devuelve sus mensajes ordenados por fecha.",
+        description = "Obtiene (y crea si no existe) el chat 1:1 con el usuario dado y devuelve sus mensajes ordenados por fecha. " +
+                "Acepta los mismos parámetros de paginación que /{chatId}/messages.",
         security = @SecurityRequirement(name = "bearerAuth"))
     @ApiResponse(responseCode = "200", description = "Mensajes obtenidos correctamente")
+    @ApiResponse(responseCode = "400", description = "Cursor o límite inválido")
     @ApiResponse(responseCode = "403", description = "No tienes permisos para obtener mensajes")
     @ApiResponse(responseCode = "404", description = "Usuario no encontrado")
     @ApiResponse(responseCode = "500", description = "Error interno del servidor")
@@ -142,11 +189,15 @@ public class ChatController {
     @PreAuthorize("hasRole('PROFESOR') or hasRole('ESTUDIANTE')")
     public ResponseEntity<DtApiResponse<List<DtMessage>>> getMessagesWith(
             @PathVariable String partnerCi,
+            @RequestParam(required = false) Long before,
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since,
+            @RequestParam(required = false) Integer limit,
             Authentication authentication
     ) {
         try {
             String requesterCi = authentication.getName();
-            List<DtMessage> messages = chatService.getMessagesWith(requesterCi, partnerCi);
+            List<DtMessage> messages = chatService.getMessagesWith(requesterCi, partnerCi, before, after, since, limit);
 
             return ResponseEntity.ok().body(new DtApiResponse<>(
                 true,
@@ -1,7 +1,10 @@
 package com.mentora.backend.controller;
 
 import com.mentora.backend.dt.DtCourseParticipant;
+import com.mentora.backend.dt.DtEnrollmentJob;
 import com.mentora.backend.dt.DtFinalGrade;
+import com.mentora.backend.dt.DtGradebook;
+import com.mentora.backend.dt.DtGradebookItem;
 import com.mentora.backend.dt.DtUser;
 import com.mentora.backend.dt.DtEvaluation;
 import com.mentora.backend.requests.*;
@@ -12,9 +15,11 @@ import com.mentora.backend.dt.DtCourse;
 import com.mentora.backend.model.Role;
 import com.mentora.backend.requests.CreateQuizRequest;
 import com.mentora.backend.service.CourseService;
+import com.mentora.backend.service.EnrollmentJobService;
 import com.mentora.backend.dt.DtSimpleContent;
 import com.mentora.backend.responses.*;
 import com.mentora.backend.service.GradeService;
+import com.mentora.backend.service.GradebookService;
 import com.mentora.backend.service.UserCourseService;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import org.springframework.http.MediaType;
@@ -25,6 +30,8 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.http.HttpHeaders;
 
 import java.io.IOException;
 import java.util.List;
@@ -45,15 +52,21 @@ public class CourseController {
     private final CourseService courseService;
     private final GradeService gradeService;
     private final UserCourseService userCourseService;
+    private final EnrollmentJobService enrollmentJobService;
+    private final GradebookService gradebookService;
 
     public CourseController(
         CourseService courseService,
         GradeService gradeService,
-        UserCourseService userCourseService
+        UserCourseService userCourseService,
+        EnrollmentJobService enrollmentJobService,
+        GradebookService gradebookService
     ) {
         this.courseService = courseService;
         this.gradeService = gradeService;
         this.userCourseService = userCourseService;
+        this.enrollmentJobService = enrollmentJobService;
+        this.gradebookService = gradebookService;
     }
 
     @Operation(
@@ -178,14 +191,19 @@ public class CourseController {
     }
 
     @Operation(summary = "Vista de curso",
-            description = "Retorna un curso y todos sus contenidos",
+            description = "Retorna un curso y sus contenidos ordenados por fecha de creación. " +
+                    "Con 'limit' se pagina; 'after' es el nextCursor de la página anterior",
             security = @SecurityRequirement(name = "bearerAuth"))
     @ApiResponse(responseCode = "200", description = "Curso y contenidos obtenidos correctamente")
     @ApiResponse(responseCode = "403", description = "No tiene permisos necesarios")
     @GetMapping(value = "/{courseId}")
-    public ResponseEntity<DtApiResponse<GetCourseResponse>> getCourse(@PathVariable String courseId) {
+    public ResponseEntity<DtApiResponse<GetCourseResponse>> getCourse(
+            @PathVariable String courseId,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit
+    ) {
         try {
-            GetCourseResponse course = courseService.getCourseAndContents(courseId);
+            GetCourseResponse course = courseService.getCourseAndContents(courseId, after, limit);
 
             DtApiResponse<GetCourseResponse> response = new DtApiResponse<>(
                 true,
@@ -405,6 +423,88 @@ public class CourseController {
         }
     }
 
+    @Operation(
+            summary = "Agregar participantes en segundo plano",
+            description = "Inicia la matriculación de una lista grande de participantes y devuelve el proceso para consultar su avance. Solo profesores",
+            security = @SecurityRequirement(name = "bearerAuth")
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "202", description = "Proceso de matriculación iniciado"),
+            @ApiResponse(responseCode = "400", description = "No se indicaron participantes"),
+            @ApiResponse(responseCode = "403", description = "No tiene permisos necesarios"),
+            @ApiResponse(responseCode = "404", description = "Curso no encontrado"),
+            @ApiResponse(responseCode = "503", description = "Hay demasiados procesos en curso")
+    })
+    @PostMapping(value = "/{courseId}/participants/jobs")
+    @PreAuthorize("hasRole('PROFESOR')")
+    public ResponseEntity<DtApiResponse<DtEnrollmentJob>> addParticipantsJob(
+            @PathVariable String courseId,
+            @RequestBody ParticipantsRequest req) {
+
+        try {
+            DtEnrollmentJob job = enrollmentJobService.submit(courseId, req.getParticipantIds());
+
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(new DtApiResponse<>(
+                    true,
+                    202,
+                    "Proceso de matriculación iniciado",
+                    job
+            ));
+
+        } catch (ResponseStatusException e) {
+            return ResponseEntity.status(e.getStatusCode()).body(new DtApiResponse<>(
+                    false,
+                    e.getStatusCode().value(),
+                    e.getReason(),
+                    null
+            ));
+
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(new DtApiResponse<>(
+                    false,
+                    500,
+                    "Error inesperado del servidor",
+                    null
+            ));
+        }
+    }
+
+    @Operation(
+            summary = "Consultar proceso de matriculación",
+            description = "Devuelve el avance de una matriculación en segundo plano. Solo profesores",
+            security = @SecurityRequirement(name = "bearerAuth")
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Estado del proceso"),
+            @ApiResponse(responseCode = "403", description = "No tiene permisos necesarios"),
+            @ApiResponse(responseCode = "404", description = "Proceso no encontrado")
+    })
+    @GetMapping(value = "/{courseId}/participants/jobs/{jobId}")
+    @PreAuthorize("hasRole('PROFESOR')")
+    public ResponseEntity<DtApiResponse<DtEnrollmentJob>> getParticipantsJob(
+            @PathVariable String courseId,
+            @PathVariable String jobId) {
+
+        try {
+            DtEnrollmentJob job = enrollmentJobService.getJob(courseId, jobId);
+
+            return ResponseEntity.ok(new DtApiResponse<>(
+                    true,
+                    200,
+                    "Proceso obtenido correctamente",
+                    job
+            ));
+
+        } catch (ResponseStatusException e) {
+            return ResponseEntity.status(e.getStatusCode()).body(new DtApiResponse<>(
+                    false,
+                    e.getStatusCode().value(),
+                    e.getReason(),
+                    null
+            ));
+        }
+    }
+
     @Operation(
             summary = "Eliminar participantes de un curso",
             description = "Elimina participantes de un curso. Solo profesores",
@@ -551,15 +651,104 @@ public class CourseController {
         }
     }
 
+    @Operation(
+            summary = "Obtener el libro de calificaciones del curso",
+            description = "Retorna en una sola respuesta la matriz de notas del curso: las columnas son las evaluaciones y quizzes " +
+                    "(en 'items') y cada estudiante trae sus notas alineadas con ellas y la nota final. Solo profesores",
+            security = @SecurityRequirement(name = "bearerAuth"))
+    @ApiResponse(responseCode = "200", description = "Libro de calificaciones obtenido correctamente")
+    @ApiResponse(responseCode = "404", description = "Curso no encontrado")
+    @GetMapping("/{courseId}/gradebook")
+    @PreAuthorize("hasRole('PROFESOR')")
+    public ResponseEntity<DtApiResponse<DtGradebook>> getGradebook(@PathVariable String courseId) {
+        try {
+            DtGradebook gradebook = gradebookService.getGradebook(courseId);
+            return ResponseEntity.ok(new DtApiResponse<>(
+                    true,
+                    200,
+                    "Libro de calificaciones obtenido correctamente",
+                    gradebook
+            ));
+        } catch (ResponseStatusException e) {
+            return ResponseEntity.status(e.getStatusCode()).body(new DtApiResponse<>(
+                    false,
+                    e.getStatusCode().value(),
+                    e.getReason(),
+                    null
+            ));
+        }
+    }
+
+    @Operation(
+            summary = "Exportar el libro de calificaciones a CSV",
+            description = "Descarga la matriz de notas del curso como CSV, generado por partes para cursos grandes. Solo profesores",
+            security = @SecurityRequirement(name = "bearerAuth"))
+    @ApiResponse(responseCode = "200", description = "CSV generado correctamente")
+    @ApiResponse(responseCode = "404", description = "Curso no encontrado")
+    @GetMapping("/{courseId}/gradebook/csv")
+    @PreAuthorize("hasRole('PROFESOR')")
+    public ResponseEntity<?> exportGradebookCsv(@PathVariable String courseId) {
+        try {
+            List<DtGradebookItem> items = gradebookService.getGradebookItems(courseId);
+            StreamingResponseBody body = out -> gradebookService.writeCsv(courseId, items, out);
+            return ResponseEntity.ok()
+                    .contentType(new MediaType("text", "csv"))
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"gradebook-" + courseId + ".csv\"")
+                    .body(body);
+        } catch (ResponseStatusException e) {
+            return ResponseEntity.status(e.getStatusCode()).body(new DtApiResponse<>(
+                    false,
+                    e.getStatusCode().value(),
+                    e.getReason(),
+                    null
+            ));
+        }
+    }
+
+    @Operation(
+            summary = "Reconstruir el libro de calificaciones",
+            description = "Vuelve a calcular la matriz de notas del curso desde las entregas y las notas finales, " +
+                    "y elimina las celdas que ya no tienen origen. Solo profesores",
+            security = @SecurityRequirement(name = "bearerAuth"))
+    @ApiResponse(responseCode = "200", description = "Libro de calificaciones reconstruido correctamente")
+    @ApiResponse(responseCode = "404", description = "Curso no encontrado")
+    @PostMapping("/{courseId}/gradebook/rebuild")
+    @PreAuthorize("hasRole('PROFESOR')")
+    public ResponseEntity<DtApiResponse<Void>> rebuildGradebook(@PathVariable String courseId) {
+        try {
+            gradebookService.rebuildCourse(courseId);
+            return ResponseEntity.ok(new DtApiResponse<>(
+                    true,
+                    200,
+                    "Libro de calificaciones reconstruido correctamente",
+                    null
+            ));
+        } catch (ResponseStatusException e) {
+            return ResponseEntity.status(e.getStatusCode()).body(new DtApiResponse<>(
+                    false,
+                    e.getStatusCode().value(),
+                    e.getReason(),
+                    null
+            ));
+        }
+    }
+
     @Operation(summary = "Listar participantes no matriculados de un curso",
-            description = "Lista todos los participantes no matriculados de un curso. Solo profesores",
+            description = "Lista los estudiantes no matriculados de un curso ordenados por nombre. " +
+                    "'q' filtra por prefijo de nombre o CI; con 'limit' se pagina y 'after' es la CI del último usuario " +
+                    "de la página anterior. Las fotos solo se firman con 'pictures=true'. Solo profesores",
             security = @SecurityRequirement(name = "bearerAuth"))
     @ApiResponse(responseCode = "200", description = "Participantes no matriculados obtenidos correctamente")
-    @ApiResponse(responseCode = "400", description = "ID del curso obligatorio")
+    @ApiResponse(responseCode = "400", description = "ID del curso obligatorio, cursor o límite inválido")
     @GetMapping(value = "/{courseId}/non-participants")
-    public ResponseEntity<DtApiResponse<List<DtUser>>> getNonParticipants(@PathVariable String courseId) {
+    public ResponseEntity<DtApiResponse<List<DtUser>>> getNonParticipants(
+            @PathVariable String courseId,
+            @RequestParam(value = "q", required = false) String query,
+            @RequestParam(value = "after", required = false) String after,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "pictures", defaultValue = "false") boolean pictures) {
         try {
-            List<DtUser> nonParticipants = courseService.getNonParticipants(courseId);
+            List<DtUser> nonParticipants = courseService.getNonParticipants(courseId, query, after, limit, pictures);
 
             return ResponseEntity.ok(new DtApiResponse<>(
                 true,
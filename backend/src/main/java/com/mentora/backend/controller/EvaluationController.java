@@ -1,12 +1,14 @@
 package com.mentora.backend.controller;
 
 import com.mentora.backend.dt.DtEvaluation;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import com.mentora.backend.responses.DtApiResponse;
 import com.mentora.backend.service.EvaluationService;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.security.core.Authentication;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -164,4 +166,29 @@ public class EvaluationController {
       return ResponseEntity.status(e.getStatusCode()).body(new DtApiResponse<>(false, e.getStatusCode().value(), e.getReason(), null));
     }
   }
+
+  @Operation(
+    summary = "Descargar todas las entregas",
+    description = "Descarga un ZIP con el archivo de cada entrega de la evaluación y un manifiesto CSV con CI, nombre, " +
+      "nota y solución en texto. Se genera por partes mientras se descarga. Solo profesores",
+    security = @SecurityRequirement(name = "bearerAuth")
+  )
+  @ApiResponse(responseCode = "200", description = "ZIP generado correctamente")
+  @ApiResponse(responseCode = "404", description = "Evaluación no encontrada")
+  @ApiResponse(responseCode = "403", description = "No tiene permisos necesarios")
+  @PreAuthorize("hasRole('PROFESOR')")
+  @GetMapping("/{evaluationId}/submissions/zip")
+  public ResponseEntity<?> exportSubmissionsZip(@PathVariable Long evaluationId) {
+    try {
+      String fileName = evaluationService.getSubmissionsZipName(evaluationId);
+      StreamingResponseBody body = out -> evaluationService.writeSubmissionsZip(evaluationId, out);
+
+      return ResponseEntity.ok()
+        .contentType(new MediaType("application", "zip"))
+        .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+        .body(body);
+    } catch (ResponseStatusException e) {
+      return ResponseEntity.status(e.getStatusCode()).body(new DtApiResponse<>(false, e.getStatusCode().value(), e.getReason(), null));
+    }
+  }
 }
@@ -0,0 +1,83 @@
+package com.mentora.backend.controller;
+
+import com.mentora.backend.responses.DtApiResponse;
+import com.mentora.backend.service.BlobStore;
+import com.mentora.backend.service.FileStorageService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.charset.StandardCharsets;
+
+@RestController
+@RequestMapping("/files")
+@Tag(name = "Archivos", description = "Descarga de archivos del almacenamiento local")
+public class FileController {
+
+    private final FileStorageService fileStorageService;
+
+    public FileController(FileStorageService fileStorageService) {
+        this.fileStorageService = fileStorageService;
+    }
+
+    @Operation(
+            summary = "Descargar archivo",
+            description = "Sirve un archivo del almacenamiento local o en memoria. La URL la genera el backend " +
+                    "firmada y con vencimiento, igual que las URLs firmadas de GCS; no requiere token de sesión."
+    )
+    @ApiResponse(responseCode = "200", description = "Contenido del archivo")
+    @ApiResponse(responseCode = "403", description = "Enlace inválido o vencido")
+    @ApiResponse(responseCode = "404", description = "Archivo no encontrado")
+    @GetMapping("/download")
+    public ResponseEntity<?> download(
+            @RequestParam("key") String key,
+            @RequestParam("expires") long expires,
+            @RequestParam("signature") String signature
+    ) {
+        try {
+            BlobStore.StoredObject stored = fileStorageService.openDownload(key, expires, signature);
+            StreamingResponseBody body = out -> fileStorageService.copyKeyTo(key, out);
+
+            MediaType contentType;
+            try {
+                contentType = stored.contentType() != null
+                        ? MediaType.parseMediaType(stored.contentType())
+                        : MediaType.APPLICATION_OCTET_STREAM;
+            } catch (IllegalArgumentException e) {
+                contentType = MediaType.APPLICATION_OCTET_STREAM;
+            }
+
+            // Siempre como adjunto y sin sniffing: un HTML o SVG subido no se ejecuta en el origen de la API
+            String fileName = key.substring(key.lastIndexOf('/') + 1);
+            ContentDisposition disposition = ContentDisposition.attachment()
+                    .filename(fileName, StandardCharsets.UTF_8)
+                    .build();
+
+            return ResponseEntity.ok()
+                    .contentType(contentType)
+                    .contentLength(stored.size())
+                    .header(HttpHeaders.CACHE_CONTROL, "private, max-age=3600")
+                    .header(HttpHeaders.CONTENT_DISPOSITION, disposition.toString())
+                    .header("X-Content-Type-Options", "nosniff")
+                    .body(body);
+        } catch (ResponseStatusException e) {
+            return ResponseEntity.status(e.getStatusCode()).body(new DtApiResponse<>(
+                    false,
+                    e.getStatusCode().value(),
+                    e.getReason(),
+                    null
+            ));
+        }
+    }
+}
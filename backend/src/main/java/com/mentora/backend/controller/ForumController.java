@@ -1,5 +1,6 @@
 package com.mentora.backend.controller;
 
+import com.mentora.backend.dt.DtFanOutJob;
 import com.mentora.backend.dt.DtPost;
 import com.mentora.backend.requests.CreatePostRequest;
 import com.mentora.backend.service.ForumService;
@@ -93,5 +94,37 @@ public class ForumController {
             ));
         }
     }
-}
 
+    @Operation(
+            summary = "Estado de envío de un post",
+            description = "Devuelve el progreso de la distribución de notificaciones, push y mails de un post.",
+            security = @SecurityRequirement(name = "bearerAuth"))
+    @ApiResponse(responseCode = "200", description = "Estado de envío obtenido correctamente")
+    @ApiResponse(responseCode = "403", description = "Solo el autor puede ver el estado de envío")
+    @ApiResponse(responseCode = "404", description = "Post no encontrado")
+    @PreAuthorize("hasAnyRole('PROFESOR','ESTUDIANTE')")
+    @GetMapping("/{forumId}/posts/{postId}/delivery")
+    public ResponseEntity<DtApiResponse<DtFanOutJob>> getPostDelivery(
+            @PathVariable Long forumId,
+            @PathVariable Long postId,
+            Authentication authentication
+    ) {
+        try {
+            DtFanOutJob delivery = forumService.getPostDelivery(forumId, postId, authentication.getName());
+
+            return ResponseEntity.ok(new DtApiResponse<>(
+                true,
+                HttpStatus.OK.value(),
+                "Estado de envío obtenido correctamente",
+                delivery
+            ));
+        } catch (ResponseStatusException e) {
+            return ResponseEntity.status(e.getStatusCode()).body(new DtApiResponse<>(
+                false,
+                e.getStatusCode().value(),
+                e.getReason(),
+                null
+            ));
+        }
+    }
+}
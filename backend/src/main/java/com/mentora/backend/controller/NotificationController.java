@@ -1,6 +1,7 @@
 package com.mentora.backend.controller;
 
 import com.mentora.backend.dt.DtNotification;
+import com.mentora.backend.requests.MarkNotificationsReadRequest;
 import com.mentora.backend.responses.DtApiResponse;
 import com.mentora.backend.service.NotificationService;
 
@@ -63,20 +64,94 @@ public class NotificationController {
         }
     }
 
+    @Operation(
+            summary = "Marcar varias notificaciones como leídas",
+            description = "Marca como leídas las notificaciones indicadas, o todas las del usuario si no se envía ninguna. " +
+                    "Retorna la cantidad de notificaciones no leídas restantes.",
+            security = @SecurityRequirement(name = "bearerAuth")
+    )
+    @ApiResponse(responseCode = "200", description = "Notificaciones marcadas como leídas correctamente")
+    @ApiResponse(responseCode = "400", description = "Demasiadas notificaciones en la solicitud")
+    @ApiResponse(responseCode = "500", description = "Error interno del servidor")
+    @PostMapping("/read")
+    public ResponseEntity<DtApiResponse<Long>> markManyAsRead(
+        @RequestBody(required = false) MarkNotificationsReadRequest request,
+        Authentication authentication
+    ) {
+        try {
+            String userCi = authentication.getName();
+            long unread = notificationService.markManyAsRead(userCi, request != null ? request.getNotificationIds() : null);
+
+            return ResponseEntity.ok(new DtApiResponse<>(
+                    true,
+                    HttpStatus.OK.value(),
+                    "Notificaciones marcadas como leídas",
+                    unread
+            ));
+
+        } catch (ResponseStatusException e) {
+            return ResponseEntity.status(e.getStatusCode()).body(
+                    new DtApiResponse<>(
+                            false,
+                            e.getStatusCode().value(),
+                            e.getReason(),
+                            null
+                    )
+            );
+        }
+    }
+
+    @Operation(
+            summary = "Cantidad de notificaciones no leídas",
+            description = "Retorna la cantidad de notificaciones no leídas del usuario autenticado.",
+            security = @SecurityRequirement(name = "bearerAuth")
+    )
+    @ApiResponse(responseCode = "200", description = "Cantidad obtenida correctamente")
+    @ApiResponse(responseCode = "500", description = "Error interno del servidor")
+    @GetMapping("/unread-count")
+    public ResponseEntity<DtApiResponse<Long>> getUnreadCount(Authentication authentication) {
+        try {
+            long unread = notificationService.countUnread(authentication.getName());
+
+            return ResponseEntity.ok(new DtApiResponse<>(
+                    true,
+                    HttpStatus.OK.value(),
+                    "Cantidad de notificaciones no leídas obtenida correctamente",
+                    unread
+            ));
+
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(
+                    new DtApiResponse<>(
+                            false,
+                            HttpStatus.INTERNAL_SERVER_ERROR.value(),
+                            e.getMessage(),
+                            null
+                    )
+            );
+        }
+    }
+
     @Operation(
             summary = "Listar notificaciones del usuario",
-            description = "Retorna todas las notificaciones del usuario autenticado, ordenadas de más reciente a más antigua.",
+            description = "Retorna las notificaciones del usuario autenticado, ordenadas de más reciente a más antigua. " +
+                    "Sin 'limit' devuelve todas; 'after' es el id de la última notificación de la página anterior.",
             security = @SecurityRequirement(name = "bearerAuth")
     )
     @ApiResponse(responseCode = "200", description = "Listado obtenido correctamente")
+    @ApiResponse(responseCode = "400", description = "Cursor o límite inválido")
     @ApiResponse(responseCode = "403", description = "No autorizado")
     @ApiResponse(responseCode = "500", description = "Error interno del servidor")
     @GetMapping
-    public ResponseEntity<DtApiResponse<List<DtNotification>>> getUserNotifications(Authentication authentication) {
+    public ResponseEntity<DtApiResponse<List<DtNotification>>> getUserNotifications(
+        @RequestParam(required = false) String after,
+        @RequestParam(required = false) Integer limit,
+        Authentication authentication
+    ) {
         try {
             String userCi = authentication.getName();
 
-            List<DtNotification> notifications = notificationService.getUserNotifications(userCi);
+            List<DtNotification> notifications = notificationService.getUserNotifications(userCi, after, limit);
 
             return ResponseEntity.ok(new DtApiResponse<>(
                     true,
@@ -85,6 +160,15 @@ public class NotificationController {
                     notifications
             ));
 
+        } catch (ResponseStatusException e) {
+            return ResponseEntity.status(e.getStatusCode()).body(
+                    new DtApiResponse<>(
+                            false,
+                            e.getStatusCode().value(),
+                            e.getReason(),
+                            null
+                    )
+            );
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(
                     new DtApiResponse<>(
@@ -1,6 +1,7 @@
 package com.mentora.backend.controller;
 
 import com.mentora.backend.dt.DtQuiz;
+import com.mentora.backend.dt.DtQuizItemAnalysis;
 import com.mentora.backend.dt.DtQuizSubmission;
 import com.mentora.backend.requests.CreateQuizSubmissionRequest;
 import com.mentora.backend.requests.UpdateQuizRequest;
@@ -189,4 +190,35 @@ public class QuizController {
       ));
     }
   }
+
+  @Operation(
+    summary = "Análisis por ítem de un quiz",
+    description = "Cantidad de entregas que eligieron cada respuesta del quiz (solo profesores)",
+    security = @SecurityRequirement(name = "bearerAuth")
+  )
+  @ApiResponse(responseCode = "200", description = "Análisis obtenido")
+  @ApiResponse(responseCode = "403", description = "No tiene permisos")
+  @ApiResponse(responseCode = "404", description = "Quiz no encontrado")
+  @GetMapping("/{quizId}/analysis")
+  @PreAuthorize("hasRole('PROFESOR')")
+  public ResponseEntity<DtApiResponse<DtQuizItemAnalysis>> getItemAnalysis(
+      @PathVariable Long quizId
+  ) {
+    try {
+      DtQuizItemAnalysis analysis = quizService.getItemAnalysis(quizId);
+      return ResponseEntity.ok(new DtApiResponse<>(
+          true,
+          HttpStatus.OK.value(),
+          "Análisis obtenido",
+          analysis
+      ));
+    } catch (ResponseStatusException e) {
+      return ResponseEntity.status(e.getStatusCode()).body(new DtApiResponse<>(
+          false,
+          e.getStatusCode().value(),
+          e.getReason(),
+          null
+      ));
+    }
+  }
 }
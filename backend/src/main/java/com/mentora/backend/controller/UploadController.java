@@ -0,0 +1,70 @@
+package com.mentora.backend.controller;
+
+import com.mentora.backend.dt.DtUploadTicket;
+import com.mentora.backend.requests.CreateUploadRequest;
+import com.mentora.backend.responses.DtApiResponse;
+import com.mentora.backend.service.FileStorageService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+@RestController
+@RequestMapping("/uploads")
+@Tag(name = "Subidas", description = "Subida directa de archivos al almacenamiento")
+public class UploadController {
+
+    private final FileStorageService fileStorageService;
+
+    public UploadController(FileStorageService fileStorageService) {
+        this.fileStorageService = fileStorageService;
+    }
+
+    @Operation(
+            summary = "Solicitar URL de subida directa",
+            description = "Retorna una URL firmada para subir el archivo con PUT directamente al almacenamiento, " +
+                    "junto con los headers que deben enviarse. Luego se envía el uploadKey (y fileName) en lugar del archivo " +
+                    "al crear la entrega, el contenido, la evaluación o al editar la foto de perfil.",
+            security = @SecurityRequirement(name = "bearerAuth")
+    )
+    @ApiResponse(responseCode = "200", description = "URL de subida generada correctamente")
+    @ApiResponse(responseCode = "400", description = "Nombre o tamaño de archivo inválido")
+    @ApiResponse(responseCode = "500", description = "Error interno del servidor")
+    @PostMapping
+    public ResponseEntity<DtApiResponse<DtUploadTicket>> createUpload(
+        @RequestBody CreateUploadRequest request,
+        Authentication authentication
+    ) {
+        try {
+            DtUploadTicket ticket = fileStorageService.createUploadUrl(
+                    authentication.getName(),
+                    request.getFileName(),
+                    request.getContentType(),
+                    request.getSize()
+            );
+
+            return ResponseEntity.ok(new DtApiResponse<>(
+                    true,
+                    HttpStatus.OK.value(),
+                    "URL de subida generada correctamente",
+                    ticket
+            ));
+
+        } catch (ResponseStatusException e) {
+            return ResponseEntity.status(e.getStatusCode()).body(
+                    new DtApiResponse<>(
+                            false,
+                            e.getStatusCode().value(),
+                            e.getReason(),
+                            null
+                    )
+            );
+        }
+    }
+}
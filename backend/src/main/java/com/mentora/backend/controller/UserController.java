@@ -8,25 +8,14 @@ import com.mentora.backend.responses.BulkCreateUsersResponse;
 import com.mentora.backend.responses.DtApiResponse;
 import com.mentora.backend.service.UserService;
 import com.mentora.backend.service.DeviceTokenService;
+import com.mentora.backend.service.PendingItemsService;
 import com.mentora.backend.requests.RegisterDeviceTokenRequest;
 import com.opencsv.exceptions.CsvException;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.mentora.backend.requests.ResetPasswordRequest;
 import com.mentora.backend.requests.UpdateUserRequest;
 import com.mentora.backend.responses.GetPendingItemsResponse;
-import com.mentora.backend.dt.DtEvaluation;
-import com.mentora.backend.dt.DtQuiz;
-import com.mentora.backend.model.User;
-import com.mentora.backend.model.UserCourse;
-import com.mentora.backend.model.Evaluation;
-import com.mentora.backend.model.Quiz;
-import com.mentora.backend.repository.UserRepository;
-import com.mentora.backend.repository.UserCourseRepository;
-import com.mentora.backend.repository.EvaluationRepository;
-import com.mentora.backend.repository.EvaluationSubmissionRepository;
-import com.mentora.backend.repository.QuizRepository;
-import com.mentora.backend.repository.QuizSubmissionRepository;
-import com.mentora.backend.service.EvaluationService;
-import com.mentora.backend.service.QuizService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -39,16 +28,16 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.server.ResponseStatusException;
 import org.springframework.security.core.context.SecurityContextHolder;
 
 import org.springframework.format.annotation.DateTimeFormat;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.LocalDate;
-import java.time.LocalDateTime;
 import java.util.List;
-import java.util.ArrayList;
 
 import io.swagger.v3.oas.annotations.tags.Tag;
 
@@ -58,38 +47,20 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 public class UserController {
 
     private final UserService userService;
-    private final UserRepository userRepository;
-    private final UserCourseRepository userCourseRepository;
-    private final EvaluationRepository evaluationRepository;
-    private final EvaluationSubmissionRepository evaluationSubmissionRepository;
-    private final QuizRepository quizRepository;
-    private final QuizSubmissionRepository quizSubmissionRepository;
-    private final EvaluationService evaluationService;
-    private final QuizService quizService;
+    private final PendingItemsService pendingItemsService;
     private final DeviceTokenService deviceTokenService;
+    private final ObjectMapper objectMapper;
 
     public UserController(
             UserService userService,
-            UserRepository userRepository,
-            UserCourseRepository userCourseRepository,
-            EvaluationRepository evaluationRepository,
-            EvaluationSubmissionRepository evaluationSubmissionRepository,
-            QuizRepository quizRepository,
-            QuizSubmissionRepository quizSubmissionRepository,
-            EvaluationService evaluationService,
-            QuizService quizService,
-            DeviceTokenService deviceTokenService
+            PendingItemsService pendingItemsService,
+            DeviceTokenService deviceTokenService,
+            ObjectMapper objectMapper
     ) {
         this.userService = userService;
-        this.userRepository = userRepository;
-        this.userCourseRepository = userCourseRepository;
-        this.evaluationRepository = evaluationRepository;
-        this.evaluationSubmissionRepository = evaluationSubmissionRepository;
-        this.quizRepository = quizRepository;
-        this.quizSubmissionRepository = quizSubmissionRepository;
-        this.evaluationService = evaluationService;
-        this.quizService = quizService;
+        this.pendingItemsService = pendingItemsService;
         this.deviceTokenService = deviceTokenService;
+        this.objectMapper = objectMapper;
     }
 
     @Operation(
@@ -214,42 +185,7 @@ public class UserController {
     public ResponseEntity<DtApiResponse<GetPendingItemsResponse>> getPendingForUser() {
         try {
             String userCi = SecurityContextHolder.getContext().getAuthentication().getName();
-            User user = userRepository.findById(userCi)
-                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Usuario no encontrado"));
-
-            List<UserCourse> enrollments = userCourseRepository.findAllByUser(user);
-            LocalDateTime now = LocalDateTime.now();
-
-            List<DtEvaluation> pendingEvaluations = new ArrayList<>();
-            List<DtQuiz> pendingQuizzes = new ArrayList<>();
-
-            for (UserCourse uc : enrollments) {
-                String courseId = uc.getCourse().getId();
-
-                // Evaluaciones pendientes
-                List<Evaluation> evaluations = evaluationRepository.findByCourse_IdOrderByCreatedDateAsc(courseId);
-                for (Evaluation ev : evaluations) {
-                    boolean notExpired = ev.getDueDate() == null || ev.getDueDate().isAfter(now);
-                    if (!notExpired) continue;
-                    boolean hasSubmission = !evaluationSubmissionRepository.findByEvaluationIdAndAuthorCi(ev.getId(), userCi).isEmpty();
-                    if (!hasSubmission) {
-                        pendingEvaluations.add(evaluationService.getDtEvaluation(ev));
-                    }
-                }
-
-                // Quizzes pendientes
-                List<Quiz> quizzes = quizRepository.findByCourse_IdOrderByCreatedDateAsc(courseId);
-                for (Quiz q : quizzes) {
-                    boolean notExpired = q.getDueDate() == null || q.getDueDate().isAfter(now);
-                    if (!notExpired) continue;
-                    boolean hasSubmission = !quizSubmissionRepository.findByQuizIdAndAuthorCi(q.getId(), userCi).isEmpty();
-                    if (!hasSubmission) {
-                        pendingQuizzes.add(quizService.getDtQuiz(q));
-                    }
-                }
-            }
-
-            GetPendingItemsResponse payload = new GetPendingItemsResponse(pendingEvaluations, pendingQuizzes);
+            GetPendingItemsResponse payload = pendingItemsService.getPendingItems(userCi);
             return ResponseEntity.ok(new DtApiResponse<>(
                     true,
                     HttpStatus.OK.value(),
@@ -299,11 +235,13 @@ public class UserController {
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
     @Operation(summary = "Listar usuarios",
-            description = "Devuelve todos los usuarios del sistema. Solo administradores.",
+            description = "Devuelve los usuarios del sistema. Sin 'limit' se devuelven todos en una respuesta en streaming; " +
+                    "con 'limit' se pagina y 'after' es la CI del último usuario de la página anterior. Solo administradores.",
             security = @SecurityRequirement(name = "bearerAuth"))
     @ApiResponse(responseCode = "200", description = "Usuarios listados exitosamente")
+    @ApiResponse(responseCode = "400", description = "Cursor o límite inválido")
     @ApiResponse(responseCode = "403", description = "Acceso denegado")
-    public ResponseEntity<DtApiResponse<List<DtUser>>> listUsers(
+    public ResponseEntity<?> listUsers(
             @Parameter(
                     description = "Orden de listado",
                     schema = @Schema(allowableValues = {"name_asc", "name_desc", "ci_asc", "ci_desc"})
@@ -313,10 +251,38 @@ public class UserController {
                     description = "Filtro por rol",
                     schema = @Schema(allowableValues = {"todos", "administradores", "profesores", "estudiantes"})
             )
-            @RequestParam(required = false) String filter) {
+            @RequestParam(required = false) String filter,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit) {
+
+        if (limit == null && after == null) {
+            // Se escribe el mismo envoltorio DtApiResponse, página a página
+            StreamingResponseBody body = out -> {
+                try (JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+                    json.writeStartObject();
+                    json.writeBooleanField("success", true);
+                    json.writeNumberField("status", HttpStatus.OK.value());
+                    json.writeStringField("message", "Usuarios listados correctamente");
+                    json.writeArrayFieldStart("data");
+                    userService.streamUsers(order, filter, page -> {
+                        try {
+                            for (DtUser user : page) {
+                                json.writeObject(user);
+                            }
+                            json.flush();
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+                    json.writeEndArray();
+                    json.writeEndObject();
+                }
+            };
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+        }
 
         try {
-            List<DtUser> users = userService.getUsers(order, filter);
+            List<DtUser> users = userService.getUsers(order, filter, after, limit);
 
             return ResponseEntity.ok(new DtApiResponse<>(
                 true,
@@ -1,10 +1,15 @@
 package com.mentora.backend.dt;
 
+import java.time.LocalDateTime;
+
 public class DtChat {
 
     private Long id;
     private DtUser participant1;
     private DtUser participant2;
+    private DtMessage lastMessage;
+    private LocalDateTime lastActivityAt;
+    private Long unreadCount;
 
     public DtChat() {}
 
@@ -14,6 +19,13 @@ public class DtChat {
         this.participant2 = participant2;
     }
 
+    public DtChat(Long id, DtUser participant1, DtUser participant2, DtMessage lastMessage, LocalDateTime lastActivityAt, Long unreadCount) {
+        this(id, participant1, participant2);
+        this.lastMessage = lastMessage;
+        this.lastActivityAt = lastActivityAt;
+        this.unreadCount = unreadCount;
+    }
+
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
 
@@ -22,4 +34,13 @@ public class DtChat {
 
     public DtUser getParticipant2() { return participant2; }
     public void setParticipant2(DtUser participant2) { this.participant2 = participant2; }
+
+    public DtMessage getLastMessage() { return lastMessage; }
+    public void setLastMessage(DtMessage lastMessage) { this.lastMessage = lastMessage; }
+
+    public LocalDateTime getLastActivityAt() { return lastActivityAt; }
+    public void setLastActivityAt(LocalDateTime lastActivityAt) { this.lastActivityAt = lastActivityAt; }
+
+    public Long getUnreadCount() { return unreadCount; }
+    public void setUnreadCount(Long unreadCount) { this.unreadCount = unreadCount; }
 }
@@ -0,0 +1,10 @@
+package com.mentora.backend.dt;
+
+import java.time.LocalDateTime;
+
+// Elemento de la línea de tiempo de un curso (contenido simple, evaluación o quiz)
+public interface DtCourseContent {
+    Long getId();
+    LocalDateTime getCreatedDate();
+    String getType();
+}
@@ -0,0 +1,69 @@
+package com.mentora.backend.dt;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class DtEnrollmentJob {
+    private String id;
+    private String courseId;
+    private String status;
+    private Integer total;
+    private Integer processed;
+    private Integer enrolled;
+    private List<String> alreadyEnrolled;
+    private List<String> notFound;
+    private String error;
+    private LocalDateTime createdDate;
+    private LocalDateTime finishedDate;
+
+    public DtEnrollmentJob() {}
+
+    public DtEnrollmentJob(String id, String courseId, String status, Integer total, Integer processed, Integer enrolled,
+                           List<String> alreadyEnrolled, List<String> notFound, String error,
+                           LocalDateTime createdDate, LocalDateTime finishedDate) {
+        this.id = id;
+        this.courseId = courseId;
+        this.status = status;
+        this.total = total;
+        this.processed = processed;
+        this.enrolled = enrolled;
+        this.alreadyEnrolled = alreadyEnrolled;
+        this.notFound = notFound;
+        this.error = error;
+        this.createdDate = createdDate;
+        this.finishedDate = finishedDate;
+    }
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public String getCourseId() { return courseId; }
+    public void setCourseId(String courseId) { this.courseId = courseId; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public Integer getTotal() { return total; }
+    public void setTotal(Integer total) { this.total = total; }
+
+    public Integer getProcessed() { return processed; }
+    public void setProcessed(Integer processed) { this.processed = processed; }
+
+    public Integer getEnrolled() { return enrolled; }
+    public void setEnrolled(Integer enrolled) { this.enrolled = enrolled; }
+
+    public List<String> getAlreadyEnrolled() { return alreadyEnrolled; }
+    public void setAlreadyEnrolled(List<String> alreadyEnrolled) { this.alreadyEnrolled = alreadyEnrolled; }
+
+    public List<String> getNotFound() { return notFound; }
+    public void setNotFound(List<String> notFound) { this.notFound = notFound; }
+
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+
+    public LocalDateTime getCreatedDate() { return createdDate; }
+    public void setCreatedDate(LocalDateTime createdDate) { this.createdDate = createdDate; }
+
+    public LocalDateTime getFinishedDate() { return finishedDate; }
+    public void setFinishedDate(LocalDateTime finishedDate) { this.finishedDate = finishedDate; }
+}
@@ -2,7 +2,7 @@ package com.mentora.backend.dt;
 
 import java.time.LocalDateTime;
 
-public class DtEvaluation {
+public class DtEvaluation implements DtCourseContent {
     private Long id;
     private String title;
     private String content;
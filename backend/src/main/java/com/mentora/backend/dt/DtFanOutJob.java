@@ -0,0 +1,73 @@
+package com.mentora.backend.dt;
+
+import java.time.LocalDateTime;
+
+public class DtFanOutJob {
+    private Long id;
+    private Long postId;
+    private String status;
+    private Integer recipients;
+    private Integer notificationsCreated;
+    private Integer pushSent;
+    private Integer pushFailed;
+    private Integer emailsSent;
+    private Integer emailsFailed;
+    private String lastError;
+    private LocalDateTime createdDate;
+    private LocalDateTime completedAt;
+
+    public DtFanOutJob() {}
+
+    public DtFanOutJob(Long id, Long postId, String status, Integer recipients, Integer notificationsCreated,
+                       Integer pushSent, Integer pushFailed, Integer emailsSent, Integer emailsFailed,
+                       String lastError, LocalDateTime createdDate, LocalDateTime completedAt) {
+        this.id = id;
+        this.postId = postId;
+        this.status = status;
+        this.recipients = recipients;
+        this.notificationsCreated = notificationsCreated;
+        this.pushSent = pushSent;
+        this.pushFailed = pushFailed;
+        this.emailsSent = emailsSent;
+        this.emailsFailed = emailsFailed;
+        this.lastError = lastError;
+        this.createdDate = createdDate;
+        this.completedAt = completedAt;
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getPostId() { return postId; }
+    public void setPostId(Long postId) { this.postId = postId; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public Integer getRecipients() { return recipients; }
+    public void setRecipients(Integer recipients) { this.recipients = recipients; }
+
+    public Integer getNotificationsCreated() { return notificationsCreated; }
+    public void setNotificationsCreated(Integer notificationsCreated) { this.notificationsCreated = notificationsCreated; }
+
+    public Integer getPushSent() { return pushSent; }
+    public void setPushSent(Integer pushSent) { this.pushSent = pushSent; }
+
+    public Integer getPushFailed() { return pushFailed; }
+    public void setPushFailed(Integer pushFailed) { this.pushFailed = pushFailed; }
+
+    public Integer getEmailsSent() { return emailsSent; }
+    public void setEmailsSent(Integer emailsSent) { this.emailsSent = emailsSent; }
+
+    public Integer getEmailsFailed() { return emailsFailed; }
+    public void setEmailsFailed(Integer emailsFailed) { this.emailsFailed = emailsFailed; }
+
+    public String getLastError() { return lastError; }
+    public void setLastError(String lastError) { this.lastError = lastError; }
+
+    public LocalDateTime getCreatedDate() { return createdDate; }
+    public void setCreatedDate(LocalDateTime createdDate) { this.createdDate = createdDate; }
+
+    public LocalDateTime getCompletedAt() { return completedAt; }
+    public void setCompletedAt(LocalDateTime completedAt) { this.completedAt = completedAt; }
+}
@@ -0,0 +1,21 @@
+package com.mentora.backend.dt;
+
+import java.util.List;
+
+public class DtGradebook {
+    private String courseId;
+    private List<DtGradebookItem> items;
+    private List<DtGradebookRow> students;
+
+    public DtGradebook() {}
+
+    public DtGradebook(String courseId, List<DtGradebookItem> items, List<DtGradebookRow> students) {
+        this.courseId = courseId;
+        this.items = items;
+        this.students = students;
+    }
+
+    public String getCourseId() { return courseId; }
+    public List<DtGradebookItem> getItems() { return items; }
+    public List<DtGradebookRow> getStudents() { return students; }
+}
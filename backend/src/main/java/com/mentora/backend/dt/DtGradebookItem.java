@@ -0,0 +1,19 @@
+package com.mentora.backend.dt;
+
+public class DtGradebookItem {
+    private String type;
+    private Long id;
+    private String title;
+
+    public DtGradebookItem() {}
+
+    public DtGradebookItem(String type, Long id, String title) {
+        this.type = type;
+        this.id = id;
+        this.title = title;
+    }
+
+    public String getType() { return type; }
+    public Long getId() { return id; }
+    public String getTitle() { return title; }
+}
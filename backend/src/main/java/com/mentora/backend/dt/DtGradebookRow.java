@@ -0,0 +1,27 @@
+package com.mentora.backend.dt;
+
+import java.util.List;
+
+public class DtGradebookRow {
+    private String ci;
+    private String name;
+    // Alineadas con los ítems del gradebook; null si no hay nota
+    private List<Integer> grades;
+    private Integer finalGrade;
+
+    public DtGradebookRow() {}
+
+    public DtGradebookRow(String ci, String name) {
+        this.ci = ci;
+        this.name = name;
+    }
+
+    public String getCi() { return ci; }
+    public String getName() { return name; }
+
+    public List<Integer> getGrades() { return grades; }
+    public void setGrades(List<Integer> grades) { this.grades = grades; }
+
+    public Integer getFinalGrade() { return finalGrade; }
+    public void setFinalGrade(Integer finalGrade) { this.finalGrade = finalGrade; }
+}
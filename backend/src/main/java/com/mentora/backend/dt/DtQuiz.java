@@ -2,7 +2,7 @@ package com.mentora.backend.dt;
 
 import java.time.LocalDateTime;
 
-public class DtQuiz {
+public class DtQuiz implements DtCourseContent {
     private Long id;
     private String title;
     private LocalDateTime dueDate;
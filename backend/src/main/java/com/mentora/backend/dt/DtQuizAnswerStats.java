@@ -0,0 +1,30 @@
+package com.mentora.backend.dt;
+
+public class DtQuizAnswerStats {
+    private Long questionId;
+    private String question;
+    private Long answerId;
+    private String answer;
+    private Boolean correct;
+    private Long selections;
+
+    public DtQuizAnswerStats() {}
+
+    public DtQuizAnswerStats(Long questionId, String question, Long answerId, String answer, Boolean correct) {
+        this.questionId = questionId;
+        this.question = question;
+        this.answerId = answerId;
+        this.answer = answer;
+        this.correct = correct;
+        this.selections = 0L;
+    }
+
+    public Long getQuestionId() { return questionId; }
+    public String getQuestion() { return question; }
+    public Long getAnswerId() { return answerId; }
+    public String getAnswer() { return answer; }
+    public Boolean getCorrect() { return correct; }
+
+    public Long getSelections() { return selections; }
+    public void setSelections(Long selections) { this.selections = selections; }
+}
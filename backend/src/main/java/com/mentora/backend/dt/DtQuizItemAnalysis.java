@@ -0,0 +1,21 @@
+package com.mentora.backend.dt;
+
+import java.util.List;
+
+public class DtQuizItemAnalysis {
+    private Long quizId;
+    private Long submissions;
+    private List<DtQuizAnswerStats> answers;
+
+    public DtQuizItemAnalysis() {}
+
+    public DtQuizItemAnalysis(Long quizId, Long submissions, List<DtQuizAnswerStats> answers) {
+        this.quizId = quizId;
+        this.submissions = submissions;
+        this.answers = answers;
+    }
+
+    public Long getQuizId() { return quizId; }
+    public Long getSubmissions() { return submissions; }
+    public List<DtQuizAnswerStats> getAnswers() { return answers; }
+}
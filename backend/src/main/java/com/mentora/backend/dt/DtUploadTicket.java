@@ -0,0 +1,26 @@
+package com.mentora.backend.dt;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+public class DtUploadTicket {
+    private String uploadKey;
+    private String uploadUrl;
+    private String method;
+    private Map<String, String> headers;
+    private LocalDateTime expiresAt;
+
+    public DtUploadTicket(String uploadKey, String uploadUrl, String method, Map<String, String> headers, LocalDateTime expiresAt) {
+        this.uploadKey = uploadKey;
+        this.uploadUrl = uploadUrl;
+        this.method = method;
+        this.headers = headers;
+        this.expiresAt = expiresAt;
+    }
+
+    public String getUploadKey() { return uploadKey; }
+    public String getUploadUrl() { return uploadUrl; }
+    public String getMethod() { return method; }
+    public Map<String, String> getHeaders() { return headers; }
+    public LocalDateTime getExpiresAt() { return expiresAt; }
+}
@@ -18,6 +18,11 @@ public class Chat {
     @JoinColumn(name = "participant2Id", referencedColumnName = "ci")
     private User participant2Id;
 
+    // Último mensaje leído por cada participante; los posteriores del otro cuentan como no leídos.
+    // Los chats nuevos arrancan en 0; NULL solo queda en chats previos al cursor hasta que se completan al iniciar
+    private Long participant1LastReadMessageId = 0L;
+    private Long participant2LastReadMessageId = 0L;
+
     public Chat() {}
 
     public Chat(User participant1Id, User participant2Id) {
@@ -33,4 +38,10 @@ public class Chat {
 
     public User getParticipant2Id() { return participant2Id; }
     public void setParticipant2Id(User participant2Id) { this.participant2Id = participant2Id; }
+
+    public Long getParticipant1LastReadMessageId() { return participant1LastReadMessageId; }
+    public void setParticipant1LastReadMessageId(Long participant1LastReadMessageId) { this.participant1LastReadMessageId = participant1LastReadMessageId; }
+
+    public Long getParticipant2LastReadMessageId() { return participant2LastReadMessageId; }
+    public void setParticipant2LastReadMessageId(Long participant2LastReadMessageId) { this.participant2LastReadMessageId = participant2LastReadMessageId; }
 }
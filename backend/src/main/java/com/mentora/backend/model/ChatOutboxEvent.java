@@ -0,0 +1,127 @@
+package com.mentora.backend.model;
+
+import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Efectos secundarios de un mensaje de chat (notificación y mail), guardados en la misma transacción que el mensaje
+@Entity
+@Table(name = "chat_outbox", indexes = {
+    @Index(name = "idx_chat_outbox_status_next", columnList = "status, nextAttemptAt"),
+    @Index(name = "idx_chat_outbox_chat_recipient_email", columnList = "chatId, recipientCi, emailSentAt"),
+    @Index(name = "idx_chat_outbox_claim", columnList = "claimToken")
+})
+public class ChatOutboxEvent implements Persistable<String> {
+
+    @Id
+    private String id = UUID.randomUUID().toString();
+
+    @Column(nullable = false)
+    private Long messageId;
+
+    @Column(nullable = false)
+    private Long chatId;
+
+    @Column(nullable = false)
+    private String senderName;
+
+    @Column(nullable = false)
+    private String recipientCi;
+
+    @Column(nullable = false)
+    private String recipientEmail;
+
+    @Column(nullable = false)
+    private String messageText;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private ChatOutboxStatus status = ChatOutboxStatus.PENDING;
+
+    @Column(nullable = false)
+    private Integer attempts = 0;
+
+    @Column(nullable = false)
+    private LocalDateTime nextAttemptAt = LocalDateTime.now();
+
+    private LocalDateTime lockedAt;
+
+    // Token del poll que tomó el evento; identifica lo tomado aunque dos relays coincidan en lockedAt
+    @Column(length = 36)
+    private String claimToken;
+
+    // Pasos ya hechos, para no repetirlos si el evento se reintenta
+    private LocalDateTime notifiedAt;
+    private LocalDateTime emailSentAt;
+
+    @Column(length = 1024)
+    private String lastError;
+
+    @Column(nullable = false)
+    private LocalDateTime createdDate = LocalDateTime.now();
+
+    private LocalDateTime processedAt;
+
+    // El id se asigna en memoria; sin esto save() hace un SELECT previo
+    @Transient
+    private boolean isNew = true;
+
+    public ChatOutboxEvent() {}
+
+    public ChatOutboxEvent(Long messageId, Long chatId, String senderName, String recipientCi, String recipientEmail, String messageText) {
+        this.messageId = messageId;
+        this.chatId = chatId;
+        this.senderName = senderName;
+        this.recipientCi = recipientCi;
+        this.recipientEmail = recipientEmail;
+        this.messageText = messageText;
+        this.createdDate = LocalDateTime.now();
+        this.nextAttemptAt = this.createdDate;
+    }
+
+    @Override
+    public String getId() { return id; }
+
+    @Override
+    public boolean isNew() { return isNew; }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() { this.isNew = false; }
+
+    public Long getMessageId() { return messageId; }
+    public Long getChatId() { return chatId; }
+    public String getSenderName() { return senderName; }
+    public String getRecipientCi() { return recipientCi; }
+    public String getRecipientEmail() { return recipientEmail; }
+    public String getMessageText() { return messageText; }
+
+    public ChatOutboxStatus getStatus() { return status; }
+    public void setStatus(ChatOutboxStatus status) { this.status = status; }
+
+    public Integer getAttempts() { return attempts; }
+    public void setAttempts(Integer attempts) { this.attempts = attempts; }
+
+    public LocalDateTime getNextAttemptAt() { return nextAttemptAt; }
+    public void setNextAttemptAt(LocalDateTime nextAttemptAt) { this.nextAttemptAt = nextAttemptAt; }
+
+    public LocalDateTime getLockedAt() { return lockedAt; }
+
+    public String getClaimToken() { return claimToken; }
+
+    public LocalDateTime getNotifiedAt() { return notifiedAt; }
+    public void setNotifiedAt(LocalDateTime notifiedAt) { this.notifiedAt = notifiedAt; }
+
+    public LocalDateTime getEmailSentAt() { return emailSentAt; }
+    public void setEmailSentAt(LocalDateTime emailSentAt) { this.emailSentAt = emailSentAt; }
+
+    public String getLastError() { return lastError; }
+    public void setLastError(String lastError) { this.lastError = lastError; }
+
+    public LocalDateTime getCreatedDate() { return createdDate; }
+
+    public LocalDateTime getProcessedAt() { return processedAt; }
+    public void setProcessedAt(LocalDateTime processedAt) { this.processedAt = processedAt; }
+}
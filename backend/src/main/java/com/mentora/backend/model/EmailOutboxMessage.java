@@ -0,0 +1,103 @@
+package com.mentora.backend.model;
+
+import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Mail pendiente de envío; los que agotan los reintentos quedan en DEAD con el último error
+@Entity
+@Table(name = "email_outbox", indexes = {
+    @Index(name = "idx_email_outbox_status_next", columnList = "status, nextAttemptAt"),
+    @Index(name = "idx_email_outbox_status_created", columnList = "status, createdDate"),
+    @Index(name = "idx_email_outbox_claim", columnList = "claimToken")
+})
+public class EmailOutboxMessage implements Persistable<String> {
+
+    @Id
+    private String id = UUID.randomUUID().toString();
+
+    @Column(nullable = false)
+    private String recipient;
+
+    @Column(nullable = false, length = 998)
+    private String subject;
+
+    @Column(nullable = false, columnDefinition = "LONGTEXT")
+    private String body;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private EmailOutboxStatus status = EmailOutboxStatus.PENDING;
+
+    @Column(nullable = false)
+    private Integer attempts = 0;
+
+    @Column(nullable = false)
+    private LocalDateTime nextAttemptAt = LocalDateTime.now();
+
+    private LocalDateTime lockedAt;
+
+    // Token del poll que tomó el mail; identifica lo tomado aunque dos instancias coincidan en lockedAt
+    @Column(length = 36)
+    private String claimToken;
+
+    @Column(length = 1024)
+    private String lastError;
+
+    @Column(nullable = false)
+    private LocalDateTime createdDate = LocalDateTime.now();
+
+    private LocalDateTime sentAt;
+
+    // El id se asigna en memoria; sin esto save() hace un SELECT previo y no se agrupan los inserts
+    @Transient
+    private boolean isNew = true;
+
+    public EmailOutboxMessage() {}
+
+    public EmailOutboxMessage(String recipient, String subject, String body) {
+        this.recipient = recipient;
+        this.subject = subject;
+        this.body = body;
+        this.status = EmailOutboxStatus.PENDING;
+        this.createdDate = LocalDateTime.now();
+        this.nextAttemptAt = this.createdDate;
+    }
+
+    @Override
+    public String getId() { return id; }
+
+    @Override
+    public boolean isNew() { return isNew; }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() { this.isNew = false; }
+
+    public String getRecipient() { return recipient; }
+    public String getSubject() { return subject; }
+    public String getBody() { return body; }
+
+    public EmailOutboxStatus getStatus() { return status; }
+    public void setStatus(EmailOutboxStatus status) { this.status = status; }
+
+    public Integer getAttempts() { return attempts; }
+    public void setAttempts(Integer attempts) { this.attempts = attempts; }
+
+    public LocalDateTime getNextAttemptAt() { return nextAttemptAt; }
+    public void setNextAttemptAt(LocalDateTime nextAttemptAt) { this.nextAttemptAt = nextAttemptAt; }
+
+    public LocalDateTime getLockedAt() { return lockedAt; }
+
+    public String getClaimToken() { return claimToken; }
+
+    public String getLastError() { return lastError; }
+    public void setLastError(String lastError) { this.lastError = lastError; }
+
+    public LocalDateTime getCreatedDate() { return createdDate; }
+
+    public LocalDateTime getSentAt() { return sentAt; }
+    public void setSentAt(LocalDateTime sentAt) { this.sentAt = sentAt; }
+}
@@ -0,0 +1,8 @@
+package com.mentora.backend.model;
+
+public enum EmailOutboxStatus {
+    PENDING,
+    SENDING,
+    SENT,
+    DEAD
+}
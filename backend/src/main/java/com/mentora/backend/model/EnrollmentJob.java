@@ -0,0 +1,118 @@
+package com.mentora.backend.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+// Matriculación masiva en segundo plano; guarda la entrada y el avance para que cualquier instancia
+// la informe y la retome si la que la procesaba se cae
+@Entity
+@Table(name = "enrollment_jobs", indexes = {
+    @Index(name = "idx_enrollment_jobs_status_created", columnList = "status, createdDate"),
+    @Index(name = "idx_enrollment_jobs_status_progress", columnList = "status, lastProgressAt")
+})
+public class EnrollmentJob {
+
+    private static final String SEPARATOR = "\n";
+
+    @Id
+    private String id = UUID.randomUUID().toString();
+
+    // Lo incrementan también claim/reclaim: el worker que perdió el job falla al guardar su avance
+    @Version
+    private Long version;
+
+    @Column(nullable = false)
+    private String courseId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private EnrollmentJobStatus status = EnrollmentJobStatus.PENDING;
+
+    // CIs pedidas, en orden, separadas por salto de línea
+    @Column(nullable = false, columnDefinition = "LONGTEXT")
+    private String cis;
+
+    @Column(nullable = false)
+    private Integer total = 0;
+
+    @Column(nullable = false)
+    private Integer processed = 0;
+
+    @Column(nullable = false)
+    private Integer enrolled = 0;
+
+    @Column(columnDefinition = "LONGTEXT")
+    private String alreadyEnrolled;
+
+    @Column(columnDefinition = "LONGTEXT")
+    private String notFound;
+
+    @Column(length = 1024)
+    private String lastError;
+
+    @Column(nullable = false)
+    private LocalDateTime createdDate = LocalDateTime.now();
+
+    private LocalDateTime lastProgressAt;
+
+    private LocalDateTime finishedDate;
+
+    public EnrollmentJob() {}
+
+    public EnrollmentJob(String courseId, List<String> cis) {
+        this.courseId = courseId;
+        this.cis = String.join(SEPARATOR, cis);
+        this.total = cis.size();
+        this.status = EnrollmentJobStatus.PENDING;
+        this.createdDate = LocalDateTime.now();
+    }
+
+    public String getId() { return id; }
+    public String getCourseId() { return courseId; }
+
+    public EnrollmentJobStatus getStatus() { return status; }
+    public void setStatus(EnrollmentJobStatus status) { this.status = status; }
+
+    public List<String> getCis() { return split(cis); }
+
+    public Integer getTotal() { return total; }
+    public Integer getProcessed() { return processed; }
+    public Integer getEnrolled() { return enrolled; }
+    public List<String> getAlreadyEnrolled() { return split(alreadyEnrolled); }
+    public List<String> getNotFound() { return split(notFound); }
+
+    public String getLastError() { return lastError; }
+    public void setLastError(String lastError) { this.lastError = lastError; }
+
+    public LocalDateTime getCreatedDate() { return createdDate; }
+
+    public LocalDateTime getLastProgressAt() { return lastProgressAt; }
+
+    public LocalDateTime getFinishedDate() { return finishedDate; }
+    public void setFinishedDate(LocalDateTime finishedDate) { this.finishedDate = finishedDate; }
+
+    // Suma el resultado de un lote ya insertado
+    public void record(int processed, int enrolled, List<String> alreadyEnrolled, List<String> notFound, LocalDateTime now) {
+        this.processed += processed;
+        this.enrolled += enrolled;
+        this.alreadyEnrolled = append(this.alreadyEnrolled, alreadyEnrolled);
+        this.notFound = append(this.notFound, notFound);
+        this.lastProgressAt = now;
+    }
+
+    private static String append(String current, List<String> values) {
+        if (values.isEmpty()) return current;
+        String joined = String.join(SEPARATOR, values);
+        return current == null || current.isEmpty() ? joined : current + SEPARATOR + joined;
+    }
+
+    private static List<String> split(String value) {
+        if (value == null || value.isEmpty()) return new ArrayList<>();
+        return new ArrayList<>(Arrays.asList(value.split(SEPARATOR, -1)));
+    }
+}
@@ -0,0 +1,8 @@
+package com.mentora.backend.model;
+
+public enum EnrollmentJobStatus {
+    PENDING,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
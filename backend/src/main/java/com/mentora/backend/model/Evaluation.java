@@ -4,7 +4,9 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "Evaluation")
+@Table(name = "Evaluation", indexes = {
+  @Index(name = "idx_evaluation_course_created", columnList = "courseId, createdDate, id")
+})
 public class Evaluation {
   @Id
   @GeneratedValue(strategy = GenerationType.IDENTITY)
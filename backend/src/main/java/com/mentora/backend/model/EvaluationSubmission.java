@@ -3,7 +3,9 @@ package com.mentora.backend.model;
 import jakarta.persistence.*;
 
 @Entity
-@Table(name = "EvaluationSubmission")
+@Table(name = "EvaluationSubmission", indexes = {
+    @Index(name = "idx_evaluation_submission_eval_author", columnList = "evaluation_id, authorCi")
+})
 public class EvaluationSubmission {
 
     @Id
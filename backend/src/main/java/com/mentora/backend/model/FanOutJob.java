@@ -0,0 +1,137 @@
+package com.mentora.backend.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// Evento de publicación pendiente de distribuir a los estudiantes de un curso
+@Entity
+@Table(name = "fan_out_jobs", indexes = {
+    @Index(name = "idx_fan_out_jobs_status_created", columnList = "status, createdDate"),
+    @Index(name = "idx_fan_out_jobs_post", columnList = "postId")
+})
+public class FanOutJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Lo incrementan también claim/reclaim/failStale: un worker que perdió el job falla al guardar su avance
+    @Version
+    @Column(columnDefinition = "bigint default 0 not null")
+    private Long version;
+
+    @Column(nullable = false)
+    private String courseId;
+
+    @Column(nullable = false)
+    private Long postId;
+
+    // Texto de la notificación y asunto del mail
+    @Column(nullable = false, length = 255)
+    private String message;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String emailBody;
+
+    @Column(nullable = false)
+    private String link;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private FanOutStatus status = FanOutStatus.PENDING;
+
+    @Column(nullable = false)
+    private Integer attempts = 0;
+
+    @Column(nullable = false)
+    private Integer recipients = 0;
+
+    @Column(nullable = false)
+    private Integer notificationsCreated = 0;
+
+    @Column(nullable = false)
+    private Integer pushSent = 0;
+
+    @Column(nullable = false)
+    private Integer pushFailed = 0;
+
+    @Column(nullable = false)
+    private Integer emailsSent = 0;
+
+    @Column(nullable = false)
+    private Integer emailsFailed = 0;
+
+    // Última CI ya notificada; al retomar el job se sigue desde la siguiente
+    private String lastRecipientCi;
+
+    @Column(length = 1024)
+    private String lastError;
+
+    @Column(nullable = false)
+    private LocalDateTime createdDate = LocalDateTime.now();
+
+    private LocalDateTime startedAt;
+
+    private LocalDateTime lastProgressAt;
+
+    private LocalDateTime completedAt;
+
+    public FanOutJob() {}
+
+    public FanOutJob(String courseId, Long postId, String message, String emailBody, String link) {
+        this.courseId = courseId;
+        this.postId = postId;
+        this.message = message;
+        this.emailBody = emailBody;
+        this.link = link;
+        this.status = FanOutStatus.PENDING;
+        this.createdDate = LocalDateTime.now();
+    }
+
+    public Long getId() { return id; }
+
+    public String getCourseId() { return courseId; }
+    public Long getPostId() { return postId; }
+    public String getMessage() { return message; }
+    public String getEmailBody() { return emailBody; }
+    public String getLink() { return link; }
+
+    public FanOutStatus getStatus() { return status; }
+    public void setStatus(FanOutStatus status) { this.status = status; }
+
+    public Integer getAttempts() { return attempts; }
+
+    public Integer getRecipients() { return recipients; }
+    public void setRecipients(Integer recipients) { this.recipients = recipients; }
+
+    public Integer getNotificationsCreated() { return notificationsCreated; }
+    public void setNotificationsCreated(Integer notificationsCreated) { this.notificationsCreated = notificationsCreated; }
+
+    public Integer getPushSent() { return pushSent; }
+    public void setPushSent(Integer pushSent) { this.pushSent = pushSent; }
+
+    public Integer getPushFailed() { return pushFailed; }
+    public void setPushFailed(Integer pushFailed) { this.pushFailed = pushFailed; }
+
+    public Integer getEmailsSent() { return emailsSent; }
+    public void setEmailsSent(Integer emailsSent) { this.emailsSent = emailsSent; }
+
+    public Integer getEmailsFailed() { return emailsFailed; }
+    public void setEmailsFailed(Integer emailsFailed) { this.emailsFailed = emailsFailed; }
+
+    public String getLastRecipientCi() { return lastRecipientCi; }
+    public void setLastRecipientCi(String lastRecipientCi) { this.lastRecipientCi = lastRecipientCi; }
+
+    public String getLastError() { return lastError; }
+    public void setLastError(String lastError) { this.lastError = lastError; }
+
+    public LocalDateTime getCreatedDate() { return createdDate; }
+
+    public LocalDateTime getStartedAt() { return startedAt; }
+
+    public LocalDateTime getLastProgressAt() { return lastProgressAt; }
+    public void setLastProgressAt(LocalDateTime lastProgressAt) { this.lastProgressAt = lastProgressAt; }
+
+    public LocalDateTime getCompletedAt() { return completedAt; }
+    public void setCompletedAt(LocalDateTime completedAt) { this.completedAt = completedAt; }
+}
@@ -0,0 +1,51 @@
+package com.mentora.backend.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// Nota materializada de un estudiante en un ítem del curso; se actualiza al calificar
+@Entity
+@Table(name = "gradebook_entries",
+    uniqueConstraints = {
+        @UniqueConstraint(name = "uk_gradebook_entries_course_student_item", columnNames = {"courseId", "studentCi", "itemType", "itemId"})
+    },
+    indexes = {
+        @Index(name = "idx_gradebook_entries_item", columnList = "itemType, itemId")
+    })
+public class GradebookEntry {
+
+    // itemId de la nota final (hay una sola por estudiante y curso)
+    public static final long FINAL_ITEM_ID = 0L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String courseId;
+
+    @Column(nullable = false)
+    private String studentCi;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private GradebookItemType itemType;
+
+    @Column(nullable = false)
+    private Long itemId;
+
+    private Integer grade;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt = LocalDateTime.now();
+
+    public GradebookEntry() {}
+
+    public Long getId() { return id; }
+    public String getCourseId() { return courseId; }
+    public String getStudentCi() { return studentCi; }
+    public GradebookItemType getItemType() { return itemType; }
+    public Long getItemId() { return itemId; }
+    public Integer getGrade() { return grade; }
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+}
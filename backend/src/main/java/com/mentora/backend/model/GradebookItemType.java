@@ -0,0 +1,7 @@
+package com.mentora.backend.model;
+
+public enum GradebookItemType {
+    EVALUATION,
+    QUIZ,
+    FINAL
+}
@@ -5,7 +5,10 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "Message")
+@Table(name = "Message", indexes = {
+    @Index(name = "idx_message_chat_sent_id", columnList = "chatId, dateSent, id"),
+    @Index(name = "idx_message_chat_id", columnList = "chatId, id")
+})
 public class Message {
 
     @Id
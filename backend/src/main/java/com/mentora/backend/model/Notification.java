@@ -1,12 +1,17 @@
 package com.mentora.backend.model;
 
 import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
+
 import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "notifications")
-public class Notification {
+@Table(name = "notifications", indexes = {
+    @Index(name = "idx_notifications_user_created_id", columnList = "userCi, createdDate, id"),
+    @Index(name = "idx_notifications_user_read", columnList = "userCi, isRead")
+})
+public class Notification implements Persistable<String> {
 
     @Id
     private String id = UUID.randomUUID().toString();
@@ -27,6 +32,10 @@ public class Notification {
     @Column(nullable = false)
     private LocalDateTime createdDate = LocalDateTime.now();
 
+    // El id se asigna en memoria; sin esto save() hace un SELECT previo y no se agrupan los inserts
+    @Transient
+    private boolean isNew = true;
+
     // === Constructores ===
     public Notification() {}
 
@@ -39,8 +48,16 @@ public class Notification {
     }
 
     // === Getters y Setters ===
+    @Override
     public String getId() { return id; }
 
+    @Override
+    public boolean isNew() { return isNew; }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() { this.isNew = false; }
+
     public User getUser() { return user; }
     public void setUser(User user) { this.user = user; }
 
@@ -52,4 +69,6 @@ public class Notification {
 
     public Boolean getRead() { return isRead; }
     public void setRead(Boolean isRead) { this.isRead = isRead; }
+
+    public LocalDateTime getCreatedDate() { return createdDate; }
 }
@@ -6,7 +6,9 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "Quiz")
+@Table(name = "Quiz", indexes = {
+    @Index(name = "idx_quiz_course_created", columnList = "course_id, createdDate, id")
+})
 public class Quiz {
 
     @Id
@@ -3,13 +3,17 @@ package com.mentora.backend.model;
 import jakarta.persistence.*;
 
 @Entity
-@Table(name = "QuizSubmission")
+@Table(name = "QuizSubmission", indexes = {
+    @Index(name = "idx_quiz_submission_quiz_author", columnList = "quiz_id, authorCi")
+})
 public class QuizSubmission {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    // Formato anterior (ids separados por coma); las respuestas van en quiz_submission_answers
+    // y este campo queda en null una vez migrada la entrega
     @Lob
     @Column(name = "answers")
     private String answers;
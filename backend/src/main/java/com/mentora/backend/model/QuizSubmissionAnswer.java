@@ -0,0 +1,40 @@
+package com.mentora.backend.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+// Respuesta elegida en una entrega de quiz. quizId se repite para agregar por quiz sin join
+@Entity
+@Table(name = "quiz_submission_answers",
+    uniqueConstraints = {
+        @UniqueConstraint(name = "uk_quiz_submission_answers_submission_answer", columnNames = {"submission_id", "answerId"})
+    },
+    indexes = {
+        @Index(name = "idx_quiz_submission_answers_quiz_answer", columnList = "quizId, answerId")
+    })
+public class QuizSubmissionAnswer {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(optional = false, fetch = FetchType.LAZY)
+    @JoinColumn(name = "submission_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private QuizSubmission submission;
+
+    @Column(nullable = false)
+    private Long quizId;
+
+    // Sin FK: una respuesta puede eliminarse del quiz después de la entrega
+    @Column(nullable = false)
+    private Long answerId;
+
+    public QuizSubmissionAnswer() {}
+
+    public Long getId() { return id; }
+    public QuizSubmission getSubmission() { return submission; }
+    public Long getQuizId() { return quizId; }
+    public Long getAnswerId() { return answerId; }
+}
@@ -4,7 +4,9 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "SimpleContent")
+@Table(name = "SimpleContent", indexes = {
+    @Index(name = "idx_simple_content_course_created", columnList = "course_id, createdDate, id")
+})
 public class SimpleContent {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
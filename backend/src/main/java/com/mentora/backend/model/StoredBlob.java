@@ -0,0 +1,49 @@
+package com.mentora.backend.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// Archivo guardado en el almacenamiento, deduplicado por contenido. refCount cuenta las filas que lo usan;
+// en 0 lo borra el GC. Los subidos directo o antes de la deduplicación no tienen sha256
+@Entity
+@Table(name = "stored_blobs",
+    uniqueConstraints = {
+        @UniqueConstraint(name = "uk_stored_blobs_sha256", columnNames = {"sha256"}),
+        @UniqueConstraint(name = "uk_stored_blobs_storage_path", columnNames = {"storagePath"})
+    },
+    indexes = {
+        @Index(name = "idx_stored_blobs_ref_count", columnList = "refCount, updatedAt")
+    })
+public class StoredBlob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(length = 64)
+    private String sha256;
+
+    @Column(nullable = false, length = 512)
+    private String storagePath;
+
+    private Long size;
+
+    @Column(nullable = false)
+    private int refCount;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt = LocalDateTime.now();
+
+    public StoredBlob() {}
+
+    public Long getId() { return id; }
+    public String getSha256() { return sha256; }
+    public String getStoragePath() { return storagePath; }
+    public Long getSize() { return size; }
+    public int getRefCount() { return refCount; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+}
@@ -1,10 +1,15 @@
 package com.mentora.backend.model;
 
 import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
 
 @Entity
-@Table(name = "Users")
-public class User {
+@Table(name = "Users", indexes = {
+    @Index(name = "idx_users_name_lower_ci", columnList = "nameLower, ci"),
+    @Index(name = "idx_users_role_name_lower_ci", columnList = "role, nameLower, ci"),
+    @Index(name = "idx_users_role_ci", columnList = "role, ci")
+})
+public class User implements Persistable<String> {
 
     @Id
     @Column(nullable = false, unique = true)
@@ -29,6 +34,15 @@ public class User {
     @Enumerated(EnumType.STRING)
     private Role role; // ADMIN, PROFESOR, ESTUDIANTE
 
+    // Columna generada por la base para ordenar por nombre sin distinguir mayúsculas usando un índice
+    @Column(name = "nameLower", insertable = false, updatable = false,
+            columnDefinition = "varchar(255) GENERATED ALWAYS AS (lower(name)) VIRTUAL")
+    private String nameLower;
+
+    // La CI se asigna antes de guardar; sin esto save() hace un SELECT previo y no se agrupan los inserts
+    @Transient
+    private boolean isNew = true;
+
     // === Constructores ===
     public User() {}
 
@@ -104,7 +118,27 @@ public class User {
         return role;
     }
 
+    public String getNameLower() {
+        return nameLower;
+    }
+
     public void setRole(Role role) {
         this.role = role;
     }
+
+    @Override
+    public String getId() {
+        return ci;
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
 }
@@ -3,7 +3,9 @@ package com.mentora.backend.model;
 import jakarta.persistence.*;
 
 @Entity
-@Table(name = "UserCourse")
+@Table(name = "UserCourse", indexes = {
+    @Index(name = "idx_user_course_course_user", columnList = "courseId, userId")
+})
 public class UserCourse {
 
     @Id
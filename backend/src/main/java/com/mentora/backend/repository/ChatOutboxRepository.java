@@ -0,0 +1,49 @@
+package com.mentora.backend.repository;
+
+import com.mentora.backend.model.ChatOutboxEvent;
+import com.mentora.backend.model.ChatOutboxStatus;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface ChatOutboxRepository extends JpaRepository<ChatOutboxEvent, String> {
+
+    List<ChatOutboxEvent> findByStatusAndNextAttemptAtLessThanEqualOrderByCreatedDateAsc(
+        ChatOutboxStatus status, LocalDateTime now, Limit limit);
+
+    List<ChatOutboxEvent> findByClaimTokenAndStatusOrderByCreatedDateAsc(String claimToken, ChatOutboxStatus status);
+
+    long countByStatus(ChatOutboxStatus status);
+
+    // Último mail enviado al destinatario por esta conversación (para agrupar mails)
+    @Query("SELECT MAX(e.emailSentAt) FROM ChatOutboxEvent e WHERE e.chatId = :chatId AND e.recipientCi = :recipientCi")
+    LocalDateTime findLastEmailSentAt(@Param("chatId") Long chatId, @Param("recipientCi") String recipientCi);
+
+    // Marca como PROCESSING solo los que siguen pendientes, para que no los tome otra instancia
+    @Modifying
+    @Transactional
+    @Query("UPDATE ChatOutboxEvent e SET e.status = com.mentora.backend.model.ChatOutboxStatus.PROCESSING, " +
+            "e.lockedAt = :now, e.claimToken = :token " +
+            "WHERE e.id IN :ids AND e.status = com.mentora.backend.model.ChatOutboxStatus.PENDING")
+    int claim(@Param("ids") Collection<String> ids, @Param("now") LocalDateTime now, @Param("token") String token);
+
+    // Devuelve a PENDING los que quedaron tomados por un relay que se cayó
+    @Modifying
+    @Transactional
+    @Query("UPDATE ChatOutboxEvent e SET e.status = com.mentora.backend.model.ChatOutboxStatus.PENDING, " +
+            "e.lockedAt = null, e.claimToken = null " +
+            "WHERE e.status = com.mentora.backend.model.ChatOutboxStatus.PROCESSING AND e.lockedAt < :before")
+    int releaseStale(@Param("before") LocalDateTime before);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ChatOutboxEvent e WHERE e.status = com.mentora.backend.model.ChatOutboxStatus.DONE AND e.processedAt < :before")
+    int deleteProcessedBefore(@Param("before") LocalDateTime before);
+}
@@ -2,10 +2,14 @@ package com.mentora.backend.repository;
 
 import com.mentora.backend.model.Chat;
 import com.mentora.backend.model.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface ChatRepository extends JpaRepository<Chat, Long> {
@@ -16,6 +20,62 @@ public interface ChatRepository extends JpaRepository<Chat, Long> {
             "ORDER BY c.id DESC")
     List<Chat> findByParticipants(@Param("u1") User user1, @Param("u2") User user2);
 
-    @Query("SELECT c FROM Chat c WHERE c.participant1Id = :user OR c.participant2Id = :user")
-    List<Chat> findAllByParticipant(@Param("user") User user);
+    // Bandeja de entrada en una sola consulta: cada chat con su último mensaje y los no leídos del usuario,
+    // del más reciente al más viejo. Los chats sin mensajes van al final. Cursor: (último mensaje, id) del chat anterior
+    @Query("SELECT c.id AS chatId, p1 AS participant1, p2 AS participant2, " +
+            "m.id AS lastMessageId, m.message AS lastMessage, m.dateSent AS lastActivityAt, m.sendByUser.ci AS lastMessageSenderCi, " +
+            "(SELECT COUNT(u) FROM Message u WHERE u.chat = c AND u.sendByUser.ci <> :ci " +
+            "AND u.id > COALESCE(CASE WHEN p1.ci = :ci THEN c.participant1LastReadMessageId ELSE c.participant2LastReadMessageId END, 0)) AS unreadCount " +
+            "FROM Chat c JOIN c.participant1Id p1 JOIN c.participant2Id p2 " +
+            "LEFT JOIN Message m ON m.id = (SELECT MAX(x.id) FROM Message x WHERE x.chat = c) " +
+            "WHERE (p1.ci = :ci OR p2.ci = :ci) " +
+            "AND (:afterChatId IS NULL " +
+            "OR (:afterMessageId IS NOT NULL AND (m.id IS NULL OR m.id < :afterMessageId OR (m.id = :afterMessageId AND c.id < :afterChatId))) " +
+            "OR (:afterMessageId IS NULL AND m.id IS NULL AND c.id < :afterChatId)) " +
+            "ORDER BY m.id DESC NULLS LAST, c.id DESC")
+    List<ChatInboxView> findInbox(
+            @Param("ci") String ci,
+            @Param("afterMessageId") Long afterMessageId,
+            @Param("afterChatId") Long afterChatId,
+            Limit limit
+    );
+
+    // Avanza el cursor de lectura sin retroceder; 0 filas si ya estaba en ese mensaje o más adelante
+    @Modifying
+    @Transactional
+    @Query("UPDATE Chat c SET c.participant1LastReadMessageId = :messageId " +
+            "WHERE c.id = :chatId AND (c.participant1LastReadMessageId IS NULL OR c.participant1LastReadMessageId < :messageId)")
+    int advanceParticipant1LastRead(@Param("chatId") Long chatId, @Param("messageId") Long messageId);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Chat c SET c.participant2LastReadMessageId = :messageId " +
+            "WHERE c.id = :chatId AND (c.participant2LastReadMessageId IS NULL OR c.participant2LastReadMessageId < :messageId)")
+    int advanceParticipant2LastRead(@Param("chatId") Long chatId, @Param("messageId") Long messageId);
+
+    // Chats anteriores al cursor de lectura: se dan por leídos hasta su último mensaje para no inflar los no leídos
+    @Modifying
+    @Transactional
+    @Query("UPDATE Chat c SET c.participant1LastReadMessageId = " +
+            "COALESCE((SELECT MAX(m.id) FROM Message m WHERE m.chat = c), 0) " +
+            "WHERE c.participant1LastReadMessageId IS NULL")
+    int backfillParticipant1LastRead();
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Chat c SET c.participant2LastReadMessageId = " +
+            "COALESCE((SELECT MAX(m.id) FROM Message m WHERE m.chat = c), 0) " +
+            "WHERE c.participant2LastReadMessageId IS NULL")
+    int backfillParticipant2LastRead();
+
+    interface ChatInboxView {
+        Long getChatId();
+        User getParticipant1();
+        User getParticipant2();
+        Long getLastMessageId();
+        String getLastMessage();
+        LocalDateTime getLastActivityAt();
+        String getLastMessageSenderCi();
+        Long getUnreadCount();
+    }
 }
@@ -1,7 +1,18 @@
 package com.mentora.backend.repository;
 
 import com.mentora.backend.model.Course;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
 
 public interface CourseRepository extends JpaRepository<Course, String> {
+
+    // Ids de curso por keyset, para recorrer todos sin cargar las entidades
+    @Query("SELECT c.id FROM Course c " +
+            "WHERE (:afterId IS NULL OR c.id > :afterId) " +
+            "ORDER BY c.id")
+    List<String> findIdsAfter(@Param("afterId") String afterId, Limit limit);
 }
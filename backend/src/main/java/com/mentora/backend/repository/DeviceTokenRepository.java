@@ -3,7 +3,12 @@ package com.mentora.backend.repository;
 import com.mentora.backend.model.DeviceToken;
 import com.mentora.backend.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -11,6 +16,14 @@ public interface DeviceTokenRepository extends JpaRepository<DeviceToken, String
     List<DeviceToken> findAllByUser(User user);
     Optional<DeviceToken> findByToken(String token);
     void deleteByToken(String token);
+
+    @Query("SELECT d FROM DeviceToken d JOIN FETCH d.user WHERE d.user.ci IN :userCis")
+    List<DeviceToken> findAllByUserCis(@Param("userCis") Collection<String> userCis);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM DeviceToken d WHERE d.token IN :tokens")
+    int deleteAllByTokens(@Param("tokens") Collection<String> tokens);
 }
 
 
@@ -0,0 +1,46 @@
+package com.mentora.backend.repository;
+
+import com.mentora.backend.model.EmailOutboxMessage;
+import com.mentora.backend.model.EmailOutboxStatus;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface EmailOutboxRepository extends JpaRepository<EmailOutboxMessage, String> {
+
+    List<EmailOutboxMessage> findByStatusAndNextAttemptAtLessThanEqualOrderByCreatedDateAsc(
+        EmailOutboxStatus status, LocalDateTime now, Limit limit);
+
+    List<EmailOutboxMessage> findByClaimTokenAndStatus(String claimToken, EmailOutboxStatus status);
+
+    long countByStatus(EmailOutboxStatus status);
+
+    // Marca como SENDING solo los que siguen pendientes, para que no los tome otra instancia
+    @Modifying
+    @Transactional
+    @Query("UPDATE EmailOutboxMessage m SET m.status = com.mentora.backend.model.EmailOutboxStatus.SENDING, " +
+            "m.lockedAt = :now, m.claimToken = :token " +
+            "WHERE m.id IN :ids AND m.status = com.mentora.backend.model.EmailOutboxStatus.PENDING")
+    int claim(@Param("ids") Collection<String> ids, @Param("now") LocalDateTime now, @Param("token") String token);
+
+    // Devuelve a PENDING los que quedaron tomados por un worker que se cayó
+    @Modifying
+    @Transactional
+    @Query("UPDATE EmailOutboxMessage m SET m.status = com.mentora.backend.model.EmailOutboxStatus.PENDING, " +
+            "m.lockedAt = null, m.claimToken = null " +
+            "WHERE m.status = com.mentora.backend.model.EmailOutboxStatus.SENDING AND m.lockedAt < :before")
+    int releaseStale(@Param("before") LocalDateTime before);
+
+    // Terminados (enviados o agotados) más viejos que la retención, para borrarlos por lotes
+    @Query("SELECT m.id FROM EmailOutboxMessage m " +
+            "WHERE m.status IN (com.mentora.backend.model.EmailOutboxStatus.SENT, com.mentora.backend.model.EmailOutboxStatus.DEAD) " +
+            "AND m.createdDate < :before")
+    List<String> findFinishedIdsBefore(@Param("before") LocalDateTime before, Limit limit);
+}
@@ -0,0 +1,42 @@
+package com.mentora.backend.repository;
+
+import com.mentora.backend.model.EnrollmentJob;
+import com.mentora.backend.model.EnrollmentJobStatus;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface EnrollmentJobRepository extends JpaRepository<EnrollmentJob, String> {
+
+    List<EnrollmentJob> findByStatusAndCreatedDateBefore(EnrollmentJobStatus status, LocalDateTime createdBefore);
+
+    List<EnrollmentJob> findByStatusAndLastProgressAtBefore(EnrollmentJobStatus status, LocalDateTime lastProgressBefore);
+
+    // Toma el job solo si sigue pendiente, para que un único worker lo procese
+    @Modifying
+    @Transactional
+    @Query("UPDATE EnrollmentJob j SET j.status = com.mentora.backend.model.EnrollmentJobStatus.RUNNING, " +
+            "j.lastProgressAt = :now, j.version = j.version + 1 " +
+            "WHERE j.id = :id AND j.status = com.mentora.backend.model.EnrollmentJobStatus.PENDING")
+    int claim(@Param("id") String id, @Param("now") LocalDateTime now);
+
+    // Retoma un job que dejó de avanzar; al subir la versión, el worker anterior ya no puede guardar
+    @Modifying
+    @Transactional
+    @Query("UPDATE EnrollmentJob j SET j.lastProgressAt = :now, j.version = j.version + 1 " +
+            "WHERE j.id = :id AND j.status = com.mentora.backend.model.EnrollmentJobStatus.RUNNING " +
+            "AND j.lastProgressAt < :staleBefore")
+    int reclaim(@Param("id") String id, @Param("staleBefore") LocalDateTime staleBefore, @Param("now") LocalDateTime now);
+
+    // Terminados hace más que la retención, para borrarlos por lotes
+    @Query("SELECT j.id FROM EnrollmentJob j " +
+            "WHERE j.status IN (com.mentora.backend.model.EnrollmentJobStatus.COMPLETED, com.mentora.backend.model.EnrollmentJobStatus.FAILED) " +
+            "AND j.finishedDate < :before")
+    List<String> findFinishedIdsBefore(@Param("before") LocalDateTime before, Limit limit);
+}
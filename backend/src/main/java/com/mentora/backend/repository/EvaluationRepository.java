@@ -1,14 +1,52 @@
 package com.mentora.backend.repository;
 
+import com.mentora.backend.dt.DtEvaluation;
+import com.mentora.backend.dt.DtGradebookItem;
 import com.mentora.backend.model.Evaluation;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface EvaluationRepository extends JpaRepository<Evaluation, Long> {
     List<Evaluation> findByCourse_IdOrderByCreatedDateAsc(String courseId);
 
     Evaluation findByIdAndCourse_Id(Long id, String courseId);
-}
 
+    // Página de la línea de tiempo del curso, posterior al cursor (createdDate, id)
+    @Query("SELECT new com.mentora.backend.dt.DtEvaluation(e.id, e.title, e.content, e.fileName, e.fileUrl, e.createdDate, e.dueDate, e.course.id) " +
+            "FROM Evaluation e " +
+            "WHERE e.course.id = :courseId " +
+            "AND (:afterDate IS NULL " +
+            "OR e.createdDate > :afterDate " +
+            "OR (e.createdDate = :afterDate AND e.id > :afterId)) " +
+            "ORDER BY e.createdDate ASC, e.id ASC")
+    List<DtEvaluation> findTimelinePage(
+        @Param("courseId") String courseId,
+        @Param("afterDate") LocalDateTime afterDate,
+        @Param("afterId") Long afterId,
+        Limit limit
+    );
+
+    // Evaluaciones vigentes de los cursos del usuario sin entrega del usuario
+    @Query("SELECT new com.mentora.backend.dt.DtEvaluation(e.id, e.title, e.content, e.fileName, e.fileUrl, e.createdDate, e.dueDate, e.course.id) " +
+            "FROM Evaluation e " +
+            "WHERE e.course.id IN (SELECT uc.course.id FROM UserCourse uc WHERE uc.user.ci = :userCi) " +
+            "AND (e.dueDate IS NULL OR e.dueDate > :dueAfter) " +
+            "AND NOT EXISTS (SELECT 1 FROM EvaluationSubmission s WHERE s.evaluation.id = e.id AND s.author.ci = :userCi) " +
+            "ORDER BY e.createdDate ASC, e.id ASC")
+    List<DtEvaluation> findPendingForUser(@Param("userCi") String userCi, @Param("dueAfter") LocalDateTime dueAfter);
 
+    // Columnas del gradebook del curso, en el orden de la línea de tiempo
+    @Query("SELECT new com.mentora.backend.dt.DtGradebookItem('EVALUATION', e.id, e.title) " +
+            "FROM Evaluation e WHERE e.course.id = :courseId " +
+            "ORDER BY e.createdDate ASC, e.id ASC")
+    List<DtGradebookItem> findGradebookItems(@Param("courseId") String courseId);
+
+    // Archivos del curso, para soltar sus referencias al borrarlo
+    @Query("SELECT e.fileUrl FROM Evaluation e WHERE e.course.id = :courseId AND e.fileUrl IS NOT NULL")
+    List<String> findFileUrlsByCourseId(@Param("courseId") String courseId);
+}
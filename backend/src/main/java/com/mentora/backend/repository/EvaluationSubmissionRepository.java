@@ -1,7 +1,10 @@
 package com.mentora.backend.repository;
 
 import com.mentora.backend.model.EvaluationSubmission;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -9,7 +12,47 @@ import java.util.List;
 @Repository
 public interface EvaluationSubmissionRepository extends JpaRepository<EvaluationSubmission, Long> {
 
+    interface SubmissionFile {
+        Long getId();
+        String getAuthorCi();
+        String getFileName();
+        String getFileUrl();
+    }
+
+    interface SubmissionManifestRow {
+        Long getId();
+        String getAuthorCi();
+        String getAuthorName();
+        Integer getNote();
+        String getFileName();
+        String getFileUrl();
+        String getSolution();
+    }
+
     List<EvaluationSubmission> findByEvaluationId(Long evaluationId);
 
     List<EvaluationSubmission> findByEvaluationIdAndAuthorCi(Long evaluationId, String authorCi);
+
+    @Query("SELECT s.id AS id, s.author.ci AS authorCi, s.fileName AS fileName, s.fileUrl AS fileUrl " +
+           "FROM EvaluationSubmission s " +
+           "WHERE s.evaluation.id = :evaluationId AND s.fileUrl IS NOT NULL " +
+           "AND (:afterId IS NULL OR s.id > :afterId) " +
+           "ORDER BY s.id ASC")
+    List<SubmissionFile> findExportFiles(
+            @Param("evaluationId") Long evaluationId,
+            @Param("afterId") Long afterId,
+            Limit limit
+    );
+
+    @Query("SELECT s.id AS id, a.ci AS authorCi, a.name AS authorName, s.note AS note, " +
+           "s.fileName AS fileName, s.fileUrl AS fileUrl, s.solution AS solution " +
+           "FROM EvaluationSubmission s JOIN s.author a " +
+           "WHERE s.evaluation.id = :evaluationId " +
+           "AND (:afterId IS NULL OR s.id > :afterId) " +
+           "ORDER BY s.id ASC")
+    List<SubmissionManifestRow> findExportRows(
+            @Param("evaluationId") Long evaluationId,
+            @Param("afterId") Long afterId,
+            Limit limit
+    );
 }
@@ -0,0 +1,47 @@
+package com.mentora.backend.repository;
+
+import com.mentora.backend.model.FanOutJob;
+import com.mentora.backend.model.FanOutStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface FanOutJobRepository extends JpaRepository<FanOutJob, Long> {
+
+    Optional<FanOutJob> findFirstByPostIdOrderByIdDesc(Long postId);
+
+    List<FanOutJob> findByStatusAndCreatedDateBefore(FanOutStatus status, LocalDateTime createdBefore);
+
+    List<FanOutJob> findByStatusAndLastProgressAtBefore(FanOutStatus status, LocalDateTime lastProgressBefore);
+
+    // Toma el job solo si sigue pendiente, para que un único worker lo procese
+    @Modifying
+    @Transactional
+    @Query("UPDATE FanOutJob j SET j.status = com.mentora.backend.model.FanOutStatus.RUNNING, " +
+            "j.attempts = j.attempts + 1, j.startedAt = :now, j.lastProgressAt = :now, j.version = j.version + 1 " +
+            "WHERE j.id = :id AND j.status = com.mentora.backend.model.FanOutStatus.PENDING")
+    int claim(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    // Retoma un job que dejó de avanzar; al subir la versión, el worker anterior ya no puede guardar
+    @Modifying
+    @Transactional
+    @Query("UPDATE FanOutJob j SET j.attempts = j.attempts + 1, j.lastProgressAt = :now, j.version = j.version + 1 " +
+            "WHERE j.id = :id AND j.status = com.mentora.backend.model.FanOutStatus.RUNNING " +
+            "AND j.lastProgressAt < :staleBefore")
+    int reclaim(@Param("id") Long id, @Param("staleBefore") LocalDateTime staleBefore, @Param("now") LocalDateTime now);
+
+    // Falla el job solo si sigue trabado; si mientras tanto avanzó, no se toca
+    @Modifying
+    @Transactional
+    @Query("UPDATE FanOutJob j SET j.status = com.mentora.backend.model.FanOutStatus.FAILED, " +
+            "j.lastError = :error, j.version = j.version + 1 " +
+            "WHERE j.id = :id AND j.status = com.mentora.backend.model.FanOutStatus.RUNNING " +
+            "AND j.lastProgressAt < :staleBefore")
+    int failStale(@Param("id") Long id, @Param("staleBefore") LocalDateTime staleBefore, @Param("error") String error);
+}
@@ -0,0 +1,40 @@
+package com.mentora.backend.repository;
+
+import com.mentora.backend.model.GradebookEntry;
+import com.mentora.backend.model.GradebookItemType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface GradebookEntryRepository extends JpaRepository<GradebookEntry, Long> {
+
+    interface GradebookCell {
+        String getStudentCi();
+        GradebookItemType getItemType();
+        Long getItemId();
+        Integer getGrade();
+    }
+
+    @Query("SELECT g.studentCi AS studentCi, g.itemType AS itemType, g.itemId AS itemId, g.grade AS grade " +
+            "FROM GradebookEntry g WHERE g.courseId = :courseId")
+    List<GradebookCell> findCells(@Param("courseId") String courseId);
+
+    @Query("SELECT g.studentCi AS studentCi, g.itemType AS itemType, g.itemId AS itemId, g.grade AS grade " +
+            "FROM GradebookEntry g WHERE g.courseId = :courseId AND g.studentCi IN :cis")
+    List<GradebookCell> findCells(@Param("courseId") String courseId, @Param("cis") Collection<String> cis);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM GradebookEntry g WHERE g.itemType = :itemType AND g.itemId = :itemId")
+    int deleteByItem(@Param("itemType") GradebookItemType itemType, @Param("itemId") Long itemId);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM GradebookEntry g WHERE g.courseId = :courseId")
+    int deleteByCourseId(@Param("courseId") String courseId);
+}
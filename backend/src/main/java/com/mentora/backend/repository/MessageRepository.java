@@ -1,12 +1,57 @@
 package com.mentora.backend.repository;
 
-import com.mentora.backend.model.Chat;
+import com.mentora.backend.dt.DtMessage;
 import com.mentora.backend.model.Message;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 public interface MessageRepository extends JpaRepository<Message, Long> {
 
-    List<Message> findAllByChatOrderByDateSentAsc(Chat chat);
+    @Query("SELECT MAX(m.id) FROM Message m WHERE m.chat.id = :chatId")
+    Long findLastMessageId(@Param("chatId") Long chatId);
+
+    @Query("SELECT m.dateSent FROM Message m WHERE m.id = :id AND m.chat.id = :chatId")
+    Optional<LocalDateTime> findDateSentInChat(@Param("chatId") Long chatId, @Param("id") Long id);
+
+    // Mensajes posteriores al cursor (o todos si es null), en orden cronológico
+    @Query("SELECT new com.mentora.backend.dt.DtMessage(m.id, m.message, m.dateSent, m.chat.id, m.sendByUser.ci) " +
+            "FROM Message m " +
+            "WHERE m.chat.id = :chatId " +
+            "AND (:afterDate IS NULL " +
+            "OR m.dateSent > :afterDate " +
+            "OR (m.dateSent = :afterDate AND m.id > :afterId)) " +
+            "ORDER BY m.dateSent ASC, m.id ASC")
+    List<DtMessage> findPageAfter(
+            @Param("chatId") Long chatId,
+            @Param("afterDate") LocalDateTime afterDate,
+            @Param("afterId") Long afterId,
+            Limit limit
+    );
+
+    // Mensajes anteriores al cursor (o los últimos si es null), del más nuevo al más viejo
+    @Query("SELECT new com.mentora.backend.dt.DtMessage(m.id, m.message, m.dateSent, m.chat.id, m.sendByUser.ci) " +
+            "FROM Message m " +
+            "WHERE m.chat.id = :chatId " +
+            "AND (:beforeDate IS NULL " +
+            "OR m.dateSent < :beforeDate " +
+            "OR (m.dateSent = :beforeDate AND m.id < :beforeId)) " +
+            "ORDER BY m.dateSent DESC, m.id DESC")
+    List<DtMessage> findPageBefore(
+            @Param("chatId") Long chatId,
+            @Param("beforeDate") LocalDateTime beforeDate,
+            @Param("beforeId") Long beforeId,
+            Limit limit
+    );
+
+    @Query("SELECT new com.mentora.backend.dt.DtMessage(m.id, m.message, m.dateSent, m.chat.id, m.sendByUser.ci) " +
+            "FROM Message m " +
+            "WHERE m.chat.id = :chatId AND m.dateSent > :since " +
+            "ORDER BY m.dateSent ASC, m.id ASC")
+    List<DtMessage> findSince(@Param("chatId") Long chatId, @Param("since") LocalDateTime since, Limit limit);
 }
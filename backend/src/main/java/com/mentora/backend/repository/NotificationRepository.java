@@ -1,11 +1,52 @@
 package com.mentora.backend.repository;
 
+import com.mentora.backend.dt.DtNotification;
 import com.mentora.backend.model.Notification;
-import com.mentora.backend.model.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface NotificationRepository extends JpaRepository<Notification, String> {
-    List<Notification> findByUserOrderByCreatedDateDesc(User user);
+
+    // Página de notificaciones de más reciente a más antigua; (afterDate, afterId) es la última de la página anterior
+    @Query("SELECT new com.mentora.backend.dt.DtNotification(n.id, n.message, n.link, n.isRead) " +
+            "FROM Notification n " +
+            "WHERE n.user.ci = :userCi " +
+            "AND (:afterDate IS NULL OR n.createdDate < :afterDate " +
+            "     OR (n.createdDate = :afterDate AND n.id < :afterId)) " +
+            "ORDER BY n.createdDate DESC, n.id DESC")
+    List<DtNotification> findPage(
+            @Param("userCi") String userCi,
+            @Param("afterDate") LocalDateTime afterDate,
+            @Param("afterId") String afterId,
+            Limit limit
+    );
+
+    @Query("SELECT n.createdDate FROM Notification n WHERE n.id = :id AND n.user.ci = :userCi")
+    LocalDateTime findCreatedDate(@Param("id") String id, @Param("userCi") String userCi);
+
+    // Se resuelve con el índice (userCi, isRead) sin leer las filas
+    @Query("SELECT COUNT(n) FROM Notification n WHERE n.user.ci = :userCi AND n.isRead = false")
+    long countUnread(@Param("userCi") String userCi);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Notification n SET n.isRead = true WHERE n.user.ci = :userCi AND n.isRead = false")
+    int markAllAsRead(@Param("userCi") String userCi);
+
+    // Solo afecta notificaciones del usuario; las ajenas se ignoran
+    @Modifying
+    @Transactional
+    @Query("UPDATE Notification n SET n.isRead = true WHERE n.user.ci = :userCi AND n.id IN :ids")
+    int markAsRead(@Param("userCi") String userCi, @Param("ids") Collection<String> ids);
+
+    @Query("SELECT n.id FROM Notification n WHERE n.isRead = true AND n.createdDate < :before")
+    List<String> findReadIdsBefore(@Param("before") LocalDateTime before, Limit limit);
 }
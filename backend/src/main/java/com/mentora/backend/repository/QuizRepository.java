@@ -1,13 +1,67 @@
 package com.mentora.backend.repository;
 
+import com.mentora.backend.dt.DtGradebookItem;
+import com.mentora.backend.dt.DtQuiz;
+import com.mentora.backend.dt.DtQuizAnswerStats;
 import com.mentora.backend.model.Quiz;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
 public interface QuizRepository extends JpaRepository<Quiz, Long> {
+
+    interface AnswerFlag {
+        Long getId();
+        Boolean getCorrect();
+    }
+
     List<Quiz> findByCourse_IdOrderByCreatedDateAsc(String courseId);
     Quiz findByIdAndCourse_Id(Long id, String courseId);
+
+    // Página de la línea de tiempo del curso, posterior al cursor (createdDate, id)
+    @Query("SELECT new com.mentora.backend.dt.DtQuiz(q.id, q.title, q.dueDate, q.course.id, q.createdDate) " +
+            "FROM Quiz q " +
+            "WHERE q.course.id = :courseId " +
+            "AND (:afterDate IS NULL " +
+            "OR q.createdDate > :afterDate " +
+            "OR (q.createdDate = :afterDate AND q.id > :afterId)) " +
+            "ORDER BY q.createdDate ASC, q.id ASC")
+    List<DtQuiz> findTimelinePage(
+        @Param("courseId") String courseId,
+        @Param("afterDate") LocalDateTime afterDate,
+        @Param("afterId") Long afterId,
+        Limit limit
+    );
+
+    // Quizzes vigentes de los cursos del usuario sin entrega del usuario
+    @Query("SELECT new com.mentora.backend.dt.DtQuiz(q.id, q.title, q.dueDate, q.course.id, q.createdDate) " +
+            "FROM Quiz q " +
+            "WHERE q.course.id IN (SELECT uc.course.id FROM UserCourse uc WHERE uc.user.ci = :userCi) " +
+            "AND (q.dueDate IS NULL OR q.dueDate > :dueAfter) " +
+            "AND NOT EXISTS (SELECT 1 FROM QuizSubmission s WHERE s.quiz.id = q.id AND s.author.ci = :userCi) " +
+            "ORDER BY q.createdDate ASC, q.id ASC")
+    List<DtQuiz> findPendingForUser(@Param("userCi") String userCi, @Param("dueAfter") LocalDateTime dueAfter);
+
+    // Columnas del gradebook del curso, en el orden de la línea de tiempo
+    @Query("SELECT new com.mentora.backend.dt.DtGradebookItem('QUIZ', q.id, q.title) " +
+            "FROM Quiz q WHERE q.course.id = :courseId " +
+            "ORDER BY q.createdDate ASC, q.id ASC")
+    List<DtGradebookItem> findGradebookItems(@Param("courseId") String courseId);
+
+    // Solo ids y corrección de las respuestas, sin cargar preguntas ni textos
+    @Query("SELECT a.id AS id, a.correct AS correct FROM QuizAnswer a WHERE a.question.quiz.id = :quizId")
+    List<AnswerFlag> findAnswerFlags(@Param("quizId") Long quizId);
+
+    // Preguntas y respuestas del quiz en orden, para el análisis por ítem
+    @Query("SELECT new com.mentora.backend.dt.DtQuizAnswerStats(qq.id, qq.questionText, a.id, a.answerText, a.correct) " +
+            "FROM QuizAnswer a JOIN a.question qq " +
+            "WHERE qq.quiz.id = :quizId " +
+            "ORDER BY qq.id ASC, a.id ASC")
+    List<DtQuizAnswerStats> findAnswerStats(@Param("quizId") Long quizId);
 }
@@ -0,0 +1,34 @@
+package com.mentora.backend.repository;
+
+import com.mentora.backend.model.QuizSubmissionAnswer;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface QuizSubmissionAnswerRepository extends JpaRepository<QuizSubmissionAnswer, Long> {
+
+    interface SubmissionAnswer {
+        Long getSubmissionId();
+        Long getAnswerId();
+    }
+
+    interface AnswerCount {
+        Long getAnswerId();
+        Long getSelections();
+    }
+
+    @Query("SELECT a.answerId FROM QuizSubmissionAnswer a WHERE a.submission.id = :submissionId ORDER BY a.id ASC")
+    List<Long> findAnswerIds(@Param("submissionId") Long submissionId);
+
+    // Respuestas de todas las entregas del quiz en una consulta
+    @Query("SELECT a.submission.id AS submissionId, a.answerId AS answerId FROM QuizSubmissionAnswer a " +
+            "WHERE a.quizId = :quizId ORDER BY a.id ASC")
+    List<SubmissionAnswer> findByQuiz(@Param("quizId") Long quizId);
+
+    // Cantidad de entregas que eligieron cada respuesta; se resuelve con el índice (quizId, answerId)
+    @Query("SELECT a.answerId AS answerId, COUNT(a) AS selections FROM QuizSubmissionAnswer a " +
+            "WHERE a.quizId = :quizId GROUP BY a.answerId")
+    List<AnswerCount> countSelections(@Param("quizId") Long quizId);
+}
@@ -1,12 +1,36 @@
 package com.mentora.backend.repository;
 
 import com.mentora.backend.model.QuizSubmission;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
 import java.util.List;
 
 public interface QuizSubmissionRepository extends JpaRepository<QuizSubmission, Long> {
+
+    interface LegacyAnswers {
+        Long getId();
+        Long getQuizId();
+        String getAnswers();
+    }
+
     List<QuizSubmission> findByQuizIdAndAuthorCi(Long quizId, String authorCi);
     List<QuizSubmission> findByQuizId(Long quizId);
-}
 
+    long countByQuizId(Long quizId);
+
+    // Entregas anteriores a quiz_submission_answers que todavía guardan las respuestas como CSV
+    @Query("SELECT s.id AS id, s.quiz.id AS quizId, s.answers AS answers FROM QuizSubmission s " +
+            "WHERE s.answers IS NOT NULL ORDER BY s.id ASC")
+    List<LegacyAnswers> findLegacyAnswers(Limit limit);
 
+    @Modifying
+    @Transactional
+    @Query("UPDATE QuizSubmission s SET s.answers = null WHERE s.id IN :ids")
+    int clearLegacyAnswers(@Param("ids") Collection<Long> ids);
+}
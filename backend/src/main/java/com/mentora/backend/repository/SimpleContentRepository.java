@@ -1,8 +1,14 @@
 package com.mentora.backend.repository;
 
+import com.mentora.backend.dt.DtSimpleContent;
 import com.mentora.backend.model.SimpleContent;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
@@ -11,4 +17,23 @@ public interface SimpleContentRepository extends JpaRepository<SimpleContent, Lo
     List<SimpleContent> findByCourse_IdOrderByCreatedDateAsc(String courseId);
 
     SimpleContent findByIdAndCourse_Id(Long id, String courseId);
+
+    // Página de la línea de tiempo del curso, posterior al cursor (createdDate, id)
+    @Query("SELECT new com.mentora.backend.dt.DtSimpleContent(sc.id, sc.title, sc.content, sc.fileName, sc.fileUrl, sc.createdDate) " +
+            "FROM SimpleContent sc " +
+            "WHERE sc.course.id = :courseId " +
+            "AND (:afterDate IS NULL " +
+            "OR sc.createdDate > :afterDate " +
+            "OR (sc.createdDate = :afterDate AND sc.id > :afterId)) " +
+            "ORDER BY sc.createdDate ASC, sc.id ASC")
+    List<DtSimpleContent> findTimelinePage(
+        @Param("courseId") String courseId,
+        @Param("afterDate") LocalDateTime afterDate,
+        @Param("afterId") Long afterId,
+        Limit limit
+    );
+
+    // Archivos del curso, para soltar sus referencias al borrarlo
+    @Query("SELECT sc.fileUrl FROM SimpleContent sc WHERE sc.course.id = :courseId AND sc.fileUrl IS NOT NULL")
+    List<String> findFileUrlsByCourseId(@Param("courseId") String courseId);
 }
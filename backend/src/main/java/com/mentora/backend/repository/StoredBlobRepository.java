@@ -0,0 +1,38 @@
+package com.mentora.backend.repository;
+
+import com.mentora.backend.model.StoredBlob;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface StoredBlobRepository extends JpaRepository<StoredBlob, Long> {
+
+    @Query("SELECT b.storagePath FROM StoredBlob b WHERE b.sha256 = :sha256")
+    String findStoragePathBySha256(@Param("sha256") String sha256);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE StoredBlob b SET b.refCount = b.refCount + 1, b.updatedAt = :now WHERE b.sha256 = :sha256")
+    int incrementRefCount(@Param("sha256") String sha256, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE StoredBlob b SET b.refCount = b.refCount - 1, b.updatedAt = :now " +
+           "WHERE b.storagePath = :storagePath AND b.refCount > 0")
+    int decrementRefCount(@Param("storagePath") String storagePath, @Param("now") LocalDateTime now);
+
+    @Query("SELECT b FROM StoredBlob b WHERE b.refCount = 0 AND b.updatedAt < :before ORDER BY b.id ASC")
+    List<StoredBlob> findUnreferenced(@Param("before") LocalDateTime before, Limit limit);
+
+    // Condicional: si el archivo volvió a referenciarse después de listarlo, no se borra
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM StoredBlob b WHERE b.id = :id AND b.refCount = 0")
+    int deleteIfUnreferenced(@Param("id") Long id);
+}
@@ -1,12 +1,17 @@
 package com.mentora.backend.repository;
 
+import com.mentora.backend.dt.DtGradebookRow;
 import com.mentora.backend.model.Course;
 import com.mentora.backend.model.Role;
 import com.mentora.backend.model.User;
 import com.mentora.backend.model.UserCourse;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -22,4 +27,37 @@ public interface UserCourseRepository extends JpaRepository<UserCourse, Long> {
     List<UserCourse> findAllByCourseAndUser_Role(Course course, Role role);
 
     List<UserCourse> findAllByCourse(Course course);
+
+    long countByCourse_IdAndUser_Role(String courseId, Role role);
+
+    // Usuarios del rol en el curso ordenados por CI, para recorrerlos por keyset desde afterCi
+    @Query("SELECT u FROM UserCourse uc JOIN uc.user u " +
+            "WHERE uc.course.id = :courseId AND u.role = :role " +
+            "AND (:afterCi IS NULL OR u.ci > :afterCi) " +
+            "ORDER BY u.ci ASC")
+    List<User> findUsersPage(
+            @Param("courseId") String courseId,
+            @Param("role") Role role,
+            @Param("afterCi") String afterCi,
+            Limit limit
+    );
+
+    @Query("SELECT uc.user.ci FROM UserCourse uc WHERE uc.course.id = :courseId AND uc.user.ci IN :cis")
+    List<String> findEnrolledUserCis(@Param("courseId") String courseId, @Param("cis") Collection<String> cis);
+
+    @Query("SELECT uc FROM UserCourse uc JOIN FETCH uc.user WHERE uc.course.id = :courseId AND uc.user.ci IN :cis")
+    List<UserCourse> findAllByCourseIdAndUserCis(@Param("courseId") String courseId, @Param("cis") Collection<String> cis);
+
+    // Estudiantes del curso ordenados por nombre; (afterName, afterCi) es el último de la página anterior
+    @Query("SELECT new com.mentora.backend.dt.DtGradebookRow(u.ci, u.name) " +
+            "FROM UserCourse uc JOIN uc.user u " +
+            "WHERE uc.course.id = :courseId AND u.role = com.mentora.backend.model.Role.ESTUDIANTE " +
+            "AND (:afterCi IS NULL OR u.name > :afterName OR (u.name = :afterName AND u.ci > :afterCi)) " +
+            "ORDER BY u.name ASC, u.ci ASC")
+    List<DtGradebookRow> findGradebookRows(
+            @Param("courseId") String courseId,
+            @Param("afterName") String afterName,
+            @Param("afterCi") String afterCi,
+            Limit limit
+    );
 }
@@ -1,8 +1,15 @@
 package com.mentora.backend.repository;
 
+import com.mentora.backend.dt.DtUser;
+import com.mentora.backend.model.Role;
 import com.mentora.backend.model.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, String> {
@@ -10,6 +17,60 @@ public interface UserRepository extends JpaRepository<User, String> {
     Optional<User> findByEmail(String email);
     boolean existsByCi(String ci);
     boolean existsByEmail(String email);
+
+    @Query("SELECT u.ci FROM User u WHERE u.ci IN :cis")
+    List<String> findExistingCis(@Param("cis") Collection<String> cis);
+
+    @Query("SELECT u.email FROM User u WHERE u.email IN :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    // Usuarios del rol que no están matriculados en el curso, ordenados por (nameLower, ci) para paginar por keyset
+    @Query("SELECT new com.mentora.backend.dt.DtUser(u.ci, u.name, u.email, u.description, u.pictureUrl, u.role) " +
+            "FROM User u " +
+            "WHERE u.role = :role " +
+            "AND NOT EXISTS (SELECT 1 FROM UserCourse uc WHERE uc.course.id = :courseId AND uc.user.ci = u.ci) " +
+            "AND (:prefix IS NULL OR u.nameLower LIKE :prefix ESCAPE '!' OR u.ci LIKE :prefix ESCAPE '!') " +
+            "AND (:afterName IS NULL " +
+            "OR u.nameLower > :afterName " +
+            "OR (u.nameLower = :afterName AND u.ci > :afterCi)) " +
+            "ORDER BY u.nameLower ASC, u.ci ASC")
+    List<DtUser> findNonParticipantsPage(
+            @Param("courseId") String courseId,
+            @Param("role") Role role,
+            @Param("prefix") String prefix,
+            @Param("afterName") String afterName,
+            @Param("afterCi") String afterCi,
+            Limit limit
+    );
+
+    // Listado de usuarios por keyset; role null incluye todos los roles
+    @Query("SELECT u FROM User u " +
+            "WHERE (:role IS NULL OR u.role = :role) " +
+            "AND (:afterName IS NULL " +
+            "OR u.nameLower > :afterName " +
+            "OR (u.nameLower = :afterName AND u.ci > :afterCi)) " +
+            "ORDER BY u.nameLower ASC, u.ci ASC")
+    List<User> findPageByNameAsc(@Param("role") Role role, @Param("afterName") String afterName, @Param("afterCi") String afterCi, Limit limit);
+
+    @Query("SELECT u FROM User u " +
+            "WHERE (:role IS NULL OR u.role = :role) " +
+            "AND (:afterName IS NULL " +
+            "OR u.nameLower < :afterName " +
+            "OR (u.nameLower = :afterName AND u.ci < :afterCi)) " +
+            "ORDER BY u.nameLower DESC, u.ci DESC")
+    List<User> findPageByNameDesc(@Param("role") Role role, @Param("afterName") String afterName, @Param("afterCi") String afterCi, Limit limit);
+
+    @Query("SELECT u FROM User u " +
+            "WHERE (:role IS NULL OR u.role = :role) " +
+            "AND (:afterCi IS NULL OR u.ci > :afterCi) " +
+            "ORDER BY u.ci ASC")
+    List<User> findPageByCiAsc(@Param("role") Role role, @Param("afterCi") String afterCi, Limit limit);
+
+    @Query("SELECT u FROM User u " +
+            "WHERE (:role IS NULL OR u.role = :role) " +
+            "AND (:afterCi IS NULL OR u.ci < :afterCi) " +
+            "ORDER BY u.ci DESC")
+    List<User> findPageByCiDesc(@Param("role") Role role, @Param("afterCi") String afterCi, Limit limit);
 }
 
 
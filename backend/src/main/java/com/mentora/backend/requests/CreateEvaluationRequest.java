@@ -8,6 +8,9 @@ public class CreateEvaluationRequest {
   public String title;
   public String content;
   public MultipartFile file;
+  // Alternativa a file: clave devuelta por POST /uploads tras subir directo a GCS
+  public String uploadKey;
+  public String fileName;
   public LocalDateTime dueDate;
 
   public CreateEvaluationRequest() {}
@@ -18,6 +21,10 @@ public class CreateEvaluationRequest {
   public void setContent(String content) { this.content = content; }
   public MultipartFile getFile() { return file; }
   public void setFile(MultipartFile file) { this.file = file; }
+  public String getUploadKey() { return uploadKey; }
+  public void setUploadKey(String uploadKey) { this.uploadKey = uploadKey; }
+  public String getFileName() { return fileName; }
+  public void setFileName(String fileName) { this.fileName = fileName; }
   public LocalDateTime getDueDate() { return dueDate; }
   public void setDueDate(LocalDateTime dueDate) { this.dueDate = dueDate; }
 }
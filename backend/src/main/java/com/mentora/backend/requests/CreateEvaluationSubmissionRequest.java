@@ -5,6 +5,9 @@ import org.springframework.web.multipart.MultipartFile;
 public class CreateEvaluationSubmissionRequest {
   public String solution;
   public MultipartFile file;
+  // Alternativa a file: clave devuelta por POST /uploads tras subir directo a GCS
+  public String uploadKey;
+  public String fileName;
 
   public CreateEvaluationSubmissionRequest() {}
 
@@ -12,4 +15,8 @@ public class CreateEvaluationSubmissionRequest {
   public void setSolution(String solution) { this.solution = solution; }
   public MultipartFile getFile() { return file; }
   public void setFile(MultipartFile file) { this.file = file; }
+  public String getUploadKey() { return uploadKey; }
+  public void setUploadKey(String uploadKey) { this.uploadKey = uploadKey; }
+  public String getFileName() { return fileName; }
+  public void setFileName(String fileName) { this.fileName = fileName; }
 }
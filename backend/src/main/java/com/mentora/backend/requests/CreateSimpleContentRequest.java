@@ -6,6 +6,9 @@ public class CreateSimpleContentRequest {
   public String title;
   public String content;
   public MultipartFile file;
+  // Alternativa a file: clave devuelta por POST /uploads tras subir directo a GCS
+  public String uploadKey;
+  public String fileName;
 
   public CreateSimpleContentRequest() {}
 
@@ -15,4 +18,8 @@ public class CreateSimpleContentRequest {
   public void setContent(String content) { this.content = content; }
   public MultipartFile getFile() { return file; }
   public void setFile(MultipartFile file) { this.file = file; }
+  public String getUploadKey() { return uploadKey; }
+  public void setUploadKey(String uploadKey) { this.uploadKey = uploadKey; }
+  public String getFileName() { return fileName; }
+  public void setFileName(String fileName) { this.fileName = fileName; }
 }
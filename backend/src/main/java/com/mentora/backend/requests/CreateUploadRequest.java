@@ -0,0 +1,14 @@
+package com.mentora.backend.requests;
+
+public class CreateUploadRequest {
+  private String fileName;
+  private String contentType;
+  private Long size;
+
+  public String getFileName() { return fileName; }
+  public void setFileName(String fileName) { this.fileName = fileName; }
+  public String getContentType() { return contentType; }
+  public void setContentType(String contentType) { this.contentType = contentType; }
+  public Long getSize() { return size; }
+  public void setSize(Long size) { this.size = size; }
+}
@@ -0,0 +1,13 @@
+package com.mentora.backend.requests;
+
+public class MarkNotificationsReadRequest {
+  private String[] notificationIds;
+
+  public String[] getNotificationIds() {
+    return notificationIds;
+  }
+
+  public void setNotificationIds(String[] notificationIds) {
+    this.notificationIds = notificationIds;
+  }
+}
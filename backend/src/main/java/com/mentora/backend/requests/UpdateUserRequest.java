@@ -8,6 +8,9 @@ public class UpdateUserRequest {
   @Nullable private String email;
   @Nullable private String description;
   @Nullable private MultipartFile picture;
+  // Alternativa a picture: clave devuelta por POST /uploads tras subir directo a GCS
+  @Nullable private String pictureUploadKey;
+  @Nullable private String pictureFileName;
 
   public String getName() { return name; }
   public void setName(String name) { this.name = name; }
@@ -17,4 +20,8 @@ public class UpdateUserRequest {
   public void setDescription(String description) { this.description = description; }
   public MultipartFile getPicture() { return picture; }
   public void setPicture(MultipartFile picture) { this.picture = picture; }
+  public String getPictureUploadKey() { return pictureUploadKey; }
+  public void setPictureUploadKey(String pictureUploadKey) { this.pictureUploadKey = pictureUploadKey; }
+  public String getPictureFileName() { return pictureFileName; }
+  public void setPictureFileName(String pictureFileName) { this.pictureFileName = pictureFileName; }
 }
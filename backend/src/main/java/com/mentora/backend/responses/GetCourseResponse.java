@@ -8,6 +8,7 @@ public class GetCourseResponse {
   private DtCourse course;
   private List<?> contents;
   private List<DtForum> forums;
+  private String nextCursor;
 
   public GetCourseResponse() {}
 
@@ -17,6 +18,11 @@ public class GetCourseResponse {
     this.forums = forums;
   }
 
+  public GetCourseResponse(DtCourse course, List<?> contents, List<DtForum> forums, String nextCursor) {
+    this(course, contents, forums);
+    this.nextCursor = nextCursor;
+  }
+
   public DtCourse getCourse() { return course; }
   public void setCourse(DtCourse course) { this.course = course; }
 
@@ -25,4 +31,7 @@ public class GetCourseResponse {
 
   public List<DtForum> getForums() { return forums; }
   public void setForums(List<DtForum> forums) { this.forums = forums; }
+
+  public String getNextCursor() { return nextCursor; }
+  public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
 }
@@ -1,9 +1,12 @@
 package com.mentora.backend.security;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -17,6 +20,8 @@ import java.util.List;
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    private static final Logger log = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
+
     private final JwtService jwtService;
 
     public JwtAuthenticationFilter(JwtService jwtService) {
@@ -38,19 +43,23 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         try {
             String token = authHeader.substring(7);
 
-            if (jwtService.isTokenValid(token) && SecurityContextHolder.getContext().getAuthentication() == null) {
-                String ci = jwtService.extractCi(token);
-                String role = jwtService.extractRole(token);
+            if (SecurityContextHolder.getContext().getAuthentication() == null) {
+                // Una sola verificación por request; los tokens ya verificados salen del cache
+                Claims claims = jwtService.parseAndValidate(token).orElse(null);
+                if (claims != null) {
+                    String ci = claims.getSubject();
+                    String role = claims.get("role", String.class);
 
-                var authorities = List.of(new SimpleGrantedAuthority("ROLE_" + role));
+                    var authorities = List.of(new SimpleGrantedAuthority("ROLE_" + role));
 
-                var authToken = new UsernamePasswordAuthenticationToken(ci, null, authorities);
-                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                    var authToken = new UsernamePasswordAuthenticationToken(ci, null, authorities);
+                    authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
-                SecurityContextHolder.getContext().setAuthentication(authToken);
+                    SecurityContextHolder.getContext().setAuthentication(authToken);
+                }
             }
         } catch (Exception e) {
-            System.err.println("Error al procesar token JWT: " + e.getMessage());
+            log.warn("Error al procesar token JWT: {}", e.getMessage());
         }
 
         filterChain.doFilter(request, response);
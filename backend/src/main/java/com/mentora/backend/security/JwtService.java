@@ -3,29 +3,77 @@ package com.mentora.backend.security;
 import com.mentora.backend.model.User;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import javax.annotation.PostConstruct;
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Collections;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Optional;
 
 @Service
 public class JwtService {
 
+    private static final Logger log = LoggerFactory.getLogger(JwtService.class);
+
     @Value("${jwt.secret}")
     private String secretKey; // Debe tener al menos 32 chars
 
     @Value("${jwt.expiration}") // tiempo en ms
     private long jwtExpirationMs;
 
+    @Value("${jwt.claims-cache.max-entries:10000}")
+    private int maxCacheEntries;
+
+    private final MeterRegistry meterRegistry;
+
     private SecretKey key;
+    private JwtParser parser;
+
+    // Claims ya verificados por hash del token, LRU y acotado; cada entrada vale hasta la expiración del token
+    private Map<String, CachedClaims> claimsCache;
+
+    private Counter validCounter;
+    private Counter expiredCounter;
+    private Counter invalidCounter;
+    private Counter cacheHits;
+
+    public JwtService(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
 
     @PostConstruct
     public void init() {
         this.key = Keys.hmacShaKeyFor(secretKey.getBytes(StandardCharsets.UTF_8));
+        // El parser es inmutable y thread-safe: se arma una sola vez
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(key)
+                .build();
+
+        this.claimsCache = Collections.synchronizedMap(new LinkedHashMap<String, CachedClaims>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedClaims> eldest) {
+                return size() > maxCacheEntries;
+            }
+        });
+
+        this.validCounter = Counter.builder("jwt.validation").tag("result", "valid").register(meterRegistry);
+        this.expiredCounter = Counter.builder("jwt.validation").tag("result", "expired").register(meterRegistry);
+        this.invalidCounter = Counter.builder("jwt.validation").tag("result", "invalid").register(meterRegistry);
+        this.cacheHits = Counter.builder("jwt.claims.cache").tag("result", "hit").register(meterRegistry);
+        meterRegistry.gaugeMapSize("jwt.claims.cache.size", Tags.empty(), claimsCache);
     }
 
     // Genera token con expiración y rol
@@ -39,35 +87,53 @@ public class JwtService {
                 .compact();
     }
 
-    // Extrae el ci
-    public String extractCi(String token) {
-        return getClaims(token).getSubject();
-    }
+    // Valida firma y expiración y devuelve los claims; vacío si el token no es válido
+    public Optional<Claims> parseAndValidate(String token) {
+        if (token == null || token.isBlank()) {
+            invalidCounter.increment();
+            return Optional.empty();
+        }
 
-    // Extrae rol
-    public String extractRole(String token) {
-        Claims claims = getClaims(token);
-        return claims.get("role", String.class);
-    }
+        String cacheKey = hash(token);
+        long now = System.currentTimeMillis();
+        CachedClaims cached = claimsCache.get(cacheKey);
+        if (cached != null) {
+            if (now < cached.expiresAtMillis()) {
+                cacheHits.increment();
+                validCounter.increment();
+                return Optional.of(cached.claims());
+            }
+            claimsCache.remove(cacheKey);
+            expiredCounter.increment();
+            return Optional.empty();
+        }
 
-    // Valida token (firma + expiración)
-    public boolean isTokenValid(String token) {
         try {
-            getClaims(token);
-            return true;
+            Claims claims = parser.parseClaimsJws(token).getBody();
+            Date expiration = claims.getExpiration();
+            if (expiration != null) {
+                claimsCache.put(cacheKey, new CachedClaims(claims, expiration.getTime()));
+            }
+            validCounter.increment();
+            return Optional.of(claims);
         } catch (ExpiredJwtException e) {
-            System.out.println("Token expirado: " + e.getMessage());
-        } catch (JwtException e) {
-            System.out.println("Token inválido: " + e.getMessage());
+            expiredCounter.increment();
+            log.debug("Token expirado: {}", e.getMessage());
+        } catch (JwtException | IllegalArgumentException e) {
+            invalidCounter.increment();
+            log.debug("Token inválido: {}", e.getMessage());
         }
-        return false;
+        return Optional.empty();
     }
 
-    private Claims getClaims(String token) throws JwtException {
-        return Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
     }
+
+    private record CachedClaims(Claims claims, long expiresAtMillis) {}
 }
@@ -0,0 +1,48 @@
+package com.mentora.backend.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Map;
+
+// Backend de almacenamiento de archivos; se elige con la propiedad storage.backend (gcs | local | memory)
+public interface BlobStore {
+
+    // Esquema de los paths que genera (gs, local, mem)
+    String scheme();
+
+    // Path donde guardar un objeto nuevo con esta key
+    StoragePath pathFor(String key);
+
+    // Escribe el stream completo usando buffer como espacio de copia; devuelve los bytes escritos
+    long write(StoragePath path, String contentType, InputStream in, byte[] buffer) throws IOException;
+
+    // Metadatos del objeto, o null si no existe
+    StoredObject stat(StoragePath path);
+
+    // Copia el contenido del objeto a out; devuelve los bytes copiados
+    long copyTo(StoragePath path, OutputStream out) throws IOException;
+
+    void delete(StoragePath path);
+
+    void move(StoragePath from, StoragePath to) throws IOException;
+
+    // URL firmada del propio proveedor; null si la descarga la sirve el backend por /files/download
+    default String signedUrl(StoragePath path, long ttlMinutes) {
+        return null;
+    }
+
+    // Subida del cliente directo al proveedor, sin pasar los bytes por el backend
+    default boolean supportsDirectUpload() {
+        return false;
+    }
+
+    default DirectUpload signUpload(StoragePath path, String contentType, String uploaderCi, long size, long ttlMinutes) {
+        throw new UnsupportedOperationException("Subida directa no soportada");
+    }
+
+    record StoredObject(long size, String contentType, String uploaderCi) {}
+
+    // URL de PUT y headers que el cliente debe enviar tal cual (forman parte de la firma)
+    record DirectUpload(String url, Map<String, String> headers) {}
+}
@@ -0,0 +1,148 @@
+package com.mentora.backend.service;
+
+import com.mentora.backend.model.ChatOutboxEvent;
+import com.mentora.backend.model.ChatOutboxStatus;
+import com.mentora.backend.repository.ChatOutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+
+// Entrega en segundo plano la notificación (con su push) y el mail de cada mensaje de chat
+@Service
+public class ChatOutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(ChatOutboxRelay.class);
+
+    private final ChatOutboxRepository chatOutboxRepository;
+    private final NotificationService notificationService;
+    private final EmailService emailService;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long backoffSeconds;
+    private final long staleMinutes;
+    private final long emailWindowMinutes;
+    private final long retentionDays;
+
+    private final Counter processedCounter;
+    private final Counter emailCounter;
+    private final Counter coalescedCounter;
+    private final Counter retryCounter;
+    private final Counter deadCounter;
+
+    public ChatOutboxRelay(
+            ChatOutboxRepository chatOutboxRepository,
+            NotificationService notificationService,
+            EmailService emailService,
+            MeterRegistry meterRegistry,
+            @Value("${chat.outbox.batch-size:100}") int batchSize,
+            @Value("${chat.outbox.max-attempts:5}") int maxAttempts,
+            @Value("${chat.outbox.backoff-seconds:10}") long backoffSeconds,
+            @Value("${chat.outbox.stale-minutes:5}") long staleMinutes,
+            @Value("${chat.email.coalesce-minutes:15}") long emailWindowMinutes,
+            @Value("${chat.outbox.retention-days:7}") long retentionDays
+    ) {
+        this.chatOutboxRepository = chatOutboxRepository;
+        this.notificationService = notificationService;
+        this.emailService = emailService;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.backoffSeconds = backoffSeconds;
+        this.staleMinutes = staleMinutes;
+        this.emailWindowMinutes = emailWindowMinutes;
+        this.retentionDays = retentionDays;
+
+        this.processedCounter = Counter.builder("chat.outbox").tag("result", "processed").register(meterRegistry);
+        this.retryCounter = Counter.builder("chat.outbox").tag("result", "retry").register(meterRegistry);
+        this.deadCounter = Counter.builder("chat.outbox").tag("result", "dead").register(meterRegistry);
+        this.emailCounter = Counter.builder("chat.outbox.email").tag("result", "sent").register(meterRegistry);
+        this.coalescedCounter = Counter.builder("chat.outbox.email").tag("result", "coalesced").register(meterRegistry);
+        meterRegistry.gauge("chat.outbox.pending", chatOutboxRepository,
+                repo -> repo.countByStatus(ChatOutboxStatus.PENDING));
+    }
+
+    @Scheduled(fixedDelayString = "${chat.outbox.poll-interval-ms:500}")
+    public void poll() {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        chatOutboxRepository.releaseStale(now.minusMinutes(staleMinutes));
+
+        List<ChatOutboxEvent> due = chatOutboxRepository
+                .findByStatusAndNextAttemptAtLessThanEqualOrderByCreatedDateAsc(ChatOutboxStatus.PENDING, now, Limit.of(batchSize));
+        if (due.isEmpty()) {
+            return;
+        }
+
+        List<String> ids = due.stream().map(ChatOutboxEvent::getId).toList();
+        // Cada poll usa su propio token: otro relay que reclame en el mismo milisegundo no ve estos eventos
+        String claimToken = UUID.randomUUID().toString();
+        if (chatOutboxRepository.claim(ids, now, claimToken) == 0) {
+            return;
+        }
+        // En orden de creación, para que el agrupado de mails vea los mensajes en el orden en que se mandaron
+        for (ChatOutboxEvent event : chatOutboxRepository.findByClaimTokenAndStatusOrderByCreatedDateAsc(claimToken, ChatOutboxStatus.PROCESSING)) {
+            process(event);
+        }
+    }
+
+    private void process(ChatOutboxEvent event) {
+        try {
+            if (event.getNotifiedAt() == null) {
+                // Crea la notificación y encola el push
+                notificationService.createNotification(event.getRecipientCi(),
+                        "Nuevo mensaje de " + event.getSenderName(),
+                        "/chats/" + event.getChatId());
+                event.setNotifiedAt(LocalDateTime.now());
+            }
+
+            if (event.getEmailSentAt() == null) {
+                // Un mail por conversación y destinatario cada emailWindowMinutes; el resto se ve en la app
+                LocalDateTime lastEmail = chatOutboxRepository.findLastEmailSentAt(event.getChatId(), event.getRecipientCi());
+                if (lastEmail == null || lastEmail.isBefore(LocalDateTime.now().minusMinutes(emailWindowMinutes))) {
+                    emailService.sendEmailAsync(event.getRecipientEmail(),
+                            "Nuevo mensaje de " + event.getSenderName(),
+                            event.getMessageText());
+                    event.setEmailSentAt(LocalDateTime.now());
+                    emailCounter.increment();
+                } else {
+                    coalescedCounter.increment();
+                }
+            }
+
+            event.setStatus(ChatOutboxStatus.DONE);
+            event.setProcessedAt(LocalDateTime.now());
+            event.setLastError(null);
+            processedCounter.increment();
+        } catch (Exception e) {
+            log.warn("Error procesando evento de chat {}: {}", event.getId(), e.getMessage());
+            String error = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            int attempts = event.getAttempts() + 1;
+            event.setAttempts(attempts);
+            event.setLastError(error.length() <= 1024 ? error : error.substring(0, 1024));
+            if (attempts >= maxAttempts) {
+                event.setStatus(ChatOutboxStatus.DEAD);
+                deadCounter.increment();
+            } else {
+                // Backoff exponencial: base, 2x, 4x, ...
+                event.setStatus(ChatOutboxStatus.PENDING);
+                event.setNextAttemptAt(LocalDateTime.now().plusSeconds(backoffSeconds << (attempts - 1)));
+                retryCounter.increment();
+            }
+        }
+        chatOutboxRepository.save(event);
+    }
+
+    // Borra los eventos ya procesados; se conservan retentionDays para calcular el agrupado de mails
+    @Scheduled(cron = "${chat.outbox.cleanup-cron:0 30 3 * * *}")
+    public void purgeProcessed() {
+        chatOutboxRepository.deleteProcessedBefore(LocalDateTime.now().minusDays(retentionDays));
+    }
+}
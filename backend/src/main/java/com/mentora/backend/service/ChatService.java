@@ -2,45 +2,66 @@ package com.mentora.backend.service;
 
 import com.mentora.backend.dt.DtChat;
 import com.mentora.backend.dt.DtMessage;
+import com.mentora.backend.dt.DtUser;
 import com.mentora.backend.model.Chat;
+import com.mentora.backend.model.ChatOutboxEvent;
 import com.mentora.backend.model.Message;
 import com.mentora.backend.model.User;
+import com.mentora.backend.repository.ChatOutboxRepository;
 import com.mentora.backend.repository.ChatRepository;
 import com.mentora.backend.repository.MessageRepository;
 import com.mentora.backend.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
 
 @Service
 public class ChatService {
 
+    private static final Logger log = LoggerFactory.getLogger(ChatService.class);
+
+    private static final int DEFAULT_MESSAGES_PAGE_SIZE = 50;
+    private static final int MAX_MESSAGES_PAGE_SIZE = 200;
+    private static final int MAX_CHATS_PAGE_SIZE = 100;
+
     private final ChatRepository chatRepository;
     private final MessageRepository messageRepository;
     private final UserRepository userRepository;
-    private final NotificationService notificationService;
-    private final EmailService emailService;
+    private final ChatOutboxRepository chatOutboxRepository;
     private final UserService userService;
+    private final RealtimeService realtimeService;
 
     public ChatService(ChatRepository chatRepository,
         MessageRepository messageRepository,
         UserRepository userRepository,
-        NotificationService notificationService,
-        EmailService emailService,
-        UserService userService
+        ChatOutboxRepository chatOutboxRepository,
+        UserService userService,
+        RealtimeService realtimeService
     ) {
         this.chatRepository = chatRepository;
         this.messageRepository = messageRepository;
         this.userRepository = userRepository;
-        this.notificationService = notificationService;
-        this.emailService = emailService;
+        this.chatOutboxRepository = chatOutboxRepository;
         this.userService = userService;
+        this.realtimeService = realtimeService;
     }
 
+    @Transactional
     public DtMessage sendMessage(String senderCi, String recipientCi, String messageText) {
         User sender = userRepository.findByCi(senderCi)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Usuario remitente no encontrado"));
@@ -54,18 +75,25 @@ public class ChatService {
         Message message = new Message(chat, sender, messageText, LocalDateTime.now());
         messageRepository.save(message);
 
-        notificationService.createNotification(recipient.getCi(),
-                "Nuevo mensaje de " + sender.getName(),
-                "/chats/" + chat.getId());
-
-        emailService.sendEmail(recipient.getEmail(),
-                "Nuevo mensaje de " + sender.getName(),
-                messageText);
-
-        return getDtMessage(message);
+        // La notificación, el push y el mail los entrega ChatOutboxRelay; el evento se confirma junto con el mensaje
+        chatOutboxRepository.save(new ChatOutboxEvent(message.getId(), chat.getId(), sender.getName(),
+                recipient.getCi(), recipient.getEmail(), messageText));
+
+        // Se publica a ambos participantes (el remitente puede tener otros dispositivos), recién después del commit
+        DtMessage dtMessage = getDtMessage(message);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                realtimeService.sendToUser(recipient.getCi(), RealtimeService.MESSAGES_QUEUE, dtMessage);
+                realtimeService.sendToUser(sender.getCi(), RealtimeService.MESSAGES_QUEUE, dtMessage);
+            }
+        });
+
+        return dtMessage;
     }
 
-    public List<DtMessage> getMessages(Long chatId, String requesterCi) {
+    public List<DtMessage> getMessages(Long chatId, String requesterCi, Long before, Long after,
+                                       LocalDateTime since, Integer limit) {
         Chat chat = chatRepository.findById(chatId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Chat no encontrado"));
 
@@ -74,12 +102,11 @@ public class ChatService {
             throw new ResponseStatusException(HttpStatus.FORBIDDEN, "No tienes permisos para ver este chat");
         }
 
-        return messageRepository.findAllByChatOrderByDateSentAsc(chat).stream()
-                .map(this::getDtMessage)
-                .collect(Collectors.toList());
+        return findMessages(chat.getId(), before, after, since, limit);
     }
 
-    public List<DtMessage> getMessagesWith(String requesterCi, String partnerCi) {
+    public List<DtMessage> getMessagesWith(String requesterCi, String partnerCi, Long before, Long after,
+                                           LocalDateTime since, Integer limit) {
         User requester = userRepository.findByCi(requesterCi)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Usuario no encontrado"));
         User partner = userRepository.findByCi(partnerCi)
@@ -88,20 +115,129 @@ public class ChatService {
         List<Chat> existing = chatRepository.findByParticipants(requester, partner);
         Chat chat = existing.isEmpty() ? chatRepository.save(new Chat(requester, partner)) : existing.get(0);
 
-        return messageRepository.findAllByChatOrderByDateSentAsc(chat).stream()
-                .map(this::getDtMessage)
-                .collect(Collectors.toList());
+        return findMessages(chat.getId(), before, after, since, limit);
     }
 
-    public List<DtChat> getChats(String requesterCi) {
-        User requester = userRepository.findByCi(requesterCi)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Usuario no encontrado"));
+    // Historial en orden cronológico. Sin parámetros devuelve todo; 'before' pagina hacia atrás desde un mensaje,
+    // 'after' y 'since' devuelven solo lo nuevo para los clientes que hacen polling
+    private List<DtMessage> findMessages(Long chatId, Long before, Long after, LocalDateTime since, Integer limit) {
+        int cursors = (before != null ? 1 : 0) + (after != null ? 1 : 0) + (since != null ? 1 : 0);
+        if (cursors > 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Solo se puede indicar uno de before, after o since");
+        }
+        if (limit != null && (limit < 1 || limit > MAX_MESSAGES_PAGE_SIZE)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "El límite debe estar entre 1 y " + MAX_MESSAGES_PAGE_SIZE);
+        }
+
+        if (cursors == 0 && limit == null) {
+            return messageRepository.findPageAfter(chatId, null, null, Limit.unlimited());
+        }
+
+        Limit pageLimit = Limit.of(limit != null ? limit : DEFAULT_MESSAGES_PAGE_SIZE);
+
+        if (since != null) {
+            return messageRepository.findSince(chatId, since, pageLimit);
+        }
+        if (after != null) {
+            LocalDateTime afterDate = findCursorDate(chatId, after);
+            return messageRepository.findPageAfter(chatId, afterDate, after, pageLimit);
+        }
+
+        LocalDateTime beforeDate = before != null ? findCursorDate(chatId, before) : null;
+        List<DtMessage> page = new ArrayList<>(messageRepository.findPageBefore(chatId, beforeDate, before, pageLimit));
+        Collections.reverse(page);
+        return page;
+    }
+
+    private LocalDateTime findCursorDate(Long chatId, Long messageId) {
+        return messageRepository.findDateSentInChat(chatId, messageId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cursor inválido"));
+    }
+
+    // Bandeja de entrada: una consulta para los chats con su último mensaje y no leídos.
+    // Sin 'limit' devuelve todos; 'after' es el id del último chat de la página anterior
+    public List<DtChat> getChats(String requesterCi, Long after, Integer limit) {
+        if (!userRepository.existsByCi(requesterCi)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Usuario no encontrado");
+        }
+        if (limit != null && (limit < 1 || limit > MAX_CHATS_PAGE_SIZE)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "El límite debe estar entre 1 y " + MAX_CHATS_PAGE_SIZE);
+        }
 
-        List<Chat> chatList = chatRepository.findAllByParticipant(requester);
+        Long afterMessageId = null;
+        if (after != null) {
+            Chat last = chatRepository.findById(after)
+                    .filter(c -> isParticipant(c, requesterCi))
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cursor inválido"));
+            afterMessageId = messageRepository.findLastMessageId(last.getId());
+        }
 
-        return chatList.stream()
-                .map(this::getDtChat)
-                .collect(Collectors.toList());
+        List<ChatRepository.ChatInboxView> rows = chatRepository.findInbox(requesterCi, afterMessageId, after,
+                limit != null ? Limit.of(limit) : Limit.unlimited());
+
+        // Cada usuario se convierte una sola vez (el solicitante aparece en todos los chats)
+        Map<String, DtUser> users = new HashMap<>();
+        List<DtChat> chats = new ArrayList<>(rows.size());
+        for (ChatRepository.ChatInboxView row : rows) {
+            DtMessage lastMessage = row.getLastMessageId() == null ? null : new DtMessage(
+                    row.getLastMessageId(),
+                    row.getLastMessage(),
+                    row.getLastActivityAt(),
+                    row.getChatId(),
+                    row.getLastMessageSenderCi()
+            );
+            chats.add(new DtChat(
+                    row.getChatId(),
+                    users.computeIfAbsent(row.getParticipant1().getCi(), ci -> userService.getUserDto(row.getParticipant1())),
+                    users.computeIfAbsent(row.getParticipant2().getCi(), ci -> userService.getUserDto(row.getParticipant2())),
+                    lastMessage,
+                    row.getLastActivityAt(),
+                    row.getUnreadCount()
+            ));
+        }
+        return chats;
+    }
+
+    // Avanza el cursor de lectura del usuario hasta messageId (o hasta el último mensaje); nunca retrocede
+    public void markAsRead(Long chatId, String requesterCi, Long messageId) {
+        Chat chat = chatRepository.findById(chatId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Chat no encontrado"));
+
+        if (!isParticipant(chat, requesterCi)) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "No tienes permisos para ver este chat");
+        }
+
+        Long readUpTo = messageId;
+        if (readUpTo == null) {
+            readUpTo = messageRepository.findLastMessageId(chatId);
+            if (readUpTo == null) {
+                return;
+            }
+        } else if (messageRepository.findDateSentInChat(chatId, readUpTo).isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "El mensaje no pertenece al chat");
+        }
+
+        // UPDATE condicional: dos lecturas concurrentes no pueden hacer retroceder el cursor
+        if (chat.getParticipant1Id().getCi().equals(requesterCi)) {
+            chatRepository.advanceParticipant1LastRead(chatId, readUpTo);
+        } else {
+            chatRepository.advanceParticipant2LastRead(chatId, readUpTo);
+        }
+    }
+
+    // Completa una sola vez los cursores de chats creados antes de existir; es idempotente entre instancias
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillReadCursors() {
+        int updated = chatRepository.backfillParticipant1LastRead() + chatRepository.backfillParticipant2LastRead();
+        if (updated > 0) {
+            log.info("Cursores de lectura inicializados en {} columnas de chats existentes", updated);
+        }
+    }
+
+    private boolean isParticipant(Chat chat, String userCi) {
+        return chat.getParticipant1Id().getCi().equals(userCi) || chat.getParticipant2Id().getCi().equals(userCi);
     }
 
     private DtMessage getDtMessage(Message message) {
@@ -113,12 +249,4 @@ public class ChatService {
                 message.getSendByUser().getCi()
         );
     }
-
-    private DtChat getDtChat(Chat chat) {
-        return new DtChat(
-                chat.getId(),
-                userService.getUserDto(chat.getParticipant1Id()),
-                userService.getUserDto(chat.getParticipant2Id())
-        );
-    }
 }
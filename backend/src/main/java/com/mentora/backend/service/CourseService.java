@@ -10,6 +10,7 @@ import java.io.ByteArrayInputStream;
 import java.util.*;
 
 import com.mentora.backend.requests.CreateQuizRequest;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
 import java.util.stream.Collectors;
@@ -34,6 +35,9 @@ import java.nio.charset.StandardCharsets;
 @Service
 public class CourseService {
 
+    private static final int MAX_CONTENTS_PAGE_SIZE = 200;
+    private static final Set<String> TIMELINE_TYPES = Set.of("simpleContent", "evaluation", "quiz");
+
     private final CourseRepository courseRepository;
     private final UserCourseService userCourseService;
     private final SimpleContentRepository simpleContentRepository;
@@ -43,6 +47,8 @@ public class CourseService {
     private final EvaluationRepository evaluationRepository;
     private final EvaluationService evaluationService;
     private final QuizService quizService;
+    private final PendingItemsService pendingItemsService;
+    private final GradebookService gradebookService;
 
     public CourseService(
             CourseRepository courseRepository,
@@ -54,7 +60,9 @@ public class CourseService {
             EvaluationRepository evaluationRepository,
             EvaluationService evaluationService,
             QuizService quizService,
-            UserRepository userRepository
+            UserRepository userRepository,
+            PendingItemsService pendingItemsService,
+            GradebookService gradebookService
     ) {
         this.courseRepository = courseRepository;
         this.userCourseService = userCourseService;
@@ -65,6 +73,8 @@ public class CourseService {
         this.evaluationRepository = evaluationRepository;
         this.evaluationService = evaluationService;
         this.quizService = quizService;
+        this.pendingItemsService = pendingItemsService;
+        this.gradebookService = gradebookService;
     }
 
     public List<DtCourse> getCoursesForUser(String ci, Role role) {
@@ -113,34 +123,62 @@ public class CourseService {
         return getDtCourse(saved);
     }
 
-    public GetCourseResponse getCourseAndContents(String courseId) {
+    public GetCourseResponse getCourseAndContents(String courseId, String after, Integer limit) {
         Course course = courseRepository.findById(courseId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Curso no encontrado"));
 
-        List<DtSimpleContent> contents = simpleContentRepository.findByCourse_IdOrderByCreatedDateAsc(course.getId()).stream()
-                .map(this::getDtSimpleContent)
-                .toList();
-        List<DtEvaluation> evaluations = evaluationRepository.findByCourse_IdOrderByCreatedDateAsc(course.getId()).stream()
-                .map(evaluationService::getDtEvaluation)
-                .toList();
-        List<DtQuiz> quizzes = quizRepository.findByCourse_IdOrderByCreatedDateAsc(course.getId()).stream()
-                .map(quizService::getDtQuiz)
-                .toList();
-
-        List<Object> allContents = new ArrayList<>();
-        allContents.addAll(contents);
-        allContents.addAll(evaluations);
-        allContents.addAll(quizzes);
-        allContents.sort(Comparator.comparing(o -> {
-            if (o instanceof DtSimpleContent) {
-                return ((DtSimpleContent) o).getCreatedDate();
-            } else if (o instanceof DtEvaluation) {
-                return ((DtEvaluation) o).getCreatedDate();
-            } else if (o instanceof DtQuiz) {
-                return ((DtQuiz) o).getCreatedDate();
+        // Cursor (createdDate, tipo, id): los ids de los tres tipos se superponen, así que el tipo desempata
+        LocalDateTime afterDate = null;
+        String afterType = null;
+        Long afterId = null;
+        if (after != null && !after.isBlank()) {
+            String[] parts = after.split(",");
+            try {
+                afterDate = LocalDateTime.parse(parts[0].trim());
+                afterType = parts[1].trim();
+                afterId = Long.parseLong(parts[2].trim());
+            } catch (RuntimeException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cursor inválido");
+            }
+            if (parts.length != 3 || !TIMELINE_TYPES.contains(afterType)) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cursor inválido");
+            }
+        }
+        if (limit != null && (limit < 1 || limit > MAX_CONTENTS_PAGE_SIZE)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "El límite debe estar entre 1 y " + MAX_CONTENTS_PAGE_SIZE);
+        }
+
+        // Una consulta por tipo de contenido, ya proyectada y ordenada por (createdDate, id).
+        // Se pide un elemento extra para saber si existe una página siguiente.
+        Limit pageLimit = limit != null ? Limit.of(limit + 1) : Limit.unlimited();
+
+        List<DtCourseContent> allContents = new ArrayList<>();
+        allContents.addAll(simpleContentRepository.findTimelinePage(course.getId(), afterDate,
+                timelineAfterId("simpleContent", afterType, afterId), pageLimit));
+        allContents.addAll(evaluationRepository.findTimelinePage(course.getId(), afterDate,
+                timelineAfterId("evaluation", afterType, afterId), pageLimit));
+        allContents.addAll(quizRepository.findTimelinePage(course.getId(), afterDate,
+                timelineAfterId("quiz", afterType, afterId), pageLimit));
+        allContents.sort(Comparator.comparing(DtCourseContent::getCreatedDate)
+                .thenComparing(DtCourseContent::getType)
+                .thenComparing(DtCourseContent::getId));
+
+        String nextCursor = null;
+        if (limit != null && allContents.size() > limit) {
+            allContents = new ArrayList<>(allContents.subList(0, limit));
+            DtCourseContent last = allContents.get(allContents.size() - 1);
+            nextCursor = last.getCreatedDate() + "," + last.getType() + "," + last.getId();
+        }
+
+        // Solo se firman las URLs de los elementos que efectivamente se devuelven
+        for (DtCourseContent item : allContents) {
+            if (item instanceof DtSimpleContent sc) {
+                sc.setFileUrl(fileStorageService.generateSignedUrl(sc.getFileUrl()));
+            } else if (item instanceof DtEvaluation ev) {
+                ev.setFileUrl(fileStorageService.generateSignedUrl(ev.getFileUrl()));
             }
-            return LocalDateTime.MIN;
-        }));
+        }
 
         List<Forum> forums = forumRepository.findByCourse_Id(course.getId());
 
@@ -148,7 +186,20 @@ public class CourseService {
                 .map(forum -> new DtForum(forum.getId().toString(), forum.getType().name(), course.getId()))
                 .collect(Collectors.toList());
 
-        return new GetCourseResponse(getDtCourse(course), allContents, dtForums);
+        return new GetCourseResponse(getDtCourse(course), allContents, dtForums, nextCursor);
+    }
+
+    // Con la misma fecha que el cursor, un tipo anterior ya se devolvió entero y uno posterior va completo;
+    // así cada consulta por tipo sigue usando solo (createdDate, id)
+    private static Long timelineAfterId(String type, String afterType, Long afterId) {
+        if (afterType == null) {
+            return null;
+        }
+        int cmp = type.compareTo(afterType);
+        if (cmp < 0) {
+            return Long.MAX_VALUE;
+        }
+        return cmp > 0 ? Long.MIN_VALUE : afterId;
     }
 
     public Object getContentByTypeAndId(String courseId, String type, Long contentId, String userCi) {
@@ -188,7 +239,7 @@ public class CourseService {
         Course course = courseRepository.findById(courseId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Curso no encontrado"));
 
-        if (req.getFile() == null && req.getContent() == null) {
+        if (req.getFile() == null && req.getUploadKey() == null && req.getContent() == null) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Contenido simple requiere texto o archivo");
         }
 
@@ -196,8 +247,8 @@ public class CourseService {
         String fileUrl = null;
         String content = null;
 
-        if (req.getFile() != null) {
-            DtFileResource file = fileStorageService.store(req.getFile());
+        DtFileResource file = fileStorageService.storeOrConfirm(req.getFile(), req.getUploadKey(), req.getFileName());
+        if (file != null) {
             fileName = file.getFilename();
             fileUrl = file.getStoragePath();
         }
@@ -260,6 +311,7 @@ public class CourseService {
         quiz.setQuestions(questions);
 
         Quiz saved = quizRepository.save(quiz);
+        pendingItemsService.evictAll();
 
         return quizService.getDtQuiz(saved);
     }
@@ -272,7 +324,7 @@ public class CourseService {
         String signedUrl = null;
         String fileUrl = sc.getFileUrl();
         if (fileUrl != null) {
-            if (fileUrl.startsWith("gs://")) {
+            if (fileStorageService.isStoredPath(fileUrl)) {
                 signedUrl = fileStorageService.generateSignedUrl(fileUrl);
             } else {
                 signedUrl = fileUrl;
@@ -301,8 +353,8 @@ public class CourseService {
         return userCourseService.getParticipantsFromCourseWithGrade(courseId);
     }
 
-    public List<DtUser> getNonParticipants(String courseId) {
-        return userCourseService.getNonParticipantsFromCourse(courseId);
+    public List<DtUser> getNonParticipants(String courseId, String query, String after, Integer limit, boolean pictures) {
+        return userCourseService.getNonParticipantsFromCourse(courseId, query, after, limit, pictures);
     }
 
     public BulkCreateCoursesResponse createCoursesFromCsv(InputStream csvInputStream) throws IOException, CsvException {
@@ -396,7 +448,7 @@ public class CourseService {
         Course course = courseRepository.findById(courseId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Curso no encontrado"));
 
-        if (req.getFile() == null && req.getContent() == null) {
+        if (req.getFile() == null && req.getUploadKey() == null && req.getContent() == null) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Evaluación requiere texto o archivo");
         }
 
@@ -408,8 +460,8 @@ public class CourseService {
         String fileUrl = null;
         String content = null;
 
-        if (req.getFile() != null) {
-            DtFileResource file = fileStorageService.store(req.getFile());
+        DtFileResource file = fileStorageService.storeOrConfirm(req.getFile(), req.getUploadKey(), req.getFileName());
+        if (file != null) {
             fileName = file.getFilename();
             fileUrl = file.getStoragePath();
         }
@@ -420,6 +472,7 @@ public class CourseService {
 
         Evaluation newEvaluation = new Evaluation(req.getTitle(), course, fileName, fileUrl, content, req.getDueDate());
         Evaluation saved = evaluationRepository.save(newEvaluation);
+        pendingItemsService.evictAll();
 
         return evaluationService.getDtEvaluation(saved);
     }
@@ -430,8 +483,8 @@ public class CourseService {
 
         if (req.getTitle() != null) sc.setTitle(req.getTitle());
         if (req.getContent() != null) sc.setContent(req.getContent());
-        if (req.getFile() != null) {
-            DtFileResource file = fileStorageService.store(req.getFile());
+        DtFileResource file = fileStorageService.storeOrConfirm(req.getFile(), req.getUploadKey(), req.getFileName());
+        if (file != null) {
             sc.setFileName(file.getFilename());
             sc.setFileUrl(file.getStoragePath());
         }
@@ -447,7 +500,12 @@ public class CourseService {
                 ));
 
         try {
+            List<String> fileUrls = getCourseFileUrls(courseId);
             courseRepository.delete(course);
+            gradebookService.removeCourse(courseId);
+            fileUrls.forEach(fileStorageService::release);
+            // Las evaluaciones y quizzes del curso dejan de estar pendientes para sus participantes
+            pendingItemsService.evictAll();
         } catch (Exception e) {
             throw new ResponseStatusException(
                     HttpStatus.INTERNAL_SERVER_ERROR,
@@ -456,6 +514,13 @@ public class CourseService {
         }
     }
 
+    // Archivos de evaluaciones y contenidos del curso; se leen antes de borrarlo en cascada
+    private List<String> getCourseFileUrls(String courseId) {
+        List<String> fileUrls = new ArrayList<>(evaluationRepository.findFileUrlsByCourseId(courseId));
+        fileUrls.addAll(simpleContentRepository.findFileUrlsByCourseId(courseId));
+        return fileUrls;
+    }
+
     public List<String> deleteCoursesFromCsv(byte[] fileBytes) {
         if (fileBytes == null || fileBytes.length == 0) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Archivo CSV vacío");
@@ -524,7 +589,10 @@ public class CourseService {
 
         try {
             for (String id : idsToDelete) {
+                List<String> fileUrls = getCourseFileUrls(id);
                 courseRepository.deleteById(id);
+                gradebookService.removeCourse(id);
+                fileUrls.forEach(fileStorageService::release);
                 deleted.add(id);
             }
         } catch (Exception e) {
@@ -532,6 +600,10 @@ public class CourseService {
                     HttpStatus.INTERNAL_SERVER_ERROR,
                     "Error al eliminar los cursos"
             );
+        } finally {
+            if (!deleted.isEmpty()) {
+                pendingItemsService.evictAll();
+            }
         }
 
         return deleted;
@@ -545,8 +617,10 @@ public class CourseService {
                         .orElseThrow(() -> new ResponseStatusException(
                                 HttpStatus.NOT_FOUND, "Evaluation no encontrada"));
 
-                fileStorageService.delete(ev.getFileUrl());
                 evaluationRepository.delete(ev);
+                fileStorageService.release(ev.getFileUrl());
+                gradebookService.removeItem(GradebookItemType.EVALUATION, id);
+                pendingItemsService.evictAll();
             }
 
             case "quiz" -> {
@@ -555,6 +629,9 @@ public class CourseService {
                                 HttpStatus.NOT_FOUND, "Quiz no encontrado"));
 
                 quizRepository.delete(quiz);
+                quizService.evictAnswerKey(id);
+                gradebookService.removeItem(GradebookItemType.QUIZ, id);
+                pendingItemsService.evictAll();
             }
 
             case "simple" -> {
@@ -562,8 +639,8 @@ public class CourseService {
                         .orElseThrow(() -> new ResponseStatusException(
                                 HttpStatus.NOT_FOUND, "Contenido simple no encontrado"));
 
-                fileStorageService.delete(sc.getFileUrl());
                 simpleContentRepository.delete(sc);
+                fileStorageService.release(sc.getFileUrl());
             }
 
             default -> throw new ResponseStatusException(
@@ -8,6 +8,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.util.Collection;
 import java.util.List;
 
 @Service
@@ -42,9 +43,23 @@ public class DeviceTokenService {
         return deviceTokenRepository.findAllByUser(user);
     }
 
+    public List<DeviceToken> getTokensForUsers(Collection<String> userCis) {
+        if (userCis == null || userCis.isEmpty()) {
+            return List.of();
+        }
+        return deviceTokenRepository.findAllByUserCis(userCis);
+    }
+
     public void removeToken(String token) {
         deviceTokenRepository.deleteByToken(token);
     }
+
+    public void removeTokens(Collection<String> tokens) {
+        if (tokens == null || tokens.isEmpty()) {
+            return;
+        }
+        deviceTokenRepository.deleteAllByTokens(tokens);
+    }
 }
 
 
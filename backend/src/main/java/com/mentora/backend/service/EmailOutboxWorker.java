@@ -0,0 +1,182 @@
+package com.mentora.backend.service;
+
+import com.mentora.backend.model.EmailOutboxMessage;
+import com.mentora.backend.model.EmailOutboxStatus;
+import com.mentora.backend.repository.EmailOutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Toma mails pendientes del outbox y los envía con un pool fijo de workers
+@Service
+public class EmailOutboxWorker {
+
+    private static final Logger log = LoggerFactory.getLogger(EmailOutboxWorker.class);
+    private static final int PURGE_BATCH_SIZE = 1000;
+
+    private final EmailOutboxRepository emailOutboxRepository;
+    private final EmailService emailService;
+    private final ExecutorService workers;
+    private final int workerCount;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long backoffSeconds;
+    private final long staleMinutes;
+    private final long retentionDays;
+    // Partes del último lote que siguen enviándose; mientras haya alguna no se toma otro lote
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final Counter sentCounter;
+    private final Counter retryCounter;
+    private final Counter deadCounter;
+
+    public EmailOutboxWorker(
+            EmailOutboxRepository emailOutboxRepository,
+            EmailService emailService,
+            MeterRegistry meterRegistry,
+            @Value("${email.smtp.pool-size:2}") int workerCount,
+            @Value("${email.outbox.batch-size:100}") int batchSize,
+            @Value("${email.outbox.max-attempts:5}") int maxAttempts,
+            @Value("${email.outbox.backoff-seconds:30}") long backoffSeconds,
+            @Value("${email.outbox.stale-minutes:10}") long staleMinutes,
+            @Value("${email.outbox.retention-days:30}") long retentionDays
+    ) {
+        this.emailOutboxRepository = emailOutboxRepository;
+        this.emailService = emailService;
+        this.workerCount = Math.max(1, workerCount);
+        this.workers = Executors.newFixedThreadPool(this.workerCount);
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.backoffSeconds = backoffSeconds;
+        this.staleMinutes = staleMinutes;
+        this.retentionDays = retentionDays;
+
+        this.sentCounter = Counter.builder("email.outbox").tag("result", "sent").register(meterRegistry);
+        this.retryCounter = Counter.builder("email.outbox").tag("result", "retry").register(meterRegistry);
+        this.deadCounter = Counter.builder("email.outbox").tag("result", "dead").register(meterRegistry);
+        meterRegistry.gauge("email.outbox.pending", emailOutboxRepository,
+                repo -> repo.countByStatus(EmailOutboxStatus.PENDING));
+    }
+
+    @Scheduled(fixedDelayString = "${email.outbox.poll-interval-ms:2000}")
+    public void poll() {
+        // El envío corre en los workers; el hilo del scheduler no espera y queda libre para otras tareas
+        if (inFlight.get() > 0) {
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        emailOutboxRepository.releaseStale(now.minusMinutes(staleMinutes));
+
+        List<EmailOutboxMessage> due = emailOutboxRepository
+                .findByStatusAndNextAttemptAtLessThanEqualOrderByCreatedDateAsc(EmailOutboxStatus.PENDING, now, Limit.of(batchSize));
+        if (due.isEmpty()) {
+            return;
+        }
+
+        List<String> ids = due.stream().map(EmailOutboxMessage::getId).toList();
+        // Cada poll usa su propio token: otra instancia que reclame en el mismo milisegundo no ve estos mails
+        String claimToken = UUID.randomUUID().toString();
+        if (emailOutboxRepository.claim(ids, now, claimToken) == 0) {
+            return;
+        }
+        List<EmailOutboxMessage> claimed = emailOutboxRepository.findByClaimTokenAndStatus(claimToken, EmailOutboxStatus.SENDING);
+
+        // Reparte el lote entre los workers; cada uno usa su propia conexión SMTP del pool
+        int perWorker = (claimed.size() + workerCount - 1) / workerCount;
+        List<List<EmailOutboxMessage>> parts = new ArrayList<>();
+        for (int from = 0; from < claimed.size(); from += perWorker) {
+            parts.add(claimed.subList(from, Math.min(from + perWorker, claimed.size())));
+        }
+        inFlight.addAndGet(parts.size());
+        for (List<EmailOutboxMessage> part : parts) {
+            workers.execute(() -> {
+                try {
+                    send(part);
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+            });
+        }
+    }
+
+    // Borra por lotes los mails enviados o agotados más viejos que la retención
+    @Scheduled(cron = "${email.outbox.cleanup-cron:0 15 4 * * *}")
+    public void purgeFinished() {
+        LocalDateTime before = LocalDateTime.now().minusDays(retentionDays);
+        int deleted = 0;
+        List<String> ids;
+        do {
+            ids = emailOutboxRepository.findFinishedIdsBefore(before, Limit.of(PURGE_BATCH_SIZE));
+            if (!ids.isEmpty()) {
+                emailOutboxRepository.deleteAllByIdInBatch(ids);
+                deleted += ids.size();
+            }
+        } while (ids.size() == PURGE_BATCH_SIZE);
+        if (deleted > 0) {
+            log.info("Mails del outbox eliminados: {}", deleted);
+        }
+    }
+
+    private void send(List<EmailOutboxMessage> messages) {
+        List<EmailService.OutgoingEmail> emails = messages.stream()
+                .map(m -> new EmailService.OutgoingEmail(m.getRecipient(), m.getSubject(), m.getBody()))
+                .toList();
+
+        List<String> errors;
+        try {
+            errors = emailService.deliver(emails);
+        } catch (Exception e) {
+            log.error("Error enviando lote del outbox", e);
+            String error = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            errors = emails.stream().map(m -> error).toList();
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < messages.size(); i++) {
+            EmailOutboxMessage m = messages.get(i);
+            String error = errors.get(i);
+            if (error == null) {
+                m.setStatus(EmailOutboxStatus.SENT);
+                m.setSentAt(now);
+                m.setLastError(null);
+                sentCounter.increment();
+                continue;
+            }
+
+            int attempts = m.getAttempts() + 1;
+            m.setAttempts(attempts);
+            m.setLastError(error.length() <= 1024 ? error : error.substring(0, 1024));
+            if (attempts >= maxAttempts) {
+                m.setStatus(EmailOutboxStatus.DEAD);
+                deadCounter.increment();
+            } else {
+                // Backoff exponencial: base, 2x, 4x, ...
+                m.setStatus(EmailOutboxStatus.PENDING);
+                m.setNextAttemptAt(now.plusSeconds(backoffSeconds << (attempts - 1)));
+                retryCounter.increment();
+            }
+        }
+        emailOutboxRepository.saveAll(messages);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdown();
+    }
+}
@@ -1,110 +1,211 @@
 package com.mentora.backend.service;
 
-import org.springframework.scheduling.annotation.Async;
+import com.mentora.backend.model.EmailOutboxMessage;
+import com.mentora.backend.repository.EmailOutboxRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
-import java.util.Properties;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Objects;
 import java.nio.charset.StandardCharsets;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.time.Duration;
 
 import jakarta.mail.Message;
 import jakarta.mail.MessagingException;
-import jakarta.mail.Session;
+import jakarta.mail.SendFailedException;
 import jakarta.mail.Transport;
 import jakarta.mail.internet.InternetAddress;
 import jakarta.mail.internet.MimeMessage;
 
 @Service
 public class EmailService {
+  private static final Logger log = LoggerFactory.getLogger(EmailService.class);
+
+  // Máximo de mails por request al endpoint batch de Resend
+  private static final int RESEND_BATCH_SIZE = 100;
+
   private final String username;
-  private final String password;
-  private final Properties mailProperties;
   private final String provider;
   private final String resendApiKey;
   private final String fromAddress;
+  private final SmtpTransportPool smtpTransportPool;
+  private final EmailOutboxRepository emailOutboxRepository;
+  private final HttpClient httpClient;
 
   public EmailService(
       @org.springframework.beans.factory.annotation.Value("${spring.mail.username}") String username,
-      @org.springframework.beans.factory.annotation.Value("${spring.mail.password}") String password,
-      @org.springframework.beans.factory.annotation.Value("${spring.mail.host}") String host,
-      @org.springframework.beans.factory.annotation.Value("${spring.mail.port}") String port,
       @org.springframework.beans.factory.annotation.Value("${email.provider:SMTP}") String provider,
       @org.springframework.beans.factory.annotation.Value("${resend.api.key:}") String resendApiKey,
-      @org.springframework.beans.factory.annotation.Value("${email.from:${spring.mail.username}}") String fromAddress) {
+      @org.springframework.beans.factory.annotation.Value("${email.from:${spring.mail.username}}") String fromAddress,
+      SmtpTransportPool smtpTransportPool,
+      EmailOutboxRepository emailOutboxRepository) {
     this.username = username;
-    this.password = password;
     this.provider = provider;
     this.resendApiKey = resendApiKey;
     this.fromAddress = fromAddress;
-
-    this.mailProperties = new Properties();
-    this.mailProperties.put("mail.smtp.host", host);
-    this.mailProperties.put("mail.smtp.port", port);
-    this.mailProperties.put("mail.smtp.auth", "true");
-    this.mailProperties.put("mail.smtp.starttls.enable", "true");
+    this.smtpTransportPool = smtpTransportPool;
+    this.emailOutboxRepository = emailOutboxRepository;
+    this.httpClient = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_2)
+        .connectTimeout(Duration.ofSeconds(10))
+        .build();
   }
 
+  // Envío inmediato en el hilo actual
   public void sendEmail(String recipient, String subject, String body) {
-    if ("RESEND".equalsIgnoreCase(provider)) {
-      sendViaResend(recipient, subject, body);
-      return;
+    String error = deliver(List.of(new OutgoingEmail(recipient, subject, body))).get(0);
+    if (error != null) {
+      log.warn("No se pudo enviar mail a {}: {}", recipient, error);
     }
-    sendViaSmtp(recipient, subject, body);
   }
 
-  @Async("taskExecutor")
+  // Se guarda en el outbox y lo envía EmailOutboxWorker, con reintentos
   public void sendEmailAsync(String recipient, String subject, String body) {
-    sendEmail(recipient, subject, body);
+    emailOutboxRepository.save(new EmailOutboxMessage(recipient, subject, body));
   }
 
-  private void sendViaSmtp(String recipient, String subject, String body) {
-    Session session = Session.getDefaultInstance(mailProperties);
-    MimeMessage message = new MimeMessage(session);
+  public void queueEmails(List<String> recipients, String subject, String body) {
+    if (recipients == null || recipients.isEmpty()) {
+      return;
+    }
+    List<EmailOutboxMessage> messages = new ArrayList<>(recipients.size());
+    for (String recipient : recipients) {
+      messages.add(new EmailOutboxMessage(recipient, subject, body));
+    }
+    emailOutboxRepository.saveAll(messages);
+  }
 
-    try {
-        message.setFrom(new InternetAddress(username));
-        message.addRecipient(Message.RecipientType.TO, new InternetAddress(recipient));
-        message.setSubject(subject);
-        message.setText(body);
-        Transport transport = session.getTransport("smtp");
-        transport.connect(username, password);
-        transport.sendMessage(message, message.getAllRecipients());
-        transport.close();
+  // Envía el mismo mail a varios destinatarios (un mensaje por destinatario). Devuelve cuántos se enviaron
+  public int sendEmails(List<String> recipients, String subject, String body) {
+    if (recipients == null || recipients.isEmpty()) {
+      return 0;
     }
-    catch (MessagingException me) {
-        me.printStackTrace();
+    List<OutgoingEmail> emails = recipients.stream()
+        .map(r -> new OutgoingEmail(r, subject, body))
+        .toList();
+    return (int) deliver(emails).stream().filter(Objects::isNull).count();
+  }
+
+  // Devuelve, en el mismo orden, null para cada mail enviado o el motivo del fallo
+  public List<String> deliver(List<OutgoingEmail> emails) {
+    if ("RESEND".equalsIgnoreCase(provider)) {
+      return deliverViaResend(emails);
     }
+    return deliverViaSmtp(emails);
   }
 
-  private void sendViaResend(String recipient, String subject, String body) {
+  private List<String> deliverViaSmtp(List<OutgoingEmail> emails) {
+    List<String> errors = new ArrayList<>(Collections.nCopies(emails.size(), (String) null));
+    Transport transport = null;
+    int i = 0;
     try {
-      if (resendApiKey == null || resendApiKey.isBlank()) {
-        throw new IllegalStateException("RESEND api key no configurada (resend.api.key)");
+      transport = smtpTransportPool.borrow();
+      for (; i < emails.size(); i++) {
+        OutgoingEmail email = emails.get(i);
+        try {
+          sendOverSmtp(transport, email);
+        } catch (SendFailedException e) {
+          // Dirección rechazada; la conexión sigue siendo válida
+          errors.set(i, e.getMessage());
+        } catch (MessagingException e) {
+          if (transport.isConnected()) {
+            errors.set(i, e.getMessage());
+            continue;
+          }
+          // Se perdió la conexión: se reemplaza y se reintenta una vez este mensaje
+          smtpTransportPool.release(transport, false);
+          transport = null;
+          transport = smtpTransportPool.borrow();
+          try {
+            sendOverSmtp(transport, email);
+          } catch (MessagingException retryError) {
+            errors.set(i, retryError.getMessage());
+          }
+        }
       }
-      String sender = Objects.requireNonNullElse(fromAddress, username);
-      String json = "{\"from\":\"" + escapeJson(sender) + "\"," +
-                    "\"to\":[\"" + escapeJson(recipient) + "\"]," +
-                    "\"subject\":\"" + escapeJson(subject) + "\"," +
-                    "\"text\":\"" + escapeJson(body) + "\"}";
-
-      HttpRequest request = HttpRequest.newBuilder()
-              .uri(URI.create("https://api.resend.com/emails"))
-              .header("Authorization", "Bearer " + resendApiKey)
-              .header("Content-Type", "application/json; charset=utf-8")
-              .POST(HttpRequest.BodyPublishers.ofString(json, StandardCharsets.UTF_8))
-              .build();
-
-      HttpClient client = HttpClient.newHttpClient();
-      HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
-
-      if (response.statusCode() < 200 || response.statusCode() >= 300) {
-        throw new RuntimeException("Resend error HTTP " + response.statusCode() + ": " + response.body());
+    } catch (MessagingException e) {
+      markFrom(errors, i, "Conexión SMTP fallida: " + e.getMessage());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      markFrom(errors, i, "Envío interrumpido");
+    } finally {
+      if (transport != null) {
+        smtpTransportPool.release(transport, transport.isConnected());
       }
-    } catch (Exception e) {
-      e.printStackTrace();
+    }
+    return errors;
+  }
+
+  private void sendOverSmtp(Transport transport, OutgoingEmail email) throws MessagingException {
+    MimeMessage message = new MimeMessage(smtpTransportPool.getSession());
+    message.setFrom(new InternetAddress(username));
+    message.addRecipient(Message.RecipientType.TO, new InternetAddress(email.recipient()));
+    message.setSubject(email.subject());
+    message.setText(email.body());
+    transport.sendMessage(message, message.getAllRecipients());
+  }
+
+  private List<String> deliverViaResend(List<OutgoingEmail> emails) {
+    List<String> errors = new ArrayList<>(Collections.nCopies(emails.size(), (String) null));
+    if (resendApiKey == null || resendApiKey.isBlank()) {
+      markFrom(errors, 0, "RESEND api key no configurada (resend.api.key)");
+      return errors;
+    }
+    String sender = Objects.requireNonNullElse(fromAddress, username);
+
+    for (int from = 0; from < emails.size(); from += RESEND_BATCH_SIZE) {
+      int to = Math.min(from + RESEND_BATCH_SIZE, emails.size());
+      StringBuilder json = new StringBuilder("[");
+      for (int i = from; i < to; i++) {
+        OutgoingEmail email = emails.get(i);
+        if (i > from) json.append(',');
+        json.append("{\"from\":\"").append(escapeJson(sender)).append("\",")
+            .append("\"to\":[\"").append(escapeJson(email.recipient())).append("\"],")
+            .append("\"subject\":\"").append(escapeJson(email.subject())).append("\",")
+            .append("\"text\":\"").append(escapeJson(email.body())).append("\"}");
+      }
+      json.append(']');
+
+      String error = null;
+      try {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("https://api.resend.com/emails/batch"))
+                .timeout(Duration.ofSeconds(30))
+                .header("Authorization", "Bearer " + resendApiKey)
+                .header("Content-Type", "application/json; charset=utf-8")
+                .POST(HttpRequest.BodyPublishers.ofString(json.toString(), StandardCharsets.UTF_8))
+                .build();
+
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+        if (response.statusCode() < 200 || response.statusCode() >= 300) {
+          error = "Resend error HTTP " + response.statusCode() + ": " + response.body();
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        error = "Envío interrumpido";
+      } catch (Exception e) {
+        error = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+      }
+
+      if (error != null) {
+        for (int i = from; i < to; i++) {
+          errors.set(i, error);
+        }
+      }
+    }
+    return errors;
+  }
+
+  // Marca como fallidos los mails desde el índice dado (los anteriores ya se intentaron)
+  private static void markFrom(List<String> errors, int from, String error) {
+    for (int i = from; i < errors.size(); i++) {
+      errors.set(i, error);
     }
   }
 
@@ -142,4 +243,6 @@ public class EmailService {
 
         sendEmail(recipient, subject, body);
     }
+
+  public record OutgoingEmail(String recipient, String subject, String body) {}
 }
@@ -0,0 +1,179 @@
+package com.mentora.backend.service;
+
+import com.mentora.backend.dt.DtEnrollmentJob;
+import com.mentora.backend.model.EnrollmentJob;
+import com.mentora.backend.model.EnrollmentJobStatus;
+import com.mentora.backend.repository.CourseRepository;
+import com.mentora.backend.repository.EnrollmentJobRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+// Matriculaciones masivas en segundo plano; el job y su avance se guardan en la base para que la UI
+// los consulte desde cualquier instancia y para retomarlos si la que los procesaba se cae
+@Service
+public class EnrollmentJobService {
+
+    private static final Logger log = LoggerFactory.getLogger(EnrollmentJobService.class);
+    private static final int PURGE_BATCH_SIZE = 1000;
+
+    private final UserCourseService userCourseService;
+    private final CourseRepository courseRepository;
+    private final EnrollmentJobRepository enrollmentJobRepository;
+    private final Executor taskExecutor;
+    private final long retentionMinutes;
+    private final long staleMinutes;
+
+    public EnrollmentJobService(
+            UserCourseService userCourseService,
+            CourseRepository courseRepository,
+            EnrollmentJobRepository enrollmentJobRepository,
+            @Qualifier("taskExecutor") Executor taskExecutor,
+            @Value("${enrollment.jobs.retention-minutes:60}") long retentionMinutes,
+            @Value("${enrollment.jobs.stale-minutes:15}") long staleMinutes
+    ) {
+        this.userCourseService = userCourseService;
+        this.courseRepository = courseRepository;
+        this.enrollmentJobRepository = enrollmentJobRepository;
+        this.taskExecutor = taskExecutor;
+        this.retentionMinutes = retentionMinutes;
+        this.staleMinutes = staleMinutes;
+    }
+
+    public DtEnrollmentJob submit(String courseId, String[] usersCis) {
+        List<String> cis = usersCis == null ? List.of() : Arrays.stream(usersCis)
+                .filter(ci -> ci != null && !ci.isBlank())
+                .toList();
+        if (cis.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Debe indicar al menos un participante");
+        }
+        if (!courseRepository.existsById(courseId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Curso no encontrado");
+        }
+
+        EnrollmentJob job = enrollmentJobRepository.save(new EnrollmentJob(courseId, cis));
+        try {
+            taskExecutor.execute(() -> run(job.getId(), false));
+        } catch (TaskRejectedException | RejectedExecutionException e) {
+            enrollmentJobRepository.deleteById(job.getId());
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Hay demasiados procesos en curso, intente más tarde");
+        }
+        return toDto(job);
+    }
+
+    public DtEnrollmentJob getJob(String courseId, String jobId) {
+        EnrollmentJob job = enrollmentJobRepository.findById(jobId).orElse(null);
+        if (job == null || !job.getCourseId().equals(courseId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Proceso de matriculación no encontrado");
+        }
+        return toDto(job);
+    }
+
+    // Reencola los pendientes (reinicio antes de empezar) y retoma desde su avance los que dejaron de avanzar
+    @Scheduled(fixedDelayString = "${enrollment.jobs.recovery-interval-ms:60000}")
+    public void recoverJobs() {
+        LocalDateTime now = LocalDateTime.now();
+        for (EnrollmentJob job : enrollmentJobRepository.findByStatusAndCreatedDateBefore(EnrollmentJobStatus.PENDING, now.minusMinutes(1))) {
+            dispatch(job.getId(), false);
+        }
+        for (EnrollmentJob job : enrollmentJobRepository.findByStatusAndLastProgressAtBefore(EnrollmentJobStatus.RUNNING, now.minusMinutes(staleMinutes))) {
+            dispatch(job.getId(), true);
+        }
+    }
+
+    // Borra por lotes los procesos terminados hace más del tiempo de retención
+    @Scheduled(fixedDelayString = "${enrollment.jobs.cleanup-interval-ms:300000}")
+    public void purgeFinished() {
+        LocalDateTime before = LocalDateTime.now().minusMinutes(retentionMinutes);
+        List<String> ids;
+        do {
+            ids = enrollmentJobRepository.findFinishedIdsBefore(before, Limit.of(PURGE_BATCH_SIZE));
+            if (!ids.isEmpty()) {
+                enrollmentJobRepository.deleteAllByIdInBatch(ids);
+            }
+        } while (ids.size() == PURGE_BATCH_SIZE);
+    }
+
+    private void dispatch(String jobId, boolean resume) {
+        try {
+            taskExecutor.execute(() -> run(jobId, resume));
+        } catch (TaskRejectedException | RejectedExecutionException e) {
+            // Executor saturado: el job sigue como estaba y se reintenta en la próxima recuperación
+        }
+    }
+
+    void run(String jobId, boolean resume) {
+        LocalDateTime now = LocalDateTime.now();
+        int claimed = resume
+                ? enrollmentJobRepository.reclaim(jobId, now.minusMinutes(staleMinutes), now)
+                : enrollmentJobRepository.claim(jobId, now);
+        if (claimed == 0) {
+            // Otro worker ya lo tomó o ya terminó
+            return;
+        }
+        EnrollmentJob job = enrollmentJobRepository.findById(jobId).orElse(null);
+        if (job == null) {
+            return;
+        }
+
+        // Se sigue desde la primera CI sin avance guardado. Si se cayó entre el insert de un lote y el guardado
+        // de su avance, ese lote se repite y sus usuarios se informan como ya matriculados
+        List<String> cis = job.getCis();
+        EnrollmentJob[] current = {job};
+        try {
+            userCourseService.enrollInChunks(job.getCourseId(), cis.subList(job.getProcessed(), cis.size()), chunk -> {
+                int enrolled = 0;
+                List<String> alreadyEnrolled = new ArrayList<>();
+                List<String> notFound = new ArrayList<>();
+                for (UserCourseService.Enrollment enrollment : chunk) {
+                    switch (enrollment.status()) {
+                        case ENROLLED -> enrolled++;
+                        case ALREADY_ENROLLED -> alreadyEnrolled.add(enrollment.ci());
+                        case NOT_FOUND -> notFound.add(enrollment.ci());
+                    }
+                }
+                current[0].record(chunk.size(), enrolled, alreadyEnrolled, notFound, LocalDateTime.now());
+                current[0] = enrollmentJobRepository.save(current[0]);
+            });
+            finish(current[0], EnrollmentJobStatus.COMPLETED, null);
+        } catch (OptimisticLockingFailureException e) {
+            // Otra instancia lo retomó por considerarlo trabado; sigue ella
+            log.warn("La matriculación {} fue retomada por otro worker", jobId);
+        } catch (Exception e) {
+            log.error("Falló la matriculación {} del curso {}", jobId, job.getCourseId(), e);
+            finish(current[0], EnrollmentJobStatus.FAILED, e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+        }
+    }
+
+    private void finish(EnrollmentJob job, EnrollmentJobStatus status, String error) {
+        job.setStatus(status);
+        job.setLastError(error == null || error.length() <= 1024 ? error : error.substring(0, 1024));
+        job.setFinishedDate(LocalDateTime.now());
+        try {
+            enrollmentJobRepository.save(job);
+        } catch (OptimisticLockingFailureException e) {
+            log.warn("La matriculación {} fue retomada por otro worker", job.getId());
+        }
+    }
+
+    private static DtEnrollmentJob toDto(EnrollmentJob job) {
+        return new DtEnrollmentJob(job.getId(), job.getCourseId(), job.getStatus().name(), job.getTotal(),
+                job.getProcessed(), job.getEnrolled(), job.getAlreadyEnrolled(), job.getNotFound(),
+                job.getLastError(), job.getCreatedDate(), job.getFinishedDate());
+    }
+}
@@ -8,6 +8,7 @@ import com.mentora.backend.model.Activity;
 import com.mentora.backend.model.ActivityType;
 import com.mentora.backend.model.Evaluation;
 import com.mentora.backend.model.EvaluationSubmission;
+import com.mentora.backend.model.GradebookItemType;
 import com.mentora.backend.model.User;
 import com.mentora.backend.model.Role;
 import org.springframework.http.HttpStatus;
@@ -16,10 +17,21 @@ import com.mentora.backend.requests.CreateEvaluationSubmissionRequest;
 import com.mentora.backend.requests.EditEvaluationRequest;
 import com.mentora.backend.repository.UserRepository;
 import com.mentora.backend.repository.EvaluationSubmissionRepository;
+import com.opencsv.CSVWriter;
+import java.io.BufferedOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 import java.util.ArrayList;
 import java.util.stream.Collectors;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import com.mentora.backend.responses.GetEvaluationWithSubmissionResponse;
 import java.time.LocalDateTime;
@@ -33,6 +45,11 @@ public class EvaluationService {
   private final UserRepository userRepository;
   private final EvaluationSubmissionRepository evaluationSubmissionRepository;
   private final ActivityRepository activityRepository;
+  private final PendingItemsService pendingItemsService;
+  private final GradebookService gradebookService;
+
+  private static final int EXPORT_PAGE_SIZE = 100;
+  private static final int EXPORT_BUFFER_SIZE = 64 * 1024;
 
   public EvaluationService(
       EvaluationRepository evaluationRepository,
@@ -40,7 +57,9 @@ public class EvaluationService {
       UserService userService,
       UserRepository userRepository,
       EvaluationSubmissionRepository evaluationSubmissionRepository,
-      ActivityRepository activityRepository
+      ActivityRepository activityRepository,
+      PendingItemsService pendingItemsService,
+      GradebookService gradebookService
     ) {
     this.evaluationRepository = evaluationRepository;
     this.fileStorageService = fileStorageService;
@@ -48,6 +67,8 @@ public class EvaluationService {
     this.userRepository = userRepository;
     this.evaluationSubmissionRepository = evaluationSubmissionRepository;
     this.activityRepository = activityRepository;
+    this.pendingItemsService = pendingItemsService;
+    this.gradebookService = gradebookService;
   }
 
   public GetEvaluationWithSubmissionResponse getEvaluation(Long evaluationId, String userCi) {
@@ -79,7 +100,7 @@ public class EvaluationService {
     String signedUrl = null;
     String fileUrl = e.getFileUrl();
     if (fileUrl != null) {
-        if (fileUrl.startsWith("gs://")) {
+        if (fileStorageService.isStoredPath(fileUrl)) {
             signedUrl = fileStorageService.generateSignedUrl(fileUrl);
         } else {
             signedUrl = fileUrl;
@@ -102,7 +123,7 @@ public class EvaluationService {
     String signedUrl = null;
     String fileUrl = e.getFileUrl();
     if (fileUrl != null) {
-        if (fileUrl.startsWith("gs://")) {
+        if (fileStorageService.isStoredPath(fileUrl)) {
             signedUrl = fileStorageService.generateSignedUrl(fileUrl);
         } else {
             signedUrl = fileUrl;
@@ -121,7 +142,7 @@ public class EvaluationService {
   }
 
   public DtEvaluationSubmission createEvaluationSubmission(Long evaluationId, String userCi, CreateEvaluationSubmissionRequest req) throws IOException {
-    if (req.getFile() == null && req.getSolution() == null) {
+    if (req.getFile() == null && req.getUploadKey() == null && req.getSolution() == null) {
       throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Respuesta a evaluación requiere texto o archivo");
     }
 
@@ -144,8 +165,8 @@ public class EvaluationService {
     String fileName = null;
     String fileUrl = null;
 
-    if (req.getFile() != null) {
-      DtFileResource file = fileStorageService.store(req.getFile());
+    DtFileResource file = fileStorageService.storeOrConfirm(req.getFile(), req.getUploadKey(), req.getFileName());
+    if (file != null) {
       fileName = file.getFilename();
       fileUrl = file.getStoragePath();
     }
@@ -160,6 +181,7 @@ public class EvaluationService {
     );
 
     EvaluationSubmission saved = evaluationSubmissionRepository.save(submission);
+    pendingItemsService.evictUser(userCi);
 
     // Crea la actividad de participación en la evaluación
     Activity activity = new Activity(
@@ -193,6 +215,7 @@ public class EvaluationService {
       }
 
       Evaluation saved = evaluationRepository.save(ev);
+      pendingItemsService.evictAll();
 
       return getDtEvaluation(saved);
   }
@@ -216,6 +239,93 @@ public class EvaluationService {
 
     submission.setNote(grade);
     EvaluationSubmission saved = evaluationSubmissionRepository.save(submission);
+    gradebookService.recordGrade(saved.getEvaluation().getCourse().getId(), GradebookItemType.EVALUATION,
+        evaluationId, studentCi, grade);
     return getDtEvaluationSubmission(saved);
   }
+
+  // Nombre del ZIP de entregas; valida que la evaluación exista antes de empezar a escribir la respuesta
+  public String getSubmissionsZipName(Long evaluationId) {
+    Evaluation evaluation = evaluationRepository.findById(evaluationId)
+      .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Evaluación no encontrada"));
+    return "entregas-" + safeEntryName(evaluation.getTitle(), "evaluacion-" + evaluationId) + ".zip";
+  }
+
+  // ZIP con el archivo de cada entrega y un manifiesto CSV, escrito directo sobre out por páginas:
+  // la memoria queda acotada por el tamaño de página y no se usan archivos temporales
+  public void writeSubmissionsZip(Long evaluationId, OutputStream out) throws IOException {
+    Set<Long> unavailable = new HashSet<>();
+
+    // Sin try-with-resources: si algo falla no se escribe el directorio central, así el cliente recibe un ZIP
+    // inválido en vez de uno que parece completo con una entrada truncada
+    ZipOutputStream zip = new ZipOutputStream(new BufferedOutputStream(out, EXPORT_BUFFER_SIZE), StandardCharsets.UTF_8);
+    // La mayoría de las entregas (pdf, imágenes, zip) ya vienen comprimidas; más nivel solo gasta CPU
+    zip.setLevel(Deflater.BEST_SPEED);
+
+    Long afterId = null;
+    List<EvaluationSubmissionRepository.SubmissionFile> files;
+    do {
+      files = evaluationSubmissionRepository.findExportFiles(evaluationId, afterId, Limit.of(EXPORT_PAGE_SIZE));
+      for (EvaluationSubmissionRepository.SubmissionFile file : files) {
+        // Se verifica que exista antes de abrir la entrada, para no dejar una vacía en el ZIP
+        if (!fileStorageService.isStoredPath(file.getFileUrl()) || fileStorageService.stat(file.getFileUrl()) == null) {
+          unavailable.add(file.getId());
+          continue;
+        }
+        zip.putNextEntry(new ZipEntry(exportEntryName(file.getId(), file.getAuthorCi(), file.getFileName())));
+        // Un error a mitad de la copia dejaría la entrada truncada y el ZIP aparentaría estar completo:
+        // la excepción corta el export y el cliente recibe una descarga fallida
+        fileStorageService.copyTo(file.getFileUrl(), zip);
+        zip.closeEntry();
+      }
+      if (!files.isEmpty()) {
+        afterId = files.get(files.size() - 1).getId();
+      }
+    } while (files.size() == EXPORT_PAGE_SIZE);
+
+    // El manifiesto va al final para poder marcar los archivos que no se pudieron incluir
+    zip.putNextEntry(new ZipEntry("manifiesto.csv"));
+    CSVWriter writer = new CSVWriter(new OutputStreamWriter(zip, StandardCharsets.UTF_8));
+    writer.writeNext(new String[] { "CI", "Nombre", "Nota", "Archivo", "Solución" });
+
+    afterId = null;
+    List<EvaluationSubmissionRepository.SubmissionManifestRow> rows;
+    do {
+      rows = evaluationSubmissionRepository.findExportRows(evaluationId, afterId, Limit.of(EXPORT_PAGE_SIZE));
+      for (EvaluationSubmissionRepository.SubmissionManifestRow row : rows) {
+        String file = "";
+        if (row.getFileUrl() != null) {
+          file = unavailable.contains(row.getId())
+              ? "No disponible: " + row.getFileName()
+              : exportEntryName(row.getId(), row.getAuthorCi(), row.getFileName());
+        }
+        writer.writeNext(new String[] {
+            row.getAuthorCi(),
+            row.getAuthorName(),
+            row.getNote() != null ? row.getNote().toString() : "",
+            file,
+            row.getSolution() != null ? row.getSolution() : ""
+        });
+      }
+      writer.flush();
+      if (!rows.isEmpty()) {
+        afterId = rows.get(rows.size() - 1).getId();
+      }
+    } while (rows.size() == EXPORT_PAGE_SIZE);
+    zip.closeEntry();
+    zip.close();
+  }
+
+  // El id de la entrega hace único el nombre aunque dos estudiantes suban archivos con el mismo nombre
+  private static String exportEntryName(Long submissionId, String authorCi, String fileName) {
+    return "entregas/" + authorCi + "_" + submissionId + "_" + safeEntryName(fileName, "archivo");
+  }
+
+  private static String safeEntryName(String name, String fallback) {
+    if (name == null || name.isBlank()) {
+      return fallback;
+    }
+    String safe = name.replaceAll("[^A-Za-z0-9._-]", "_");
+    return safe.length() <= 100 ? safe : safe.substring(safe.length() - 100);
+  }
 }
@@ -0,0 +1,92 @@
+package com.mentora.backend.service;
+
+import com.mentora.backend.dt.DtFanOutJob;
+import com.mentora.backend.model.FanOutJob;
+import com.mentora.backend.model.FanOutStatus;
+import com.mentora.backend.model.Post;
+import com.mentora.backend.repository.FanOutJobRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+
+@Service
+public class FanOutService {
+
+    private final FanOutJobRepository fanOutJobRepository;
+    private final FanOutWorker fanOutWorker;
+    private final long staleMinutes;
+    private final int maxAttempts;
+
+    public FanOutService(
+            FanOutJobRepository fanOutJobRepository,
+            FanOutWorker fanOutWorker,
+            @Value("${fanout.stale-minutes:15}") long staleMinutes,
+            @Value("${fanout.max-attempts:3}") int maxAttempts
+    ) {
+        this.fanOutJobRepository = fanOutJobRepository;
+        this.fanOutWorker = fanOutWorker;
+        this.staleMinutes = staleMinutes;
+        this.maxAttempts = maxAttempts;
+    }
+
+    // Persiste el evento de publicación y delega la distribución al worker
+    public FanOutJob enqueuePostPublished(String courseId, Post post, String message, String link) {
+        FanOutJob job = fanOutJobRepository.save(new FanOutJob(courseId, post.getId(), message, post.getMessage(), link));
+        dispatch(() -> fanOutWorker.process(job.getId()));
+        return job;
+    }
+
+    public DtFanOutJob getPostDelivery(Long postId) {
+        FanOutJob job = fanOutJobRepository.findFirstByPostIdOrderByIdDesc(postId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "No hay envíos para este post"));
+        return toDto(job);
+    }
+
+    // Reencola los jobs que quedaron pendientes (p.ej. reinicio o executor lleno) y retoma desde su avance
+    // los que dejaron de avanzar; tras maxAttempts tomas se marcan como fallidos
+    @Scheduled(fixedDelayString = "${fanout.recovery.interval-ms:60000}")
+    public void recoverJobs() {
+        LocalDateTime now = LocalDateTime.now();
+        for (FanOutJob job : fanOutJobRepository.findByStatusAndCreatedDateBefore(FanOutStatus.PENDING, now.minusMinutes(1))) {
+            dispatch(() -> fanOutWorker.process(job.getId()));
+        }
+        LocalDateTime staleBefore = now.minusMinutes(staleMinutes);
+        for (FanOutJob job : fanOutJobRepository.findByStatusAndLastProgressAtBefore(FanOutStatus.RUNNING, staleBefore)) {
+            if (job.getAttempts() >= maxAttempts) {
+                fanOutJobRepository.failStale(job.getId(), staleBefore, "Proceso interrumpido");
+            } else {
+                dispatch(() -> fanOutWorker.resume(job.getId(), staleBefore));
+            }
+        }
+    }
+
+    private void dispatch(Runnable task) {
+        try {
+            task.run();
+        } catch (TaskRejectedException e) {
+            // Executor saturado: el job queda como estaba y lo retoma recoverJobs
+        }
+    }
+
+    public DtFanOutJob toDto(FanOutJob job) {
+        return new DtFanOutJob(
+            job.getId(),
+            job.getPostId(),
+            job.getStatus().name(),
+            job.getRecipients(),
+            job.getNotificationsCreated(),
+            job.getPushSent(),
+            job.getPushFailed(),
+            job.getEmailsSent(),
+            job.getEmailsFailed(),
+            job.getLastError(),
+            job.getCreatedDate(),
+            job.getCompletedAt()
+        );
+    }
+}
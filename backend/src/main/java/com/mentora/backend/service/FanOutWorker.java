@@ -0,0 +1,150 @@
+package com.mentora.backend.service;
+
+import com.mentora.backend.model.FanOutJob;
+import com.mentora.backend.model.FanOutStatus;
+import com.mentora.backend.model.Role;
+import com.mentora.backend.model.User;
+import com.mentora.backend.repository.FanOutJobRepository;
+import com.mentora.backend.repository.UserCourseRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// Expande un FanOutJob a sus destinatarios fuera del hilo de la request
+@Service
+public class FanOutWorker {
+
+    private static final Logger log = LoggerFactory.getLogger(FanOutWorker.class);
+    private static final int CHUNK_SIZE = 500;
+
+    private final FanOutJobRepository fanOutJobRepository;
+    private final UserCourseRepository userCourseRepository;
+    private final NotificationService notificationService;
+    private final PushNotificationService pushNotificationService;
+    private final EmailService emailService;
+
+    public FanOutWorker(
+            FanOutJobRepository fanOutJobRepository,
+            UserCourseRepository userCourseRepository,
+            NotificationService notificationService,
+            PushNotificationService pushNotificationService,
+            EmailService emailService
+    ) {
+        this.fanOutJobRepository = fanOutJobRepository;
+        this.userCourseRepository = userCourseRepository;
+        this.notificationService = notificationService;
+        this.pushNotificationService = pushNotificationService;
+        this.emailService = emailService;
+    }
+
+    @Async("taskExecutor")
+    public void process(Long jobId) {
+        if (fanOutJobRepository.claim(jobId, LocalDateTime.now()) == 0) {
+            // Otro worker ya lo tomó o ya terminó
+            return;
+        }
+        run(jobId);
+    }
+
+    // Retoma desde la última CI notificada un job cuyo worker dejó de avanzar (p.ej. instancia caída)
+    @Async("taskExecutor")
+    public void resume(Long jobId, LocalDateTime staleBefore) {
+        if (fanOutJobRepository.reclaim(jobId, staleBefore, LocalDateTime.now()) == 0) {
+            // Otro worker lo retomó o volvió a avanzar
+            return;
+        }
+        run(jobId);
+    }
+
+    // Recorre los estudiantes por CI; el avance se guarda por lote, así que al retomar solo se repite
+    // el lote que estaba en curso cuando se cortó
+    private void run(Long jobId) {
+        FanOutJob job = fanOutJobRepository.findById(jobId).orElse(null);
+        if (job == null) {
+            return;
+        }
+
+        try {
+            if (job.getLastRecipientCi() == null) {
+                job.setRecipients((int) userCourseRepository.countByCourse_IdAndUser_Role(job.getCourseId(), Role.ESTUDIANTE));
+            }
+            Map<String, String> pushData = Map.of("link", job.getLink());
+
+            List<User> chunk;
+            do {
+                chunk = userCourseRepository.findUsersPage(
+                        job.getCourseId(), Role.ESTUDIANTE, job.getLastRecipientCi(), Limit.of(CHUNK_SIZE));
+                if (chunk.isEmpty()) {
+                    break;
+                }
+
+                int created = notificationService.createNotifications(chunk, job.getMessage(), job.getLink());
+                job.setNotificationsCreated(job.getNotificationsCreated() + created);
+
+                PushNotificationService.PushResult push = pushNotificationService.sendToUsers(
+                        chunk.stream().map(User::getCi).toList(), "Mentora", job.getMessage(), pushData);
+                job.setPushSent(job.getPushSent() + push.successCount());
+                job.setPushFailed(job.getPushFailed() + push.failureCount());
+
+                int sent = emailService.sendEmails(chunk.stream().map(User::getEmail).toList(), job.getMessage(), job.getEmailBody());
+                job.setEmailsSent(job.getEmailsSent() + sent);
+                job.setEmailsFailed(job.getEmailsFailed() + chunk.size() - sent);
+
+                job.setLastRecipientCi(chunk.get(chunk.size() - 1).getCi());
+                job.setLastProgressAt(LocalDateTime.now());
+                job = fanOutJobRepository.save(job);
+            } while (chunk.size() == CHUNK_SIZE);
+
+            job.setStatus(FanOutStatus.COMPLETED);
+            job.setCompletedAt(LocalDateTime.now());
+        } catch (OptimisticLockingFailureException e) {
+            log.warn("Fan-out {} retomado por otro worker", jobId);
+            return;
+        } catch (Exception e) {
+            log.error("Fan-out {} falló", jobId, e);
+            job.setStatus(FanOutStatus.FAILED);
+            job.setLastError(truncate(e.getMessage()));
+        }
+
+        try {
+            fanOutJobRepository.save(job);
+        } catch (OptimisticLockingFailureException e) {
+            log.warn("Fan-out {} retomado por otro worker", jobId);
+        }
+    }
+
+    // Avisos con un texto distinto por destinatario (p.ej. notas finales), fuera del hilo de la request
+    @Async("taskExecutor")
+    public void notifyEach(Map<String, String> messageByCi, String link) {
+        deliverEach(messageByCi, link);
+    }
+
+    // Inserta las notificaciones por lotes; los pushes se encolan en el dispatcher
+    public void deliverEach(Map<String, String> messageByCi, String link) {
+        List<Map.Entry<String, String>> entries = new ArrayList<>(messageByCi.entrySet());
+        for (int from = 0; from < entries.size(); from += CHUNK_SIZE) {
+            List<Map.Entry<String, String>> chunk = entries.subList(from, Math.min(from + CHUNK_SIZE, entries.size()));
+            try {
+                notificationService.createNotifications(chunk, link);
+                for (Map.Entry<String, String> e : chunk) {
+                    pushNotificationService.sendToUser(e.getKey(), "Mentora", e.getValue(), link);
+                }
+            } catch (Exception e) {
+                log.error("Falló el envío de {} avisos a partir del {}", chunk.size(), from, e);
+            }
+        }
+    }
+
+    private static String truncate(String s) {
+        if (s == null) return null;
+        return s.length() <= 1024 ? s : s.substring(0, 1024);
+    }
+}
@@ -1,30 +1,153 @@
 package com.mentora.backend.service;
 
-import com.google.cloud.storage.BlobInfo;
-import com.google.cloud.storage.Storage;
-import com.mentora.backend.config.GCSConfig;
-import com.google.cloud.storage.Storage.SignUrlOption;
 import com.mentora.backend.dt.DtFileResource;
+import com.mentora.backend.dt.DtUploadTicket;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
 
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
 import java.io.IOException;
 import java.io.InputStream;
-import java.net.URL;
+import java.io.OutputStream;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.regex.Pattern;
 
 @Service
 public class FileStorageService {
 
-    private final Storage storage;
-    private final GCSConfig gcsConfig;
+    private static final Logger log = LoggerFactory.getLogger(FileStorageService.class);
 
-    public FileStorageService(Storage storage, GCSConfig gcsConfig) {
-        this.storage = storage;
-        this.gcsConfig = gcsConfig;
+    private static final int SIGNED_URL_DURATION_MINUTES = 60;
+    private static final int UPLOAD_BUFFER_SIZE = 256 * 1024;
+    // Subidas directas: el objeto queda en pending/ hasta que el cliente confirma
+    private static final String PENDING_PREFIX = "pending/";
+    private static final Pattern PENDING_KEY = Pattern.compile("^pending/[0-9a-f-]{36}(\\.[A-Za-z0-9]{1,16})?$");
+    private static final Pattern SAFE_EXTENSION = Pattern.compile("^\\.[A-Za-z0-9]{1,16}$");
+    private static final String DOWNLOAD_ALGORITHM = "HmacSHA256";
+
+    private final BlobStore blobStore;
+    private final StoredBlobService storedBlobService;
+
+    // Cache de URLs firmadas por path, LRU y acotado
+    private final Map<String, CachedSignedUrl> signedUrlCache;
+    private final long refreshMarginMillis;
+    private final Counter cacheHits;
+    private final Counter cacheMisses;
+    private final Counter cacheEvictions;
+    // Hora actual en ms; los tests la reemplazan para probar el vencimiento sin esperar
+    LongSupplier clock = System::currentTimeMillis;
+
+    // Un buffer por subida simultánea: tomar uno es también el límite de concurrencia
+    private final BlockingQueue<byte[]> uploadBuffers;
+    private final long uploadWaitMillis;
+    private final Timer uploadTimer;
+    private final Counter uploadRejections;
+
+    private final long maxDirectUploadBytes;
+    private final int directUploadUrlMinutes;
+    private final Counter directUploadsConfirmed;
+
+    // Descargas servidas por el propio backend (almacenamiento local o en memoria) con token HMAC
+    private final SecretKeySpec downloadKey;
+    private final String downloadBaseUrl;
+
+    public FileStorageService(
+            BlobStore blobStore,
+            StoredBlobService storedBlobService,
+            MeterRegistry meterRegistry,
+            @Value("${gcs.signed-url.cache.max-entries:10000}") int maxCacheEntries,
+            @Value("${gcs.signed-url.cache.refresh-margin-minutes:10}") long refreshMarginMinutes,
+            @Value("${gcs.upload.max-concurrent:8}") int maxConcurrentUploads,
+            @Value("${gcs.upload.wait-seconds:30}") long uploadWaitSeconds,
+            @Value("${gcs.direct-upload.max-size-mb:250}") long maxDirectUploadMb,
+            @Value("${gcs.direct-upload.url-minutes:15}") int directUploadUrlMinutes,
+            @Value("${storage.download.secret:}") String downloadSecret,
+            @Value("${storage.download.base-url:}") String downloadBaseUrl
+    ) {
+        this.blobStore = blobStore;
+        this.storedBlobService = storedBlobService;
+        this.refreshMarginMillis = TimeUnit.MINUTES.toMillis(refreshMarginMinutes);
+
+        int uploads = Math.max(1, maxConcurrentUploads);
+        this.uploadBuffers = new ArrayBlockingQueue<>(uploads);
+        for (int i = 0; i < uploads; i++) {
+            uploadBuffers.add(new byte[UPLOAD_BUFFER_SIZE]);
+        }
+        this.uploadWaitMillis = TimeUnit.SECONDS.toMillis(uploadWaitSeconds);
+        this.uploadTimer = Timer.builder("storage.upload").tag("backend", blobStore.scheme()).register(meterRegistry);
+        this.uploadRejections = Counter.builder("storage.upload.rejected").register(meterRegistry);
+        meterRegistry.gauge("storage.upload.active", uploadBuffers, q -> uploads - q.size());
+
+        this.maxDirectUploadBytes = maxDirectUploadMb * 1024 * 1024;
+        this.directUploadUrlMinutes = directUploadUrlMinutes;
+        this.directUploadsConfirmed = Counter.builder("storage.direct_upload.confirmed").register(meterRegistry);
+
+        byte[] secret;
+        if (downloadSecret == null || downloadSecret.isBlank()) {
+            // Sin secreto configurado los enlaces solo valen en esta instancia y hasta el próximo reinicio
+            secret = new byte[32];
+            new SecureRandom().nextBytes(secret);
+            if (!"gs".equals(blobStore.scheme())) {
+                log.warn("storage.download.secret no configurado; se usa una clave aleatoria por instancia");
+            }
+        } else {
+            secret = downloadSecret.getBytes(StandardCharsets.UTF_8);
+        }
+        this.downloadKey = new SecretKeySpec(secret, DOWNLOAD_ALGORITHM);
+        this.downloadBaseUrl = downloadBaseUrl.endsWith("/")
+                ? downloadBaseUrl.substring(0, downloadBaseUrl.length() - 1)
+                : downloadBaseUrl;
+
+        this.cacheHits = Counter.builder("storage.signed_url.cache")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.cacheMisses = Counter.builder("storage.signed_url.cache")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        this.cacheEvictions = Counter.builder("storage.signed_url.cache.evictions")
+                .register(meterRegistry);
+
+        this.signedUrlCache = Collections.synchronizedMap(new LinkedHashMap<String, CachedSignedUrl>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedSignedUrl> eldest) {
+                boolean evict = size() > maxCacheEntries;
+                if (evict) {
+                    cacheEvictions.increment();
+                }
+                return evict;
+            }
+        });
+        meterRegistry.gaugeMapSize("storage.signed_url.cache.size", Tags.empty(), signedUrlCache);
     }
 
     public DtFileResource store(MultipartFile file) throws IOException {
@@ -33,23 +156,25 @@ public class FileStorageService {
         }
 
         String originalFilename = file.getOriginalFilename();
-        String extension = "";
-        if (originalFilename != null && originalFilename.contains(".")) {
-            extension = originalFilename.substring(originalFilename.lastIndexOf("."));
-        }
-        String gcsFileName = UUID.randomUUID() + extension;
 
-        BlobInfo blobInfo = BlobInfo.newBuilder(gcsConfig.getBucketName(), gcsFileName)
-                .setContentType(file.getContentType())
-                .build();
+        // El multipart ya está en disco o memoria local: se hashea antes y si el contenido ya existe no se sube
+        MessageDigest digest = newSha256();
+        try (InputStream is = new DigestInputStream(file.getInputStream(), digest)) {
+            is.transferTo(OutputStream.nullOutputStream());
+        }
+        String sha256 = HexFormat.of().formatHex(digest.digest());
+        String existing = storedBlobService.acquire(sha256);
+        if (existing != null) {
+            return new DtFileResource(originalFilename, existing, file.getSize());
+        }
 
-        storage.create(blobInfo, file.getBytes());
+        StoragePath path = blobStore.pathFor(newObjectName(originalFilename));
+        long size;
+        try (InputStream is = file.getInputStream()) {
+            size = upload(path, file.getContentType(), is);
+        }
 
-        return new DtFileResource(
-            originalFilename,
-            "gs://" + gcsConfig.getBucketName() + "/" + gcsFileName,
-            file.getSize()
-        );
+        return register(sha256, path, originalFilename, size);
     }
 
     public DtFileResource store(Path path) throws IOException {
@@ -70,70 +195,259 @@ public class FileStorageService {
         if (inputStream == null) {
             throw new IllegalArgumentException("Stream nulo");
         }
+        StoragePath path = blobStore.pathFor(newObjectName(originalFilename));
+
+        // El stream se lee una sola vez: el hash se calcula mientras se sube y se deduplica al registrar
+        MessageDigest digest = newSha256();
+        long size = upload(
+                path,
+                contentType != null && !contentType.isBlank() ? contentType : "application/octet-stream",
+                new DigestInputStream(inputStream, digest)
+        );
+
+        return register(HexFormat.of().formatHex(digest.digest()), path, originalFilename, size);
+    }
+
+    // Si otra subida con el mismo contenido ganó la carrera, se usa esa y se borra la copia recién subida
+    private DtFileResource register(String sha256, StoragePath path, String originalFilename, long size) {
+        String canonical = storedBlobService.register(sha256, path.toString(), size);
+        if (!canonical.equals(path.toString())) {
+            blobStore.delete(path);
+        }
+        return new DtFileResource(originalFilename, canonical, size);
+    }
+
+    private static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    private static String newObjectName(String originalFilename) {
         String extension = "";
         if (originalFilename != null && originalFilename.contains(".")) {
             extension = originalFilename.substring(originalFilename.lastIndexOf("."));
         }
-        String gcsFileName = UUID.randomUUID() + extension;
+        return UUID.randomUUID() + extension;
+    }
 
-        BlobInfo blobInfo = BlobInfo.newBuilder(gcsConfig.getBucketName(), gcsFileName)
-                .setContentType(contentType != null && !contentType.isBlank() ? contentType : "application/octet-stream")
-                .build();
+    // La memoria por subida es fija (un buffer del pool) sin importar el tamaño del archivo
+    private long upload(StoragePath path, String contentType, InputStream in) throws IOException {
+        byte[] buffer;
+        try {
+            buffer = uploadBuffers.poll(uploadWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Subida interrumpida", e);
+        }
+        if (buffer == null) {
+            uploadRejections.increment();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Demasiadas subidas en curso, intenta nuevamente");
+        }
 
-        byte[] bytes = inputStream.readAllBytes();
-        storage.create(blobInfo, bytes);
+        long start = System.nanoTime();
+        try {
+            return blobStore.write(path, contentType, in, buffer);
+        } finally {
+            uploadBuffers.add(buffer);
+            uploadTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    // Archivo de una request: por multipart (fallback) o ya subido directo al almacenamiento con un uploadKey
+    public DtFileResource storeOrConfirm(MultipartFile file, String uploadKey, String fileName) throws IOException {
+        if (file != null) {
+            return store(file);
+        }
+        if (uploadKey != null && !uploadKey.isBlank()) {
+            return confirmUpload(uploadKey, fileName);
+        }
+        return null;
+    }
+
+    // Primer paso de la subida directa: URL firmada para que el cliente haga PUT del archivo
+    // sin pasar los bytes por el backend. Los headers devueltos forman parte de la firma y deben enviarse tal cual
+    public DtUploadTicket createUploadUrl(String uploaderCi, String fileName, String contentType, Long size) {
+        if (!blobStore.supportsDirectUpload()) {
+            throw new ResponseStatusException(HttpStatus.NOT_IMPLEMENTED, "La subida directa no está disponible con este almacenamiento");
+        }
+        if (fileName == null || fileName.isBlank()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "El nombre del archivo es obligatorio");
+        }
+        if (size == null || size <= 0 || size > maxDirectUploadBytes) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "El tamaño del archivo debe estar entre 1 byte y " + maxDirectUploadBytes / (1024 * 1024) + " MB");
+        }
+
+        String extension = "";
+        if (fileName.contains(".")) {
+            String candidate = fileName.substring(fileName.lastIndexOf("."));
+            if (SAFE_EXTENSION.matcher(candidate).matches()) {
+                extension = candidate;
+            }
+        }
+        String uploadKey = PENDING_PREFIX + UUID.randomUUID() + extension;
+
+        BlobStore.DirectUpload upload = blobStore.signUpload(
+                blobStore.pathFor(uploadKey),
+                contentType != null && !contentType.isBlank() ? contentType : "application/octet-stream",
+                uploaderCi,
+                size,
+                directUploadUrlMinutes
+        );
+
+        return new DtUploadTicket(
+                uploadKey,
+                upload.url(),
+                "PUT",
+                upload.headers(),
+                LocalDateTime.now().plusMinutes(directUploadUrlMinutes)
+        );
+    }
+
+    // Segundo paso: verifica que el objeto exista y lo haya subido el usuario actual, y lo mueve
+    // de pending/ a su ubicación definitiva sin pasar los bytes por el backend
+    public DtFileResource confirmUpload(String uploadKey, String fileName) throws IOException {
+        if (uploadKey == null || !PENDING_KEY.matcher(uploadKey).matches()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Clave de subida inválida");
+        }
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        String userCi = auth != null ? auth.getName() : null;
+
+        StoragePath pending = blobStore.pathFor(uploadKey);
+        BlobStore.StoredObject stored = blobStore.stat(pending);
+        if (stored == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "El archivo no fue subido o la subida expiró");
+        }
+        if (userCi == null || !userCi.equals(stored.uploaderCi())) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "La subida pertenece a otro usuario");
+        }
+        if (stored.size() <= 0 || stored.size() > maxDirectUploadBytes) {
+            blobStore.delete(pending);
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "El archivo subido está vacío o excede el tamaño permitido");
+        }
+
+        String objectName = uploadKey.substring(PENDING_PREFIX.length());
+        StoragePath target = blobStore.pathFor(objectName);
+        blobStore.move(pending, target);
+        directUploadsConfirmed.increment();
+        // Sin hash: GCS no calcula SHA-256 y descargarlo para hashearlo anularía la subida directa
+        storedBlobService.register(null, target.toString(), stored.size());
 
         return new DtFileResource(
-            originalFilename,
-            "gs://" + gcsConfig.getBucketName() + "/" + gcsFileName,
-            (long) bytes.length
+            fileName != null && !fileName.isBlank() ? fileName : objectName,
+            target.toString(),
+            stored.size()
         );
     }
 
-    public String generateSignedUrl(String gcsPath) {
-        int durationMinutes = 60;
+    // Indica si el path lo generó el almacenamiento configurado (y por lo tanto hay que firmarlo)
+    public boolean isStoredPath(String path) {
+        return path != null && path.startsWith(blobStore.scheme() + "://");
+    }
 
-        if (gcsPath == null || gcsPath.isBlank()) {
+    public String generateSignedUrl(String storagePath) {
+        if (storagePath == null || storagePath.isBlank()) {
             return null;
         }
-        if (!gcsPath.startsWith("gs://")) {
-            // Si no es un path de GCS, devolver tal cual (p.ej. http/https)
-            return gcsPath;
+        if (!isStoredPath(storagePath)) {
+            // Si no es un path del almacenamiento, devolver tal cual (p.ej. http/https)
+            return storagePath;
         }
 
-        String noPrefix = gcsPath.replace("gs://", "");
-        int slash = noPrefix.indexOf("/");
+        // Se reutiliza la URL firmada hasta que falte menos que el margen para su vencimiento
+        long now = clock.getAsLong();
+        CachedSignedUrl cached = signedUrlCache.get(storagePath);
+        if (cached != null && now < cached.expiresAtMillis() - refreshMarginMillis) {
+            cacheHits.increment();
+            return cached.url();
+        }
+        cacheMisses.increment();
 
-        if (slash <= 0) {
-            throw new IllegalArgumentException("GCS path inválido");
+        StoragePath path = StoragePath.parse(storagePath);
+        if (path == null) {
+            throw new IllegalArgumentException("Path de almacenamiento inválido");
         }
 
-        String bucket = noPrefix.substring(0, slash);
-        String objectPath = noPrefix.substring(slash + 1);
+        long expiresAt = now + TimeUnit.MINUTES.toMillis(SIGNED_URL_DURATION_MINUTES);
+        String url = blobStore.signedUrl(path, SIGNED_URL_DURATION_MINUTES);
+        if (url == null) {
+            url = downloadUrl(path.key(), TimeUnit.MILLISECONDS.toSeconds(expiresAt));
+        }
 
-        BlobInfo blobInfo = BlobInfo.newBuilder(bucket, objectPath).build();
+        signedUrlCache.put(storagePath, new CachedSignedUrl(url, expiresAt));
+        return url;
+    }
 
-        URL signedUrl = storage.signUrl(
-                blobInfo,
-                durationMinutes,
-                TimeUnit.MINUTES,
-                SignUrlOption.withV4Signature()
-        );
+    private String downloadUrl(String key, long expiresEpochSeconds) {
+        return downloadBaseUrl + "/files/download"
+                + "?key=" + URLEncoder.encode(key, StandardCharsets.UTF_8)
+                + "&expires=" + expiresEpochSeconds
+                + "&signature=" + downloadSignature(key, expiresEpochSeconds);
+    }
+
+    private String downloadSignature(String key, long expiresEpochSeconds) {
+        try {
+            Mac mac = Mac.getInstance(DOWNLOAD_ALGORITHM);
+            mac.init(downloadKey);
+            byte[] digest = mac.doFinal((key + "\n" + expiresEpochSeconds).getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("No se pudo firmar la descarga", e);
+        }
+    }
+
+    // Valida el token de /files/download y devuelve los metadatos del archivo
+    public BlobStore.StoredObject openDownload(String key, long expiresEpochSeconds, String signature) {
+        if (key == null || signature == null
+                || expiresEpochSeconds < TimeUnit.MILLISECONDS.toSeconds(clock.getAsLong())) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Enlace de descarga inválido o vencido");
+        }
+        byte[] expected = downloadSignature(key, expiresEpochSeconds).getBytes(StandardCharsets.UTF_8);
+        if (!MessageDigest.isEqual(expected, signature.getBytes(StandardCharsets.UTF_8))) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Enlace de descarga inválido o vencido");
+        }
+
+        BlobStore.StoredObject stored;
+        try {
+            stored = blobStore.stat(blobStore.pathFor(key));
+        } catch (IllegalArgumentException e) {
+            stored = null;
+        }
+        if (stored == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Archivo no encontrado");
+        }
+        return stored;
+    }
 
-        return signedUrl.toString();
+    // Copia a out el contenido del archivo con esa key en el almacenamiento configurado
+    public long copyKeyTo(String key, OutputStream out) throws IOException {
+        return blobStore.copyTo(blobStore.pathFor(key), out);
     }
 
-    public void delete(String gcsPath) {
-        if (gcsPath == null || gcsPath.isBlank()) return;
-        if (!gcsPath.startsWith("gs://")) return;
+    // Metadatos de un archivo guardado a partir de su path persistido; null si no existe o el path no es válido
+    public BlobStore.StoredObject stat(String storagePath) {
+        StoragePath path = isStoredPath(storagePath) ? StoragePath.parse(storagePath) : null;
+        return path != null ? blobStore.stat(path) : null;
+    }
 
-        String noPrefix = gcsPath.replace("gs://", "");
-        int slash = noPrefix.indexOf("/");
-        if (slash <= 0) return;
+    // Copia a out el contenido de un archivo guardado, a partir de su path persistido
+    public long copyTo(String storagePath, OutputStream out) throws IOException {
+        StoragePath path = isStoredPath(storagePath) ? StoragePath.parse(storagePath) : null;
+        if (path == null) {
+            throw new IllegalArgumentException("Path de almacenamiento inválido");
+        }
+        return blobStore.copyTo(path, out);
+    }
 
-        String bucket = noPrefix.substring(0, slash);
-        String objectPath = noPrefix.substring(slash + 1);
+    // Suelta la referencia de una fila borrada al archivo; el archivo se borra cuando nadie más lo usa
+    public void release(String storagePath) {
+        if (!isStoredPath(storagePath) || StoragePath.parse(storagePath) == null) return;
 
-        storage.delete(bucket, objectPath);
+        storedBlobService.release(storagePath);
     }
+
+    private record CachedSignedUrl(String url, long expiresAtMillis) {}
 }
@@ -0,0 +1,138 @@
+package com.mentora.backend.service;
+
+import com.google.auth.oauth2.GoogleCredentials;
+import com.google.firebase.FirebaseApp;
+import com.google.firebase.FirebaseOptions;
+import com.google.firebase.messaging.BatchResponse;
+import com.google.firebase.messaging.FirebaseMessaging;
+import com.google.firebase.messaging.MessagingErrorCode;
+import com.google.firebase.messaging.MulticastMessage;
+import com.google.firebase.messaging.Notification;
+import com.google.firebase.messaging.SendResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+@Component
+@ConditionalOnProperty(name = "push.transport", havingValue = "firebase", matchIfMissing = true)
+public class FirebasePushTransport implements PushTransport {
+
+    // Máximo de tokens por envío multicast admitido por FCM
+    private static final int MULTICAST_MAX_TOKENS = 500;
+
+    private final boolean enabled;
+
+    public FirebasePushTransport(@Value("${firebase.credentials:}") String firebaseCredentialsPath) {
+        this.enabled = initializeFirebase(firebaseCredentialsPath);
+    }
+
+    private boolean initializeFirebase(String credentialsPath) {
+        try {
+            if (!FirebaseApp.getApps().isEmpty()) {
+                return true;
+            }
+
+            InputStream credentialsStream = null;
+
+            if (credentialsPath != null && !credentialsPath.isBlank()) {
+                String trimmed = credentialsPath.trim();
+                // Inline JSON provided via env/property
+                if (trimmed.startsWith("{")) {
+                    credentialsStream = new ByteArrayInputStream(trimmed.getBytes(StandardCharsets.UTF_8));
+                } else {
+                    // Base64-encoded JSON provided via env/property
+                    try {
+                        byte[] decoded = Base64.getDecoder().decode(trimmed);
+                        String asString = new String(decoded, StandardCharsets.UTF_8).trim();
+                        if (asString.startsWith("{")) {
+                            credentialsStream = new ByteArrayInputStream(decoded);
+                        }
+                    } catch (IllegalArgumentException ignored) {
+                        // Not base64, proceed to path resolution
+                    }
+                    // Treat as filesystem path
+                    if (credentialsStream == null) {
+                        File f = new File(credentialsPath);
+                        if (f.exists()) {
+                            credentialsStream = new FileInputStream(f);
+                        }
+                    }
+                }
+            }
+
+            if (credentialsStream == null) {
+                String env = System.getenv("GOOGLE_APPLICATION_CREDENTIALS");
+                if (env != null && !env.isBlank()) {
+                    File f = new File(env);
+                    if (f.exists()) {
+                        credentialsStream = new FileInputStream(f);
+                    }
+                }
+            }
+
+            if (credentialsStream == null) {
+                // No credentials available; keep service disabled
+                return false;
+            }
+
+            FirebaseOptions options = FirebaseOptions.builder()
+                    .setCredentials(GoogleCredentials.fromStream(credentialsStream))
+                    .build();
+            FirebaseApp.initializeApp(options);
+            return true;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    @Override
+    public int maxTokensPerSend() {
+        return MULTICAST_MAX_TOKENS;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public List<Outcome> send(List<String> tokens, PushPayload payload) throws Exception {
+        MulticastMessage.Builder mb = MulticastMessage.builder()
+                .addAllTokens(tokens)
+                .setNotification(Notification.builder().setTitle(payload.title()).setBody(payload.body()).build());
+        if (!payload.data().isEmpty()) {
+            mb.putAllData(payload.data());
+        }
+
+        BatchResponse response = FirebaseMessaging.getInstance().sendEachForMulticast(mb.build());
+        List<Outcome> outcomes = new ArrayList<>(tokens.size());
+        for (SendResponse r : response.getResponses()) {
+            outcomes.add(toOutcome(r));
+        }
+        return outcomes;
+    }
+
+    private static Outcome toOutcome(SendResponse r) {
+        if (r.isSuccessful()) {
+            return Outcome.SENT;
+        }
+        MessagingErrorCode code = r.getException() != null ? r.getException().getMessagingErrorCode() : null;
+        if (code == null) {
+            return Outcome.RETRYABLE;
+        }
+        return switch (code) {
+            case UNREGISTERED -> Outcome.UNREGISTERED;
+            case UNAVAILABLE, INTERNAL, QUOTA_EXCEEDED -> Outcome.RETRYABLE;
+            default -> Outcome.FAILED;
+        };
+    }
+}
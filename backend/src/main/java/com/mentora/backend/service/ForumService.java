@@ -1,8 +1,8 @@
 package com.mentora.backend.service;
 
 import com.mentora.backend.dt.DtPost;
-import com.mentora.backend.dt.DtUser;
 import com.mentora.backend.dt.DtForum;
+import com.mentora.backend.dt.DtFanOutJob;
 import com.mentora.backend.model.*;
 import com.mentora.backend.repository.*;
 import com.mentora.backend.responses.GetForumResponse;
@@ -18,9 +18,7 @@ public class ForumService {
     private final PostRepository postRepository;
     private final UserRepository userRepository;
     private final ForumRepository forumRepository;
-    private final EmailService emailService;
-    private final NotificationService notificationService;
-    private final UserCourseService userCourseService;
+    private final FanOutService fanOutService;
     private final ActivityRepository activityRepository;
     private final FileStorageService fileStorageService;
 
@@ -28,18 +26,14 @@ public class ForumService {
         PostRepository postRepository,
         UserRepository userRepository,
         ForumRepository forumRepository,
-        EmailService emailService,
-        NotificationService notificationService,
-        UserCourseService userCourseService,
+        FanOutService fanOutService,
         ActivityRepository activityRepository,
         FileStorageService fileStorageService
     ) {
         this.postRepository = postRepository;
         this.userRepository = userRepository;
         this.forumRepository = forumRepository;
-        this.emailService = emailService;
-        this.notificationService = notificationService;
-        this.userCourseService = userCourseService;
+        this.fanOutService = fanOutService;
         this.activityRepository = activityRepository;
         this.fileStorageService = fileStorageService;
     }
@@ -73,29 +67,16 @@ public class ForumService {
         );
         activityRepository.save(activity);
 
-        List<DtUser> studentsDto = userCourseService.getParticipantsFromCourse(forum.getCourse().getId()).stream()
-                .filter(u -> u.getRole() == Role.ESTUDIANTE)
-                .toList();
-
-        // Envia mail de nueva publicación a todos los estudiantes (asincrónico)
-        for (DtUser studentDto : studentsDto) {
-            emailService.sendEmailAsync(studentDto.getEmail(),
-                "Nuevo post en el foro de "
-                + (forum.getType() == ForumType.ANNOUNCEMENTS ? "anuncios" : "consultas")
-                + " de " + forum.getCourse().getName(),
-                message
-            );
-
-            String link = "/courses/" + forum.getCourse().getId() + "/forums/" + forum.getId() + "/posts/" + post.getId();
-
-            notificationService.createNotification(
-                studentDto.getCi(),
-                "Nuevo post en el foro de "
-                + (forum.getType() == ForumType.ANNOUNCEMENTS ? "anuncios" : "consultas")
-                + " de " + forum.getCourse().getName(),
-                link
-            );
-        }
+        // Mail, notificación y push a los estudiantes del curso se distribuyen en segundo plano
+        String link = "/courses/" + forum.getCourse().getId() + "/forums/" + forum.getId() + "/posts/" + post.getId();
+        fanOutService.enqueuePostPublished(
+            forum.getCourse().getId(),
+            post,
+            "Nuevo post en el foro de "
+            + (forum.getType() == ForumType.ANNOUNCEMENTS ? "anuncios" : "consultas")
+            + " de " + forum.getCourse().getName(),
+            link
+        );
 
         return getDtPost(post);
     }
@@ -108,9 +89,23 @@ public class ForumService {
         return new GetForumResponse(getDtForum(forum), posts.stream().map(this::getDtPost).toList());
     }
 
+    public DtFanOutJob getPostDelivery(Long forumId, Long postId, String requesterCi) {
+        Post post = postRepository.findById(postId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Post no encontrado"));
+
+        if (!post.getForum().getId().equals(forumId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Post no encontrado");
+        }
+        if (!post.getAuthor().getCi().equals(requesterCi)) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Solo el autor puede ver el estado de envío");
+        }
+
+        return fanOutService.getPostDelivery(postId);
+    }
+
     private DtPost getDtPost(Post post) {
         String raw = post.getAuthor().getPictureUrl();
-        String signed = (raw != null && raw.startsWith("gs://")) ? fileStorageService.generateSignedUrl(raw) : raw;
+        String signed = fileStorageService.isStoredPath(raw) ? fileStorageService.generateSignedUrl(raw) : raw;
         DtPost dto = new DtPost(
             post.getId(),
             post.getAuthor().getCi(),
@@ -0,0 +1,176 @@
+package com.mentora.backend.service;
+
+import com.google.cloud.ReadChannel;
+import com.google.cloud.WriteChannel;
+import com.google.cloud.storage.Blob;
+import com.google.cloud.storage.BlobId;
+import com.google.cloud.storage.BlobInfo;
+import com.google.cloud.storage.HttpMethod;
+import com.google.cloud.storage.Storage;
+import com.google.cloud.storage.Storage.SignUrlOption;
+import com.mentora.backend.config.GCSConfig;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32C;
+
+@Component
+@ConditionalOnProperty(name = "storage.backend", havingValue = "gcs", matchIfMissing = true)
+public class GcsBlobStore implements BlobStore {
+
+    // El chunk de subida reanudable de GCS debe ser múltiplo de 256 KiB
+    private static final int UPLOAD_CHUNK_ALIGNMENT = 256 * 1024;
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+    private static final String UPLOADER_METADATA = "uploader";
+
+    private final Storage storage;
+    private final GCSConfig gcsConfig;
+    private final int uploadChunkSize;
+
+    public GcsBlobStore(
+            Storage storage,
+            GCSConfig gcsConfig,
+            @Value("${gcs.upload.chunk-size-kb:2048}") int uploadChunkSizeKb
+    ) {
+        this.storage = storage;
+        this.gcsConfig = gcsConfig;
+        int chunks = Math.max(1, (uploadChunkSizeKb * 1024 + UPLOAD_CHUNK_ALIGNMENT - 1) / UPLOAD_CHUNK_ALIGNMENT);
+        this.uploadChunkSize = chunks * UPLOAD_CHUNK_ALIGNMENT;
+    }
+
+    @Override
+    public String scheme() {
+        return "gs";
+    }
+
+    @Override
+    public StoragePath pathFor(String key) {
+        return new StoragePath("gs", gcsConfig.getBucketName(), key);
+    }
+
+    // Sube en chunks por el WriteChannel reanudable: la memoria por subida es fija (buffer + chunk)
+    // sin importar el tamaño del archivo. El CRC32C se calcula al vuelo y se compara con el de GCS
+    @Override
+    public long write(StoragePath path, String contentType, InputStream in, byte[] buffer) throws IOException {
+        BlobInfo blobInfo = BlobInfo.newBuilder(path.bucket(), path.key())
+                .setContentType(contentType)
+                .build();
+
+        CRC32C crc = new CRC32C();
+        long size = 0;
+        try (WriteChannel writer = storage.writer(blobInfo)) {
+            writer.setChunkSize(uploadChunkSize);
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                crc.update(buffer, 0, read);
+                ByteBuffer chunk = ByteBuffer.wrap(buffer, 0, read);
+                while (chunk.hasRemaining()) {
+                    writer.write(chunk);
+                }
+                size += read;
+            }
+        }
+
+        Blob stored = storage.get(blobInfo.getBlobId(), Storage.BlobGetOption.fields(Storage.BlobField.CRC32C));
+        if (stored == null || !toGcsCrc32c(crc.getValue()).equals(stored.getCrc32c())) {
+            storage.delete(blobInfo.getBlobId());
+            throw new IOException("El checksum del archivo subido no coincide");
+        }
+        return size;
+    }
+
+    // GCS informa el CRC32C como base64 de los 4 bytes en big-endian
+    private static String toGcsCrc32c(long value) {
+        byte[] bytes = ByteBuffer.allocate(4).putInt((int) value).array();
+        return Base64.getEncoder().encodeToString(bytes);
+    }
+
+    @Override
+    public StoredObject stat(StoragePath path) {
+        Blob blob = storage.get(BlobId.of(path.bucket(), path.key()));
+        if (blob == null) {
+            return null;
+        }
+        Map<String, String> metadata = blob.getMetadata();
+        return new StoredObject(
+                blob.getSize() != null ? blob.getSize() : 0L,
+                blob.getContentType(),
+                metadata != null ? metadata.get(UPLOADER_METADATA) : null
+        );
+    }
+
+    @Override
+    public long copyTo(StoragePath path, OutputStream out) throws IOException {
+        WritableByteChannel target = Channels.newChannel(out);
+        ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+        long total = 0;
+        try (ReadChannel reader = storage.reader(BlobId.of(path.bucket(), path.key()))) {
+            while (reader.read(buffer) != -1) {
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    total += target.write(buffer);
+                }
+                buffer.clear();
+            }
+        }
+        return total;
+    }
+
+    @Override
+    public void delete(StoragePath path) {
+        storage.delete(path.bucket(), path.key());
+    }
+
+    // Copia del lado de GCS y borrado del original; los bytes no pasan por el backend
+    @Override
+    public void move(StoragePath from, StoragePath to) {
+        BlobId source = BlobId.of(from.bucket(), from.key());
+        storage.copy(Storage.CopyRequest.of(source, BlobId.of(to.bucket(), to.key()))).getResult();
+        storage.delete(source);
+    }
+
+    @Override
+    public String signedUrl(StoragePath path, long ttlMinutes) {
+        return storage.signUrl(
+                BlobInfo.newBuilder(path.bucket(), path.key()).build(),
+                ttlMinutes,
+                TimeUnit.MINUTES,
+                SignUrlOption.withV4Signature()
+        ).toString();
+    }
+
+    @Override
+    public boolean supportsDirectUpload() {
+        return true;
+    }
+
+    @Override
+    public DirectUpload signUpload(StoragePath path, String contentType, String uploaderCi, long size, long ttlMinutes) {
+        Map<String, String> headers = new LinkedHashMap<>();
+        headers.put("Content-Type", contentType);
+        headers.put("x-goog-meta-" + UPLOADER_METADATA, uploaderCi);
+        // GCS rechaza el PUT si el cuerpo supera el tamaño declarado
+        headers.put("x-goog-content-length-range", "0," + size);
+
+        String url = storage.signUrl(
+                BlobInfo.newBuilder(path.bucket(), path.key()).build(),
+                ttlMinutes,
+                TimeUnit.MINUTES,
+                SignUrlOption.httpMethod(HttpMethod.PUT),
+                SignUrlOption.withExtHeaders(headers),
+                SignUrlOption.withV4Signature()
+        ).toString();
+        return new DirectUpload(url, headers);
+    }
+}
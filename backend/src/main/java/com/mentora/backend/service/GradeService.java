@@ -7,40 +7,65 @@ import com.mentora.backend.model.UserCourse;
 import com.mentora.backend.repository.CourseRepository;
 import com.mentora.backend.repository.UserCourseRepository;
 import com.mentora.backend.repository.UserRepository;
+import com.opencsv.CSVReader;
+import com.opencsv.CSVReaderBuilder;
+import com.opencsv.exceptions.CsvException;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.server.ResponseStatusException;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
-
+import java.util.Map;
+import java.util.Set;
 
 @Service
 public class GradeService {
 
+    private static final int GRADES_CHUNK_SIZE = 1000;
+
+    private static final String UPDATE_FINAL_GRADE_SQL =
+            "UPDATE user_course SET final_grade = ? WHERE course_id = ? AND user_id = ?";
+
     private final UserCourseRepository userCourseRepository;
     private final CourseRepository courseRepository;
     private final UserRepository userRepository;
     private final NotificationService notificationService;
     private final EmailService emailService;
+    private final FanOutWorker fanOutWorker;
+    private final GradebookService gradebookService;
+    private final JdbcTemplate jdbcTemplate;
 
     public GradeService(
         UserCourseRepository userCourseRepository,
         CourseRepository courseRepository,
         UserRepository userRepository,
         NotificationService notificationService,
-        EmailService emailService
-
+        EmailService emailService,
+        FanOutWorker fanOutWorker,
+        GradebookService gradebookService,
+        JdbcTemplate jdbcTemplate
     ) {
         this.userCourseRepository = userCourseRepository;
         this.courseRepository = courseRepository;
         this.userRepository = userRepository;
         this.notificationService = notificationService;
         this.emailService = emailService;
+        this.fanOutWorker = fanOutWorker;
+        this.gradebookService = gradebookService;
+        this.jdbcTemplate = jdbcTemplate;
     }
 
     public void publishFinalGrade(String courseId, DtFinalGrade gradeDto) {
@@ -59,6 +84,7 @@ public class GradeService {
 
         uc.setFinalGrade(grade);
         userCourseRepository.save(uc);
+        gradebookService.recordFinalGrade(courseId, user.getCi(), grade);
 
         // Envío de notificación
         notificationService.createNotification(
@@ -73,17 +99,24 @@ public class GradeService {
             );
     }
 
-    // Publicación masiva desde CSV
+    // Publicación masiva desde CSV: valida todo en memoria con una consulta por lote,
+    // guarda las notas en un único batch y delega las notificaciones al worker asíncrono
+    @Transactional
     public void publishFinalGradesCsv(String courseId, InputStream csvStream) {
         Course course = courseRepository.findById(courseId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Curso no encontrado"));
 
-        List<DtFinalGrade> grades = new ArrayList<>();
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(csvStream))) {
-            String line;
-            int row = 1;
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(",");
+        // ci -> nota y ci -> fila, en el orden del archivo
+        Map<String, Integer> grades = new LinkedHashMap<>();
+        Map<String, Integer> rows = new HashMap<>();
+        try (CSVReader reader = new CSVReaderBuilder(new InputStreamReader(csvStream, StandardCharsets.UTF_8)).build()) {
+            String[] parts;
+            int row = 0;
+            while ((parts = reader.readNext()) != null) {
+                row++;
+                if (parts.length == 1 && parts[0].isBlank()) {
+                    continue;
+                }
                 if (parts.length != 2)
                     throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "CSV inválido en fila " + row);
 
@@ -97,34 +130,55 @@ public class GradeService {
                 if (grade < 1 || grade > 12)
                     throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Nota fuera de rango en fila " + row);
 
-                grades.add(new DtFinalGrade(ci, grade));
-                row++;
+                if (grades.putIfAbsent(ci, grade) != null)
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Estudiante repetido en fila " + row);
+                rows.put(ci, row);
             }
-        } catch (IOException e) {
+        } catch (IOException | CsvException e) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Error leyendo CSV");
         }
 
-        // Validar todos antes de guardar
-        for (DtFinalGrade g : grades) {
-            userRepository.findById(g.getStudentCi())
-                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Estudiante no encontrado: " + g.getStudentCi()));
-            userCourseRepository.findByCourseAndUser(course, userRepository.getReferenceById(g.getStudentCi()))
-                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Estudiante no matriculado: " + g.getStudentCi()));
+        if (grades.isEmpty()) {
+            return;
         }
 
-        // Guardar y notificar
-        for (DtFinalGrade g : grades) {
-            User user = userRepository.getReferenceById(g.getStudentCi());
-            UserCourse uc = userCourseRepository.findByCourseAndUser(course, user).get();
-            uc.setFinalGrade(g.getGrade());
-            userCourseRepository.save(uc);
-
-            notificationService.createNotification(
-                user.getCi(),
-                "Su calificación final del curso " + course.getName() + " ha sido publicada: " + g.getGrade(),
-                "/courses/" + course.getId()
-            );
+        // Validar todos antes de guardar
+        List<String> cis = new ArrayList<>(grades.keySet());
+        Set<String> enrolled = new HashSet<>(cis.size());
+        for (int from = 0; from < cis.size(); from += GRADES_CHUNK_SIZE) {
+            enrolled.addAll(userCourseRepository.findEnrolledUserCis(courseId, cis.subList(from, Math.min(from + GRADES_CHUNK_SIZE, cis.size()))));
+        }
+        for (String ci : cis) {
+            if (!enrolled.contains(ci)) {
+                if (!userRepository.existsByCi(ci))
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Estudiante no encontrado: " + ci + " (fila " + rows.get(ci) + ")");
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Estudiante no matriculado: " + ci + " (fila " + rows.get(ci) + ")");
+            }
         }
+
+        List<Map.Entry<String, Integer>> updates = new ArrayList<>(grades.entrySet());
+        jdbcTemplate.batchUpdate(UPDATE_FINAL_GRADE_SQL, updates, GRADES_CHUNK_SIZE, (ps, g) -> {
+            ps.setInt(1, g.getValue());
+            ps.setString(2, courseId);
+            ps.setString(3, g.getKey());
+        });
+        gradebookService.recordFinalGrades(courseId, grades);
+
+        // Notificar recién después del commit, fuera del hilo de la request
+        Map<String, String> messages = new LinkedHashMap<>();
+        grades.forEach((ci, grade) -> messages.put(ci,
+                "Su calificación final del curso " + course.getName() + " ha sido publicada: " + grade));
+        String link = "/courses/" + course.getId();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                try {
+                    fanOutWorker.notifyEach(messages, link);
+                } catch (TaskRejectedException e) {
+                    // Executor saturado: se notifica en el hilo actual antes que perder los avisos
+                    fanOutWorker.deliverEach(messages, link);
+                }
+            }
+        });
     }
 }
-
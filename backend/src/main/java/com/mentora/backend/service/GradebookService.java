@@ -0,0 +1,305 @@
+package com.mentora.backend.service;
+
+import com.mentora.backend.dt.DtGradebook;
+import com.mentora.backend.dt.DtGradebookItem;
+import com.mentora.backend.dt.DtGradebookRow;
+import com.mentora.backend.model.GradebookEntry;
+import com.mentora.backend.model.GradebookItemType;
+import com.mentora.backend.repository.CourseRepository;
+import com.mentora.backend.repository.EvaluationRepository;
+import com.mentora.backend.repository.GradebookEntryRepository;
+import com.mentora.backend.repository.QuizRepository;
+import com.mentora.backend.repository.UserCourseRepository;
+import com.opencsv.CSVWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Matriz de notas por curso (estudiantes x evaluaciones, quizzes y nota final), materializada en gradebook_entries.
+// Cada escritura de nota actualiza su celda. La reconstrucción desde las entregas corre en la primera lectura de un curso
+// en cada instancia, todas las noches para todos los cursos y a pedido del profesor; además borra las celdas sin origen
+@Service
+public class GradebookService {
+
+    private static final Logger log = LoggerFactory.getLogger(GradebookService.class);
+
+    private static final int EXPORT_PAGE_SIZE = 500;
+    private static final int WRITE_BATCH_SIZE = 1000;
+    private static final int REBUILD_PAGE_SIZE = 200;
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO gradebook_entries (course_id, student_ci, item_type, item_id, grade, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE grade = VALUES(grade), updated_at = VALUES(updated_at)";
+
+    private static final String REBUILD_EVALUATIONS_SQL =
+            "INSERT INTO gradebook_entries (course_id, student_ci, item_type, item_id, grade, updated_at) " +
+            "SELECT e.course_id, s.author_ci, 'EVALUATION', e.id, s.note, NOW() " +
+            "FROM evaluation_submission s JOIN evaluation e ON e.id = s.evaluation_id " +
+            "WHERE e.course_id = ? AND s.note IS NOT NULL " +
+            "ON DUPLICATE KEY UPDATE grade = VALUES(grade)";
+
+    private static final String REBUILD_QUIZZES_SQL =
+            "INSERT INTO gradebook_entries (course_id, student_ci, item_type, item_id, grade, updated_at) " +
+            "SELECT q.course_id, s.author_ci, 'QUIZ', q.id, s.note, NOW() " +
+            "FROM quiz_submission s JOIN quiz q ON q.id = s.quiz_id " +
+            "WHERE q.course_id = ? AND s.note IS NOT NULL " +
+            "ON DUPLICATE KEY UPDATE grade = VALUES(grade)";
+
+    private static final String REBUILD_FINAL_GRADES_SQL =
+            "INSERT INTO gradebook_entries (course_id, student_ci, item_type, item_id, grade, updated_at) " +
+            "SELECT uc.course_id, uc.user_id, 'FINAL', " + GradebookEntry.FINAL_ITEM_ID + ", uc.final_grade, NOW() " +
+            "FROM user_course uc " +
+            "WHERE uc.course_id = ? AND uc.final_grade IS NOT NULL " +
+            "ON DUPLICATE KEY UPDATE grade = VALUES(grade)";
+
+    // Celdas cuya entrega ya no existe o perdió la nota (o cuyo ítem es de otro curso)
+    private static final String DELETE_ORPHAN_EVALUATIONS_SQL =
+            "DELETE FROM gradebook_entries " +
+            "WHERE course_id = ? AND item_type = 'EVALUATION' AND NOT EXISTS (" +
+            "SELECT 1 FROM evaluation_submission s JOIN evaluation e ON e.id = s.evaluation_id " +
+            "WHERE e.id = gradebook_entries.item_id AND e.course_id = gradebook_entries.course_id " +
+            "AND s.author_ci = gradebook_entries.student_ci AND s.note IS NOT NULL)";
+
+    private static final String DELETE_ORPHAN_QUIZZES_SQL =
+            "DELETE FROM gradebook_entries " +
+            "WHERE course_id = ? AND item_type = 'QUIZ' AND NOT EXISTS (" +
+            "SELECT 1 FROM quiz_submission s JOIN quiz q ON q.id = s.quiz_id " +
+            "WHERE q.id = gradebook_entries.item_id AND q.course_id = gradebook_entries.course_id " +
+            "AND s.author_ci = gradebook_entries.student_ci AND s.note IS NOT NULL)";
+
+    // Notas finales de estudiantes desmatriculados o con la nota borrada
+    private static final String DELETE_ORPHAN_FINAL_GRADES_SQL =
+            "DELETE FROM gradebook_entries " +
+            "WHERE course_id = ? AND item_type = 'FINAL' AND NOT EXISTS (" +
+            "SELECT 1 FROM user_course uc " +
+            "WHERE uc.course_id = gradebook_entries.course_id AND uc.user_id = gradebook_entries.student_ci " +
+            "AND uc.final_grade IS NOT NULL)";
+
+    private final GradebookEntryRepository gradebookEntryRepository;
+    private final CourseRepository courseRepository;
+    private final EvaluationRepository evaluationRepository;
+    private final QuizRepository quizRepository;
+    private final UserCourseRepository userCourseRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    // Cursos ya reconstruidos por esta instancia
+    private final Set<String> syncedCourses = ConcurrentHashMap.newKeySet();
+
+    public GradebookService(
+            GradebookEntryRepository gradebookEntryRepository,
+            CourseRepository courseRepository,
+            EvaluationRepository evaluationRepository,
+            QuizRepository quizRepository,
+            UserCourseRepository userCourseRepository,
+            JdbcTemplate jdbcTemplate
+    ) {
+        this.gradebookEntryRepository = gradebookEntryRepository;
+        this.courseRepository = courseRepository;
+        this.evaluationRepository = evaluationRepository;
+        this.quizRepository = quizRepository;
+        this.userCourseRepository = userCourseRepository;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void recordGrade(String courseId, GradebookItemType itemType, Long itemId, String studentCi, Integer grade) {
+        jdbcTemplate.update(UPSERT_SQL, courseId, studentCi, itemType.name(), itemId, grade,
+                Timestamp.valueOf(LocalDateTime.now()));
+    }
+
+    public void recordFinalGrade(String courseId, String studentCi, Integer grade) {
+        recordGrade(courseId, GradebookItemType.FINAL, GradebookEntry.FINAL_ITEM_ID, studentCi, grade);
+    }
+
+    // ci -> nota final, en un solo batch
+    public void recordFinalGrades(String courseId, Map<String, Integer> grades) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(UPSERT_SQL, new ArrayList<>(grades.entrySet()), WRITE_BATCH_SIZE, (ps, g) -> {
+            ps.setString(1, courseId);
+            ps.setString(2, g.getKey());
+            ps.setString(3, GradebookItemType.FINAL.name());
+            ps.setLong(4, GradebookEntry.FINAL_ITEM_ID);
+            ps.setInt(5, g.getValue());
+            ps.setTimestamp(6, now);
+        });
+    }
+
+    public void removeItem(GradebookItemType itemType, Long itemId) {
+        gradebookEntryRepository.deleteByItem(itemType, itemId);
+    }
+
+    public void removeCourse(String courseId) {
+        gradebookEntryRepository.deleteByCourseId(courseId);
+        syncedCourses.remove(courseId);
+    }
+
+    // Toda la matriz en una respuesta: 4 consultas sin importar la cantidad de ítems
+    public DtGradebook getGradebook(String courseId) {
+        List<DtGradebookItem> items = getGradebookItems(courseId);
+        List<DtGradebookRow> rows = userCourseRepository.findGradebookRows(courseId, null, null, Limit.unlimited());
+        fill(rows, columns(items), gradebookEntryRepository.findCells(courseId));
+        return new DtGradebook(courseId, items, rows);
+    }
+
+    // Columnas del gradebook; valida el curso y lo reconstruye si hace falta
+    public List<DtGradebookItem> getGradebookItems(String courseId) {
+        if (!courseRepository.existsById(courseId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Curso no encontrado");
+        }
+        ensureSynced(courseId);
+
+        List<DtGradebookItem> items = new ArrayList<>(evaluationRepository.findGradebookItems(courseId));
+        items.addAll(quizRepository.findGradebookItems(courseId));
+        return items;
+    }
+
+    // Exporta la matriz como CSV de a páginas de estudiantes, sin armarla entera en memoria
+    public void writeCsv(String courseId, List<DtGradebookItem> items, OutputStream out) throws IOException {
+        Map<String, Integer> columns = columns(items);
+        try (CSVWriter writer = new CSVWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8))) {
+            String[] header = new String[items.size() + 3];
+            header[0] = "CI";
+            header[1] = "Nombre";
+            for (int i = 0; i < items.size(); i++) {
+                header[i + 2] = items.get(i).getTitle();
+            }
+            header[header.length - 1] = "Nota final";
+            writer.writeNext(header);
+
+            String afterName = null;
+            String afterCi = null;
+            List<DtGradebookRow> page;
+            do {
+                page = userCourseRepository.findGradebookRows(courseId, afterName, afterCi, Limit.of(EXPORT_PAGE_SIZE));
+                if (page.isEmpty()) {
+                    break;
+                }
+                List<String> cis = page.stream().map(DtGradebookRow::getCi).toList();
+                fill(page, columns, gradebookEntryRepository.findCells(courseId, cis));
+
+                for (DtGradebookRow row : page) {
+                    String[] line = new String[header.length];
+                    line[0] = row.getCi();
+                    line[1] = row.getName();
+                    for (int i = 0; i < items.size(); i++) {
+                        line[i + 2] = toCell(row.getGrades().get(i));
+                    }
+                    line[line.length - 1] = toCell(row.getFinalGrade());
+                    writer.writeNext(line);
+                }
+                writer.flush();
+
+                DtGradebookRow last = page.get(page.size() - 1);
+                afterName = last.getName();
+                afterCi = last.getCi();
+            } while (page.size() == EXPORT_PAGE_SIZE);
+        }
+    }
+
+    // Reconstrucción a pedido (p.ej. después de corregir notas directo en la base)
+    public void rebuildCourse(String courseId) {
+        if (!courseRepository.existsById(courseId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Curso no encontrado");
+        }
+        rebuild(courseId);
+    }
+
+    // Corrige lo que se haya desviado en cualquier curso, no solo en los que esta instancia ya leyó
+    @Scheduled(cron = "${gradebook.rebuild-cron:0 45 3 * * *}")
+    public void rebuildAll() {
+        int rebuilt = 0;
+        String afterId = null;
+        List<String> ids;
+        do {
+            ids = courseRepository.findIdsAfter(afterId, Limit.of(REBUILD_PAGE_SIZE));
+            for (String id : ids) {
+                try {
+                    rebuild(id);
+                    rebuilt++;
+                } catch (DataAccessException e) {
+                    log.warn("No se pudo reconstruir el gradebook del curso {}", id, e);
+                }
+            }
+            if (!ids.isEmpty()) {
+                afterId = ids.get(ids.size() - 1);
+            }
+        } while (ids.size() == REBUILD_PAGE_SIZE);
+        log.info("Gradebooks reconstruidos: {}", rebuilt);
+    }
+
+    private void ensureSynced(String courseId) {
+        if (!syncedCourses.contains(courseId)) {
+            rebuild(courseId);
+        }
+    }
+
+    // Idempotente: si corre dos veces en paralelo el resultado es el mismo. Primero los upserts y después los
+    // borrados, así una lectura concurrente nunca ve vacía una celda que tiene origen
+    void rebuild(String courseId) {
+        jdbcTemplate.update(REBUILD_EVALUATIONS_SQL, courseId);
+        jdbcTemplate.update(REBUILD_QUIZZES_SQL, courseId);
+        jdbcTemplate.update(REBUILD_FINAL_GRADES_SQL, courseId);
+        jdbcTemplate.update(DELETE_ORPHAN_EVALUATIONS_SQL, courseId);
+        jdbcTemplate.update(DELETE_ORPHAN_QUIZZES_SQL, courseId);
+        jdbcTemplate.update(DELETE_ORPHAN_FINAL_GRADES_SQL, courseId);
+        syncedCourses.add(courseId);
+    }
+
+    // "TIPO:id" -> posición de la columna
+    static Map<String, Integer> columns(List<DtGradebookItem> items) {
+        Map<String, Integer> columns = new HashMap<>(items.size() * 2);
+        for (int i = 0; i < items.size(); i++) {
+            columns.put(items.get(i).getType() + ":" + items.get(i).getId(), i);
+        }
+        return columns;
+    }
+
+    static void fill(List<DtGradebookRow> rows, Map<String, Integer> columns,
+                             Collection<GradebookEntryRepository.GradebookCell> cells) {
+        Map<String, DtGradebookRow> byCi = new HashMap<>(rows.size() * 2);
+        for (DtGradebookRow row : rows) {
+            row.setGrades(Arrays.asList(new Integer[columns.size()]));
+            byCi.put(row.getCi(), row);
+        }
+        for (GradebookEntryRepository.GradebookCell cell : cells) {
+            // Celdas de estudiantes que ya no están matriculados
+            DtGradebookRow row = byCi.get(cell.getStudentCi());
+            if (row == null) {
+                continue;
+            }
+            if (cell.getItemType() == GradebookItemType.FINAL) {
+                row.setFinalGrade(cell.getGrade());
+                continue;
+            }
+            Integer column = columns.get(cell.getItemType().name() + ":" + cell.getItemId());
+            if (column != null) {
+                row.getGrades().set(column, cell.getGrade());
+            }
+        }
+    }
+
+    private static String toCell(Integer grade) {
+        return grade == null ? "" : grade.toString();
+    }
+}
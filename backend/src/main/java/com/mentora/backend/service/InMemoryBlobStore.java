@@ -0,0 +1,83 @@
+package com.mentora.backend.service;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Almacenamiento en memoria, sin red ni disco, para desarrollo y pruebas de carga offline
+@Component
+@ConditionalOnProperty(name = "storage.backend", havingValue = "memory")
+public class InMemoryBlobStore implements BlobStore {
+
+    private static final String BUCKET = "files";
+
+    private final Map<String, StoredBytes> objects = new ConcurrentHashMap<>();
+
+    @Override
+    public String scheme() {
+        return "mem";
+    }
+
+    @Override
+    public StoragePath pathFor(String key) {
+        return new StoragePath("mem", BUCKET, key);
+    }
+
+    @Override
+    public long write(StoragePath path, String contentType, InputStream in, byte[] buffer) throws IOException {
+        ByteArrayOutputStream data = new ByteArrayOutputStream();
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            data.write(buffer, 0, read);
+        }
+        objects.put(path.key(), new StoredBytes(data.toByteArray(), contentType));
+        return data.size();
+    }
+
+    @Override
+    public StoredObject stat(StoragePath path) {
+        StoredBytes stored = objects.get(path.key());
+        return stored != null ? new StoredObject(stored.data().length, stored.contentType(), null) : null;
+    }
+
+    @Override
+    public long copyTo(StoragePath path, OutputStream out) throws IOException {
+        StoredBytes stored = objects.get(path.key());
+        if (stored == null) {
+            throw new FileNotFoundException(path.toString());
+        }
+        out.write(stored.data());
+        return stored.data().length;
+    }
+
+    @Override
+    public void delete(StoragePath path) {
+        objects.remove(path.key());
+    }
+
+    @Override
+    public void move(StoragePath from, StoragePath to) throws IOException {
+        StoredBytes stored = objects.remove(from.key());
+        if (stored == null) {
+            throw new FileNotFoundException(from.toString());
+        }
+        objects.put(to.key(), stored);
+    }
+
+    public int size() {
+        return objects.size();
+    }
+
+    public void clear() {
+        objects.clear();
+    }
+
+    private record StoredBytes(byte[] data, String contentType) {}
+}
@@ -0,0 +1,128 @@
+package com.mentora.backend.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URLConnection;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+// Archivos en disco local para despliegues on-prem; las descargas se sirven firmadas por /files/download
+@Component
+@ConditionalOnProperty(name = "storage.backend", havingValue = "local")
+public class LocalBlobStore implements BlobStore {
+
+    private static final String BUCKET = "files";
+
+    private final Path root;
+
+    public LocalBlobStore(@Value("${storage.local.root:./data/files}") String root) throws IOException {
+        this.root = Paths.get(root).toAbsolutePath().normalize();
+        Files.createDirectories(this.root);
+    }
+
+    @Override
+    public String scheme() {
+        return "local";
+    }
+
+    @Override
+    public StoragePath pathFor(String key) {
+        return new StoragePath("local", BUCKET, key);
+    }
+
+    // La key viene de la base o de un token firmado, pero igual no se permite salir de la raíz
+    private Path resolve(StoragePath path) {
+        Path file = root.resolve(path.key()).normalize();
+        if (!file.startsWith(root) || file.equals(root)) {
+            throw new IllegalArgumentException("Path de almacenamiento inválido");
+        }
+        return file;
+    }
+
+    // Se escribe a un temporal en el mismo directorio y se renombra: nunca queda un archivo a medias visible
+    @Override
+    public long write(StoragePath path, String contentType, InputStream in, byte[] buffer) throws IOException {
+        Path target = resolve(path);
+        Files.createDirectories(target.getParent());
+        Path tmp = Files.createTempFile(target.getParent(), ".upload-", ".tmp");
+        try {
+            long size = 0;
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    ByteBuffer chunk = ByteBuffer.wrap(buffer, 0, read);
+                    while (chunk.hasRemaining()) {
+                        channel.write(chunk);
+                    }
+                    size += read;
+                }
+                channel.force(false);
+            }
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return size;
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    @Override
+    public StoredObject stat(StoragePath path) {
+        Path file = resolve(path);
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try {
+            String contentType = Files.probeContentType(file);
+            if (contentType == null) {
+                contentType = URLConnection.guessContentTypeFromName(file.getFileName().toString());
+            }
+            return new StoredObject(Files.size(file), contentType, null);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // transferTo deja la copia al kernel (sendfile) cuando el destino lo permite; si no, el JDK copia
+    // por bloques sin pasar el archivo entero por el heap
+    @Override
+    public long copyTo(StoragePath path, OutputStream out) throws IOException {
+        WritableByteChannel target = Channels.newChannel(out);
+        try (FileChannel channel = FileChannel.open(resolve(path), StandardOpenOption.READ)) {
+            long size = channel.size();
+            long position = 0;
+            while (position < size) {
+                position += channel.transferTo(position, size - position, target);
+            }
+            return size;
+        }
+    }
+
+    @Override
+    public void delete(StoragePath path) {
+        try {
+            Files.deleteIfExists(resolve(path));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void move(StoragePath from, StoragePath to) throws IOException {
+        Path target = resolve(to);
+        Files.createDirectories(target.getParent());
+        Files.move(resolve(from), target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
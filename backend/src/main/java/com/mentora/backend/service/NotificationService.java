@@ -6,24 +6,48 @@ import com.mentora.backend.model.User;
 import com.mentora.backend.repository.NotificationRepository;
 import com.mentora.backend.repository.UserRepository;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
 
 @Service
 public class NotificationService {
 
+    private static final Logger log = LoggerFactory.getLogger(NotificationService.class);
+
+    private static final int MAX_NOTIFICATIONS_PAGE_SIZE = 100;
+    private static final int MAX_MARK_AS_READ_IDS = 500;
+    private static final int PURGE_BATCH_SIZE = 1000;
+
     private final NotificationRepository notificationRepository;
     private final UserRepository userRepository;
     private final PushNotificationService pushNotificationService;
-
-    public NotificationService(NotificationRepository notificationRepository, UserRepository userRepository, PushNotificationService pushNotificationService) {
+    private final RealtimeService realtimeService;
+    private final long retentionDays;
+
+    public NotificationService(
+            NotificationRepository notificationRepository,
+            UserRepository userRepository,
+            PushNotificationService pushNotificationService,
+            RealtimeService realtimeService,
+            @Value("${notifications.read.retention-days:90}") long retentionDays
+    ) {
         this.notificationRepository = notificationRepository;
         this.userRepository = userRepository;
         this.pushNotificationService = pushNotificationService;
+        this.realtimeService = realtimeService;
+        this.retentionDays = retentionDays;
     }
 
     public Notification createNotification(String userCi, String message, String link) {
@@ -33,34 +57,107 @@ public class NotificationService {
         Notification notification = new Notification(user, message, link);
 
         Notification saved = notificationRepository.save(notification);
+        realtimeService.sendToUser(userCi, RealtimeService.NOTIFICATIONS_QUEUE, toDto(saved));
 
         pushNotificationService.sendToUser(userCi, "Mentora", message, link);
-        System.out.println("\n\nsendToUser: " + userCi + " " + message + " " + link);
 
         return saved;
     }
 
-    public void markAsRead(String notificationId, String userCi) {
-        User user = userRepository.findById(userCi)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Usuario no encontrado"));
+    // Inserta en lote una notificación por destinatario; el envío push queda a cargo del llamador
+    public int createNotifications(List<User> users, String message, String link) {
+        List<Notification> notifications = new ArrayList<>(users.size());
+        for (User user : users) {
+            notifications.add(new Notification(user, message, link));
+        }
+        notificationRepository.saveAll(notifications);
+        for (Notification n : notifications) {
+            realtimeService.sendToUser(n.getUser().getCi(), RealtimeService.NOTIFICATIONS_QUEUE, toDto(n));
+        }
+        return notifications.size();
+    }
 
-        Notification notification = notificationRepository.findById(notificationId).orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Notificación no encontrada"));
+    // Igual que la anterior pero con un texto por destinatario (ci -> mensaje); no consulta los usuarios
+    public int createNotifications(List<Map.Entry<String, String>> messageByCi, String link) {
+        List<Notification> notifications = new ArrayList<>(messageByCi.size());
+        for (Map.Entry<String, String> e : messageByCi) {
+            notifications.add(new Notification(userRepository.getReferenceById(e.getKey()), e.getValue(), link));
+        }
+        notificationRepository.saveAll(notifications);
+        for (Notification n : notifications) {
+            realtimeService.sendToUser(n.getUser().getCi(), RealtimeService.NOTIFICATIONS_QUEUE, toDto(n));
+        }
+        return notifications.size();
+    }
 
-        if (!notification.getUser().equals(user)) {
-            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "No tienes permisos para marcar esta notificación como leída");
+    // Un único UPDATE; solo si no afecta filas se consulta para distinguir 404 de 403
+    public void markAsRead(String notificationId, String userCi) {
+        if (notificationRepository.markAsRead(userCi, List.of(notificationId)) > 0) {
+            return;
+        }
+        if (!notificationRepository.existsById(notificationId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Notificación no encontrada");
         }
+        throw new ResponseStatusException(HttpStatus.FORBIDDEN, "No tienes permisos para marcar esta notificación como leída");
+    }
 
-        notification.setRead(Boolean.TRUE);
-        notificationRepository.save(notification);
+    // Marca en un solo UPDATE las notificaciones indicadas, o todas las no leídas si no se indica ninguna.
+    // Devuelve la cantidad de no leídas que quedan
+    public long markManyAsRead(String userCi, String[] notificationIds) {
+        if (notificationIds == null || notificationIds.length == 0) {
+            notificationRepository.markAllAsRead(userCi);
+        } else {
+            if (notificationIds.length > MAX_MARK_AS_READ_IDS) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "No se pueden marcar más de " + MAX_MARK_AS_READ_IDS + " notificaciones a la vez");
+            }
+            notificationRepository.markAsRead(userCi, Arrays.asList(notificationIds));
+        }
+        return notificationRepository.countUnread(userCi);
     }
 
-    public List<DtNotification> getUserNotifications(String userCi) {
-        User user = userRepository.findById(userCi)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Usuario no encontrado"));
+    public long countUnread(String userCi) {
+        return notificationRepository.countUnread(userCi);
+    }
 
-        return notificationRepository.findByUserOrderByCreatedDateDesc(user).stream()
-                .map(this::toDto)
-                .collect(Collectors.toList());
+    // De más reciente a más antigua. Sin 'limit' devuelve todas; 'after' es el id de la última de la página anterior
+    public List<DtNotification> getUserNotifications(String userCi, String after, Integer limit) {
+        if (!userRepository.existsByCi(userCi)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Usuario no encontrado");
+        }
+        if (limit != null && (limit < 1 || limit > MAX_NOTIFICATIONS_PAGE_SIZE)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "El límite debe estar entre 1 y " + MAX_NOTIFICATIONS_PAGE_SIZE);
+        }
+
+        LocalDateTime afterDate = null;
+        if (after != null) {
+            afterDate = notificationRepository.findCreatedDate(after, userCi);
+            if (afterDate == null) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cursor inválido");
+            }
+        }
+
+        return notificationRepository.findPage(userCi, afterDate, after,
+                limit != null ? Limit.of(limit) : Limit.unlimited());
+    }
+
+    // Borra por lotes las notificaciones leídas más antiguas que la retención
+    @Scheduled(cron = "${notifications.read.cleanup-cron:0 0 4 * * *}")
+    public void purgeOldRead() {
+        LocalDateTime before = LocalDateTime.now().minusDays(retentionDays);
+        int deleted = 0;
+        List<String> ids;
+        do {
+            ids = notificationRepository.findReadIdsBefore(before, Limit.of(PURGE_BATCH_SIZE));
+            if (!ids.isEmpty()) {
+                notificationRepository.deleteAllByIdInBatch(ids);
+                deleted += ids.size();
+            }
+        } while (ids.size() == PURGE_BATCH_SIZE);
+        if (deleted > 0) {
+            log.info("Notificaciones leídas eliminadas: {}", deleted);
+        }
     }
 
     public DtNotification toDto(Notification n) {
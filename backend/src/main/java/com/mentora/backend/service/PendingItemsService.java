@@ -0,0 +1,94 @@
+package com.mentora.backend.service;
+
+import com.mentora.backend.dt.DtEvaluation;
+import com.mentora.backend.dt.DtQuiz;
+import com.mentora.backend.repository.EvaluationRepository;
+import com.mentora.backend.repository.QuizRepository;
+import com.mentora.backend.repository.UserRepository;
+import com.mentora.backend.responses.GetPendingItemsResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@Service
+public class PendingItemsService {
+
+    private static final int MAX_CACHE_ENTRIES = 10000;
+
+    private final EvaluationRepository evaluationRepository;
+    private final QuizRepository quizRepository;
+    private final UserRepository userRepository;
+    private final FileStorageService fileStorageService;
+
+    // Cache por usuario de corta duración, LRU y acotado; ttl 0 lo deshabilita
+    private final long cacheTtlMillis;
+    private final Map<String, CachedPendingItems> cache = Collections.synchronizedMap(
+            new LinkedHashMap<String, CachedPendingItems>(256, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, CachedPendingItems> eldest) {
+                    return size() > MAX_CACHE_ENTRIES;
+                }
+            });
+
+    public PendingItemsService(
+            EvaluationRepository evaluationRepository,
+            QuizRepository quizRepository,
+            UserRepository userRepository,
+            FileStorageService fileStorageService,
+            @Value("${pending-items.cache.ttl-seconds:30}") long cacheTtlSeconds
+    ) {
+        this.evaluationRepository = evaluationRepository;
+        this.quizRepository = quizRepository;
+        this.userRepository = userRepository;
+        this.fileStorageService = fileStorageService;
+        this.cacheTtlMillis = TimeUnit.SECONDS.toMillis(cacheTtlSeconds);
+    }
+
+    public GetPendingItemsResponse getPendingItems(String userCi) {
+        long now = System.currentTimeMillis();
+        if (cacheTtlMillis > 0) {
+            CachedPendingItems cached = cache.get(userCi);
+            if (cached != null && now < cached.expiresAtMillis()) {
+                return cached.items();
+            }
+        }
+
+        if (!userRepository.existsById(userCi)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Usuario no encontrado");
+        }
+
+        // Evaluaciones y quizzes vigentes de los cursos del usuario que aún no tienen entrega suya
+        LocalDateTime dueAfter = LocalDateTime.now();
+        List<DtEvaluation> evaluations = evaluationRepository.findPendingForUser(userCi, dueAfter);
+        for (DtEvaluation ev : evaluations) {
+            ev.setFileUrl(fileStorageService.generateSignedUrl(ev.getFileUrl()));
+        }
+        List<DtQuiz> quizzes = quizRepository.findPendingForUser(userCi, dueAfter);
+
+        GetPendingItemsResponse items = new GetPendingItemsResponse(evaluations, quizzes);
+        if (cacheTtlMillis > 0) {
+            cache.put(userCi, new CachedPendingItems(items, now + cacheTtlMillis));
+        }
+        return items;
+    }
+
+    // Se llama cuando el usuario realiza una entrega
+    public void evictUser(String userCi) {
+        cache.remove(userCi);
+    }
+
+    // Se llama cuando se crean, editan o eliminan evaluaciones o quizzes
+    public void evictAll() {
+        cache.clear();
+    }
+
+    private record CachedPendingItems(GetPendingItemsResponse items, long expiresAtMillis) {}
+}
@@ -39,7 +39,7 @@ public class PostService {
 
     private DtPost getDtPost(Post post) {
         String raw = post.getAuthor().getPictureUrl();
-        String signed = (raw != null && raw.startsWith("gs://")) ? fileStorageService.generateSignedUrl(raw) : raw;
+        String signed = fileStorageService.isStoredPath(raw) ? fileStorageService.generateSignedUrl(raw) : raw;
         return new DtPost(
             post.getId(),
             post.getAuthor().getCi(),
@@ -158,7 +158,7 @@ public class PostService {
         dto.setAuthorCi(response.getAuthor().getCi());
         dto.setAuthorName(response.getAuthor().getName());
         String raw = response.getAuthor().getPictureUrl();
-        String signed = (raw != null && raw.startsWith("gs://")) ? fileStorageService.generateSignedUrl(raw) : raw;
+        String signed = fileStorageService.isStoredPath(raw) ? fileStorageService.generateSignedUrl(raw) : raw;
         dto.setAuthorPictureUrl(signed);
         dto.setPostId(response.getPost().getId());
         return dto;
@@ -0,0 +1,268 @@
+package com.mentora.backend.service;
+
+import com.mentora.backend.model.DeviceToken;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Encola pushes de muchos usuarios y los envía agrupados por payload, con límite de tasa y reintentos
+@Service
+public class PushDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(PushDispatcher.class);
+
+    private final PushTransport transport;
+    private final DeviceTokenService deviceTokenService;
+
+    private final ConcurrentLinkedQueue<QueuedPush> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queueDepth = new AtomicInteger();
+    private final int maxQueueSize;
+    private final int maxFlushSize;
+    private final int maxAttempts;
+    private final long backoffMillis;
+    private final TokenBucket rateLimiter;
+    // Hilo propio para el envío: las esperas del límite de tasa y del backoff no ocupan el scheduler compartido
+    private final ExecutorService sender = Executors.newSingleThreadExecutor();
+    private final AtomicBoolean sending = new AtomicBoolean();
+
+    private final Timer flushTimer;
+    private final Counter sentCounter;
+    private final Counter failedCounter;
+    private final Counter unregisteredCounter;
+    private final Counter droppedCounter;
+
+    public PushDispatcher(
+            PushTransport transport,
+            DeviceTokenService deviceTokenService,
+            MeterRegistry meterRegistry,
+            @Value("${push.queue.max-size:50000}") int maxQueueSize,
+            @Value("${push.flush.max-size:5000}") int maxFlushSize,
+            @Value("${push.rate-limit.per-second:500}") int ratePerSecond,
+            @Value("${push.retry.max-attempts:3}") int maxAttempts,
+            @Value("${push.retry.backoff-ms:500}") long backoffMillis
+    ) {
+        this.transport = transport;
+        this.deviceTokenService = deviceTokenService;
+        this.maxQueueSize = maxQueueSize;
+        this.maxFlushSize = maxFlushSize;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.backoffMillis = backoffMillis;
+        this.rateLimiter = ratePerSecond > 0 ? new TokenBucket(ratePerSecond) : null;
+
+        meterRegistry.gauge("push.queue.depth", queueDepth);
+        this.flushTimer = Timer.builder("push.flush").register(meterRegistry);
+        this.sentCounter = Counter.builder("push.messages").tag("result", "sent").register(meterRegistry);
+        this.failedCounter = Counter.builder("push.messages").tag("result", "failed").register(meterRegistry);
+        this.unregisteredCounter = Counter.builder("push.messages").tag("result", "unregistered").register(meterRegistry);
+        this.droppedCounter = Counter.builder("push.messages").tag("result", "dropped").register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return transport.isEnabled();
+    }
+
+    // Encola el envío; se despacha en el próximo flush
+    public void enqueue(Collection<String> userCis, PushPayload payload) {
+        if (!transport.isEnabled() || userCis == null) {
+            return;
+        }
+        for (String userCi : userCis) {
+            if (queueDepth.incrementAndGet() > maxQueueSize) {
+                queueDepth.decrementAndGet();
+                droppedCounter.increment();
+                continue;
+            }
+            queue.add(new QueuedPush(userCi, payload));
+        }
+    }
+
+    // Envía de inmediato en el hilo actual y devuelve el resultado (para procesos en segundo plano que lo registran)
+    public PushNotificationService.PushResult sendNow(Collection<String> userCis, PushPayload payload) {
+        if (!transport.isEnabled() || userCis == null || userCis.isEmpty()) {
+            return new PushNotificationService.PushResult(0, 0);
+        }
+        List<String> tokens = deviceTokenService.getTokensForUsers(userCis).stream()
+                .map(DeviceToken::getToken)
+                .toList();
+        return deliver(tokens, payload);
+    }
+
+    // Solo entrega el trabajo al hilo de envío; si todavía está enviando, ese mismo hilo vacía lo nuevo
+    @Scheduled(fixedDelayString = "${push.flush.interval-ms:1000}")
+    public void flush() {
+        if (queue.isEmpty() || !sending.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            sender.execute(this::sendPending);
+        } catch (RejectedExecutionException e) {
+            sending.set(false);
+        }
+    }
+
+    private void sendPending() {
+        try {
+            while (!queue.isEmpty() && !sender.isShutdown()) {
+                flushTimer.record(this::drainAndSend);
+            }
+        } catch (Exception e) {
+            log.error("Error despachando pushes encolados", e);
+        } finally {
+            sending.set(false);
+        }
+    }
+
+    private void drainAndSend() {
+        // Agrupa por payload idéntico los usuarios encolados
+        Map<PushPayload, Set<String>> byPayload = new LinkedHashMap<>();
+        Set<String> allUsers = new LinkedHashSet<>();
+        QueuedPush next;
+        int drained = 0;
+        while (drained < maxFlushSize && (next = queue.poll()) != null) {
+            queueDepth.decrementAndGet();
+            drained++;
+            byPayload.computeIfAbsent(next.payload(), p -> new LinkedHashSet<>()).add(next.userCi());
+            allUsers.add(next.userCi());
+        }
+
+        // Una sola consulta de tokens para todo el lote
+        Map<String, List<String>> tokensByUser = new HashMap<>();
+        for (DeviceToken dt : deviceTokenService.getTokensForUsers(allUsers)) {
+            tokensByUser.computeIfAbsent(dt.getUser().getCi(), k -> new ArrayList<>()).add(dt.getToken());
+        }
+
+        for (Map.Entry<PushPayload, Set<String>> group : byPayload.entrySet()) {
+            List<String> tokens = new ArrayList<>();
+            for (String userCi : group.getValue()) {
+                tokens.addAll(tokensByUser.getOrDefault(userCi, List.of()));
+            }
+            deliver(tokens, group.getKey());
+        }
+    }
+
+    private PushNotificationService.PushResult deliver(List<String> tokens, PushPayload payload) {
+        int sent = 0;
+        int failed = 0;
+        List<String> unregistered = new ArrayList<>();
+        int chunkSize = transport.maxTokensPerSend();
+
+        for (int from = 0; from < tokens.size(); from += chunkSize) {
+            List<String> pending = tokens.subList(from, Math.min(from + chunkSize, tokens.size()));
+
+            for (int attempt = 1; !pending.isEmpty(); attempt++) {
+                List<String> retry = new ArrayList<>();
+                acquire(pending.size());
+                try {
+                    List<PushTransport.Outcome> outcomes = transport.send(pending, payload);
+                    for (int i = 0; i < pending.size(); i++) {
+                        switch (outcomes.get(i)) {
+                            case SENT -> sent++;
+                            case UNREGISTERED -> unregistered.add(pending.get(i));
+                            case RETRYABLE -> retry.add(pending.get(i));
+                            case FAILED -> failed++;
+                        }
+                    }
+                } catch (Exception e) {
+                    log.warn("Envío push falló (intento {}): {}", attempt, e.getMessage());
+                    retry.addAll(pending);
+                }
+
+                if (retry.isEmpty()) {
+                    break;
+                }
+                if (attempt >= maxAttempts) {
+                    failed += retry.size();
+                    break;
+                }
+                sleepBackoff(attempt);
+                pending = retry;
+            }
+        }
+
+        if (!unregistered.isEmpty()) {
+            deviceTokenService.removeTokens(unregistered);
+        }
+        sentCounter.increment(sent);
+        failedCounter.increment(failed);
+        unregisteredCounter.increment(unregistered.size());
+        return new PushNotificationService.PushResult(sent, failed + unregistered.size());
+    }
+
+    private void acquire(int permits) {
+        if (rateLimiter == null) {
+            return;
+        }
+        long waitNanos = rateLimiter.reserve(permits);
+        if (waitNanos > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    // Backoff exponencial con jitter
+    private void sleepBackoff(int attempt) {
+        long base = backoffMillis * (1L << (attempt - 1));
+        long delay = base + ThreadLocalRandom.current().nextLong(base / 2 + 1);
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sender.shutdown();
+    }
+
+    private record QueuedPush(String userCi, PushPayload payload) {}
+
+    // Token bucket con reserva: si no alcanzan los permisos, devuelve cuánto esperar
+    private static final class TokenBucket {
+        private final double capacity;
+        private final double permitsPerNano;
+        private double available;
+        private long lastRefillNanos;
+
+        TokenBucket(int permitsPerSecond) {
+            this.capacity = permitsPerSecond;
+            this.permitsPerNano = permitsPerSecond / (double) TimeUnit.SECONDS.toNanos(1);
+            this.available = permitsPerSecond;
+            this.lastRefillNanos = System.nanoTime();
+        }
+
+        synchronized long reserve(int permits) {
+            long now = System.nanoTime();
+            available = Math.min(capacity, available + (now - lastRefillNanos) * permitsPerNano);
+            lastRefillNanos = now;
+            available -= permits;
+            return available >= 0 ? 0 : (long) (-available / permitsPerNano);
+        }
+    }
+}
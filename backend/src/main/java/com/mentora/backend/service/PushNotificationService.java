@@ -1,24 +1,8 @@
 package com.mentora.backend.service;
 
-import com.google.auth.oauth2.GoogleCredentials;
-import com.google.firebase.FirebaseApp;
-import com.google.firebase.FirebaseOptions;
-import com.google.firebase.messaging.BatchResponse;
-import com.google.firebase.messaging.FirebaseMessaging;
-import com.google.firebase.messaging.MessagingErrorCode;
-import com.google.firebase.messaging.Message;
-import com.google.firebase.messaging.Notification;
-import com.mentora.backend.model.DeviceToken;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.io.ByteArrayInputStream;
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.InputStream;
-import java.nio.charset.StandardCharsets;
-import java.util.ArrayList;
-import java.util.Base64;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -26,118 +10,24 @@ import java.util.Map;
 @Service
 public class PushNotificationService {
 
-    private final DeviceTokenService deviceTokenService;
-    private final boolean enabled;
+    private final PushDispatcher pushDispatcher;
 
-    public PushNotificationService(
-            DeviceTokenService deviceTokenService,
-            @Value("${firebase.credentials:}") String firebaseCredentialsPath
-    ) {
-        this.deviceTokenService = deviceTokenService;
-        this.enabled = initializeFirebase(firebaseCredentialsPath);
-    }
-
-    private boolean initializeFirebase(String credentialsPath) {
-        try {
-            if (!FirebaseApp.getApps().isEmpty()) {
-                return true;
-            }
-
-            InputStream credentialsStream = null;
-
-            if (credentialsPath != null && !credentialsPath.isBlank()) {
-                String trimmed = credentialsPath.trim();
-                // Inline JSON provided via env/property
-                if (trimmed.startsWith("{")) {
-                    credentialsStream = new ByteArrayInputStream(trimmed.getBytes(StandardCharsets.UTF_8));
-                } else {
-                    // Base64-encoded JSON provided via env/property
-                    try {
-                        byte[] decoded = Base64.getDecoder().decode(trimmed);
-                        String asString = new String(decoded, StandardCharsets.UTF_8).trim();
-                        if (asString.startsWith("{")) {
-                            credentialsStream = new ByteArrayInputStream(decoded);
-                        }
-                    } catch (IllegalArgumentException ignored) {
-                        // Not base64, proceed to path resolution
-                    }
-                    // Treat as filesystem path
-                    if (credentialsStream == null) {
-                        File f = new File(credentialsPath);
-                        if (f.exists()) {
-                            credentialsStream = new FileInputStream(f);
-                        }
-                    }
-                }
-            }
-
-            if (credentialsStream == null) {
-                String env = System.getenv("GOOGLE_APPLICATION_CREDENTIALS");
-                if (env != null && !env.isBlank()) {
-                    File f = new File(env);
-                    if (f.exists()) {
-                        credentialsStream = new FileInputStream(f);
-                    }
-                }
-            }
-
-            if (credentialsStream == null) {
-                // No credentials available; keep service disabled
-                return false;
-            }
-
-            FirebaseOptions options = FirebaseOptions.builder()
-                    .setCredentials(GoogleCredentials.fromStream(credentialsStream))
-                    .build();
-            FirebaseApp.initializeApp(options);
-            return true;
-        } catch (Exception e) {
-            return false;
-        }
+    public PushNotificationService(PushDispatcher pushDispatcher) {
+        this.pushDispatcher = pushDispatcher;
     }
 
     public boolean isEnabled() {
-        return enabled;
+        return pushDispatcher.isEnabled();
     }
 
+    // Se encola y se envía agrupado con otros pushes del mismo contenido
     public void sendToUser(String userCi, String title, String body, Map<String, String> data) {
-        if (!enabled) {
-            return;
-        }
-        List<DeviceToken> tokens = deviceTokenService.getTokensForUser(userCi);
-        if (tokens == null || tokens.isEmpty()) {
-            return;
-        }
-
-        List<Message> messages = new ArrayList<>();
-        List<String> tokenStrings = new ArrayList<>();
-        for (DeviceToken dt : tokens) {
-            Message.Builder mb = Message.builder()
-                    .setToken(dt.getToken())
-                    .setNotification(Notification.builder().setTitle(title).setBody(body).build());
-            if (data != null && !data.isEmpty()) {
-                mb.putAllData(data);
-            }
-            messages.add(mb.build());
-            tokenStrings.add(dt.getToken());
-        }
+        pushDispatcher.enqueue(List.of(userCi), new PushPayload(title, body, data));
+    }
 
-        try {
-            BatchResponse response = FirebaseMessaging.getInstance().sendEach(messages);
-            if (response.getFailureCount() > 0) {
-                for (int i = 0; i < response.getResponses().size(); i++) {
-                    var r = response.getResponses().get(i);
-                    if (!r.isSuccessful() && r.getException() != null) {
-                        var ex = r.getException();
-                        if (ex.getMessagingErrorCode() == MessagingErrorCode.UNREGISTERED) {
-                            deviceTokenService.removeToken(tokenStrings.get(i));
-                        }
-                    }
-                }
-            }
-        } catch (Exception ignore) {
-            // Intentionally swallow; we don't want to fail the application flow because of push errors
-        }
+    // Envía el mismo mensaje a todos los dispositivos de varios usuarios y espera el resultado
+    public PushResult sendToUsers(Collection<String> userCis, String title, String body, Map<String, String> data) {
+        return pushDispatcher.sendNow(userCis, new PushPayload(title, body, data));
     }
 
     public void sendToUser(String userCi, String title, String body, String link) {
@@ -145,6 +35,8 @@ public class PushNotificationService {
         if (link != null) data.put("link", link);
         sendToUser(userCi, title, body, data);
     }
+
+    public record PushResult(int successCount, int failureCount) {}
 }
 
 
@@ -0,0 +1,10 @@
+package com.mentora.backend.service;
+
+import java.util.Map;
+
+// Contenido de un push; dos envíos con el mismo payload se agrupan en un único multicast
+public record PushPayload(String title, String body, Map<String, String> data) {
+    public PushPayload {
+        data = data == null ? Map.of() : Map.copyOf(data);
+    }
+}
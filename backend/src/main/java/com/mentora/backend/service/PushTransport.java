@@ -0,0 +1,22 @@
+package com.mentora.backend.service;
+
+import java.util.List;
+
+// Canal de salida de los push; se elige con la propiedad push.transport (firebase | stub)
+public interface PushTransport {
+
+    // Cantidad máxima de tokens aceptada por envío
+    int maxTokensPerSend();
+
+    boolean isEnabled();
+
+    // Devuelve un resultado por token, en el mismo orden. Una excepción indica que falló el envío completo
+    List<Outcome> send(List<String> tokens, PushPayload payload) throws Exception;
+
+    enum Outcome {
+        SENT,
+        UNREGISTERED,
+        RETRYABLE,
+        FAILED
+    }
+}
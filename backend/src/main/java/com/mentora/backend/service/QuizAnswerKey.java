@@ -0,0 +1,46 @@
+package com.mentora.backend.service;
+
+import java.util.Arrays;
+import java.util.List;
+
+// Clave de respuestas de un quiz, inmutable: ids ordenados en arreglos primitivos para buscar sin boxing
+public final class QuizAnswerKey {
+
+    private final long[] answerIds;
+    private final long[] correctIds;
+
+    public QuizAnswerKey(long[] answerIds, long[] correctIds) {
+        this.answerIds = answerIds.clone();
+        this.correctIds = correctIds.clone();
+        Arrays.sort(this.answerIds);
+        Arrays.sort(this.correctIds);
+    }
+
+    public boolean contains(long answerId) {
+        return Arrays.binarySearch(answerIds, answerId) >= 0;
+    }
+
+    public int answerCount() {
+        return answerIds.length;
+    }
+
+    // Porcentaje (0-100) de respuestas correctas elegidas; las repetidas cuentan una vez y las ajenas al quiz no suman
+    public int grade(List<Long> selected) {
+        if (correctIds.length == 0) {
+            return 0;
+        }
+        boolean[] hit = new boolean[correctIds.length];
+        int correctSelected = 0;
+        for (Long id : selected) {
+            if (id == null) {
+                continue;
+            }
+            int i = Arrays.binarySearch(correctIds, id);
+            if (i >= 0 && !hit[i]) {
+                hit[i] = true;
+                correctSelected++;
+            }
+        }
+        return (int) Math.round(100.0 * correctSelected / correctIds.length);
+    }
+}
@@ -1,52 +1,115 @@
 package com.mentora.backend.service;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 import org.springframework.http.HttpStatus;
 
+import com.mentora.backend.model.GradebookItemType;
 import com.mentora.backend.model.Quiz;
 import com.mentora.backend.model.QuizQuestion;
 import com.mentora.backend.model.QuizAnswer;
 import com.mentora.backend.model.QuizSubmission;
 import com.mentora.backend.model.User;
 import com.mentora.backend.repository.QuizRepository;
+import com.mentora.backend.repository.QuizSubmissionAnswerRepository;
 import com.mentora.backend.repository.QuizSubmissionRepository;
 import com.mentora.backend.repository.UserRepository;
 import com.mentora.backend.requests.UpdateQuizRequest;
 import com.mentora.backend.requests.CreateQuizSubmissionRequest;
 import com.mentora.backend.dt.DtQuiz;
+import com.mentora.backend.dt.DtQuizAnswerStats;
+import com.mentora.backend.dt.DtQuizItemAnalysis;
 import com.mentora.backend.dt.DtQuizSubmission;
 import com.mentora.backend.responses.GetQuizResponse;
 import com.mentora.backend.responses.QuizQuestionResponse;
 import com.mentora.backend.responses.QuizAnswerResponse;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Set;
 import java.util.Map;
 import java.util.Objects;
 import java.util.List;
 import java.util.Arrays;
 import java.util.stream.Collectors;
 import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class QuizService {
 
+  private static final Logger log = LoggerFactory.getLogger(QuizService.class);
+
+  private static final int LEGACY_MIGRATION_BATCH_SIZE = 500;
+
+  private static final String INSERT_SUBMISSION_ANSWER_SQL =
+      "INSERT IGNORE INTO quiz_submission_answers (submission_id, quiz_id, answer_id) VALUES (?, ?, ?)";
+
   private final QuizRepository quizRepository;
   private final QuizSubmissionRepository quizSubmissionRepository;
+  private final QuizSubmissionAnswerRepository quizSubmissionAnswerRepository;
+  private final JdbcTemplate jdbcTemplate;
   private final UserRepository userRepository;
   private final UserService userService;
+  private final PendingItemsService pendingItemsService;
+  private final GradebookService gradebookService;
+
+  // Claves de respuestas por quiz, LRU y acotado. El TTL cubre ediciones hechas en otra instancia
+  private final Map<Long, CachedAnswerKey> answerKeyCache;
+  private final long answerKeyTtlMillis;
+  private final Counter answerKeyHits;
+  private final Counter answerKeyMisses;
+
+  // Se apaga cuando ya no quedan entregas con respuestas en CSV
+  private volatile boolean legacyAnswersPending = true;
 
   public QuizService(
       QuizRepository quizRepository,
       QuizSubmissionRepository quizSubmissionRepository,
+      QuizSubmissionAnswerRepository quizSubmissionAnswerRepository,
+      JdbcTemplate jdbcTemplate,
       UserRepository userRepository,
-      UserService userService
+      UserService userService,
+      PendingItemsService pendingItemsService,
+      GradebookService gradebookService,
+      MeterRegistry meterRegistry,
+      @Value("${quiz.answer-key.cache.max-entries:2000}") int maxAnswerKeys,
+      @Value("${quiz.answer-key.cache.ttl-seconds:300}") long answerKeyTtlSeconds
   ) {
       this.quizRepository = quizRepository;
       this.quizSubmissionRepository = quizSubmissionRepository;
+      this.quizSubmissionAnswerRepository = quizSubmissionAnswerRepository;
+      this.jdbcTemplate = jdbcTemplate;
       this.userRepository = userRepository;
       this.userService = userService;
+      this.pendingItemsService = pendingItemsService;
+      this.gradebookService = gradebookService;
+      this.answerKeyTtlMillis = TimeUnit.SECONDS.toMillis(answerKeyTtlSeconds);
+
+      this.answerKeyHits = Counter.builder("quiz.answer_key.cache").tag("result", "hit").register(meterRegistry);
+      this.answerKeyMisses = Counter.builder("quiz.answer_key.cache").tag("result", "miss").register(meterRegistry);
+      this.answerKeyCache = Collections.synchronizedMap(new LinkedHashMap<Long, CachedAnswerKey>(256, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<Long, CachedAnswerKey> eldest) {
+              return size() > maxAnswerKeys;
+          }
+      });
+      meterRegistry.gaugeMapSize("quiz.answer_key.cache.size", Tags.empty(), answerKeyCache);
   }
 
   public GetQuizResponse getQuiz(Quiz quiz) {
@@ -176,6 +239,8 @@ public class QuizService {
     }
 
     Quiz saved = quizRepository.save(quiz);
+    evictAnswerKey(quizId);
+    pendingItemsService.evictAll();
 
     return getDtQuiz(saved);
   }
@@ -195,17 +260,20 @@ public class QuizService {
               .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Quiz no encontrado"));
 
       quizRepository.delete(quiz);
+      evictAnswerKey(quizId);
+      gradebookService.removeItem(GradebookItemType.QUIZ, quizId);
+      pendingItemsService.evictAll();
   }
 
   public DtQuizSubmission getDtQuizSubmission(QuizSubmission submission) {
-      List<Long> answerIds = submission.getAnswers() == null || submission.getAnswers().isEmpty()
-              ? List.of()
-              : Arrays.stream(submission.getAnswers().split(","))
-                  .map(String::trim)
-                  .filter(s -> !s.isEmpty())
-                  .map(Long::parseLong)
-                  .collect(Collectors.toList());
+      // Entregas todavía no migradas conservan las respuestas en el CSV
+      List<Long> answerIds = submission.getAnswers() != null
+              ? parseLegacyAnswers(submission.getAnswers())
+              : quizSubmissionAnswerRepository.findAnswerIds(submission.getId());
+      return getDtQuizSubmission(submission, answerIds);
+  }
 
+  private DtQuizSubmission getDtQuizSubmission(QuizSubmission submission, List<Long> answerIds) {
       return new DtQuizSubmission(
           submission.getId(),
           answerIds,
@@ -219,7 +287,33 @@ public class QuizService {
       quizRepository.findById(quizId)
               .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Quiz no encontrado"));
       List<QuizSubmission> submissions = quizSubmissionRepository.findByQuizId(quizId);
-      return submissions.stream().map(this::getDtQuizSubmission).collect(Collectors.toList());
+
+      // Respuestas de todas las entregas en una sola consulta
+      Map<Long, List<Long>> answersBySubmission = new HashMap<>();
+      for (QuizSubmissionAnswerRepository.SubmissionAnswer a : quizSubmissionAnswerRepository.findByQuiz(quizId)) {
+          answersBySubmission.computeIfAbsent(a.getSubmissionId(), id -> new ArrayList<>()).add(a.getAnswerId());
+      }
+      return submissions.stream()
+              .map(sub -> getDtQuizSubmission(sub, sub.getAnswers() != null
+                      ? parseLegacyAnswers(sub.getAnswers())
+                      : answersBySubmission.getOrDefault(sub.getId(), List.of())))
+              .collect(Collectors.toList());
+  }
+
+  // Cuántas entregas eligieron cada respuesta, agregado en SQL
+  public DtQuizItemAnalysis getItemAnalysis(Long quizId) {
+      if (!quizRepository.existsById(quizId)) {
+          throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Quiz no encontrado");
+      }
+      Map<Long, Long> selections = new HashMap<>();
+      for (QuizSubmissionAnswerRepository.AnswerCount c : quizSubmissionAnswerRepository.countSelections(quizId)) {
+          selections.put(c.getAnswerId(), c.getSelections());
+      }
+      List<DtQuizAnswerStats> answers = quizRepository.findAnswerStats(quizId);
+      for (DtQuizAnswerStats a : answers) {
+          a.setSelections(selections.getOrDefault(a.getAnswerId(), 0L));
+      }
+      return new DtQuizItemAnalysis(quizId, quizSubmissionRepository.countByQuizId(quizId), answers);
   }
 
   public DtQuizSubmission getUserQuizSubmission(Long quizId, String userCi) {
@@ -232,6 +326,7 @@ public class QuizService {
       return getDtQuizSubmission(existing.get(0));
   }
 
+  @Transactional
   public DtQuizSubmission createQuizSubmission(Long quizId, String userCi, CreateQuizSubmissionRequest req) {
       if (req == null || req.getAnswerIds() == null || req.getAnswerIds().isEmpty()) {
           throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Debe seleccionar al menos una respuesta");
@@ -253,35 +348,110 @@ public class QuizService {
           throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "La fecha límite de entrega del quiz ha expirado");
       }
 
-      List<Long> allAnswerIds = quiz.getQuestions().stream()
-              .flatMap(q -> q.getAnswers().stream())
-              .map(QuizAnswer::getId)
-              .collect(Collectors.toList());
-      List<Long> correctAnswerIds = quiz.getQuestions().stream()
-              .flatMap(q -> q.getAnswers().stream())
-              .filter(a -> Boolean.TRUE.equals(a.getCorrect()))
-              .map(QuizAnswer::getId)
-              .collect(Collectors.toList());
+      QuizAnswerKey answerKey = getAnswerKey(quizId);
+      int note = answerKey.grade(req.getAnswerIds());
 
-      List<Long> selectedInQuiz = req.getAnswerIds().stream()
-              .filter(allAnswerIds::contains)
-              .collect(Collectors.toList());
-
-      long totalCorrect = correctAnswerIds.size();
-      long correctSelected = selectedInQuiz.stream().filter(correctAnswerIds::contains).count();
-      int note = totalCorrect == 0 ? 0 : (int) Math.round(100.0 * correctSelected / (double) totalCorrect);
-
-      String answersCsv = req.getAnswerIds().stream().map(String::valueOf).collect(Collectors.joining(","));
+      // Solo se guardan respuestas del quiz, una vez cada una
+      Set<Long> answerIds = new LinkedHashSet<>();
+      for (Long id : req.getAnswerIds()) {
+          if (id != null && answerKey.contains(id)) {
+              answerIds.add(id);
+          }
+      }
 
       QuizSubmission submission = new QuizSubmission(
-              answersCsv,
+              null,
               note,
               quiz,
               user
       );
 
       QuizSubmission saved = quizSubmissionRepository.save(submission);
+      insertSubmissionAnswers(saved.getId(), quizId, answerIds);
+      gradebookService.recordGrade(quiz.getCourse().getId(), GradebookItemType.QUIZ, quizId, userCi, note);
+      pendingItemsService.evictUser(userCi);
 
-      return getDtQuizSubmission(saved);
+      return getDtQuizSubmission(saved, new ArrayList<>(answerIds));
   }
+
+  public void evictAnswerKey(Long quizId) {
+      answerKeyCache.remove(quizId);
+  }
+
+  private QuizAnswerKey getAnswerKey(Long quizId) {
+      long now = System.currentTimeMillis();
+      CachedAnswerKey cached = answerKeyCache.get(quizId);
+      if (cached != null && now < cached.expiresAtMillis()) {
+          answerKeyHits.increment();
+          return cached.key();
+      }
+      answerKeyMisses.increment();
+
+      List<QuizRepository.AnswerFlag> flags = quizRepository.findAnswerFlags(quizId);
+      long[] answerIds = new long[flags.size()];
+      long[] correct = new long[flags.size()];
+      int correctCount = 0;
+      for (int i = 0; i < flags.size(); i++) {
+          answerIds[i] = flags.get(i).getId();
+          if (Boolean.TRUE.equals(flags.get(i).getCorrect())) {
+              correct[correctCount++] = answerIds[i];
+          }
+      }
+      QuizAnswerKey key = new QuizAnswerKey(answerIds, Arrays.copyOf(correct, correctCount));
+      answerKeyCache.put(quizId, new CachedAnswerKey(key, now + answerKeyTtlMillis));
+      return key;
+  }
+
+  // Pasa por lotes las respuestas guardadas como CSV a quiz_submission_answers.
+  // Es idempotente (INSERT IGNORE) por si se corta entre la inserción y el borrado del CSV
+  @Scheduled(initialDelayString = "${quiz.answers.migration.initial-delay-ms:30000}",
+             fixedDelayString = "${quiz.answers.migration.interval-ms:60000}")
+  public void migrateLegacyAnswers() {
+      if (!legacyAnswersPending) {
+          return;
+      }
+      int migrated = 0;
+      List<QuizSubmissionRepository.LegacyAnswers> batch;
+      do {
+          batch = quizSubmissionRepository.findLegacyAnswers(Limit.of(LEGACY_MIGRATION_BATCH_SIZE));
+          List<Long> ids = new ArrayList<>(batch.size());
+          for (QuizSubmissionRepository.LegacyAnswers legacy : batch) {
+              insertSubmissionAnswers(legacy.getId(), legacy.getQuizId(), new LinkedHashSet<>(parseLegacyAnswers(legacy.getAnswers())));
+              ids.add(legacy.getId());
+          }
+          if (!ids.isEmpty()) {
+              quizSubmissionRepository.clearLegacyAnswers(ids);
+              migrated += ids.size();
+          }
+      } while (batch.size() == LEGACY_MIGRATION_BATCH_SIZE);
+
+      legacyAnswersPending = false;
+      if (migrated > 0) {
+          log.info("Entregas de quiz migradas a quiz_submission_answers: {}", migrated);
+      }
+  }
+
+  private void insertSubmissionAnswers(Long submissionId, Long quizId, Collection<Long> answerIds) {
+      if (answerIds.isEmpty()) {
+          return;
+      }
+      jdbcTemplate.batchUpdate(INSERT_SUBMISSION_ANSWER_SQL, answerIds, answerIds.size(), (ps, answerId) -> {
+          ps.setLong(1, submissionId);
+          ps.setLong(2, quizId);
+          ps.setLong(3, answerId);
+      });
+  }
+
+  private static List<Long> parseLegacyAnswers(String csv) {
+      if (csv == null || csv.isEmpty()) {
+          return List.of();
+      }
+      return Arrays.stream(csv.split(","))
+              .map(String::trim)
+              .filter(s -> !s.isEmpty())
+              .map(Long::parseLong)
+              .collect(Collectors.toList());
+  }
+
+  private record CachedAnswerKey(QuizAnswerKey key, long expiresAtMillis) {}
 }
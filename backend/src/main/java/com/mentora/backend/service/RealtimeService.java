@@ -0,0 +1,67 @@
+package com.mentora.backend.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.messaging.SessionConnectedEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Publica eventos a las colas STOMP por usuario (/user/queue/...)
+@Service
+public class RealtimeService {
+
+    public static final String MESSAGES_QUEUE = "/queue/messages";
+    public static final String NOTIFICATIONS_QUEUE = "/queue/notifications";
+
+    private static final Logger log = LoggerFactory.getLogger(RealtimeService.class);
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final SimpUserRegistry userRegistry;
+    private final Set<String> connectedSessions = ConcurrentHashMap.newKeySet();
+    private final Timer publishTimer;
+
+    public RealtimeService(SimpMessagingTemplate messagingTemplate, SimpUserRegistry userRegistry, MeterRegistry meterRegistry) {
+        this.messagingTemplate = messagingTemplate;
+        this.userRegistry = userRegistry;
+        meterRegistry.gauge("websocket.sessions", connectedSessions, Set::size);
+        this.publishTimer = Timer.builder("websocket.publish").register(meterRegistry);
+    }
+
+    public void sendToUser(String userCi, String queue, Object payload) {
+        // Con broker en memoria se evita serializar si el usuario no tiene sesiones en este nodo.
+        // Con relay el registro incluye los usuarios de los demás nodos.
+        if (userCi == null || userRegistry.getUser(userCi) == null) {
+            return;
+        }
+        publishTimer.record(() -> {
+            try {
+                messagingTemplate.convertAndSendToUser(userCi, queue, payload);
+            } catch (Exception e) {
+                // El canal en tiempo real es best-effort: el dato ya está persistido
+                log.warn("No se pudo publicar en {} para {}: {}", queue, userCi, e.getMessage());
+            }
+        });
+    }
+
+    @EventListener
+    public void onConnected(SessionConnectedEvent event) {
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(event.getMessage().getHeaders());
+        if (sessionId != null) {
+            connectedSessions.add(sessionId);
+        }
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        connectedSessions.remove(event.getSessionId());
+    }
+}
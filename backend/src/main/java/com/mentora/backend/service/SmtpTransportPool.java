@@ -0,0 +1,94 @@
+package com.mentora.backend.service;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Session;
+import jakarta.mail.Transport;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Properties;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+
+// Pool acotado de conexiones SMTP ya autenticadas, reutilizadas entre mensajes
+@Component
+public class SmtpTransportPool {
+
+    private final Session session;
+    private final String username;
+    private final String password;
+    private final Semaphore permits;
+    private final LinkedBlockingQueue<Transport> idle = new LinkedBlockingQueue<>();
+
+    public SmtpTransportPool(
+            @Value("${spring.mail.username}") String username,
+            @Value("${spring.mail.password}") String password,
+            @Value("${spring.mail.host}") String host,
+            @Value("${spring.mail.port}") String port,
+            @Value("${spring.mail.properties.mail.smtp.starttls.enable:true}") String startTls,
+            @Value("${email.smtp.pool-size:2}") int poolSize
+    ) {
+        this.username = username;
+        this.password = password;
+        this.permits = new Semaphore(Math.max(1, poolSize));
+
+        Properties props = new Properties();
+        props.put("mail.smtp.host", host);
+        props.put("mail.smtp.port", port);
+        props.put("mail.smtp.auth", "true");
+        props.put("mail.smtp.starttls.enable", startTls);
+        props.put("mail.smtp.connectiontimeout", "10000");
+        props.put("mail.smtp.timeout", "30000");
+        this.session = Session.getInstance(props);
+    }
+
+    public Session getSession() {
+        return session;
+    }
+
+    // Bloquea hasta que haya una conexión libre; reconecta si el servidor cerró la ociosa
+    public Transport borrow() throws MessagingException, InterruptedException {
+        permits.acquire();
+        try {
+            Transport transport = idle.poll();
+            if (transport != null && transport.isConnected()) {
+                return transport;
+            }
+            closeQuietly(transport);
+            transport = session.getTransport("smtp");
+            transport.connect(username, password);
+            return transport;
+        } catch (MessagingException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    // healthy=false descarta la conexión (p.ej. tras un error de protocolo)
+    public void release(Transport transport, boolean healthy) {
+        if (healthy && transport != null) {
+            idle.offer(transport);
+        } else {
+            closeQuietly(transport);
+        }
+        permits.release();
+    }
+
+    @PreDestroy
+    public void close() {
+        Transport transport;
+        while ((transport = idle.poll()) != null) {
+            closeQuietly(transport);
+        }
+    }
+
+    private static void closeQuietly(Transport transport) {
+        if (transport == null) return;
+        try {
+            transport.close();
+        } catch (MessagingException ignored) {
+            // La conexión ya estaba cerrada
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.mentora.backend.service;
+
+// Path persistido de un archivo: <esquema>://<bucket>/<key>, p.ej. gs://mi-bucket/uuid.pdf
+public record StoragePath(String scheme, String bucket, String key) {
+
+    // Devuelve null si el texto no tiene la forma esquema://bucket/key
+    public static StoragePath parse(String path) {
+        if (path == null) {
+            return null;
+        }
+        int sep = path.indexOf("://");
+        if (sep <= 0) {
+            return null;
+        }
+        String rest = path.substring(sep + 3);
+        int slash = rest.indexOf('/');
+        if (slash <= 0 || slash == rest.length() - 1) {
+            return null;
+        }
+        return new StoragePath(path.substring(0, sep), rest.substring(0, slash), rest.substring(slash + 1));
+    }
+
+    @Override
+    public String toString() {
+        return scheme + "://" + bucket + "/" + key;
+    }
+}
@@ -0,0 +1,124 @@
+package com.mentora.backend.service;
+
+import com.mentora.backend.model.StoredBlob;
+import com.mentora.backend.repository.StoredBlobRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Conteo de referencias de los archivos guardados: permite guardar una sola vez el mismo contenido
+// y borrarlo del almacenamiento recién cuando ninguna fila lo usa
+@Service
+public class StoredBlobService {
+
+    private static final Logger log = LoggerFactory.getLogger(StoredBlobService.class);
+
+    private static final int GC_BATCH_SIZE = 500;
+
+    // Si otra subida con el mismo contenido se registró antes, suma la referencia a esa fila
+    private static final String REGISTER_SQL =
+            "INSERT INTO stored_blobs (sha256, storage_path, size, ref_count, created_at, updated_at) " +
+            "VALUES (?, ?, ?, 1, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE ref_count = ref_count + 1, updated_at = VALUES(updated_at)";
+
+    // Archivos subidos antes de la deduplicación: se registran ya sin referencias para que los borre el GC
+    private static final String RELEASE_UNTRACKED_SQL =
+            "INSERT IGNORE INTO stored_blobs (sha256, storage_path, size, ref_count, created_at, updated_at) " +
+            "VALUES (NULL, ?, NULL, 0, ?, ?)";
+
+    private final StoredBlobRepository storedBlobRepository;
+    private final BlobStore blobStore;
+    private final JdbcTemplate jdbcTemplate;
+    private final long graceMinutes;
+
+    private final Counter dedupHits;
+    private final Counter gcDeleted;
+
+    public StoredBlobService(
+            StoredBlobRepository storedBlobRepository,
+            BlobStore blobStore,
+            JdbcTemplate jdbcTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${storage.blob-gc.grace-minutes:10}") long graceMinutes
+    ) {
+        this.storedBlobRepository = storedBlobRepository;
+        this.blobStore = blobStore;
+        this.jdbcTemplate = jdbcTemplate;
+        this.graceMinutes = graceMinutes;
+        this.dedupHits = Counter.builder("storage.dedup.hits").register(meterRegistry);
+        this.gcDeleted = Counter.builder("storage.blob_gc.deleted").register(meterRegistry);
+    }
+
+    // Suma una referencia al archivo con ese contenido si ya está guardado; devuelve su path o null
+    public String acquire(String sha256) {
+        if (storedBlobRepository.incrementRefCount(sha256, LocalDateTime.now()) == 0) {
+            return null;
+        }
+        dedupHits.increment();
+        return storedBlobRepository.findStoragePathBySha256(sha256);
+    }
+
+    // Registra un archivo recién subido con una referencia y devuelve el path a usar. Si dos subidas
+    // del mismo contenido compiten, gana la primera y el llamador debe borrar su copia
+    public String register(String sha256, String storagePath, long size) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.update(REGISTER_SQL, sha256, storagePath, size, now, now);
+        if (sha256 == null) {
+            return storagePath;
+        }
+        String canonical = storedBlobRepository.findStoragePathBySha256(sha256);
+        if (!storagePath.equals(canonical)) {
+            dedupHits.increment();
+        }
+        return canonical;
+    }
+
+    // Resta una referencia; el borrado real lo hace collectGarbage en segundo plano
+    public void release(String storagePath) {
+        LocalDateTime now = LocalDateTime.now();
+        if (storedBlobRepository.decrementRefCount(storagePath, now) == 0) {
+            Timestamp ts = Timestamp.valueOf(now);
+            jdbcTemplate.update(RELEASE_UNTRACKED_SQL, storagePath, ts, ts);
+        }
+    }
+
+    // Se borra primero la fila (condicional a que siga sin referencias) y después el archivo:
+    // así una subida concurrente nunca queda apuntando a un archivo borrado
+    @Scheduled(
+            initialDelayString = "${storage.blob-gc.initial-delay-ms:60000}",
+            fixedDelayString = "${storage.blob-gc.interval-ms:300000}"
+    )
+    public void collectGarbage() {
+        LocalDateTime before = LocalDateTime.now().minusMinutes(graceMinutes);
+        List<StoredBlob> page;
+        do {
+            page = storedBlobRepository.findUnreferenced(before, Limit.of(GC_BATCH_SIZE));
+            for (StoredBlob blob : page) {
+                if (storedBlobRepository.deleteIfUnreferenced(blob.getId()) == 0) {
+                    continue;
+                }
+                StoragePath path = StoragePath.parse(blob.getStoragePath());
+                if (path == null || !blobStore.scheme().equals(path.scheme())) {
+                    log.warn("Archivo sin referencias en otro almacenamiento, no se borra: {}", blob.getStoragePath());
+                    continue;
+                }
+                try {
+                    blobStore.delete(path);
+                    gcDeleted.increment();
+                } catch (RuntimeException e) {
+                    log.warn("No se pudo borrar el archivo {}: {}", blob.getStoragePath(), e.getMessage());
+                }
+            }
+        } while (page.size() == GC_BATCH_SIZE);
+    }
+}
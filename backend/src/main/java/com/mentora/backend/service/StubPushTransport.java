@@ -0,0 +1,79 @@
+package com.mentora.backend.service;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Transporte local sin red para desarrollo y tests: registra los envíos en memoria.
+// Por defecto todo sale SENT; con script() se fijan los resultados de un token para probar reintentos y bajas
+@Component
+@ConditionalOnProperty(name = "push.transport", havingValue = "stub")
+public class StubPushTransport implements PushTransport {
+
+    private final List<SentPush> sent = Collections.synchronizedList(new ArrayList<>());
+    private final Map<String, Deque<Outcome>> scripted = new HashMap<>();
+    private volatile int maxTokensPerSend = 500;
+
+    @Override
+    public int maxTokensPerSend() {
+        return maxTokensPerSend;
+    }
+
+    public void setMaxTokensPerSend(int maxTokensPerSend) {
+        this.maxTokensPerSend = maxTokensPerSend;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+
+    @Override
+    public List<Outcome> send(List<String> tokens, PushPayload payload) {
+        long now = System.nanoTime();
+        List<Outcome> outcomes = new ArrayList<>(tokens.size());
+        for (String token : tokens) {
+            Outcome outcome = nextOutcome(token);
+            sent.add(new SentPush(token, payload, outcome, now));
+            outcomes.add(outcome);
+        }
+        return outcomes;
+    }
+
+    // Los próximos envíos a token devuelven estos resultados en orden; después vuelve a SENT
+    public void script(String token, Outcome... outcomes) {
+        synchronized (scripted) {
+            scripted.computeIfAbsent(token, t -> new ArrayDeque<>()).addAll(List.of(outcomes));
+        }
+    }
+
+    private Outcome nextOutcome(String token) {
+        synchronized (scripted) {
+            Deque<Outcome> queue = scripted.get(token);
+            Outcome next = queue != null ? queue.poll() : null;
+            return next != null ? next : Outcome.SENT;
+        }
+    }
+
+    public List<SentPush> getSent() {
+        synchronized (sent) {
+            return List.copyOf(sent);
+        }
+    }
+
+    public void clear() {
+        sent.clear();
+        synchronized (scripted) {
+            scripted.clear();
+        }
+    }
+
+    public record SentPush(String token, PushPayload payload, Outcome outcome, long sentAtNanos) {}
+}
@@ -6,14 +6,16 @@ import com.mentora.backend.dt.DtUser;
 import com.mentora.backend.model.Course;
 import com.mentora.backend.model.Role;
 import com.mentora.backend.model.User;
-import com.mentora.backend.model.UserCourse;
 import com.mentora.backend.repository.CourseRepository;
 import com.mentora.backend.repository.UserCourseRepository;
 import com.mentora.backend.repository.UserRepository;
 import com.mentora.backend.responses.BulkMatricularUsuariosResponse;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.io.IOException;
@@ -26,54 +28,66 @@ import com.opencsv.CSVReaderBuilder;
 import com.opencsv.exceptions.CsvException;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Service
 public class UserCourseService {
 
+    static final int ENROLLMENT_CHUNK_SIZE = 1000;
+    private static final int MAX_NON_PARTICIPANTS_PAGE_SIZE = 200;
+
+    private static final String INSERT_USER_COURSE_SQL =
+            "INSERT INTO user_course (course_id, user_id, final_grade) VALUES (?, ?, NULL)";
+
     private final CourseRepository courseRepository;
     private final UserRepository userRepository;
     private final UserCourseRepository userCourseRepository;
     private final UserService userService;
+    private final PendingItemsService pendingItemsService;
+    private final FileStorageService fileStorageService;
+    private final JdbcTemplate jdbcTemplate;
 
     public UserCourseService(
         CourseRepository courseRepository,
         UserRepository userRepository,
         UserCourseRepository userCourseRepository,
-        UserService userService
+        UserService userService,
+        PendingItemsService pendingItemsService,
+        FileStorageService fileStorageService,
+        JdbcTemplate jdbcTemplate
     ) {
         this.courseRepository = courseRepository;
         this.userRepository = userRepository;
         this.userCourseRepository = userCourseRepository;
         this.userService = userService;
+        this.pendingItemsService = pendingItemsService;
+        this.fileStorageService = fileStorageService;
+        this.jdbcTemplate = jdbcTemplate;
     }
 
     public String addUsersToCourse(String courseId, String[] usersCis) {
         List<String> errorUsers = new ArrayList<>();
         List<String> repeatedUsers = new ArrayList<>();
 
-        Course course = courseRepository.findById(courseId)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Curso no encontrado"));
-
-        for (String userCi : usersCis) {
-            User user = userRepository.findById(userCi).orElse(null);
-
-            if (user == null) {
-                errorUsers.add(userCi + " no existe");
-                continue;
-            }
+        if (!courseRepository.existsById(courseId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Curso no encontrado");
+        }
 
-            // Ya estaba matriculado
-            if (userCourseRepository.existsByCourseAndUser(course, user)) {
-                repeatedUsers.add(userCi);
-                continue;
+        enrollInChunks(courseId, Arrays.asList(usersCis), chunk -> {
+            for (Enrollment enrollment : chunk) {
+                switch (enrollment.status()) {
+                    case NOT_FOUND -> errorUsers.add(enrollment.ci() + " no existe");
+                    case ALREADY_ENROLLED -> repeatedUsers.add(enrollment.ci());
+                    case ENROLLED -> { }
+                }
             }
-
-            // Matricular
-            UserCourse uc = new UserCourse(course, user, null);
-            userCourseRepository.save(uc);
-        }
+        });
 
         boolean anyEnrolled = repeatedUsers.size() < usersCis.length;
 
@@ -103,21 +117,20 @@ public class UserCourseService {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Archivo CSV requerido");
         }
 
-        Course course = courseRepository.findById(courseId)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Curso no encontrado"));
+        if (!courseRepository.existsById(courseId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Curso no encontrado");
+        }
 
         List<DtUser> matriculados = new ArrayList<>();
         List<String> errors = new ArrayList<>();
+        Map<String, Boolean> seen = new HashMap<>();
 
         try (CSVReader reader = new CSVReaderBuilder(new InputStreamReader(csvInputStream, StandardCharsets.UTF_8)).build()) {
-            List<String[]> rows = reader.readAll();
-            if (rows == null || rows.isEmpty()) {
-                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Archivo CSV vacío");
-            }
-
+            List<CsvEnrollmentRow> chunk = new ArrayList<>(ENROLLMENT_CHUNK_SIZE);
             int lineNumber = 0;
-            for (String[] row : rows) {
-                if (row == null) { continue; }
+            String[] row;
+            while ((row = reader.readNext()) != null) {
+                lineNumber++;
 
                 // Ignora header
                 if (lineNumber == 1 && row.length > 0 && row[0] != null && row[0].trim().equalsIgnoreCase("ci")) {
@@ -125,27 +138,17 @@ public class UserCourseService {
                 }
 
                 String ci = row.length > 0 && row[0] != null ? row[0].trim() : "";
-                if (ci.isEmpty()) {
-                    errors.add("Fila " + lineNumber + ": CI obligatorio");
-                    continue;
-                }
-
-                User user = userRepository.findById(ci).orElse(null);
-                if (user == null) {
-                    errors.add("Fila " + lineNumber + ": Usuario no encontrado");
-                    continue;
-                }
-
-                if (userCourseRepository.existsByCourseAndUser(course, user)) {
-                    errors.add("Fila " + lineNumber + ": Usuario ya matriculado");
-                    continue;
+                chunk.add(new CsvEnrollmentRow(lineNumber, ci));
+                if (chunk.size() == ENROLLMENT_CHUNK_SIZE) {
+                    enrollCsvChunk(courseId, chunk, seen, matriculados, errors);
+                    chunk.clear();
                 }
+            }
 
-                UserCourse userCourse = new UserCourse(course, user, null);
-                userCourseRepository.save(userCourse);
-                matriculados.add(userService.getUserDto(user));
-                lineNumber++;
+            if (lineNumber == 0) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Archivo CSV vacío");
             }
+            enrollCsvChunk(courseId, chunk, seen, matriculados, errors);
         } catch (CsvException e) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "CSV inválido");
         }
@@ -153,6 +156,88 @@ public class UserCourseService {
         return new BulkMatricularUsuariosResponse(matriculados, errors);
     }
 
+    private void enrollCsvChunk(String courseId, List<CsvEnrollmentRow> rows, Map<String, Boolean> seen,
+                                List<DtUser> matriculados, List<String> errors) {
+        List<String> cis = rows.stream()
+                .map(CsvEnrollmentRow::ci)
+                .filter(ci -> !ci.isEmpty())
+                .toList();
+        List<Enrollment> enrollments = enrollChunk(courseId, cis, seen);
+
+        // Los errores se informan en el orden de las filas
+        int next = 0;
+        for (CsvEnrollmentRow row : rows) {
+            if (row.ci().isEmpty()) {
+                errors.add("Fila " + row.lineNumber() + ": CI obligatorio");
+                continue;
+            }
+            Enrollment enrollment = enrollments.get(next++);
+            switch (enrollment.status()) {
+                case NOT_FOUND -> errors.add("Fila " + row.lineNumber() + ": Usuario no encontrado");
+                case ALREADY_ENROLLED -> errors.add("Fila " + row.lineNumber() + ": Usuario ya matriculado");
+                case ENROLLED -> matriculados.add(userService.getUserDto(enrollment.user(), false));
+            }
+        }
+    }
+
+    // Matricula las CIs en bloques e informa el resultado de cada bloque en el orden de entrada
+    void enrollInChunks(String courseId, List<String> cis, Consumer<List<Enrollment>> onChunk) {
+        Map<String, Boolean> seen = new HashMap<>();
+        for (int from = 0; from < cis.size(); from += ENROLLMENT_CHUNK_SIZE) {
+            List<String> part = cis.subList(from, Math.min(from + ENROLLMENT_CHUNK_SIZE, cis.size()));
+            onChunk.accept(enrollChunk(courseId, part, seen));
+        }
+    }
+
+    // Una consulta para los usuarios, una para las matrículas existentes y un insert por lotes para las nuevas.
+    // seen guarda si cada CI ya procesada existía, para que las repetidas en la entrada se informen como antes.
+    private List<Enrollment> enrollChunk(String courseId, List<String> cis, Map<String, Boolean> seen) {
+        List<String> lookup = cis.stream()
+                .filter(ci -> ci != null && !seen.containsKey(ci))
+                .distinct()
+                .toList();
+
+        Map<String, User> users = new HashMap<>();
+        if (!lookup.isEmpty()) {
+            userRepository.findAllById(lookup).forEach(u -> users.put(u.getCi(), u));
+        }
+        List<String> enrolled = users.isEmpty()
+                ? List.of()
+                : userCourseRepository.findEnrolledUserCis(courseId, users.keySet());
+        Map<String, Boolean> alreadyEnrolled = new HashMap<>();
+        enrolled.forEach(ci -> alreadyEnrolled.put(ci, Boolean.TRUE));
+
+        List<Enrollment> result = new ArrayList<>(cis.size());
+        List<String> toInsert = new ArrayList<>();
+        for (String ci : cis) {
+            Boolean existed = seen.get(ci);
+            if (existed != null) {
+                result.add(new Enrollment(ci, null, existed ? EnrollmentStatus.ALREADY_ENROLLED : EnrollmentStatus.NOT_FOUND));
+                continue;
+            }
+
+            User user = users.get(ci);
+            seen.put(ci, user != null);
+            if (user == null) {
+                result.add(new Enrollment(ci, null, EnrollmentStatus.NOT_FOUND));
+            } else if (alreadyEnrolled.containsKey(ci)) {
+                result.add(new Enrollment(ci, user, EnrollmentStatus.ALREADY_ENROLLED));
+            } else {
+                toInsert.add(ci);
+                result.add(new Enrollment(ci, user, EnrollmentStatus.ENROLLED));
+            }
+        }
+
+        if (!toInsert.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_USER_COURSE_SQL, toInsert, toInsert.size(), (ps, ci) -> {
+                ps.setString(1, courseId);
+                ps.setString(2, ci);
+            });
+            toInsert.forEach(pendingItemsService::evictUser);
+        }
+        return result;
+    }
+
     public List<DtCourse> getCoursesForUser(String ci) {
         User user = userRepository.findById(ci).orElse(null);
         if (user == null) {
@@ -164,33 +249,58 @@ public class UserCourseService {
             .collect(Collectors.toCollection(ArrayList::new));
     }
 
+    // Valida todas las CIs antes de borrar, de modo que un usuario no matriculado no deja la baja a medias
+    @Transactional
     public String deleteUsersFromCourse(String courseId, String[] usersCis) {
         List<String> errorUsers = new ArrayList<>();
 
-        Course course = courseRepository.findById(courseId)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Curso no encontrado"));
+        if (!courseRepository.existsById(courseId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Curso no encontrado");
+        }
 
-        for (String userCi : usersCis) {
-            User user = userRepository.findById(userCi).orElse(null);
+        Map<Long, String> toDelete = new LinkedHashMap<>();
+        List<String> cis = Arrays.asList(usersCis);
+        for (int from = 0; from < cis.size(); from += ENROLLMENT_CHUNK_SIZE) {
+            List<String> part = cis.subList(from, Math.min(from + ENROLLMENT_CHUNK_SIZE, cis.size()));
+            List<String> lookup = part.stream().filter(ci -> ci != null).distinct().toList();
 
-            if (user == null) {
-                errorUsers.add(userCi + " no existe");
-                continue;
+            Map<String, User> users = new HashMap<>();
+            if (!lookup.isEmpty()) {
+                userRepository.findAllById(lookup).forEach(u -> users.put(u.getCi(), u));
             }
-
-            if (user.getRole() == Role.PROFESOR) {
-                errorUsers.add(userCi + " no puede ser desmatriculado porque tiene rol PROFESOR");
-                continue;
+            Map<String, Long> enrollmentIds = new HashMap<>();
+            if (!users.isEmpty()) {
+                userCourseRepository.findAllByCourseIdAndUserCis(courseId, users.keySet())
+                        .forEach(uc -> enrollmentIds.put(uc.getUser().getCi(), uc.getId()));
             }
 
-            UserCourse userCourse = userCourseRepository
-                    .findByCourseAndUser(course, user)
-                    .orElseThrow(() -> new ResponseStatusException(
+            for (String userCi : part) {
+                User user = users.get(userCi);
+
+                if (user == null) {
+                    errorUsers.add(userCi + " no existe");
+                    continue;
+                }
+
+                if (user.getRole() == Role.PROFESOR) {
+                    errorUsers.add(userCi + " no puede ser desmatriculado porque tiene rol PROFESOR");
+                    continue;
+                }
+
+                Long enrollmentId = enrollmentIds.get(userCi);
+                if (enrollmentId == null) {
+                    throw new ResponseStatusException(
                             HttpStatus.NOT_FOUND,
                             "Usuario " + userCi + " no está matriculado en el curso"
-                    ));
+                    );
+                }
+                toDelete.put(enrollmentId, userCi);
+            }
+        }
 
-            userCourseRepository.delete(userCourse);
+        if (!toDelete.isEmpty()) {
+            userCourseRepository.deleteAllByIdInBatch(toDelete.keySet());
+            toDelete.values().forEach(pendingItemsService::evictUser);
         }
 
         if (!errorUsers.isEmpty()) {
@@ -222,15 +332,42 @@ public class UserCourseService {
                 .collect(Collectors.toCollection(ArrayList::new));
     }
 
-    public List<DtUser> getNonParticipantsFromCourse(String courseId) {
-        Course course = courseRepository.findById(courseId)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Curso no encontrado"));
+    public List<DtUser> getNonParticipantsFromCourse(String courseId, String query, String after, Integer limit, boolean pictures) {
+        if (!courseRepository.existsById(courseId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Curso no encontrado");
+        }
+        if (limit != null && (limit < 1 || limit > MAX_NON_PARTICIPANTS_PAGE_SIZE)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "El límite debe estar entre 1 y " + MAX_NON_PARTICIPANTS_PAGE_SIZE);
+        }
 
-        return userRepository.findAll().stream()
-            .filter(user -> user.getRole() == Role.ESTUDIANTE)
-            .filter(user -> !userCourseRepository.existsByCourseAndUser(course, user))
-            .map(userService::getUserDto)
-            .collect(Collectors.toCollection(ArrayList::new));
+        // El cursor es la CI del último usuario de la página anterior; la página sigue desde su (nameLower, ci)
+        String afterName = null;
+        String afterCi = null;
+        if (after != null && !after.isBlank()) {
+            User last = userRepository.findById(after.trim())
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cursor inválido"));
+            afterName = last.getNameLower();
+            afterCi = last.getCi();
+        }
+
+        String prefix = null;
+        if (query != null && !query.isBlank()) {
+            prefix = query.trim().toLowerCase().replace("!", "!!").replace("%", "!%").replace("_", "!_") + "%";
+        }
+
+        List<DtUser> users = userRepository.findNonParticipantsPage(
+                courseId, Role.ESTUDIANTE, prefix, afterName, afterCi,
+                limit != null ? Limit.of(limit) : Limit.unlimited());
+
+        // La proyección trae el path de almacenamiento crudo; solo se firma si se pide
+        for (DtUser user : users) {
+            String pictureUrl = user.getPictureUrl();
+            user.setPictureUrl(pictures && fileStorageService.isStoredPath(pictureUrl)
+                    ? fileStorageService.generateSignedUrl(pictureUrl)
+                    : null);
+        }
+        return users;
     }
 
     public void validateProfessorAccess(Course course, String userId) {
@@ -249,4 +386,10 @@ public class UserCourseService {
                     HttpStatus.FORBIDDEN, "Solo profesores pueden borrar contenido");
         }
     }
+
+    enum EnrollmentStatus { ENROLLED, ALREADY_ENROLLED, NOT_FOUND }
+
+    record Enrollment(String ci, User user, EnrollmentStatus status) {}
+
+    private record CsvEnrollmentRow(int lineNumber, String ci) {}
 }
@@ -12,10 +12,12 @@ import com.mentora.backend.repository.PasswordResetTokenRepository;
 import com.mentora.backend.repository.UserRepository;
 import com.mentora.backend.repository.ActivityRepository;
 import com.mentora.backend.responses.BulkCreateUsersResponse;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.multipart.MultipartFile;
 import com.mentora.backend.requests.UpdateUserRequest;
 import java.io.InputStream;
 import java.io.InputStreamReader;
@@ -32,10 +34,16 @@ import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.Duration;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Service
 public class UserService {
+
+    private static final int CSV_IMPORT_CHUNK_SIZE = 500;
+    private static final int MAX_USERS_PAGE_SIZE = 200;
+    private static final int USERS_STREAM_PAGE_SIZE = 500;
+
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final EmailService emailService;
@@ -96,7 +104,7 @@ public class UserService {
         userRepository.save(user);
 
         try {
-            emailService.sendEmail(
+            emailService.sendEmailAsync(
                     user.getEmail(),
                     "Bienvenido a Mentora",
                     "Le damos la bienvenida a Mentora. Su usuario es: " + user.getCi()
@@ -114,63 +122,33 @@ public class UserService {
         List<DtUser> created = new ArrayList<>();
         List<String> errors = new ArrayList<>();
 
-        try (CSVReader reader = new CSVReaderBuilder(new InputStreamReader(csvInputStream, StandardCharsets.UTF_8)).build()) {
-            List<String[]> rows = reader.readAll();
-
-            if (rows == null || rows.isEmpty()) {
-                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Archivo CSV vacío");
-            }
+        // CIs y emails (en minúsculas, como los compara la base) ya aceptados en esta importación
+        Set<String> importedCis = new HashSet<>();
+        Set<String> importedEmails = new HashSet<>();
 
+        try (CSVReader reader = new CSVReaderBuilder(new InputStreamReader(csvInputStream, StandardCharsets.UTF_8)).build()) {
+            // Se lee fila a fila y se procesa por bloques para no tener el archivo entero en memoria
+            List<CsvUserRow> chunk = new ArrayList<>(CSV_IMPORT_CHUNK_SIZE);
+            String[] row;
             int line = 0;
-            for (String[] row : rows) {
+            while ((row = reader.readNext()) != null) {
                 line++;
 
-                if (row == null) { continue; }
                 if (line == 1 && row.length > 0 && row[0] != null && row[0].trim().equalsIgnoreCase("ci")) {
                     continue;
                 }
 
-                String ci       = row[0] != null ? row[0].trim() : "";
-                String nombre   = row[1] != null ? row[1].trim() : "";
-                String apellido = row[2] != null ? row[2].trim() : "";
-                String email    = row[3] != null ? row[3].trim() : "";
-                String pass     = row[4] != null ? row[4].trim() : "";
-                String rol      = row[5] != null ? row[5].trim().toLowerCase() : "";
-
-                if (!ci.matches("^\\d+$")) {
-                    errors.add("Fila " + line + ": CI inválido");
-                    continue;
-                }
-                if (nombre.isEmpty() || apellido.isEmpty()) {
-                    errors.add("Fila " + line + ": Nombre y apellido obligatorios");
-                    continue;
-                }
-                if (!email.matches("^[A-Za-z0-9+_.-]+@[A-Za-z0-9.-]+$")) {
-                    errors.add("Fila " + line + ": Email inválido");
-                    continue;
-                }
-                if (!pass.matches("^(?=.*[a-z])(?=.*[A-Z])(?=.*\\d).{8,}$")) {
-                    errors.add("Fila " + line + ": Contraseña inválida");
-                    continue;
-                }
-                if (!rol.equals("estudiante") && !rol.equals("profesor") && !rol.equals("administrador")) {
-                    errors.add("Fila " + line + ": Rol inválido");
-                    continue;
-                }
-
-                if (userRepository.existsByCi(ci)) {
-                    errors.add("Fila " + line + ": CI duplicado");
-                    continue;
-                }
-                if (userRepository.existsByEmail(email)) {
-                    errors.add("Fila " + line + ": Email duplicado");
-                    continue;
+                chunk.add(parseCsvUserRow(line, row));
+                if (chunk.size() >= CSV_IMPORT_CHUNK_SIZE) {
+                    importCsvChunk(chunk, importedCis, importedEmails, created, errors);
+                    chunk.clear();
                 }
+            }
 
-                User user = new User(ci, nombre + " " + apellido, email, pass, null, null, null, mapRole(rol));
-                userRepository.save(user);
-                created.add(getUserDto(user));
+            if (line == 0) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Archivo CSV vacío");
             }
+            importCsvChunk(chunk, importedCis, importedEmails, created, errors);
         } catch (CsvException e) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "CSV inválido");
         }
@@ -178,6 +156,91 @@ public class UserService {
         return new BulkCreateUsersResponse(created, errors);
     }
 
+    // Valida el formato de la fila; los duplicados se resuelven después, por bloque
+    private CsvUserRow parseCsvUserRow(int line, String[] row) {
+        String ci       = row[0] != null ? row[0].trim() : "";
+        String nombre   = row[1] != null ? row[1].trim() : "";
+        String apellido = row[2] != null ? row[2].trim() : "";
+        String email    = row[3] != null ? row[3].trim() : "";
+        String pass     = row[4] != null ? row[4].trim() : "";
+        String rol      = row[5] != null ? row[5].trim().toLowerCase() : "";
+
+        if (!ci.matches("^\\d+$")) {
+            return CsvUserRow.error(line, "CI inválido");
+        }
+        if (nombre.isEmpty() || apellido.isEmpty()) {
+            return CsvUserRow.error(line, "Nombre y apellido obligatorios");
+        }
+        if (!email.matches("^[A-Za-z0-9+_.-]+@[A-Za-z0-9.-]+$")) {
+            return CsvUserRow.error(line, "Email inválido");
+        }
+        if (!pass.matches("^(?=.*[a-z])(?=.*[A-Z])(?=.*\\d).{8,}$")) {
+            return CsvUserRow.error(line, "Contraseña inválida");
+        }
+        if (!rol.equals("estudiante") && !rol.equals("profesor") && !rol.equals("administrador")) {
+            return CsvUserRow.error(line, "Rol inválido");
+        }
+
+        return new CsvUserRow(line, null,
+            new User(ci, nombre + " " + apellido, email, pass, null, null, null, mapRole(rol)));
+    }
+
+    // Un IN por CIs y otro por emails para todo el bloque, y un saveAll que Hibernate agrupa en batch
+    private void importCsvChunk(List<CsvUserRow> chunk, Set<String> importedCis, Set<String> importedEmails,
+                                List<DtUser> created, List<String> errors) {
+        List<String> cis = new ArrayList<>();
+        List<String> emails = new ArrayList<>();
+        for (CsvUserRow r : chunk) {
+            if (r.user() != null) {
+                cis.add(r.user().getCi());
+                emails.add(r.user().getEmail());
+            }
+        }
+
+        Set<String> existingCis = cis.isEmpty() ? Set.of() : new HashSet<>(userRepository.findExistingCis(cis));
+        Set<String> existingEmails = new HashSet<>();
+        if (!emails.isEmpty()) {
+            for (String e : userRepository.findExistingEmails(emails)) {
+                existingEmails.add(e.toLowerCase());
+            }
+        }
+
+        // Se recorre en orden de fila para que los errores queden igual que antes
+        List<User> toSave = new ArrayList<>();
+        for (CsvUserRow r : chunk) {
+            if (r.error() != null) {
+                errors.add("Fila " + r.line() + ": " + r.error());
+                continue;
+            }
+            User user = r.user();
+            String emailKey = user.getEmail().toLowerCase();
+            if (existingCis.contains(user.getCi()) || importedCis.contains(user.getCi())) {
+                errors.add("Fila " + r.line() + ": CI duplicado");
+                continue;
+            }
+            if (existingEmails.contains(emailKey) || importedEmails.contains(emailKey)) {
+                errors.add("Fila " + r.line() + ": Email duplicado");
+                continue;
+            }
+            importedCis.add(user.getCi());
+            importedEmails.add(emailKey);
+            toSave.add(user);
+        }
+
+        if (!toSave.isEmpty()) {
+            userRepository.saveAll(toSave);
+            for (User user : toSave) {
+                created.add(getUserDto(user));
+            }
+        }
+    }
+
+    private record CsvUserRow(int line, String error, User user) {
+        static CsvUserRow error(int line, String error) {
+            return new CsvUserRow(line, error, null);
+        }
+    }
+
     private Role mapRole(String rol) {
         return switch (rol.toLowerCase()) {
             case "estudiante" -> Role.ESTUDIANTE;
@@ -187,34 +250,64 @@ public class UserService {
         };
     }
 
-    public List<DtUser> getUsers(String order, String filter) {
-        List<User> users = userRepository.findAll();
+    public List<DtUser> getUsers(String order, String filter, String after, Integer limit) {
+        int size = limit != null ? limit : MAX_USERS_PAGE_SIZE;
+        if (size < 1 || size > MAX_USERS_PAGE_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "El límite debe estar entre 1 y " + MAX_USERS_PAGE_SIZE);
+        }
 
-        String f = (filter == null ? "todos" : filter.toLowerCase());
-        switch (f) {
-            case "administradores":
-                users = users.stream().filter(u -> u.getRole() == Role.ADMIN).collect(Collectors.toList());
-                break;
-            case "profesores":
-                users = users.stream().filter(u -> u.getRole() == Role.PROFESOR).collect(Collectors.toList());
-                break;
-            case "estudiantes":
-                users = users.stream().filter(u -> u.getRole() == Role.ESTUDIANTE).collect(Collectors.toList());
-                break;
-            default:
-                break;
+        // El cursor es la CI del último usuario de la página anterior
+        User last = null;
+        if (after != null && !after.isBlank()) {
+            last = userRepository.findById(after.trim())
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cursor inválido"));
+        }
+
+        return findUsersPage(order, parseRoleFilter(filter), last, size).stream()
+                .map(this::getUserDto)
+                .collect(Collectors.toList());
+    }
+
+    // Recorre todos los usuarios por páginas de keyset, de modo que nunca hay más de una página en memoria
+    public void streamUsers(String order, String filter, Consumer<List<DtUser>> onPage) {
+        Role role = parseRoleFilter(filter);
+        User last = null;
+        while (true) {
+            List<User> page = findUsersPage(order, role, last, USERS_STREAM_PAGE_SIZE);
+            if (page.isEmpty()) {
+                return;
+            }
+            onPage.accept(page.stream().map(this::getUserDto).collect(Collectors.toList()));
+            if (page.size() < USERS_STREAM_PAGE_SIZE) {
+                return;
+            }
+            last = page.get(page.size() - 1);
         }
+    }
+
+    private List<User> findUsersPage(String order, Role role, User last, int size) {
+        String afterName = last != null ? last.getNameLower() : null;
+        String afterCi = last != null ? last.getCi() : null;
+        Limit limit = Limit.of(size);
 
         String o = (order == null ? "name_asc" : order.toLowerCase());
-        Comparator<User> comparator = switch (o) {
-            case "name_desc" -> Comparator.comparing((User u) -> u.getName().toLowerCase()).reversed();
-            case "ci_asc" -> Comparator.comparing(User::getCi);
-            case "ci_desc" -> Comparator.comparing(User::getCi).reversed();
-            default -> Comparator.comparing((User u) -> u.getName().toLowerCase());
+        return switch (o) {
+            case "name_desc" -> userRepository.findPageByNameDesc(role, afterName, afterCi, limit);
+            case "ci_asc" -> userRepository.findPageByCiAsc(role, afterCi, limit);
+            case "ci_desc" -> userRepository.findPageByCiDesc(role, afterCi, limit);
+            default -> userRepository.findPageByNameAsc(role, afterName, afterCi, limit);
         };
-        users = users.stream().sorted(comparator).collect(Collectors.toList());
+    }
 
-        return users.stream().map(this::getUserDto).collect(Collectors.toList());
+    private Role parseRoleFilter(String filter) {
+        String f = (filter == null ? "todos" : filter.toLowerCase());
+        return switch (f) {
+            case "administradores" -> Role.ADMIN;
+            case "profesores" -> Role.PROFESOR;
+            case "estudiantes" -> Role.ESTUDIANTE;
+            default -> null;
+        };
     }
 
     public DtUser updateUser(String ci, UpdateUserRequest request) {
@@ -237,9 +330,10 @@ public class UserService {
         if (request.getDescription() != null)
             u.setDescription(request.getDescription());
 
-        if (request.getPicture() != null && !request.getPicture().isEmpty()) {
+        MultipartFile picture = request.getPicture() != null && !request.getPicture().isEmpty() ? request.getPicture() : null;
+        if (picture != null || request.getPictureUploadKey() != null) {
             try {
-                DtFileResource fr = fileStorageService.store(request.getPicture());
+                DtFileResource fr = fileStorageService.storeOrConfirm(picture, request.getPictureUploadKey(), request.getPictureFileName());
                 String fileName = fr.getFilename();
                 String fileUrl = fr.getStoragePath();
                 u.setPictureFileName(fileName);
@@ -255,9 +349,14 @@ public class UserService {
 
 
     public DtUser getUserDto(User u) {
+        return getUserDto(u, true);
+    }
+
+    // Sin foto se evita firmar una URL por usuario en listados grandes, como la matrícula por CSV
+    public DtUser getUserDto(User u, boolean withPicture) {
         String signedPictureUrl = null;
 
-        if (u.getPictureUrl() != null && u.getPictureUrl().startsWith("gs://")) {
+        if (withPicture && fileStorageService.isStoredPath(u.getPictureUrl())) {
             signedPictureUrl = fileStorageService.generateSignedUrl(u.getPictureUrl());
         }
 
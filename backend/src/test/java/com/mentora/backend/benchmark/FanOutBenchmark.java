@@ -0,0 +1,147 @@
+package com.mentora.backend.benchmark;
+
+import com.mentora.backend.model.FanOutJob;
+import com.mentora.backend.model.Post;
+import com.mentora.backend.model.Role;
+import com.mentora.backend.model.User;
+import com.mentora.backend.repository.FanOutJobRepository;
+import com.mentora.backend.repository.UserCourseRepository;
+import com.mentora.backend.service.EmailService;
+import com.mentora.backend.service.FanOutService;
+import com.mentora.backend.service.FanOutWorker;
+import com.mentora.backend.service.NotificationService;
+import com.mentora.backend.service.PushNotificationService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Limit;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.IntStream;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+// Publicar un anuncio en cursos de 10, 100 y 1000 estudiantes. Cada consulta o insert a la base y cada llamada
+// a FCM cuesta un round trip simulado de 200 µs; el SMTP cuesta un round trip por mail en los dos caminos.
+// Compara lo que hacía publishPost en el hilo de la request (cuatro round trips por estudiante) con lo que
+// hace ahora (guardar el job) y con el trabajo total del worker en segundo plano, que va por lotes de 500.
+// Se corre igual que QuizGradingBenchmark: org.openjdk.jmh.Main FanOutBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FanOutBenchmark {
+
+    private static final long ROUND_TRIP_NANOS = TimeUnit.MICROSECONDS.toNanos(200);
+    private static final String COURSE_ID = "BENCH";
+
+    @Param({"10", "100", "1000"})
+    public int students;
+
+    private List<User> recipients;
+    private FanOutService fanOutService;
+    private FanOutWorker fanOutWorker;
+    private Post post;
+
+    @Setup
+    public void setUp() {
+        recipients = IntStream.range(0, students)
+                .mapToObj(i -> new User(String.valueOf(1_000_000 + i), "Estudiante " + i, i + "@mentora.uy",
+                        "x", null, null, null, Role.ESTUDIANTE))
+                .toList();
+        post = new Post();
+        post.setId(1L);
+        post.setMessage("Mañana no hay clase");
+
+        // stubOnly: los mocks no guardan las invocaciones, así no crece la memoria entre iteraciones
+        FanOutJobRepository jobRepository = mock(FanOutJobRepository.class, withSettings().stubOnly());
+        when(jobRepository.claim(anyLong(), any())).thenAnswer(invocation -> roundTrip(1));
+        when(jobRepository.findById(anyLong())).thenAnswer(invocation -> {
+            roundTrip(0);
+            return Optional.of(new FanOutJob(COURSE_ID, 1L, "Nuevo anuncio", post.getMessage(), "/cursos/BENCH"));
+        });
+        when(jobRepository.save(any(FanOutJob.class))).thenAnswer(invocation -> {
+            roundTrip(0);
+            return invocation.getArgument(0);
+        });
+
+        UserCourseRepository userCourseRepository = mock(UserCourseRepository.class, withSettings().stubOnly());
+        when(userCourseRepository.countByCourse_IdAndUser_Role(COURSE_ID, Role.ESTUDIANTE))
+                .thenAnswer(invocation -> (long) roundTrip(students));
+        when(userCourseRepository.findUsersPage(eq(COURSE_ID), eq(Role.ESTUDIANTE), any(), any(Limit.class)))
+                .thenAnswer(invocation -> {
+                    roundTrip(0);
+                    String afterCi = invocation.getArgument(2);
+                    Limit limit = invocation.getArgument(3);
+                    return recipients.stream()
+                            .filter(u -> afterCi == null || u.getCi().compareTo(afterCi) > 0)
+                            .limit(limit.max())
+                            .toList();
+                });
+
+        NotificationService notificationService = mock(NotificationService.class, withSettings().stubOnly());
+        when(notificationService.createNotifications(anyList(), anyString(), anyString()))
+                .thenAnswer(invocation -> roundTrip(invocation.<List<?>>getArgument(0).size()));
+        PushNotificationService pushNotificationService = mock(PushNotificationService.class, withSettings().stubOnly());
+        when(pushNotificationService.sendToUsers(any(), anyString(), anyString(), any()))
+                .thenAnswer(invocation -> new PushNotificationService.PushResult(
+                        roundTrip(invocation.<List<?>>getArgument(0).size()), 0));
+        EmailService emailService = mock(EmailService.class, withSettings().stubOnly());
+        when(emailService.sendEmails(anyList(), anyString(), anyString())).thenAnswer(invocation -> {
+            int size = invocation.<List<?>>getArgument(0).size();
+            LockSupport.parkNanos(ROUND_TRIP_NANOS * size);
+            return size;
+        });
+
+        fanOutWorker = new FanOutWorker(jobRepository, userCourseRepository, notificationService,
+                pushNotificationService, emailService);
+        // En la request el worker es asíncrono; acá solo se mide lo que queda en el hilo de la request
+        fanOutService = new FanOutService(jobRepository, mock(FanOutWorker.class, withSettings().stubOnly()), 15, 3);
+    }
+
+    // Antes: por estudiante, findById del usuario, save de la notificación, sendEach de FCM e insert en el outbox
+    @Benchmark
+    public int perStudentOnRequestThread() {
+        int sent = 0;
+        for (User ignored : recipients) {
+            LockSupport.parkNanos(4 * ROUND_TRIP_NANOS);
+            sent++;
+        }
+        return sent;
+    }
+
+    @Benchmark
+    public FanOutJob enqueueOnRequestThread() {
+        return fanOutService.enqueuePostPublished(COURSE_ID, post, "Nuevo anuncio", "/cursos/BENCH");
+    }
+
+    @Benchmark
+    public void fanOutInBackground() {
+        fanOutWorker.process(1L);
+    }
+
+    private static int roundTrip(int result) {
+        LockSupport.parkNanos(ROUND_TRIP_NANOS);
+        return result;
+    }
+}
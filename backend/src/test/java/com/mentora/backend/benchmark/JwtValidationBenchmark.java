@@ -0,0 +1,69 @@
+package com.mentora.backend.benchmark;
+
+import com.mentora.backend.model.Role;
+import com.mentora.backend.model.User;
+import com.mentora.backend.security.JwtService;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+// Costo por request de autenticar el bearer token: parseo y verificación HMAC completos frente al
+// camino cacheado de JwtService.parseAndValidate (lo que hace JwtAuthenticationFilter en cada request).
+// Se corre igual que QuizGradingBenchmark: org.openjdk.jmh.Main JwtValidationBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class JwtValidationBenchmark {
+
+    private static final String SECRET = "claveDeBenchmarkConAlMenosTreintaYDosCaracteres";
+
+    private JwtService jwtService;
+    private JwtParser parser;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JwtService(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(jwtService, "secretKey", SECRET);
+        ReflectionTestUtils.setField(jwtService, "jwtExpirationMs", 3_600_000L);
+        ReflectionTestUtils.setField(jwtService, "maxCacheEntries", 10_000);
+        jwtService.init();
+
+        token = jwtService.generateToken(new User("111", "Bench", "b@mentora.uy", "x", null, null, null, Role.ESTUDIANTE));
+        // Lo que se hacía antes en cada request: armar el parser y verificar la firma
+        parser = Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .build();
+        jwtService.parseAndValidate(token);
+    }
+
+    @Benchmark
+    public Object fullParse() {
+        return parser.parseClaimsJws(token).getBody();
+    }
+
+    @Benchmark
+    public Object cached() {
+        return jwtService.parseAndValidate(token);
+    }
+}
@@ -0,0 +1,78 @@
+package com.mentora.backend.benchmark;
+
+import com.mentora.backend.service.QuizAnswerKey;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// Corrección de una entrega con la clave precompilada frente a la versión anterior con Set<Long>.
+// mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+// java -cp target/test-classes:target/classes:$(cat target/cp.txt) org.openjdk.jmh.Main QuizGradingBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QuizGradingBenchmark {
+
+    @Param({"10", "100", "1000"})
+    int answers;
+
+    private QuizAnswerKey key;
+    private Set<Long> correctSet;
+    private List<Long> selected;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        long[] answerIds = new long[answers];
+        List<Long> correct = new ArrayList<>();
+        for (int i = 0; i < answers; i++) {
+            answerIds[i] = 1000 + i;
+            // Una de cada cuatro respuestas es correcta, como un quiz de opción múltiple típico
+            if (i % 4 == 0) {
+                correct.add(answerIds[i]);
+            }
+        }
+        key = new QuizAnswerKey(answerIds, correct.stream().mapToLong(Long::longValue).toArray());
+        correctSet = new HashSet<>(correct);
+
+        // El estudiante elige una respuesta por pregunta
+        selected = new ArrayList<>();
+        for (int i = 0; i < answers; i += 4) {
+            selected.add(answerIds[i + random.nextInt(Math.min(4, answers - i))]);
+        }
+    }
+
+    @Benchmark
+    public int answerKey() {
+        return key.grade(selected);
+    }
+
+    @Benchmark
+    public int hashSet() {
+        Set<Long> hit = new HashSet<>();
+        for (Long id : selected) {
+            if (correctSet.contains(id)) {
+                hit.add(id);
+            }
+        }
+        return (int) Math.round(100.0 * hit.size() / correctSet.size());
+    }
+}
@@ -0,0 +1,116 @@
+package com.mentora.backend.benchmark;
+
+import com.mentora.backend.service.BlobStore;
+import com.mentora.backend.service.FileStorageService;
+import com.mentora.backend.service.StoragePath;
+import com.mentora.backend.service.StoredBlobService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.Signature;
+import java.util.Base64;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+// Firmar la URL de un archivo con y sin la cache. La firma V4 de GCS es un RSA-SHA256 local con la clave de la
+// cuenta de servicio; acá se hace la misma operación con una clave de 2048 bits. Los listados piden las mismas
+// fotos y archivos una y otra vez, así que los paths se eligen al azar de un conjunto de 100 o 10000.
+// Con varios hilos se ve también la contención del mapa sincronizado
+// Se corre igual que QuizGradingBenchmark: org.openjdk.jmh.Main SignedUrlCacheBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SignedUrlCacheBenchmark {
+
+    @Param({"100", "10000"})
+    public int paths;
+
+    private String[] storagePaths;
+    private FileStorageService cached;
+    private FileStorageService uncached;
+
+    @Setup
+    public void setUp() throws GeneralSecurityException {
+        storagePaths = new String[paths];
+        for (int i = 0; i < paths; i++) {
+            storagePaths[i] = "gs://mentora-bench/archivos/" + i + ".pdf";
+        }
+
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        KeyPair keyPair = generator.generateKeyPair();
+
+        // stubOnly: los mocks no guardan las invocaciones, así no crece la memoria entre iteraciones
+        BlobStore blobStore = mock(BlobStore.class, withSettings().stubOnly());
+        when(blobStore.scheme()).thenReturn("gs");
+        when(blobStore.signedUrl(any(StoragePath.class), anyLong())).thenAnswer(invocation -> {
+            StoragePath path = invocation.getArgument(0);
+            return "https://storage.googleapis.com/" + path.bucket() + "/" + path.key()
+                    + "?X-Goog-Signature=" + sign(keyPair.getPrivate(), path.toString());
+        });
+
+        cached = service(blobStore, 10_000);
+        // Con capacidad 0 cada URL se descarta apenas se guarda: siempre se firma
+        uncached = service(blobStore, 0);
+        for (String path : storagePaths) {
+            cached.generateSignedUrl(path);
+        }
+    }
+
+    @Benchmark
+    public String withCache() {
+        return cached.generateSignedUrl(randomPath());
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String withCacheEightThreads() {
+        return cached.generateSignedUrl(randomPath());
+    }
+
+    @Benchmark
+    public String withoutCache() {
+        return uncached.generateSignedUrl(randomPath());
+    }
+
+    private String randomPath() {
+        return storagePaths[ThreadLocalRandom.current().nextInt(paths)];
+    }
+
+    private static FileStorageService service(BlobStore blobStore, int maxCacheEntries) {
+        return new FileStorageService(blobStore, mock(StoredBlobService.class, withSettings().stubOnly()),
+                new SimpleMeterRegistry(), maxCacheEntries, 10, 1, 30, 250, 15, "bench-secret", "http://localhost");
+    }
+
+    private static String sign(PrivateKey key, String payload) throws GeneralSecurityException {
+        Signature signature = Signature.getInstance("SHA256withRSA");
+        signature.initSign(key);
+        signature.update(payload.getBytes(StandardCharsets.UTF_8));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(signature.sign());
+    }
+}
@@ -0,0 +1,108 @@
+package com.mentora.backend.benchmark;
+
+import com.mentora.backend.repository.ActivityRepository;
+import com.mentora.backend.repository.PasswordResetTokenRepository;
+import com.mentora.backend.repository.UserRepository;
+import com.mentora.backend.responses.BulkCreateUsersResponse;
+import com.mentora.backend.service.EmailService;
+import com.mentora.backend.service.FileStorageService;
+import com.mentora.backend.service.UserService;
+import com.opencsv.CSVReader;
+import com.opencsv.CSVReaderBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+// Importar 100, 1000 y 10000 usuarios por CSV con un round trip simulado de 200 µs por consulta a la base.
+// Antes: existsByCi, existsByEmail y save por fila (tres round trips). Ahora: dos IN por bloque de 500 y el
+// insert en lotes de 100 (hibernate.jdbc.batch_size), un round trip por lote
+// Se corre igual que QuizGradingBenchmark: org.openjdk.jmh.Main UserCsvImportBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserCsvImportBenchmark {
+
+    private static final long ROUND_TRIP_NANOS = TimeUnit.MICROSECONDS.toNanos(200);
+    private static final int JDBC_BATCH_SIZE = 100;
+
+    @Param({"100", "1000", "10000"})
+    public int rows;
+
+    private byte[] csv;
+    private UserService userService;
+
+    @Setup
+    public void setUp() {
+        StringBuilder sb = new StringBuilder("ci,nombre,apellido,email,password,rol\n");
+        for (int i = 0; i < rows; i++) {
+            sb.append(1_000_000 + i).append(",Nombre,Apellido,u").append(i).append("@mentora.uy,Password1,estudiante\n");
+        }
+        csv = sb.toString().getBytes(StandardCharsets.UTF_8);
+
+        // stubOnly: los mocks no guardan las invocaciones, así no crece la memoria entre iteraciones
+        UserRepository userRepository = mock(UserRepository.class, withSettings().stubOnly());
+        when(userRepository.findExistingCis(anyCollection())).thenAnswer(invocation -> roundTrips(1, List.of()));
+        when(userRepository.findExistingEmails(anyCollection())).thenAnswer(invocation -> roundTrips(1, List.of()));
+        when(userRepository.saveAll(any())).thenAnswer(invocation -> {
+            Collection<?> users = invocation.getArgument(0);
+            return roundTrips((users.size() + JDBC_BATCH_SIZE - 1) / JDBC_BATCH_SIZE, users);
+        });
+
+        userService = new UserService(userRepository,
+                mock(PasswordEncoder.class, withSettings().stubOnly()),
+                mock(EmailService.class, withSettings().stubOnly()),
+                mock(PasswordResetTokenRepository.class, withSettings().stubOnly()),
+                mock(ActivityRepository.class, withSettings().stubOnly()),
+                mock(FileStorageService.class, withSettings().stubOnly()));
+    }
+
+    // Antes: readAll del archivo entero y tres round trips por fila
+    @Benchmark
+    public int perRow() throws Exception {
+        int created = 0;
+        try (CSVReader reader = new CSVReaderBuilder(
+                new InputStreamReader(new ByteArrayInputStream(csv), StandardCharsets.UTF_8)).withSkipLines(1).build()) {
+            for (String[] ignored : reader.readAll()) {
+                LockSupport.parkNanos(3 * ROUND_TRIP_NANOS);
+                created++;
+            }
+        }
+        return created;
+    }
+
+    @Benchmark
+    public BulkCreateUsersResponse chunked() throws Exception {
+        return userService.createUsersFromCsv(new ByteArrayInputStream(csv));
+    }
+
+    private static <T> T roundTrips(int n, T result) {
+        LockSupport.parkNanos(n * ROUND_TRIP_NANOS);
+        return result;
+    }
+}
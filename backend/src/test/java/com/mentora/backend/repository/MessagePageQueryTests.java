@@ -0,0 +1,170 @@
+package com.mentora.backend.repository;
+
+import com.mentora.backend.RepositoryTestSupport;
+import com.mentora.backend.dt.DtMessage;
+import com.mentora.backend.model.Chat;
+import com.mentora.backend.model.Message;
+import com.mentora.backend.model.Role;
+import com.mentora.backend.model.User;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Historial de chat por keyset sobre (dateSent, id): mensajes con la misma fecha no se pierden ni se repiten entre páginas
+class MessagePageQueryTests extends RepositoryTestSupport {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 3, 1, 10, 0);
+    private static final int PAGE_SIZE = 2;
+    private static final int HISTORY = 5000;
+
+    @Autowired UserRepository userRepository;
+    @Autowired ChatRepository chatRepository;
+    @Autowired MessageRepository messageRepository;
+    @Autowired JdbcTemplate jdbcTemplate;
+    @Autowired EntityManager entityManager;
+
+    private User ana;
+    private User beto;
+    private Chat chat;
+    // Ids en orden cronológico (dateSent, id)
+    private final List<Long> chronological = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        ana = userRepository.save(user("1111111", "Ana"));
+        beto = userRepository.save(user("2222222", "Beto"));
+        chat = chatRepository.save(new Chat(ana, beto));
+        Chat otherChat = chatRepository.save(new Chat(beto, ana));
+
+        // Tres mensajes en el mismo instante, y uno anterior guardado después (su id es mayor pero va primero)
+        Message tieA = messageRepository.save(new Message(chat, ana, "a", BASE));
+        Message tieB = messageRepository.save(new Message(chat, beto, "b", BASE));
+        Message tieC = messageRepository.save(new Message(chat, ana, "c", BASE));
+        Message later = messageRepository.save(new Message(chat, beto, "d", BASE.plusSeconds(1)));
+        Message earlier = messageRepository.save(new Message(chat, ana, "e", BASE.minusSeconds(1)));
+        messageRepository.save(new Message(otherChat, ana, "otro chat", BASE));
+        chronological.addAll(List.of(earlier.getId(), tieA.getId(), tieB.getId(), tieC.getId(), later.getId()));
+
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void forwardPagesKeepTiesInIdOrder() {
+        List<Long> ids = new ArrayList<>();
+        LocalDateTime afterDate = null;
+        Long afterId = null;
+        List<DtMessage> page;
+        do {
+            page = messageRepository.findPageAfter(chat.getId(), afterDate, afterId, Limit.of(PAGE_SIZE));
+            for (DtMessage m : page) {
+                ids.add(m.getId());
+                afterDate = m.getDateSent();
+                afterId = m.getId();
+            }
+        } while (page.size() == PAGE_SIZE);
+
+        assertEquals(chronological, ids);
+    }
+
+    @Test
+    void backwardPagesKeepTiesInIdOrder() {
+        List<Long> ids = new ArrayList<>();
+        LocalDateTime beforeDate = null;
+        Long beforeId = null;
+        List<DtMessage> page;
+        do {
+            page = messageRepository.findPageBefore(chat.getId(), beforeDate, beforeId, Limit.of(PAGE_SIZE));
+            for (DtMessage m : page) {
+                ids.add(m.getId());
+                beforeDate = m.getDateSent();
+                beforeId = m.getId();
+            }
+        } while (page.size() == PAGE_SIZE);
+
+        assertEquals(chronological.reversed(), ids);
+    }
+
+    @Test
+    void cursorInsideATieReturnsTheRestOfTheTie() {
+        Long tieB = chronological.get(2);
+
+        assertEquals(List.of(chronological.get(3), chronological.get(4)),
+                ids(messageRepository.findPageAfter(chat.getId(), BASE, tieB, Limit.of(10))));
+        assertEquals(List.of(chronological.get(1), chronological.get(0)),
+                ids(messageRepository.findPageBefore(chat.getId(), BASE, tieB, Limit.of(10))));
+    }
+
+    @Test
+    void cursorDateIsScopedToTheChat() {
+        assertEquals(BASE, messageRepository.findDateSentInChat(chat.getId(), chronological.get(1)).orElseThrow());
+        assertTrue(messageRepository.findDateSentInChat(chat.getId() + 1, chronological.get(1)).isEmpty());
+    }
+
+    @Test
+    void sinceIsStrictlyAfterTheDate() {
+        assertEquals(List.of(chronological.get(4)),
+                ids(messageRepository.findSince(chat.getId(), BASE, Limit.of(10))));
+    }
+
+    // En lugar de la prueba de carga con 5.000 clientes: un poll sin mensajes nuevos sobre un historial de 5.000
+    // lee un puñado de filas del índice (chatId, dateSent, id), así que el costo por poll no crece con el historial
+    @Test
+    void pollingWithoutNewMessagesDoesNotScanHistory() {
+        Chat busy = chatRepository.save(new Chat(ana, beto));
+        entityManager.flush();
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO message (chat_id, send_by_user_id, message, date_sent) VALUES (?, ?, ?, ?)",
+                IntStream.range(0, HISTORY).mapToObj(i -> new Object[]{
+                        busy.getId(), ana.getCi(), "m" + i, Timestamp.valueOf(BASE.plusSeconds(i))}).toList());
+        Long lastId = messageRepository.findLastMessageId(busy.getId());
+        LocalDateTime lastDate = BASE.plusSeconds(HISTORY - 1);
+
+        long reads = handlerReads(() -> {
+            messageRepository.findDateSentInChat(busy.getId(), lastId);
+            assertEquals(List.of(), messageRepository.findPageAfter(busy.getId(), lastDate, lastId, Limit.of(50)));
+            assertEquals(List.of(), messageRepository.findSince(busy.getId(), lastDate, Limit.of(50)));
+        });
+        assertTrue(reads < 20, "filas leídas: " + reads);
+
+        // Una página hacia atrás lee la página y poco más
+        long pageReads = handlerReads(() ->
+                assertEquals(50, messageRepository.findPageBefore(busy.getId(), null, null, Limit.of(50)).size()));
+        assertTrue(pageReads < 50 + 20, "filas leídas: " + pageReads);
+    }
+
+    // Filas que leyó MySQL en esta sesión durante la acción, descontando lo que suma el propio SHOW STATUS
+    private long handlerReads(Runnable action) {
+        long first = handlerReadCounter();
+        long overhead = handlerReadCounter() - first;
+        long before = handlerReadCounter();
+        action.run();
+        return handlerReadCounter() - before - overhead;
+    }
+
+    private long handlerReadCounter() {
+        return jdbcTemplate.queryForList("SHOW SESSION STATUS LIKE 'Handler_read%'").stream()
+                .mapToLong(row -> Long.parseLong(row.get("Value").toString()))
+                .sum();
+    }
+
+    private static List<Long> ids(List<DtMessage> page) {
+        return page.stream().map(DtMessage::getId).toList();
+    }
+
+    private static User user(String ci, String name) {
+        return new User(ci, name, ci + "@mentora.test", "x", null, null, null, Role.ESTUDIANTE);
+    }
+}
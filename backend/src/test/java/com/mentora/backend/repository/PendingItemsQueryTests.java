@@ -0,0 +1,164 @@
+package com.mentora.backend.repository;
+
+import com.mentora.backend.RepositoryTestSupport;
+import com.mentora.backend.dt.DtEvaluation;
+import com.mentora.backend.dt.DtQuiz;
+import com.mentora.backend.model.Course;
+import com.mentora.backend.model.Evaluation;
+import com.mentora.backend.model.EvaluationSubmission;
+import com.mentora.backend.model.Quiz;
+import com.mentora.backend.model.QuizSubmission;
+import com.mentora.backend.model.Role;
+import com.mentora.backend.model.User;
+import com.mentora.backend.model.UserCourse;
+import com.mentora.backend.responses.GetPendingItemsResponse;
+import com.mentora.backend.service.FileStorageService;
+import com.mentora.backend.service.PendingItemsService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Anti-joins de pendientes: solo cursos del usuario, vigentes y sin entrega del propio usuario
+class PendingItemsQueryTests extends RepositoryTestSupport {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 3, 1, 10, 0);
+
+    @Autowired UserRepository userRepository;
+    @Autowired CourseRepository courseRepository;
+    @Autowired UserCourseRepository userCourseRepository;
+    @Autowired EvaluationRepository evaluationRepository;
+    @Autowired EvaluationSubmissionRepository evaluationSubmissionRepository;
+    @Autowired QuizRepository quizRepository;
+    @Autowired QuizSubmissionRepository quizSubmissionRepository;
+    @Autowired EntityManager entityManager;
+    @Autowired EntityManagerFactory entityManagerFactory;
+
+    private User student;
+    private User classmate;
+    private Course course;
+    private Course otherCourse;
+    private final List<Long> expectedEvaluations = new ArrayList<>();
+    private final List<Long> expectedQuizzes = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        student = userRepository.save(user("1111111", "Ana"));
+        classmate = userRepository.save(user("2222222", "Bruno"));
+        course = courseRepository.save(new Course("PEND1", "Curso del alumno", BASE));
+        otherCourse = courseRepository.save(new Course("PEND2", "Curso ajeno", BASE));
+        userCourseRepository.save(new UserCourse(course, student, null));
+        userCourseRepository.save(new UserCourse(course, classmate, null));
+        userCourseRepository.save(new UserCourse(otherCourse, classmate, null));
+
+        LocalDateTime future = BASE.plusYears(50);
+
+        // Pendientes: misma fecha de creación para verificar el desempate por id, sin vencimiento,
+        // y una que solo entregó un compañero
+        Evaluation sameDateA = evaluation("Misma fecha A", course, BASE, future);
+        Evaluation sameDateB = evaluation("Misma fecha B", course, BASE, future);
+        Evaluation noDueDate = evaluation("Sin vencimiento", course, BASE.plusHours(1), null);
+        Evaluation classmateOnly = evaluation("Entregó el compañero", course, BASE.plusHours(2), future);
+        expectedEvaluations.addAll(List.of(sameDateA.getId(), sameDateB.getId(), noDueDate.getId(), classmateOnly.getId()));
+        // Excluidas: vencida, ya entregada por el alumno, de un curso en el que no está
+        evaluation("Vencida", course, BASE.minusDays(10), BASE.minusDays(1));
+        Evaluation submitted = evaluation("Entregada", course, BASE, future);
+        evaluation("Otro curso", otherCourse, BASE, future);
+        evaluationSubmissionRepository.save(new EvaluationSubmission("respuesta", null, null, null, submitted, student));
+        evaluationSubmissionRepository.save(new EvaluationSubmission("respuesta", null, null, null, classmateOnly, classmate));
+        evaluationSubmissionRepository.save(new EvaluationSubmission("respuesta", null, null, null, submitted, classmate));
+
+        Quiz quizSameDateA = quiz("Quiz misma fecha A", course, BASE, future);
+        Quiz quizSameDateB = quiz("Quiz misma fecha B", course, BASE, future);
+        Quiz quizNoDueDate = quiz("Quiz sin vencimiento", course, BASE.plusHours(1), null);
+        Quiz quizClassmateOnly = quiz("Quiz del compañero", course, BASE.plusHours(2), future);
+        expectedQuizzes.addAll(List.of(quizSameDateA.getId(), quizSameDateB.getId(), quizNoDueDate.getId(), quizClassmateOnly.getId()));
+        quiz("Quiz vencido", course, BASE.minusDays(10), BASE.minusDays(1));
+        Quiz quizSubmitted = quiz("Quiz entregado", course, BASE, future);
+        quiz("Quiz otro curso", otherCourse, BASE, future);
+        quizSubmissionRepository.save(new QuizSubmission(null, 100, quizSubmitted, student));
+        quizSubmissionRepository.save(new QuizSubmission(null, 100, quizClassmateOnly, classmate));
+
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void evaluationsExcludeExpiredSubmittedAndForeignCourses() {
+        List<DtEvaluation> pending = evaluationRepository.findPendingForUser(student.getCi(), BASE);
+
+        assertEquals(expectedEvaluations, pending.stream().map(DtEvaluation::getId).toList());
+    }
+
+    @Test
+    void quizzesExcludeExpiredSubmittedAndForeignCourses() {
+        List<DtQuiz> pending = quizRepository.findPendingForUser(student.getCi(), BASE);
+
+        assertEquals(expectedQuizzes, pending.stream().map(DtQuiz::getId).toList());
+    }
+
+    @Test
+    void submissionOfAnotherUserDoesNotHideItem() {
+        // El compañero entregó "Entregada" y "Entregó el compañero"; para él solo quedan las demás del curso
+        // y la del otro curso, en el que sí está inscripto
+        List<DtEvaluation> pending = evaluationRepository.findPendingForUser(classmate.getCi(), BASE);
+
+        assertEquals(List.of("Misma fecha A", "Misma fecha B", "Otro curso", "Sin vencimiento"),
+                pending.stream().map(DtEvaluation::getTitle).sorted().toList());
+    }
+
+    @Test
+    void pendingItemsUseFixedNumberOfQueriesRegardlessOfCourses() {
+        // Veinte cursos más con una evaluación y un quiz cada uno: la cantidad de consultas no crece
+        for (int i = 0; i < 20; i++) {
+            Course extra = courseRepository.save(new Course("PENDX" + i, "Extra " + i, BASE));
+            userCourseRepository.save(new UserCourse(extra, student, null));
+            evaluation("Extra " + i, extra, BASE.plusDays(1), null);
+            quiz("Quiz extra " + i, extra, BASE.plusDays(1), null);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        FileStorageService fileStorageService = mock(FileStorageService.class);
+        when(fileStorageService.generateSignedUrl(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        PendingItemsService pendingItemsService = new PendingItemsService(
+                evaluationRepository, quizRepository, userRepository, fileStorageService, 0);
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        GetPendingItemsResponse response = pendingItemsService.getPendingItems(student.getCi());
+
+        assertEquals(expectedEvaluations.size() + 20, response.getEvaluations().size());
+        assertEquals(expectedQuizzes.size() + 20, response.getQuizzes().size());
+        // existsById del usuario + un anti-join por tipo
+        assertEquals(3, statistics.getPrepareStatementCount());
+    }
+
+    private Evaluation evaluation(String title, Course course, LocalDateTime createdDate, LocalDateTime dueDate) {
+        Evaluation evaluation = new Evaluation(title, course, null, null, "consigna", dueDate);
+        evaluation.setCreatedDate(createdDate);
+        return evaluationRepository.save(evaluation);
+    }
+
+    private Quiz quiz(String title, Course course, LocalDateTime createdDate, LocalDateTime dueDate) {
+        Quiz quiz = new Quiz(title, dueDate, course, new ArrayList<>());
+        quiz.setCreatedDate(createdDate);
+        return quizRepository.save(quiz);
+    }
+
+    private static User user(String ci, String name) {
+        return new User(ci, name, ci + "@mentora.test", "x", null, null, null, Role.ESTUDIANTE);
+    }
+}
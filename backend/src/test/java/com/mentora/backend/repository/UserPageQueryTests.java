@@ -0,0 +1,86 @@
+package com.mentora.backend.repository;
+
+import com.mentora.backend.RepositoryTestSupport;
+import com.mentora.backend.model.Role;
+import com.mentora.backend.model.User;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Listado de usuarios por keyset sobre (nameLower, ci): nombres que solo difieren en mayúsculas empatan y desempata la CI
+class UserPageQueryTests extends RepositoryTestSupport {
+
+    private static final int PAGE_SIZE = 2;
+
+    // Orden esperado por (lower(name), ci)
+    private static final List<String> ASC = List.of(
+            "6000002", "6000005", "6000006", "6000001", "6000004", "6000003", "6000000");
+    private static final List<String> STUDENTS_ASC = List.of(
+            "6000002", "6000005", "6000006", "6000004", "6000000");
+
+    @Autowired UserRepository userRepository;
+    @Autowired EntityManager entityManager;
+
+    @BeforeEach
+    void setUp() {
+        userRepository.saveAll(List.of(
+                user("6000005", "alfa", Role.ESTUDIANTE),
+                user("6000002", "ALFA", Role.ESTUDIANTE),
+                user("6000006", "Alfa", Role.ESTUDIANTE),
+                user("6000001", "Beta", Role.PROFESOR),
+                user("6000004", "beta", Role.ESTUDIANTE),
+                user("6000003", "Delta", Role.ADMIN),
+                user("6000000", "gamma", Role.ESTUDIANTE)));
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void ascendingPagesFollowNameLowerThenCi() {
+        assertEquals(ASC, walk(true, null));
+        assertEquals(STUDENTS_ASC, walk(true, Role.ESTUDIANTE));
+    }
+
+    @Test
+    void descendingPagesAreTheReverseOrder() {
+        assertEquals(ASC.reversed(), walk(false, null));
+        assertEquals(STUDENTS_ASC.reversed(), walk(false, Role.ESTUDIANTE));
+    }
+
+    @Test
+    void nameLowerIsGeneratedFromName() {
+        User user = userRepository.findById("6000002").orElseThrow();
+
+        assertEquals("alfa", user.getNameLower());
+    }
+
+    // Recorre todas las páginas usando como cursor el (nameLower, ci) del último usuario de cada una
+    private List<String> walk(boolean ascending, Role role) {
+        List<String> cis = new ArrayList<>();
+        String afterName = null;
+        String afterCi = null;
+        List<User> page;
+        do {
+            page = ascending
+                    ? userRepository.findPageByNameAsc(role, afterName, afterCi, Limit.of(PAGE_SIZE))
+                    : userRepository.findPageByNameDesc(role, afterName, afterCi, Limit.of(PAGE_SIZE));
+            for (User user : page) {
+                cis.add(user.getCi());
+                afterName = user.getNameLower();
+                afterCi = user.getCi();
+            }
+        } while (page.size() == PAGE_SIZE);
+        return cis;
+    }
+
+    private static User user(String ci, String name, Role role) {
+        return new User(ci, name, ci + "@mentora.test", "x", null, null, null, role);
+    }
+}
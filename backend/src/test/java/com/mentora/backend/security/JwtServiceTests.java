@@ -0,0 +1,137 @@
+package com.mentora.backend.security;
+
+import com.mentora.backend.model.Role;
+import com.mentora.backend.model.User;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JwtServiceTests {
+
+    private static final String SECRET = "claveDePruebaConAlMenosTreintaYDosCaracteres";
+
+    private SimpleMeterRegistry meterRegistry;
+    private JwtService jwtService;
+
+    @BeforeEach
+    void setUp() {
+        jwtService = newService(3_600_000, 100);
+    }
+
+    private JwtService newService(long expirationMs, int maxCacheEntries) {
+        meterRegistry = new SimpleMeterRegistry();
+        JwtService service = new JwtService(meterRegistry);
+        ReflectionTestUtils.setField(service, "secretKey", SECRET);
+        ReflectionTestUtils.setField(service, "jwtExpirationMs", expirationMs);
+        ReflectionTestUtils.setField(service, "maxCacheEntries", maxCacheEntries);
+        service.init();
+        return service;
+    }
+
+    private static User user(String ci) {
+        return new User(ci, "Usuario " + ci, ci + "@mentora.uy", "x", null, null, null, Role.ESTUDIANTE);
+    }
+
+    private double validation(String result) {
+        return meterRegistry.counter("jwt.validation", "result", result).count();
+    }
+
+    private double cacheHits() {
+        return meterRegistry.counter("jwt.claims.cache", "result", "hit").count();
+    }
+
+    private double cacheSize() {
+        return meterRegistry.get("jwt.claims.cache.size").gauge().value();
+    }
+
+    @Test
+    void secondValidationOfSameTokenIsCacheHit() {
+        String token = jwtService.generateToken(user("111"));
+
+        Optional<Claims> first = jwtService.parseAndValidate(token);
+        Optional<Claims> second = jwtService.parseAndValidate(token);
+
+        assertTrue(first.isPresent());
+        assertEquals("111", second.orElseThrow().getSubject());
+        assertEquals(1, cacheHits());
+        assertEquals(2, validation("valid"));
+        assertEquals(1, cacheSize());
+    }
+
+    @Test
+    void cachedEntryExpiresWithToken() throws InterruptedException {
+        jwtService = newService(2_000, 100);
+        String token = jwtService.generateToken(user("111"));
+
+        Claims claims = jwtService.parseAndValidate(token).orElseThrow();
+        long waitMillis = claims.getExpiration().getTime() - System.currentTimeMillis() + 100;
+        Thread.sleep(Math.max(0, waitMillis));
+
+        assertFalse(jwtService.parseAndValidate(token).isPresent());
+        assertEquals(1, validation("valid"));
+        assertEquals(1, validation("expired"));
+        assertEquals(0, cacheHits());
+        assertEquals(0, cacheSize());
+    }
+
+    @Test
+    void rejectsTokenSignedWithAnotherKey() {
+        String forged = Jwts.builder()
+                .setSubject("111")
+                .setExpiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor("otraClaveDistintaConAlMenosTreintaYDosChars".getBytes(StandardCharsets.UTF_8)),
+                        SignatureAlgorithm.HS256)
+                .compact();
+
+        assertFalse(jwtService.parseAndValidate(forged).isPresent());
+        // El rechazo no se cachea: un segundo intento vuelve a verificar y vuelve a fallar
+        assertFalse(jwtService.parseAndValidate(forged).isPresent());
+        assertEquals(2, validation("invalid"));
+        assertEquals(0, validation("valid"));
+        assertEquals(0, cacheSize());
+    }
+
+    @Test
+    void rejectsTamperedPayload() {
+        String token = jwtService.generateToken(user("111"));
+        String[] parts = token.split("\\.");
+        String otherPayload = jwtService.generateToken(user("222")).split("\\.")[1];
+
+        assertFalse(jwtService.parseAndValidate(parts[0] + "." + otherPayload + "." + parts[2]).isPresent());
+        assertEquals(1, validation("invalid"));
+    }
+
+    @Test
+    void countsEachResultUnderItsTag() {
+        jwtService.parseAndValidate(jwtService.generateToken(user("111")));
+        jwtService.parseAndValidate("");
+        jwtService.parseAndValidate(null);
+        jwtService.parseAndValidate("no-es-un-jwt");
+
+        assertEquals(1, validation("valid"));
+        assertEquals(3, validation("invalid"));
+        assertEquals(0, validation("expired"));
+    }
+
+    @Test
+    void cacheIsBoundedByMaxEntries() {
+        jwtService = newService(3_600_000, 2);
+        for (String ci : new String[] {"1", "2", "3"}) {
+            jwtService.parseAndValidate(jwtService.generateToken(user(ci)));
+        }
+        assertEquals(2, cacheSize());
+    }
+}
@@ -0,0 +1,110 @@
+package com.mentora.backend.service;
+
+import com.mentora.backend.model.ChatOutboxEvent;
+import com.mentora.backend.model.ChatOutboxStatus;
+import com.mentora.backend.repository.ChatOutboxRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ChatOutboxRelayTests {
+
+    private static final long COALESCE_MINUTES = 15;
+
+    private ChatOutboxRepository chatOutboxRepository;
+    private NotificationService notificationService;
+    private EmailService emailService;
+    private ChatOutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        chatOutboxRepository = mock(ChatOutboxRepository.class);
+        notificationService = mock(NotificationService.class);
+        emailService = mock(EmailService.class);
+        relay = new ChatOutboxRelay(chatOutboxRepository, notificationService, emailService,
+                new SimpleMeterRegistry(), 100, 5, 10, 5, COALESCE_MINUTES, 7);
+    }
+
+    private void givenClaimed(List<ChatOutboxEvent> events) {
+        when(chatOutboxRepository.findByStatusAndNextAttemptAtLessThanEqualOrderByCreatedDateAsc(
+                eq(ChatOutboxStatus.PENDING), any(LocalDateTime.class), any(Limit.class))).thenReturn(events);
+        when(chatOutboxRepository.claim(anyCollection(), any(LocalDateTime.class), anyString())).thenReturn(events.size());
+        when(chatOutboxRepository.findByClaimTokenAndStatusOrderByCreatedDateAsc(anyString(), eq(ChatOutboxStatus.PROCESSING)))
+                .thenReturn(events);
+    }
+
+    @Test
+    void coalescesEmailsForSameChatWithinWindow() {
+        ChatOutboxEvent first = new ChatOutboxEvent(1L, 7L, "Ana", "222", "b@mentora.uy", "hola");
+        ChatOutboxEvent second = new ChatOutboxEvent(2L, 7L, "Ana", "222", "b@mentora.uy", "¿estás?");
+        givenClaimed(List.of(first, second));
+        // El primero no tiene mail previo; el segundo ve el que se acaba de mandar
+        when(chatOutboxRepository.findLastEmailSentAt(7L, "222")).thenReturn(null, LocalDateTime.now());
+
+        relay.poll();
+
+        verify(notificationService, times(2)).createNotification(eq("222"), anyString(), eq("/chats/7"));
+        verify(emailService, times(1)).sendEmailAsync("b@mentora.uy", "Nuevo mensaje de Ana", "hola");
+        assertNotNull(first.getEmailSentAt());
+        assertNull(second.getEmailSentAt());
+        assertEquals(ChatOutboxStatus.DONE, first.getStatus());
+        assertEquals(ChatOutboxStatus.DONE, second.getStatus());
+    }
+
+    @Test
+    void sendsEmailAgainAfterWindow() {
+        ChatOutboxEvent event = new ChatOutboxEvent(3L, 7L, "Ana", "222", "b@mentora.uy", "volví");
+        givenClaimed(List.of(event));
+        when(chatOutboxRepository.findLastEmailSentAt(7L, "222"))
+                .thenReturn(LocalDateTime.now().minusMinutes(COALESCE_MINUTES + 1));
+
+        relay.poll();
+
+        verify(emailService).sendEmailAsync("b@mentora.uy", "Nuevo mensaje de Ana", "volví");
+        assertNotNull(event.getEmailSentAt());
+    }
+
+    @Test
+    void processesOnlyRowsClaimedWithItsOwnToken() {
+        ChatOutboxEvent event = new ChatOutboxEvent(4L, 8L, "Ana", "333", "c@mentora.uy", "hola");
+        givenClaimed(List.of(event));
+
+        relay.poll();
+
+        ArgumentCaptor<String> claimToken = ArgumentCaptor.forClass(String.class);
+        verify(chatOutboxRepository).claim(anyCollection(), any(LocalDateTime.class), claimToken.capture());
+        verify(chatOutboxRepository).findByClaimTokenAndStatusOrderByCreatedDateAsc(claimToken.getValue(), ChatOutboxStatus.PROCESSING);
+    }
+
+    @Test
+    void skipsWhenAnotherRelayClaimedEverything() {
+        ChatOutboxEvent event = new ChatOutboxEvent(5L, 9L, "Ana", "444", "d@mentora.uy", "hola");
+        givenClaimed(List.of(event));
+        when(chatOutboxRepository.claim(anyCollection(), any(LocalDateTime.class), anyString())).thenReturn(0);
+
+        relay.poll();
+
+        verify(chatOutboxRepository, never()).findByClaimTokenAndStatusOrderByCreatedDateAsc(anyString(), any());
+        verify(notificationService, never()).createNotification(anyString(), anyString(), anyString());
+        verify(chatOutboxRepository, never()).findLastEmailSentAt(anyLong(), anyString());
+    }
+}
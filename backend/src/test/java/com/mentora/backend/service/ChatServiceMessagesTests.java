@@ -0,0 +1,150 @@
+package com.mentora.backend.service;
+
+import com.mentora.backend.dt.DtMessage;
+import com.mentora.backend.model.Chat;
+import com.mentora.backend.model.Role;
+import com.mentora.backend.model.User;
+import com.mentora.backend.repository.ChatOutboxRepository;
+import com.mentora.backend.repository.ChatRepository;
+import com.mentora.backend.repository.MessageRepository;
+import com.mentora.backend.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+// Historial de un chat: qué consulta se usa para cada cursor, el orden de la página y los 400 de parámetros inválidos
+class ChatServiceMessagesTests {
+
+    private static final long CHAT_ID = 7L;
+    private static final LocalDateTime SENT = LocalDateTime.of(2025, 3, 1, 10, 0);
+
+    private MessageRepository messageRepository;
+    private ChatService chatService;
+
+    @BeforeEach
+    void setUp() {
+        ChatRepository chatRepository = mock(ChatRepository.class);
+        messageRepository = mock(MessageRepository.class);
+
+        User ana = new User("111", "Ana", "a@mentora.uy", "x", null, null, null, Role.ESTUDIANTE);
+        User beto = new User("222", "Beto", "b@mentora.uy", "x", null, null, null, Role.ESTUDIANTE);
+        Chat chat = new Chat(ana, beto);
+        chat.setId(CHAT_ID);
+        when(chatRepository.findById(CHAT_ID)).thenReturn(Optional.of(chat));
+        when(messageRepository.findDateSentInChat(CHAT_ID, 40L)).thenReturn(Optional.of(SENT));
+
+        chatService = new ChatService(chatRepository, messageRepository, mock(UserRepository.class),
+                mock(ChatOutboxRepository.class), mock(UserService.class), mock(RealtimeService.class));
+    }
+
+    @Test
+    void withoutParametersReturnsWholeHistory() {
+        List<DtMessage> all = List.of(message(1), message(2));
+        when(messageRepository.findPageAfter(CHAT_ID, null, null, Limit.unlimited())).thenReturn(all);
+
+        assertEquals(all, chatService.getMessages(CHAT_ID, "111", null, null, null, null));
+    }
+
+    @Test
+    void limitAloneReturnsLatestPageInChronologicalOrder() {
+        when(messageRepository.findPageBefore(CHAT_ID, null, null, Limit.of(2)))
+                .thenReturn(List.of(message(9), message(8)));
+
+        List<DtMessage> page = chatService.getMessages(CHAT_ID, "111", null, null, null, 2);
+
+        assertEquals(List.of(8L, 9L), ids(page));
+    }
+
+    @Test
+    void beforeResolvesCursorAndPagesBackwards() {
+        when(messageRepository.findPageBefore(CHAT_ID, SENT, 40L, Limit.of(50)))
+                .thenReturn(List.of(message(39), message(38), message(37)));
+
+        List<DtMessage> page = chatService.getMessages(CHAT_ID, "111", 40L, null, null, null);
+
+        assertEquals(List.of(37L, 38L, 39L), ids(page));
+    }
+
+    @Test
+    void afterResolvesCursorAndReturnsNewerMessages() {
+        when(messageRepository.findPageAfter(CHAT_ID, SENT, 40L, Limit.of(20)))
+                .thenReturn(List.of(message(41), message(42)));
+
+        List<DtMessage> page = chatService.getMessages(CHAT_ID, "111", null, 40L, null, 20);
+
+        assertEquals(List.of(41L, 42L), ids(page));
+    }
+
+    @Test
+    void sinceUsesDateWithoutCursorLookup() {
+        when(messageRepository.findSince(CHAT_ID, SENT, Limit.of(50))).thenReturn(List.of(message(41)));
+
+        List<DtMessage> page = chatService.getMessages(CHAT_ID, "111", null, null, SENT, null);
+
+        assertEquals(List.of(41L), ids(page));
+        verify(messageRepository).findSince(CHAT_ID, SENT, Limit.of(50));
+        verifyNoMoreInteractions(messageRepository);
+    }
+
+    @Test
+    void moreThanOneCursorIsBadRequest() {
+        assertBadRequest(40L, 40L, null, null, "Solo se puede indicar uno de before, after o since");
+        assertBadRequest(40L, null, SENT, null, "Solo se puede indicar uno de before, after o since");
+        assertBadRequest(null, 40L, SENT, null, "Solo se puede indicar uno de before, after o since");
+        assertBadRequest(40L, 40L, SENT, 10, "Solo se puede indicar uno de before, after o since");
+        verifyNoInteractions(messageRepository);
+    }
+
+    @Test
+    void limitOutOfRangeIsBadRequest() {
+        assertBadRequest(null, null, null, 0, "El límite debe estar entre 1 y 200");
+        assertBadRequest(40L, null, null, 201, "El límite debe estar entre 1 y 200");
+        verifyNoInteractions(messageRepository);
+    }
+
+    @Test
+    void cursorFromAnotherChatIsBadRequest() {
+        when(messageRepository.findDateSentInChat(CHAT_ID, 99L)).thenReturn(Optional.empty());
+
+        assertBadRequest(99L, null, null, null, "Cursor inválido");
+        assertBadRequest(null, 99L, null, null, "Cursor inválido");
+    }
+
+    @Test
+    void nonParticipantIsForbidden() {
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> chatService.getMessages(CHAT_ID, "333", null, null, null, null));
+
+        assertEquals(HttpStatus.FORBIDDEN, e.getStatusCode());
+        verifyNoInteractions(messageRepository);
+    }
+
+    private void assertBadRequest(Long before, Long after, LocalDateTime since, Integer limit, String reason) {
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> chatService.getMessages(CHAT_ID, "111", before, after, since, limit));
+        assertEquals(HttpStatus.BAD_REQUEST, e.getStatusCode());
+        assertEquals(reason, e.getReason());
+    }
+
+    private static DtMessage message(long id) {
+        return new DtMessage(id, "m" + id, SENT, CHAT_ID, "111");
+    }
+
+    private static List<Long> ids(List<DtMessage> page) {
+        return page.stream().map(DtMessage::getId).toList();
+    }
+}
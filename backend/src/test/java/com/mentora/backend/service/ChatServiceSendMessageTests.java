@@ -0,0 +1,98 @@
+package com.mentora.backend.service;
+
+import com.mentora.backend.dt.DtMessage;
+import com.mentora.backend.model.Chat;
+import com.mentora.backend.model.ChatOutboxEvent;
+import com.mentora.backend.model.Message;
+import com.mentora.backend.model.Role;
+import com.mentora.backend.model.User;
+import com.mentora.backend.repository.ChatOutboxRepository;
+import com.mentora.backend.repository.ChatRepository;
+import com.mentora.backend.repository.MessageRepository;
+import com.mentora.backend.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+// El envío de un mensaje solo escribe el mensaje y su evento de outbox; notificación, push y mail
+// quedan para ChatOutboxRelay y la publicación en tiempo real espera al commit
+class ChatServiceSendMessageTests {
+
+    private ChatRepository chatRepository;
+    private MessageRepository messageRepository;
+    private ChatOutboxRepository chatOutboxRepository;
+    private RealtimeService realtimeService;
+    private ChatService chatService;
+
+    @BeforeEach
+    void setUp() {
+        chatRepository = mock(ChatRepository.class);
+        messageRepository = mock(MessageRepository.class);
+        chatOutboxRepository = mock(ChatOutboxRepository.class);
+        realtimeService = mock(RealtimeService.class);
+        UserRepository userRepository = mock(UserRepository.class);
+
+        User sender = new User("111", "Ana", "a@mentora.uy", "x", null, null, null, Role.ESTUDIANTE);
+        User recipient = new User("222", "Beto", "b@mentora.uy", "x", null, null, null, Role.ESTUDIANTE);
+        Chat chat = new Chat(sender, recipient);
+        chat.setId(7L);
+        when(userRepository.findByCi("111")).thenReturn(Optional.of(sender));
+        when(userRepository.findByCi("222")).thenReturn(Optional.of(recipient));
+        when(chatRepository.findByParticipants(sender, recipient)).thenReturn(List.of(chat));
+
+        chatService = new ChatService(chatRepository, messageRepository, userRepository,
+                chatOutboxRepository, mock(UserService.class), realtimeService);
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    void writesOnlyMessageAndOutboxEvent() {
+        DtMessage sent = chatService.sendMessage("111", "222", "hola");
+
+        verify(messageRepository).save(any(Message.class));
+        ArgumentCaptor<ChatOutboxEvent> event = ArgumentCaptor.forClass(ChatOutboxEvent.class);
+        verify(chatOutboxRepository).save(event.capture());
+        verify(chatRepository, never()).save(any());
+        verifyNoMoreInteractions(messageRepository, chatOutboxRepository);
+
+        assertEquals(7L, event.getValue().getChatId());
+        assertEquals("222", event.getValue().getRecipientCi());
+        assertEquals("b@mentora.uy", event.getValue().getRecipientEmail());
+        assertEquals("hola", event.getValue().getMessageText());
+        assertEquals("hola", sent.getMessage());
+    }
+
+    @Test
+    void publishesOnlyAfterCommit() {
+        chatService.sendMessage("111", "222", "hola");
+        verify(realtimeService, never()).sendToUser(anyString(), anyString(), any());
+
+        for (TransactionSynchronization sync : TransactionSynchronizationManager.getSynchronizations()) {
+            sync.afterCommit();
+        }
+        verify(realtimeService, times(1)).sendToUser(eq("222"), eq(RealtimeService.MESSAGES_QUEUE), any());
+        verify(realtimeService, times(1)).sendToUser(eq("111"), eq(RealtimeService.MESSAGES_QUEUE), any());
+    }
+}
@@ -0,0 +1,141 @@
+package com.mentora.backend.service;
+
+import com.mentora.backend.RepositoryTestSupport;
+import com.mentora.backend.dt.DtCourseContent;
+import com.mentora.backend.model.Course;
+import com.mentora.backend.model.Evaluation;
+import com.mentora.backend.model.Quiz;
+import com.mentora.backend.model.SimpleContent;
+import com.mentora.backend.repository.CourseRepository;
+import com.mentora.backend.repository.EvaluationRepository;
+import com.mentora.backend.repository.ForumRepository;
+import com.mentora.backend.repository.QuizRepository;
+import com.mentora.backend.repository.SimpleContentRepository;
+import com.mentora.backend.repository.UserRepository;
+import com.mentora.backend.responses.GetCourseResponse;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+// Paginado de la línea de tiempo con contenidos de los tres tipos que comparten fecha y, por venir
+// de tablas distintas, también ids
+class CourseTimelineTests extends RepositoryTestSupport {
+
+    private static final String COURSE_ID = "TL1";
+    private static final int PAGE_SIZE = 4;
+    // Curso + una consulta por tipo + foros
+    private static final long QUERIES_PER_PAGE = 5;
+
+    @Autowired CourseRepository courseRepository;
+    @Autowired SimpleContentRepository simpleContentRepository;
+    @Autowired EvaluationRepository evaluationRepository;
+    @Autowired QuizRepository quizRepository;
+    @Autowired ForumRepository forumRepository;
+    @Autowired EntityManager entityManager;
+    @Autowired EntityManagerFactory entityManagerFactory;
+
+    private CourseService courseService;
+    private final List<String> expectedOrder = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        Course course = courseRepository.save(new Course(COURSE_ID, "Línea de tiempo", LocalDateTime.now()));
+
+        // Tres fechas, tres contenidos de cada tipo por fecha
+        record Item(LocalDateTime date, String type, long id) {}
+        List<Item> items = new ArrayList<>();
+        LocalDateTime base = LocalDateTime.of(2025, 3, 1, 10, 0);
+        for (int d = 0; d < 3; d++) {
+            LocalDateTime date = base.plusHours(d);
+            for (int i = 0; i < 3; i++) {
+                SimpleContent sc = new SimpleContent("Material " + d + i, course, null, null, "texto");
+                sc.setCreatedDate(date);
+                items.add(new Item(date, "simpleContent", simpleContentRepository.save(sc).getId()));
+
+                Evaluation ev = new Evaluation("Evaluación " + d + i, course, null, null, "consigna", date.plusDays(30));
+                ev.setCreatedDate(date);
+                items.add(new Item(date, "evaluation", evaluationRepository.save(ev).getId()));
+
+                Quiz quiz = new Quiz("Quiz " + d + i, date.plusDays(30), course, new ArrayList<>());
+                quiz.setCreatedDate(date);
+                items.add(new Item(date, "quiz", quizRepository.save(quiz).getId()));
+            }
+        }
+        items.sort(Comparator.comparing(Item::date).thenComparing(Item::type).thenComparing(Item::id));
+        items.forEach(item -> expectedOrder.add(item.type() + ":" + item.id()));
+
+        entityManager.flush();
+        entityManager.clear();
+
+        courseService = new CourseService(courseRepository, mock(UserCourseService.class), simpleContentRepository,
+                mock(FileStorageService.class), forumRepository, quizRepository, evaluationRepository,
+                mock(EvaluationService.class), mock(QuizService.class), mock(UserRepository.class),
+                mock(PendingItemsService.class), mock(GradebookService.class));
+    }
+
+    @Test
+    void pagesWithoutDuplicatesOrGapsAndConstantQueries() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        List<String> seen = new ArrayList<>();
+        Set<String> unique = new HashSet<>();
+        String cursor = null;
+        int pages = 0;
+
+        do {
+            // Cada página como un request nuevo: sin entidades en el contexto de persistencia
+            entityManager.clear();
+            statistics.clear();
+
+            GetCourseResponse page = courseService.getCourseAndContents(COURSE_ID, cursor, PAGE_SIZE);
+            assertEquals(QUERIES_PER_PAGE, statistics.getPrepareStatementCount(), "consultas en la página " + pages);
+            assertTrue(page.getContents().size() <= PAGE_SIZE);
+
+            for (Object content : page.getContents()) {
+                DtCourseContent item = (DtCourseContent) content;
+                String key = item.getType() + ":" + item.getId();
+                assertTrue(unique.add(key), "repetido: " + key);
+                seen.add(key);
+            }
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(expectedOrder, seen);
+        assertEquals((expectedOrder.size() + PAGE_SIZE - 1) / PAGE_SIZE, pages);
+    }
+
+    @Test
+    void cursorIncludesType() {
+        GetCourseResponse first = courseService.getCourseAndContents(COURSE_ID, null, PAGE_SIZE);
+        String[] parts = first.getNextCursor().split(",");
+        assertEquals(3, parts.length);
+        DtCourseContent last = (DtCourseContent) first.getContents().get(PAGE_SIZE - 1);
+        assertEquals(last.getType(), parts[1]);
+        assertEquals(String.valueOf(last.getId()), parts[2]);
+    }
+
+    @Test
+    void withoutLimitReturnsEverythingInOrder() {
+        GetCourseResponse all = courseService.getCourseAndContents(COURSE_ID, null, null);
+        assertEquals(expectedOrder, all.getContents().stream()
+                .map(c -> ((DtCourseContent) c).getType() + ":" + ((DtCourseContent) c).getId())
+                .toList());
+        assertNull(all.getNextCursor());
+    }
+}
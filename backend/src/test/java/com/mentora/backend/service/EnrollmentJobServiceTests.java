@@ -0,0 +1,139 @@
+package com.mentora.backend.service;
+
+import com.mentora.backend.dt.DtEnrollmentJob;
+import com.mentora.backend.model.EnrollmentJob;
+import com.mentora.backend.model.EnrollmentJobStatus;
+import com.mentora.backend.repository.CourseRepository;
+import com.mentora.backend.repository.EnrollmentJobRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Ciclo de vida del job persistido: toma con claim, avance por lote, reanudación y pérdida del job ante otro worker
+class EnrollmentJobServiceTests {
+
+    private static final String COURSE_ID = "C1";
+
+    private UserCourseService userCourseService;
+    private EnrollmentJobRepository repository;
+    private EnrollmentJobService service;
+    private EnrollmentJob lastSaved;
+
+    @BeforeEach
+    void setUp() {
+        userCourseService = mock(UserCourseService.class);
+        repository = mock(EnrollmentJobRepository.class);
+        CourseRepository courseRepository = mock(CourseRepository.class);
+        when(courseRepository.existsById(COURSE_ID)).thenReturn(true);
+        when(repository.save(any(EnrollmentJob.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        // El executor corre el job en el mismo hilo
+        service = new EnrollmentJobService(userCourseService, courseRepository, repository, Runnable::run, 60, 15);
+    }
+
+    @Test
+    void submitRunsJobAndSavesProgressPerChunk() {
+        when(repository.claim(anyString(), any())).thenReturn(1);
+        when(repository.findById(anyString())).thenAnswer(invocation -> Optional.ofNullable(lastSaved));
+        doAnswer(invocation -> {
+            Consumer<List<UserCourseService.Enrollment>> onChunk = invocation.getArgument(2);
+            onChunk.accept(List.of(
+                    enrollment("1", UserCourseService.EnrollmentStatus.ENROLLED),
+                    enrollment("2", UserCourseService.EnrollmentStatus.ALREADY_ENROLLED)));
+            onChunk.accept(List.of(enrollment("3", UserCourseService.EnrollmentStatus.NOT_FOUND)));
+            return null;
+        }).when(userCourseService).enrollInChunks(eq(COURSE_ID), eq(List.of("1", "2", "3")), any());
+        captureSaves();
+
+        DtEnrollmentJob submitted = service.submit(COURSE_ID, new String[]{"1", " ", "2", null, "3"});
+
+        assertEquals(3, submitted.getTotal());
+        EnrollmentJob job = lastSaved;
+        assertEquals(EnrollmentJobStatus.COMPLETED, job.getStatus());
+        assertEquals(3, job.getProcessed());
+        assertEquals(1, job.getEnrolled());
+        assertEquals(List.of("2"), job.getAlreadyEnrolled());
+        assertEquals(List.of("3"), job.getNotFound());
+        assertNull(job.getLastError());
+    }
+
+    @Test
+    void resumeContinuesFromRecordedProgress() {
+        EnrollmentJob job = new EnrollmentJob(COURSE_ID, List.of("1", "2", "3", "4", "5"));
+        job.record(2, 1, List.of("2"), List.of(), LocalDateTime.now().minusHours(1));
+        job.setStatus(EnrollmentJobStatus.RUNNING);
+        when(repository.reclaim(eq(job.getId()), any(), any())).thenReturn(1);
+        when(repository.findById(job.getId())).thenReturn(Optional.of(job));
+        doAnswer(invocation -> {
+            Consumer<List<UserCourseService.Enrollment>> onChunk = invocation.getArgument(2);
+            onChunk.accept(List.of(
+                    enrollment("3", UserCourseService.EnrollmentStatus.ENROLLED),
+                    enrollment("4", UserCourseService.EnrollmentStatus.ENROLLED),
+                    enrollment("5", UserCourseService.EnrollmentStatus.ENROLLED)));
+            return null;
+        }).when(userCourseService).enrollInChunks(eq(COURSE_ID), any(), any());
+
+        service.run(job.getId(), true);
+
+        verify(userCourseService).enrollInChunks(eq(COURSE_ID), eq(List.of("3", "4", "5")), any());
+        assertEquals(EnrollmentJobStatus.COMPLETED, job.getStatus());
+        assertEquals(5, job.getProcessed());
+        assertEquals(4, job.getEnrolled());
+        assertEquals(List.of("2"), job.getAlreadyEnrolled());
+    }
+
+    @Test
+    void skipsJobClaimedByAnotherWorker() {
+        when(repository.claim(anyString(), any())).thenReturn(0);
+
+        service.run("otro", false);
+
+        verify(repository, never()).findById(anyString());
+        verify(userCourseService, never()).enrollInChunks(any(), any(), any());
+    }
+
+    @Test
+    void stopsWithoutFailingWhenAnotherWorkerResumedTheJob() {
+        EnrollmentJob job = new EnrollmentJob(COURSE_ID, List.of("1", "2"));
+        when(repository.claim(eq(job.getId()), any())).thenReturn(1);
+        when(repository.findById(job.getId())).thenReturn(Optional.of(job));
+        when(repository.save(any(EnrollmentJob.class))).thenThrow(new OptimisticLockingFailureException("versión"));
+        doAnswer(invocation -> {
+            Consumer<List<UserCourseService.Enrollment>> onChunk = invocation.getArgument(2);
+            onChunk.accept(List.of(enrollment("1", UserCourseService.EnrollmentStatus.ENROLLED)));
+            return null;
+        }).when(userCourseService).enrollInChunks(eq(COURSE_ID), any(), any());
+
+        service.run(job.getId(), false);
+
+        // No se marca FAILED: el job sigue siendo del worker que lo retomó
+        assertEquals(EnrollmentJobStatus.PENDING, job.getStatus());
+        assertNull(job.getFinishedDate());
+    }
+
+    private void captureSaves() {
+        when(repository.save(any(EnrollmentJob.class))).thenAnswer(invocation -> {
+            lastSaved = invocation.getArgument(0);
+            return lastSaved;
+        });
+    }
+
+    private static UserCourseService.Enrollment enrollment(String ci, UserCourseService.EnrollmentStatus status) {
+        return new UserCourseService.Enrollment(ci, null, status);
+    }
+}
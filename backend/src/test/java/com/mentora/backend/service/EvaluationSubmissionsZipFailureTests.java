@@ -0,0 +1,196 @@
+package com.mentora.backend.service;
+
+import com.mentora.backend.repository.ActivityRepository;
+import com.mentora.backend.repository.EvaluationRepository;
+import com.mentora.backend.repository.EvaluationSubmissionRepository;
+import com.mentora.backend.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.domain.Limit;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Export de entregas cuando falta un archivo (se omite y se marca en el manifiesto) o cuando la lectura
+// falla a mitad de camino (se corta el export sin cerrar el ZIP)
+class EvaluationSubmissionsZipFailureTests {
+
+    private static final long EVALUATION_ID = 1L;
+
+    @TempDir
+    Path root;
+
+    private LocalBlobStore blobStore;
+    private String brokenKey;
+    private final List<ExportRow> rows = new ArrayList<>();
+    private EvaluationService evaluationService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        blobStore = new LocalBlobStore(root.toString());
+        // Falla después de copiar parte del archivo, como un corte de conexión con el almacenamiento
+        BlobStore failingStore = new DelegatingBlobStore(blobStore) {
+            @Override
+            public long copyTo(StoragePath path, OutputStream out) throws IOException {
+                if (path.key().equals(brokenKey)) {
+                    out.write(new byte[1000]);
+                    throw new IOException("lectura interrumpida");
+                }
+                return super.copyTo(path, out);
+            }
+        };
+        FileStorageService fileStorageService = new FileStorageService(
+                failingStore,
+                mock(StoredBlobService.class),
+                new SimpleMeterRegistry(),
+                100, 10, 1, 30, 250, 15, "test-secret", "http://localhost"
+        );
+
+        EvaluationSubmissionRepository submissionRepository = mock(EvaluationSubmissionRepository.class);
+        when(submissionRepository.findExportFiles(eq(EVALUATION_ID), any(), any(Limit.class)))
+                .thenAnswer(invocation -> page(invocation.getArgument(1), invocation.getArgument(2)));
+        when(submissionRepository.findExportRows(eq(EVALUATION_ID), any(), any(Limit.class)))
+                .thenAnswer(invocation -> page(invocation.getArgument(1), invocation.getArgument(2)));
+
+        evaluationService = new EvaluationService(
+                mock(EvaluationRepository.class),
+                fileStorageService,
+                mock(UserService.class),
+                mock(UserRepository.class),
+                submissionRepository,
+                mock(ActivityRepository.class),
+                mock(PendingItemsService.class),
+                mock(GradebookService.class)
+        );
+    }
+
+    @Test
+    void missingBlobIsSkippedAndMarkedUnavailable() throws IOException {
+        addSubmission(1L, "a.pdf", "contenido a");
+        rows.add(new ExportRow(2L, "ci2", "Estudiante 2", 8, "b.pdf", blobStore.pathFor("no-existe.pdf").toString()));
+        addSubmission(3L, "c.pdf", "contenido c");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        evaluationService.writeSubmissionsZip(EVALUATION_ID, out);
+
+        Map<String, String> entries = read(out.toByteArray());
+        assertEquals(List.of("entregas/ci1_1_a.pdf", "entregas/ci3_3_c.pdf", "manifiesto.csv"), List.copyOf(entries.keySet()));
+        assertEquals("contenido a", entries.get("entregas/ci1_1_a.pdf"));
+        assertEquals("contenido c", entries.get("entregas/ci3_3_c.pdf"));
+        assertTrue(entries.get("manifiesto.csv").contains("\"No disponible: b.pdf\""));
+    }
+
+    @Test
+    void readFailureMidStreamAbortsExportWithoutFinishingZip() throws IOException {
+        addSubmission(1L, "a.pdf", "contenido a");
+        addSubmission(2L, "rota.pdf", "x".repeat(5000));
+        addSubmission(3L, "c.pdf", "contenido c");
+        brokenKey = "rota.pdf";
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        IOException e = assertThrows(IOException.class, () -> evaluationService.writeSubmissionsZip(EVALUATION_ID, out));
+        assertEquals("lectura interrumpida", e.getMessage());
+
+        // Lo que llegó al cliente no tiene directorio central ni manifiesto: no pasa por un ZIP completo
+        byte[] partial = out.toByteArray();
+        assertThrows(ZipException.class, () -> new ZipFile(writeTemp(partial).toFile()).close());
+        assertFalse(new String(partial, StandardCharsets.ISO_8859_1).contains("manifiesto.csv"));
+    }
+
+    private void addSubmission(long id, String key, String content) throws IOException {
+        Files.writeString(root.resolve(key), content);
+        rows.add(new ExportRow(id, "ci" + id, "Estudiante " + id, 10, key, blobStore.pathFor(key).toString()));
+    }
+
+    private Path writeTemp(byte[] bytes) throws IOException {
+        Path file = root.resolve("parcial.zip");
+        Files.write(file, bytes);
+        return file;
+    }
+
+    private static Map<String, String> read(byte[] zipBytes) throws IOException {
+        Map<String, String> entries = new LinkedHashMap<>();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(zipBytes), StandardCharsets.UTF_8)) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                entries.put(entry.getName(), new String(zip.readAllBytes(), StandardCharsets.UTF_8));
+            }
+        }
+        return entries;
+    }
+
+    private List<ExportRow> page(Long afterId, Limit limit) {
+        return rows.stream()
+                .filter(r -> afterId == null || r.getId() > afterId)
+                .limit(limit.max())
+                .toList();
+    }
+
+    private record ExportRow(Long id, String authorCi, String authorName, Integer note, String fileName, String fileUrl)
+            implements EvaluationSubmissionRepository.SubmissionFile, EvaluationSubmissionRepository.SubmissionManifestRow {
+        public Long getId() { return id; }
+        public String getAuthorCi() { return authorCi; }
+        public String getAuthorName() { return authorName; }
+        public Integer getNote() { return note; }
+        public String getFileName() { return fileName; }
+        public String getFileUrl() { return fileUrl; }
+        public String getSolution() { return null; }
+    }
+
+    // Delega todo en otro BlobStore; las subclases redefinen lo que necesitan simular
+    private static class DelegatingBlobStore implements BlobStore {
+        private final BlobStore delegate;
+
+        DelegatingBlobStore(BlobStore delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public String scheme() { return delegate.scheme(); }
+
+        @Override
+        public StoragePath pathFor(String key) { return delegate.pathFor(key); }
+
+        @Override
+        public long write(StoragePath path, String contentType, InputStream in, byte[] buffer) throws IOException {
+            return delegate.write(path, contentType, in, buffer);
+        }
+
+        @Override
+        public StoredObject stat(StoragePath path) { return delegate.stat(path); }
+
+        @Override
+        public long copyTo(StoragePath path, OutputStream out) throws IOException { return delegate.copyTo(path, out); }
+
+        @Override
+        public void delete(StoragePath path) { delegate.delete(path); }
+
+        @Override
+        public void move(StoragePath from, StoragePath to) throws IOException { delegate.move(from, to); }
+    }
+}
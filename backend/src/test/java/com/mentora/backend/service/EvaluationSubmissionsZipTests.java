@@ -0,0 +1,130 @@
+package com.mentora.backend.service;
+
+import com.mentora.backend.repository.ActivityRepository;
+import com.mentora.backend.repository.EvaluationRepository;
+import com.mentora.backend.repository.EvaluationSubmissionRepository;
+import com.mentora.backend.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.domain.Limit;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Corre con -Xmx128m (ver surefire en el pom): 500 entregas de 256 KB suman más que el heap,
+// así que el export tiene que ir escribiendo el ZIP sin juntar los archivos en memoria
+@Tag("heap-128m")
+class EvaluationSubmissionsZipTests {
+
+    private static final long EVALUATION_ID = 1L;
+    private static final int SUBMISSIONS = 500;
+    private static final int FILE_SIZE = 256 * 1024;
+
+    @TempDir
+    Path root;
+
+    @Test
+    void writesAllSubmissionsAndManifestWithBoundedHeap() throws Exception {
+        LocalBlobStore blobStore = new LocalBlobStore(root.resolve("blobs").toString());
+        FileStorageService fileStorageService = new FileStorageService(
+                blobStore,
+                mock(StoredBlobService.class),
+                new SimpleMeterRegistry(),
+                100, 10, 1, 30, 250, 15, "test-secret", "http://localhost"
+        );
+
+        List<ExportRow> rows = new ArrayList<>();
+        byte[] content = new byte[FILE_SIZE];
+        Random random = new Random(42);
+        for (long id = 1; id <= SUBMISSIONS; id++) {
+            random.nextBytes(content);
+            String key = "entrega-" + id + ".pdf";
+            Files.write(root.resolve("blobs").resolve(key), content);
+            rows.add(new ExportRow(id, "ci" + id, "Estudiante " + id, 10,
+                    "entrega " + id + ".pdf", blobStore.pathFor(key).toString(), null));
+        }
+
+        EvaluationSubmissionRepository submissionRepository = mock(EvaluationSubmissionRepository.class);
+        when(submissionRepository.findExportFiles(eq(EVALUATION_ID), any(), any(Limit.class)))
+                .thenAnswer(invocation -> page(rows, invocation.getArgument(1), invocation.getArgument(2)));
+        when(submissionRepository.findExportRows(eq(EVALUATION_ID), any(), any(Limit.class)))
+                .thenAnswer(invocation -> page(rows, invocation.getArgument(1), invocation.getArgument(2)));
+
+        EvaluationService evaluationService = new EvaluationService(
+                mock(EvaluationRepository.class),
+                fileStorageService,
+                mock(UserService.class),
+                mock(UserRepository.class),
+                submissionRepository,
+                mock(ActivityRepository.class),
+                mock(PendingItemsService.class),
+                mock(GradebookService.class)
+        );
+
+        Path zipFile = root.resolve("entregas.zip");
+        try (OutputStream out = Files.newOutputStream(zipFile)) {
+            evaluationService.writeSubmissionsZip(EVALUATION_ID, out);
+        }
+        assertTrue(Files.size(zipFile) > (long) SUBMISSIONS * FILE_SIZE);
+
+        int submissionEntries = 0;
+        int manifestLines = 0;
+        try (ZipInputStream zip = new ZipInputStream(Files.newInputStream(zipFile), StandardCharsets.UTF_8)) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                if (entry.getName().equals("manifiesto.csv")) {
+                    BufferedReader reader = new BufferedReader(new InputStreamReader(zip, StandardCharsets.UTF_8));
+                    while (reader.readLine() != null) {
+                        manifestLines++;
+                    }
+                } else {
+                    assertTrue(entry.getName().startsWith("entregas/"));
+                    assertEquals(FILE_SIZE, zip.transferTo(OutputStream.nullOutputStream()));
+                    submissionEntries++;
+                }
+            }
+        }
+
+        assertEquals(SUBMISSIONS, submissionEntries);
+        // Encabezado más una fila por entrega
+        assertEquals(SUBMISSIONS + 1, manifestLines);
+    }
+
+    // Misma paginación por keyset que las consultas de export
+    private static List<ExportRow> page(List<ExportRow> rows, Long afterId, Limit limit) {
+        return rows.stream()
+                .filter(r -> afterId == null || r.getId() > afterId)
+                .limit(limit.max())
+                .toList();
+    }
+
+    private record ExportRow(Long id, String authorCi, String authorName, Integer note,
+                             String fileName, String fileUrl, String solution)
+            implements EvaluationSubmissionRepository.SubmissionFile, EvaluationSubmissionRepository.SubmissionManifestRow {
+        public Long getId() { return id; }
+        public String getAuthorCi() { return authorCi; }
+        public String getAuthorName() { return authorName; }
+        public Integer getNote() { return note; }
+        public String getFileName() { return fileName; }
+        public String getFileUrl() { return fileUrl; }
+        public String getSolution() { return solution; }
+    }
+}
@@ -0,0 +1,63 @@
+package com.mentora.backend.service;
+
+import com.mentora.backend.model.FanOutJob;
+import com.mentora.backend.model.FanOutStatus;
+import com.mentora.backend.repository.FanOutJobRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// recoverJobs retoma los jobs trabados desde su avance y solo falla, con update condicional, los que agotaron las tomas
+class FanOutServiceRecoveryTests {
+
+    @Test
+    void resumesStaleJobsAndFailsOnlyThoseOutOfAttempts() {
+        FanOutJobRepository repository = mock(FanOutJobRepository.class);
+        FanOutWorker worker = mock(FanOutWorker.class);
+        FanOutJob retryable = job(1L, 1);
+        FanOutJob exhausted = job(2L, 3);
+        when(repository.findByStatusAndCreatedDateBefore(eq(FanOutStatus.PENDING), any())).thenReturn(List.of());
+        when(repository.findByStatusAndLastProgressAtBefore(eq(FanOutStatus.RUNNING), any()))
+                .thenReturn(List.of(retryable, exhausted));
+
+        new FanOutService(repository, worker, 15, 3).recoverJobs();
+
+        verify(worker).resume(eq(1L), any(LocalDateTime.class));
+        verify(worker, never()).resume(eq(2L), any());
+        verify(repository).failStale(eq(2L), any(LocalDateTime.class), eq("Proceso interrumpido"));
+        verify(repository, never()).failStale(eq(1L), any(), anyString());
+        // El job nunca se guarda entero desde acá: no pisa el avance de un worker que siga vivo
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    void redispatchesPendingJobs() {
+        FanOutJobRepository repository = mock(FanOutJobRepository.class);
+        FanOutWorker worker = mock(FanOutWorker.class);
+        when(repository.findByStatusAndCreatedDateBefore(eq(FanOutStatus.PENDING), any())).thenReturn(List.of(job(5L, 0)));
+        when(repository.findByStatusAndLastProgressAtBefore(eq(FanOutStatus.RUNNING), any())).thenReturn(List.of());
+
+        new FanOutService(repository, worker, 15, 3).recoverJobs();
+
+        verify(worker).process(5L);
+        verify(worker, never()).resume(anyLong(), any());
+    }
+
+    private static FanOutJob job(Long id, int attempts) {
+        FanOutJob job = new FanOutJob("C1", id, "Aviso", "Cuerpo", "/cursos/C1");
+        ReflectionTestUtils.setField(job, "id", id);
+        ReflectionTestUtils.setField(job, "attempts", attempts);
+        return job;
+    }
+}
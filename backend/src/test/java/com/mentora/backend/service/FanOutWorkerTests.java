@@ -0,0 +1,153 @@
+package com.mentora.backend.service;
+
+import com.mentora.backend.model.FanOutJob;
+import com.mentora.backend.model.FanOutStatus;
+import com.mentora.backend.model.Role;
+import com.mentora.backend.model.User;
+import com.mentora.backend.repository.FanOutJobRepository;
+import com.mentora.backend.repository.UserCourseRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Recorrido de destinatarios por CI con avance guardado por lote, reanudación y pérdida del job ante otro worker
+class FanOutWorkerTests {
+
+    private static final Long JOB_ID = 7L;
+    private static final String COURSE_ID = "C1";
+
+    private FanOutJobRepository jobRepository;
+    private UserCourseRepository userCourseRepository;
+    private NotificationService notificationService;
+    private FanOutWorker worker;
+    private final List<String> savedProgress = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        jobRepository = mock(FanOutJobRepository.class);
+        userCourseRepository = mock(UserCourseRepository.class);
+        notificationService = mock(NotificationService.class);
+        PushNotificationService pushNotificationService = mock(PushNotificationService.class);
+        EmailService emailService = mock(EmailService.class);
+
+        when(notificationService.createNotifications(anyList(), anyString(), anyString()))
+                .thenAnswer(invocation -> invocation.<List<?>>getArgument(0).size());
+        when(pushNotificationService.sendToUsers(any(), anyString(), anyString(), any()))
+                .thenAnswer(invocation -> new PushNotificationService.PushResult(invocation.<List<?>>getArgument(0).size(), 0));
+        when(emailService.sendEmails(anyList(), anyString(), anyString()))
+                .thenAnswer(invocation -> invocation.<List<?>>getArgument(0).size());
+        when(jobRepository.save(any(FanOutJob.class))).thenAnswer(invocation -> {
+            FanOutJob job = invocation.getArgument(0);
+            savedProgress.add(job.getLastRecipientCi());
+            return job;
+        });
+
+        worker = new FanOutWorker(jobRepository, userCourseRepository, notificationService, pushNotificationService, emailService);
+    }
+
+    @Test
+    void processWalksRecipientsByCiSavingProgressPerChunk() {
+        FanOutJob job = job();
+        when(jobRepository.claim(eq(JOB_ID), any())).thenReturn(1);
+        when(jobRepository.findById(JOB_ID)).thenReturn(Optional.of(job));
+        when(userCourseRepository.countByCourse_IdAndUser_Role(COURSE_ID, Role.ESTUDIANTE)).thenReturn(503L);
+        List<User> firstPage = students(0, 500);
+        List<User> secondPage = students(500, 503);
+        when(userCourseRepository.findUsersPage(eq(COURSE_ID), eq(Role.ESTUDIANTE), isNull(), eq(Limit.of(500))))
+                .thenReturn(firstPage);
+        when(userCourseRepository.findUsersPage(COURSE_ID, Role.ESTUDIANTE, ci(499), Limit.of(500)))
+                .thenReturn(secondPage);
+
+        worker.process(JOB_ID);
+
+        assertEquals(FanOutStatus.COMPLETED, job.getStatus());
+        assertEquals(503, job.getRecipients());
+        assertEquals(503, job.getNotificationsCreated());
+        assertEquals(503, job.getPushSent());
+        assertEquals(503, job.getEmailsSent());
+        // Un guardado por lote más el final
+        assertEquals(List.of(ci(499), ci(502), ci(502)), savedProgress);
+    }
+
+    @Test
+    void resumeContinuesAfterLastRecipientWithoutRecounting() {
+        FanOutJob job = job();
+        job.setStatus(FanOutStatus.RUNNING);
+        job.setRecipients(503);
+        job.setNotificationsCreated(500);
+        job.setLastRecipientCi(ci(499));
+        LocalDateTime staleBefore = LocalDateTime.now().minusMinutes(15);
+        when(jobRepository.reclaim(eq(JOB_ID), eq(staleBefore), any())).thenReturn(1);
+        when(jobRepository.findById(JOB_ID)).thenReturn(Optional.of(job));
+        when(userCourseRepository.findUsersPage(COURSE_ID, Role.ESTUDIANTE, ci(499), Limit.of(500)))
+                .thenReturn(students(500, 503));
+
+        worker.resume(JOB_ID, staleBefore);
+
+        verify(userCourseRepository, never()).countByCourse_IdAndUser_Role(anyString(), any());
+        verify(userCourseRepository, never()).findUsersPage(eq(COURSE_ID), eq(Role.ESTUDIANTE), isNull(), any());
+        assertEquals(FanOutStatus.COMPLETED, job.getStatus());
+        assertEquals(503, job.getRecipients());
+        assertEquals(503, job.getNotificationsCreated());
+    }
+
+    @Test
+    void skipsResumeWhenJobIsNoLongerStale() {
+        when(jobRepository.reclaim(eq(JOB_ID), any(), any())).thenReturn(0);
+
+        worker.resume(JOB_ID, LocalDateTime.now());
+
+        verify(jobRepository, never()).findById(any());
+        verify(notificationService, never()).createNotifications(anyList(), anyString(), anyString());
+    }
+
+    @Test
+    void stopsWithoutOverwritingWhenAnotherWorkerTookTheJob() {
+        FanOutJob job = job();
+        when(jobRepository.claim(eq(JOB_ID), any())).thenReturn(1);
+        when(jobRepository.findById(JOB_ID)).thenReturn(Optional.of(job));
+        when(userCourseRepository.countByCourse_IdAndUser_Role(COURSE_ID, Role.ESTUDIANTE)).thenReturn(3L);
+        when(userCourseRepository.findUsersPage(eq(COURSE_ID), eq(Role.ESTUDIANTE), isNull(), any()))
+                .thenReturn(students(0, 3));
+        when(jobRepository.save(any(FanOutJob.class))).thenThrow(new OptimisticLockingFailureException("versión"));
+
+        worker.process(JOB_ID);
+
+        // Ni COMPLETED ni FAILED: el estado lo escribe el worker que lo retomó
+        assertEquals(FanOutStatus.PENDING, job.getStatus());
+        assertNull(job.getLastError());
+    }
+
+    private static FanOutJob job() {
+        return new FanOutJob(COURSE_ID, 1L, "Nuevo anuncio", "Cuerpo", "/cursos/C1");
+    }
+
+    private static List<User> students(int from, int to) {
+        return IntStream.range(from, to)
+                .mapToObj(i -> new User(ci(i), "Estudiante " + i, ci(i) + "@mentora.test", "x", null, null, null, Role.ESTUDIANTE))
+                .toList();
+    }
+
+    private static String ci(int i) {
+        return String.valueOf(1_000_000 + i);
+    }
+}
@@ -0,0 +1,125 @@
+package com.mentora.backend.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Cache de URLs firmadas: se reutiliza hasta que falta menos que el margen para el vencimiento (60 min de validez,
+// 10 de margen) y, lleno, descarta la menos usada
+class FileStorageServiceSignedUrlTests {
+
+    private static final long T0 = 1_700_000_000_000L;
+
+    private BlobStore blobStore;
+    private SimpleMeterRegistry meterRegistry;
+    private final AtomicLong now = new AtomicLong(T0);
+    private final AtomicInteger signatures = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        blobStore = mock(BlobStore.class);
+        meterRegistry = new SimpleMeterRegistry();
+        when(blobStore.scheme()).thenReturn("gs");
+        // Cada firma devuelve una URL distinta para distinguir un hit de una firma nueva
+        when(blobStore.signedUrl(any(StoragePath.class), anyLong())).thenAnswer(invocation -> {
+            StoragePath path = invocation.getArgument(0);
+            return "https://storage.test/" + path.key() + "?firma=" + signatures.incrementAndGet();
+        });
+    }
+
+    @Test
+    void reusesUrlUntilRefreshMarginBeforeExpiry() {
+        FileStorageService service = service(100, 10);
+
+        String first = service.generateSignedUrl("gs://bucket/a.pdf");
+        now.set(T0 + TimeUnit.MINUTES.toMillis(50) - 1);
+        assertEquals(first, service.generateSignedUrl("gs://bucket/a.pdf"));
+
+        // A los 50 minutos quedan 10 para el vencimiento: se firma de nuevo
+        now.set(T0 + TimeUnit.MINUTES.toMillis(50));
+        String second = service.generateSignedUrl("gs://bucket/a.pdf");
+        assertEquals("https://storage.test/a.pdf?firma=2", second);
+
+        // La nueva URL vale 60 minutos desde que se firmó
+        now.set(T0 + TimeUnit.MINUTES.toMillis(99) + 59_999);
+        assertEquals(second, service.generateSignedUrl("gs://bucket/a.pdf"));
+
+        assertEquals(2, count("hit"));
+        assertEquals(2, count("miss"));
+    }
+
+    @Test
+    void marginAsLongAsValidityDisablesReuse() {
+        FileStorageService service = service(100, 60);
+
+        String first = service.generateSignedUrl("gs://bucket/a.pdf");
+        String second = service.generateSignedUrl("gs://bucket/a.pdf");
+
+        assertNotEquals(first, second);
+        assertEquals(0, count("hit"));
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedWhenFull() {
+        FileStorageService service = service(2, 10);
+
+        String a = service.generateSignedUrl("gs://bucket/a.pdf");
+        String b = service.generateSignedUrl("gs://bucket/b.pdf");
+        // Leer a la deja como la más reciente; al agregar c sale b
+        assertEquals(a, service.generateSignedUrl("gs://bucket/a.pdf"));
+        service.generateSignedUrl("gs://bucket/c.pdf");
+
+        assertEquals(1.0, meterRegistry.counter("storage.signed_url.cache.evictions").count());
+        assertEquals(2.0, meterRegistry.get("storage.signed_url.cache.size").gauge().value());
+        assertEquals(a, service.generateSignedUrl("gs://bucket/a.pdf"));
+        String newB = service.generateSignedUrl("gs://bucket/b.pdf");
+        assertNotEquals(b, newB);
+        assertEquals(4, signatures.get());
+    }
+
+    @Test
+    void fallsBackToSignedDownloadUrlWhenStoreDoesNotSign() {
+        when(blobStore.signedUrl(any(StoragePath.class), anyLong())).thenReturn(null);
+        FileStorageService service = service(100, 10);
+
+        String url = service.generateSignedUrl("gs://bucket/carpeta/a b.pdf");
+
+        long expires = TimeUnit.MILLISECONDS.toSeconds(T0 + TimeUnit.MINUTES.toMillis(60));
+        assertTrue(url.startsWith("http://localhost/files/download?key=carpeta%2Fa+b.pdf&expires=" + expires + "&signature="), url);
+        assertEquals(url, service.generateSignedUrl("gs://bucket/carpeta/a b.pdf"));
+    }
+
+    @Test
+    void pathsOutsideStorageAreNotSignedOrCached() {
+        FileStorageService service = service(100, 10);
+
+        assertEquals("https://otro.sitio/foto.png", service.generateSignedUrl("https://otro.sitio/foto.png"));
+        assertNull(service.generateSignedUrl(" "));
+        assertEquals(0, signatures.get());
+        assertEquals(0, count("miss"));
+    }
+
+    private FileStorageService service(int maxCacheEntries, long refreshMarginMinutes) {
+        FileStorageService service = new FileStorageService(blobStore, mock(StoredBlobService.class), meterRegistry,
+                maxCacheEntries, refreshMarginMinutes, 1, 30, 250, 15, "test-secret", "http://localhost");
+        service.clock = now::get;
+        return service;
+    }
+
+    private double count(String result) {
+        return meterRegistry.counter("storage.signed_url.cache", "result", result).count();
+    }
+}
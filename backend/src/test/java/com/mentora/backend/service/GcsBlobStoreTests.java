@@ -0,0 +1,195 @@
+package com.mentora.backend.service;
+
+import com.google.cloud.WriteChannel;
+import com.google.cloud.storage.Blob;
+import com.google.cloud.storage.BlobId;
+import com.google.cloud.storage.BlobInfo;
+import com.google.cloud.storage.Storage;
+import com.mentora.backend.config.GCSConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Base64;
+import java.util.zip.CRC32C;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Subida por WriteChannel con Storage simulado: tamaño de chunk, copia sin buffers propios y verificación de CRC32C
+class GcsBlobStoreTests {
+
+    private static final StoragePath PATH = new StoragePath("gs", "bucket", "archivos/grande.bin");
+    private static final BlobId BLOB_ID = BlobId.of("bucket", "archivos/grande.bin");
+    private static final int BUFFER_SIZE = 64 * 1024;
+    // El canal acepta a lo sumo esto por write, como un canal real con su buffer lleno
+    private static final int MAX_WRITE = 10_000;
+
+    private Storage storage;
+    private WriteChannel writer;
+    private final CRC32C received = new CRC32C();
+    private long receivedBytes;
+    private byte[] buffer;
+    private boolean foreignBuffer;
+    private int maxRemaining;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        storage = mock(Storage.class);
+        writer = mock(WriteChannel.class);
+        buffer = new byte[BUFFER_SIZE];
+        when(storage.writer(any(BlobInfo.class), any(Storage.BlobWriteOption[].class))).thenReturn(writer);
+        when(writer.write(any(ByteBuffer.class))).thenAnswer(invocation -> {
+            ByteBuffer chunk = invocation.getArgument(0);
+            foreignBuffer |= !chunk.hasArray() || chunk.array() != buffer;
+            maxRemaining = Math.max(maxRemaining, chunk.remaining());
+            int n = Math.min(chunk.remaining(), MAX_WRITE);
+            received.update(chunk.array(), chunk.arrayOffset() + chunk.position(), n);
+            chunk.position(chunk.position() + n);
+            receivedBytes += n;
+            return n;
+        });
+    }
+
+    @Test
+    void chunkSizeIsRoundedUpToMultipleOf256KiB() throws IOException {
+        assertChunkSize(2048, 2048 * 1024);
+        assertChunkSize(300, 512 * 1024);
+        assertChunkSize(256, 256 * 1024);
+        assertChunkSize(0, 256 * 1024);
+    }
+
+    @Test
+    void streamsThroughCallerBufferWithPartialWrites() throws IOException {
+        long size = 5L * 1024 * 1024 + 123;
+        CRC32C expected = crcOf(size);
+        storedCrc(expected.getValue());
+
+        long written = store(2048).write(PATH, "application/octet-stream", new GeneratedInputStream(size), buffer);
+
+        assertEquals(size, written);
+        assertEquals(size, receivedBytes);
+        assertEquals(expected.getValue(), received.getValue());
+        // Cada write usa el buffer del llamador y nunca más de lo que entra en él
+        assertFalse(foreignBuffer);
+        assertTrue(maxRemaining <= BUFFER_SIZE);
+        verify(writer).close();
+        verify(storage, never()).delete(BLOB_ID);
+
+        ArgumentCaptor<BlobInfo> info = ArgumentCaptor.forClass(BlobInfo.class);
+        verify(storage).writer(info.capture(), any(Storage.BlobWriteOption[].class));
+        assertEquals(BLOB_ID.getBucket(), info.getValue().getBucket());
+        assertEquals(BLOB_ID.getName(), info.getValue().getName());
+        assertEquals("application/octet-stream", info.getValue().getContentType());
+    }
+
+    @Test
+    void deletesBlobWhenChecksumDoesNotMatch() {
+        long size = 300_000;
+        storedCrc(crcOf(size).getValue() + 1);
+
+        IOException e = assertThrows(IOException.class, () ->
+                store(2048).write(PATH, "application/pdf", new GeneratedInputStream(size), buffer));
+
+        assertEquals("El checksum del archivo subido no coincide", e.getMessage());
+        verify(storage).delete(BLOB_ID);
+    }
+
+    @Test
+    void deletesBlobWhenStoredObjectIsMissing() {
+        when(storage.get(any(BlobId.class), any(Storage.BlobGetOption[].class))).thenReturn(null);
+
+        assertThrows(IOException.class, () ->
+                store(2048).write(PATH, "application/pdf", new GeneratedInputStream(1000), buffer));
+
+        verify(storage).delete(BLOB_ID);
+    }
+
+    @Test
+    void closesChannelWhenSourceFails() throws IOException {
+        InputStream failing = new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("conexión cortada");
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                throw new IOException("conexión cortada");
+            }
+        };
+
+        IOException e = assertThrows(IOException.class, () -> store(2048).write(PATH, "application/pdf", failing, buffer));
+
+        assertEquals("conexión cortada", e.getMessage());
+        verify(writer).close();
+    }
+
+    private void assertChunkSize(int chunkSizeKb, int expected) throws IOException {
+        WriteChannel channel = mock(WriteChannel.class);
+        when(storage.writer(any(BlobInfo.class), any(Storage.BlobWriteOption[].class))).thenReturn(channel);
+        storedCrc(new CRC32C().getValue());
+
+        store(chunkSizeKb).write(PATH, "text/plain", InputStream.nullInputStream(), buffer);
+
+        verify(channel).setChunkSize(expected);
+    }
+
+    private GcsBlobStore store(int chunkSizeKb) {
+        return new GcsBlobStore(storage, mock(GCSConfig.class), chunkSizeKb);
+    }
+
+    // GCS devuelve el CRC32C como base64 de los 4 bytes en big-endian
+    private void storedCrc(long crc) {
+        Blob blob = mock(Blob.class);
+        when(blob.getCrc32c()).thenReturn(
+                Base64.getEncoder().encodeToString(ByteBuffer.allocate(4).putInt((int) crc).array()));
+        when(storage.get(any(BlobId.class), any(Storage.BlobGetOption[].class))).thenReturn(blob);
+    }
+
+    private static CRC32C crcOf(long size) {
+        CRC32C crc = new CRC32C();
+        for (long i = 0; i < size; i++) {
+            crc.update((int) (i & 0xFF));
+        }
+        return crc;
+    }
+
+    // Stream de n bytes generados al vuelo, sin buffer propio
+    private static final class GeneratedInputStream extends InputStream {
+        private final long length;
+        private long position;
+
+        GeneratedInputStream(long length) {
+            this.length = length;
+        }
+
+        @Override
+        public int read() {
+            return position < length ? (int) (position++ & 0xFF) : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (position >= length) {
+                return -1;
+            }
+            int n = (int) Math.min(len, length - position);
+            for (int i = 0; i < n; i++) {
+                b[off + i] = (byte) (position + i);
+            }
+            position += n;
+            return n;
+        }
+    }
+}
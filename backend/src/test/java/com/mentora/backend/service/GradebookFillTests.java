@@ -0,0 +1,76 @@
+package com.mentora.backend.service;
+
+import com.mentora.backend.dt.DtGradebookItem;
+import com.mentora.backend.dt.DtGradebookRow;
+import com.mentora.backend.model.GradebookEntry;
+import com.mentora.backend.model.GradebookItemType;
+import com.mentora.backend.repository.GradebookEntryRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+// Armado de la matriz: cada nota cae en la columna de su ítem aunque una evaluación y un quiz compartan id
+class GradebookFillTests {
+
+    // Evaluación 1, quiz 1 y evaluación 2, en el orden de la línea de tiempo
+    private static final List<DtGradebookItem> ITEMS = List.of(
+            new DtGradebookItem("EVALUATION", 1L, "Parcial 1"),
+            new DtGradebookItem("QUIZ", 1L, "Quiz 1"),
+            new DtGradebookItem("EVALUATION", 2L, "Parcial 2"));
+
+    @Test
+    void gradesAreAlignedWithItemColumns() {
+        DtGradebookRow ana = new DtGradebookRow("1111111", "Ana");
+        DtGradebookRow bruno = new DtGradebookRow("2222222", "Bruno");
+
+        GradebookService.fill(List.of(ana, bruno), GradebookService.columns(ITEMS), List.of(
+                cell("1111111", GradebookItemType.EVALUATION, 2L, 90),
+                cell("1111111", GradebookItemType.QUIZ, 1L, 70),
+                cell("1111111", GradebookItemType.EVALUATION, 1L, 80),
+                cell("2222222", GradebookItemType.QUIZ, 1L, 40),
+                cell("2222222", GradebookItemType.FINAL, GradebookEntry.FINAL_ITEM_ID, 6)));
+
+        assertEquals(Arrays.asList(80, 70, 90), ana.getGrades());
+        assertNull(ana.getFinalGrade());
+        assertEquals(Arrays.asList(null, 40, null), bruno.getGrades());
+        assertEquals(6, bruno.getFinalGrade());
+    }
+
+    @Test
+    void ignoresCellsOfUnknownItemsAndStudentsNotInPage() {
+        DtGradebookRow ana = new DtGradebookRow("1111111", "Ana");
+
+        GradebookService.fill(List.of(ana), GradebookService.columns(ITEMS), List.of(
+                // Ítem borrado y quiz con el id de una evaluación que no es columna
+                cell("1111111", GradebookItemType.EVALUATION, 99L, 10),
+                cell("1111111", GradebookItemType.QUIZ, 2L, 20),
+                // Estudiante que no está en la página
+                cell("3333333", GradebookItemType.EVALUATION, 1L, 30),
+                cell("3333333", GradebookItemType.FINAL, GradebookEntry.FINAL_ITEM_ID, 7)));
+
+        assertEquals(Arrays.asList(null, null, null), ana.getGrades());
+        assertNull(ana.getFinalGrade());
+    }
+
+    @Test
+    void rowsWithoutCellsGetOneEmptySlotPerItem() {
+        DtGradebookRow ana = new DtGradebookRow("1111111", "Ana");
+
+        GradebookService.fill(List.of(ana), GradebookService.columns(ITEMS), List.of());
+
+        assertEquals(ITEMS.size(), ana.getGrades().size());
+    }
+
+    private static GradebookEntryRepository.GradebookCell cell(String ci, GradebookItemType type, Long itemId, Integer grade) {
+        return new GradebookEntryRepository.GradebookCell() {
+            public String getStudentCi() { return ci; }
+            public GradebookItemType getItemType() { return type; }
+            public Long getItemId() { return itemId; }
+            public Integer getGrade() { return grade; }
+        };
+    }
+}
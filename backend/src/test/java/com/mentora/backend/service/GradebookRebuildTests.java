@@ -0,0 +1,132 @@
+package com.mentora.backend.service;
+
+import com.mentora.backend.RepositoryTestSupport;
+import com.mentora.backend.model.Course;
+import com.mentora.backend.model.Evaluation;
+import com.mentora.backend.model.EvaluationSubmission;
+import com.mentora.backend.model.GradebookEntry;
+import com.mentora.backend.model.GradebookItemType;
+import com.mentora.backend.model.Quiz;
+import com.mentora.backend.model.QuizSubmission;
+import com.mentora.backend.model.Role;
+import com.mentora.backend.model.User;
+import com.mentora.backend.model.UserCourse;
+import com.mentora.backend.repository.CourseRepository;
+import com.mentora.backend.repository.EvaluationRepository;
+import com.mentora.backend.repository.EvaluationSubmissionRepository;
+import com.mentora.backend.repository.GradebookEntryRepository;
+import com.mentora.backend.repository.QuizRepository;
+import com.mentora.backend.repository.QuizSubmissionRepository;
+import com.mentora.backend.repository.UserCourseRepository;
+import com.mentora.backend.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Reconstrucción del gradebook contra MySQL: corrige notas desviadas, agrega las que faltan y borra las celdas sin origen
+class GradebookRebuildTests extends RepositoryTestSupport {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 3, 1, 10, 0);
+
+    @Autowired UserRepository userRepository;
+    @Autowired CourseRepository courseRepository;
+    @Autowired UserCourseRepository userCourseRepository;
+    @Autowired EvaluationRepository evaluationRepository;
+    @Autowired EvaluationSubmissionRepository evaluationSubmissionRepository;
+    @Autowired QuizRepository quizRepository;
+    @Autowired QuizSubmissionRepository quizSubmissionRepository;
+    @Autowired GradebookEntryRepository gradebookEntryRepository;
+    @Autowired JdbcTemplate jdbcTemplate;
+    @Autowired EntityManager entityManager;
+
+    private GradebookService gradebookService;
+    private User ana;
+    private User bruno;
+    private User carla;
+    private Course course;
+    private Course otherCourse;
+    private Evaluation evaluation;
+    private Evaluation otherEvaluation;
+    private Quiz quiz;
+
+    @BeforeEach
+    void setUp() {
+        ana = userRepository.save(user("1111111", "Ana"));
+        bruno = userRepository.save(user("2222222", "Bruno"));
+        carla = userRepository.save(user("3333333", "Carla"));
+        course = courseRepository.save(new Course("GB1", "Curso", BASE));
+        otherCourse = courseRepository.save(new Course("GB2", "Otro curso", BASE));
+        userCourseRepository.save(new UserCourse(course, ana, 9));
+        userCourseRepository.save(new UserCourse(course, bruno, null));
+        userCourseRepository.save(new UserCourse(otherCourse, ana, null));
+
+        evaluation = evaluationRepository.save(new Evaluation("Parcial", course, null, null, null, null));
+        otherEvaluation = evaluationRepository.save(new Evaluation("Parcial ajeno", otherCourse, null, null, null, null));
+        quiz = quizRepository.save(new Quiz("Quiz", BASE.plusDays(7), course, new ArrayList<>()));
+        evaluationSubmissionRepository.save(new EvaluationSubmission("r", null, null, 80, evaluation, ana));
+        // Entrega sin corregir: no tiene celda
+        evaluationSubmissionRepository.save(new EvaluationSubmission("r", null, null, null, evaluation, bruno));
+        quizSubmissionRepository.save(new QuizSubmission(null, 70, quiz, ana));
+        entityManager.flush();
+
+        gradebookService = new GradebookService(gradebookEntryRepository, courseRepository, evaluationRepository,
+                quizRepository, userCourseRepository, jdbcTemplate);
+    }
+
+    @Test
+    void rebuildFixesDriftedCellsAndDeletesOrphans() {
+        // Desvíos: nota vieja de Ana, nota de Bruno en una entrega que perdió la corrección, nota de Carla sin entrega,
+        // quiz de Bruno sin entrega, nota final de Carla que no está matriculada y de Bruno que no tiene nota final
+        gradebookService.recordGrade(course.getId(), GradebookItemType.EVALUATION, evaluation.getId(), ana.getCi(), 50);
+        gradebookService.recordGrade(course.getId(), GradebookItemType.EVALUATION, evaluation.getId(), bruno.getCi(), 60);
+        gradebookService.recordGrade(course.getId(), GradebookItemType.EVALUATION, evaluation.getId(), carla.getCi(), 40);
+        gradebookService.recordGrade(course.getId(), GradebookItemType.QUIZ, quiz.getId(), bruno.getCi(), 30);
+        gradebookService.recordFinalGrade(course.getId(), carla.getCi(), 5);
+        gradebookService.recordFinalGrade(course.getId(), bruno.getCi(), 6);
+        // Ítem de otro curso registrado con este courseId
+        gradebookService.recordGrade(course.getId(), GradebookItemType.EVALUATION, otherEvaluation.getId(), ana.getCi(), 20);
+
+        gradebookService.rebuild(course.getId());
+
+        assertEquals(Set.of(
+                "EVALUATION:" + evaluation.getId() + ":1111111=80",
+                "QUIZ:" + quiz.getId() + ":1111111=70",
+                "FINAL:" + GradebookEntry.FINAL_ITEM_ID + ":1111111=9"
+        ), cells(course));
+    }
+
+    @Test
+    void rebuildAllCoversCoursesThisInstanceNeverRead() {
+        gradebookService.recordGrade(otherCourse.getId(), GradebookItemType.EVALUATION, otherEvaluation.getId(), ana.getCi(), 20);
+        gradebookService.recordGrade(course.getId(), GradebookItemType.QUIZ, quiz.getId(), bruno.getCi(), 30);
+
+        gradebookService.rebuildAll();
+
+        assertEquals(Set.of(), cells(otherCourse));
+        assertEquals(Set.of(
+                "EVALUATION:" + evaluation.getId() + ":1111111=80",
+                "QUIZ:" + quiz.getId() + ":1111111=70",
+                "FINAL:" + GradebookEntry.FINAL_ITEM_ID + ":1111111=9"
+        ), cells(course));
+    }
+
+    private Set<String> cells(Course c) {
+        return gradebookEntryRepository.findCells(c.getId()).stream()
+                .map(cell -> cell.getItemType() + ":" + cell.getItemId() + ":" + cell.getStudentCi() + "=" + cell.getGrade())
+                .collect(Collectors.toSet());
+    }
+
+    private static User user(String ci, String name) {
+        return new User(ci, name, ci + "@mentora.test", "x", null, null, null, Role.ESTUDIANTE);
+    }
+}
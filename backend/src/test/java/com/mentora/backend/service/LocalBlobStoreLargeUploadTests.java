@@ -0,0 +1,78 @@
+package com.mentora.backend.service;
+
+import com.mentora.backend.dt.DtFileResource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Corre con -Xmx256m (ver surefire en el pom): subir 1 GiB no debe cargar el archivo en el heap
+@Tag("heap-256m")
+class LocalBlobStoreLargeUploadTests {
+
+    private static final long ONE_GIB = 1024L * 1024 * 1024;
+
+    @TempDir
+    Path root;
+
+    @Test
+    void storesOneGibStreamWithBoundedHeap() throws Exception {
+        StoredBlobService storedBlobService = mock(StoredBlobService.class);
+        when(storedBlobService.register(anyString(), anyString(), anyLong()))
+                .thenAnswer(invocation -> invocation.getArgument(1));
+
+        FileStorageService fileStorageService = new FileStorageService(
+                new LocalBlobStore(root.toString()),
+                storedBlobService,
+                new SimpleMeterRegistry(),
+                100, 10, 1, 30, 250, 15, "test-secret", "http://localhost"
+        );
+
+        DtFileResource stored;
+        try (InputStream in = new GeneratedInputStream(ONE_GIB)) {
+            stored = fileStorageService.store("grande.bin", in, "application/octet-stream");
+        }
+
+        assertEquals(ONE_GIB, stored.getSize());
+        StoragePath path = StoragePath.parse(stored.getStoragePath());
+        assertEquals(ONE_GIB, Files.size(root.resolve(path.key())));
+    }
+
+    // Stream de n bytes generados al vuelo, sin buffer propio
+    private static final class GeneratedInputStream extends InputStream {
+        private final long length;
+        private long position;
+
+        GeneratedInputStream(long length) {
+            this.length = length;
+        }
+
+        @Override
+        public int read() {
+            return position < length ? (int) (position++ & 0xFF) : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (position >= length) {
+                return -1;
+            }
+            int n = (int) Math.min(len, length - position);
+            for (int i = 0; i < n; i++) {
+                b[off + i] = (byte) (position + i);
+            }
+            position += n;
+            return n;
+        }
+    }
+}
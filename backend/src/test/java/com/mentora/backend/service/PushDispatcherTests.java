@@ -0,0 +1,170 @@
+package com.mentora.backend.service;
+
+import com.mentora.backend.model.DeviceToken;
+import com.mentora.backend.model.Role;
+import com.mentora.backend.model.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PushDispatcherTests {
+
+    private static final PushPayload PAYLOAD = new PushPayload("Título", "Cuerpo", null);
+
+    private StubPushTransport transport;
+    private DeviceTokenService deviceTokenService;
+    private PushDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        transport = new StubPushTransport();
+        deviceTokenService = mock(DeviceTokenService.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (dispatcher != null) {
+            dispatcher.shutdown();
+        }
+    }
+
+    private PushDispatcher dispatcher(int ratePerSecond, int maxAttempts, long backoffMillis) {
+        dispatcher = new PushDispatcher(transport, deviceTokenService, new SimpleMeterRegistry(),
+                50_000, 5_000, ratePerSecond, maxAttempts, backoffMillis);
+        return dispatcher;
+    }
+
+    // Un usuario por token, con el mismo nombre
+    private void givenTokens(List<String> tokens) {
+        List<DeviceToken> deviceTokens = new ArrayList<>();
+        for (String token : tokens) {
+            deviceTokens.add(new DeviceToken(new User(token, token, token + "@mentora.uy", "x", null, null, null, Role.ESTUDIANTE), token));
+        }
+        when(deviceTokenService.getTokensForUsers(anyCollection())).thenReturn(deviceTokens);
+    }
+
+    private static List<String> tokens(int count) {
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            tokens.add("t" + i);
+        }
+        return tokens;
+    }
+
+    @Test
+    void rateLimitsWithTokenBucket() {
+        // El balde arranca lleno con 100 permisos y repone 100 por segundo: 300 tokens llevan unos 2 segundos
+        List<String> tokens = tokens(300);
+        givenTokens(tokens);
+        transport.setMaxTokensPerSend(50);
+        PushDispatcher d = dispatcher(100, 1, 0);
+
+        long start = System.nanoTime();
+        PushNotificationService.PushResult result = d.sendNow(tokens, PAYLOAD);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertEquals(300, result.successCount());
+        assertEquals(300, transport.getSent().size());
+        assertTrue(elapsedMillis >= 1_800, "terminó en " + elapsedMillis + " ms");
+
+        // En ningún momento se superó capacidad + tasa * tiempo transcurrido
+        long firstAt = transport.getSent().get(0).sentAtNanos();
+        int sentSoFar = 0;
+        for (StubPushTransport.SentPush push : transport.getSent()) {
+            sentSoFar++;
+            double seconds = (push.sentAtNanos() - firstAt) / 1e9;
+            assertTrue(sentSoFar <= 100 + 100 * seconds + 50, "ráfaga de " + sentSoFar + " a los " + seconds + " s");
+        }
+    }
+
+    @Test
+    void retriesRetryableWithExponentialBackoff() {
+        givenTokens(List.of("a", "b"));
+        transport.script("a", PushTransport.Outcome.RETRYABLE, PushTransport.Outcome.RETRYABLE);
+        PushDispatcher d = dispatcher(0, 3, 100);
+
+        PushNotificationService.PushResult result = d.sendNow(List.of("a", "b"), PAYLOAD);
+
+        assertEquals(2, result.successCount());
+        assertEquals(0, result.failureCount());
+        List<StubPushTransport.SentPush> toA = transport.getSent().stream().filter(p -> p.token().equals("a")).toList();
+        List<StubPushTransport.SentPush> toB = transport.getSent().stream().filter(p -> p.token().equals("b")).toList();
+        assertEquals(3, toA.size());
+        // Solo se reintenta lo que falló
+        assertEquals(1, toB.size());
+        // Backoff base 100 ms y luego 200 ms (más jitter)
+        assertTrue(toA.get(1).sentAtNanos() - toA.get(0).sentAtNanos() >= TimeUnit.MILLISECONDS.toNanos(100));
+        assertTrue(toA.get(2).sentAtNanos() - toA.get(1).sentAtNanos() >= TimeUnit.MILLISECONDS.toNanos(200));
+    }
+
+    @Test
+    void givesUpAfterMaxAttempts() {
+        givenTokens(List.of("a"));
+        transport.script("a", PushTransport.Outcome.RETRYABLE, PushTransport.Outcome.RETRYABLE, PushTransport.Outcome.RETRYABLE);
+        PushDispatcher d = dispatcher(0, 3, 10);
+
+        PushNotificationService.PushResult result = d.sendNow(List.of("a"), PAYLOAD);
+
+        assertEquals(0, result.successCount());
+        assertEquals(1, result.failureCount());
+        assertEquals(3, transport.getSent().size());
+    }
+
+    @Test
+    void removesUnregisteredTokensInOneCall() {
+        givenTokens(List.of("a", "b", "c"));
+        transport.script("b", PushTransport.Outcome.UNREGISTERED);
+        transport.script("c", PushTransport.Outcome.UNREGISTERED);
+        PushDispatcher d = dispatcher(0, 3, 10);
+
+        PushNotificationService.PushResult result = d.sendNow(List.of("a", "b", "c"), PAYLOAD);
+
+        assertEquals(1, result.successCount());
+        assertEquals(2, result.failureCount());
+        verify(deviceTokenService, times(1)).removeTokens(List.of("b", "c"));
+        // Los dados de baja no se reintentan
+        assertEquals(3, transport.getSent().size());
+    }
+
+    @Test
+    void keepsTokensWhenNoneUnregistered() {
+        givenTokens(List.of("a"));
+        dispatcher(0, 3, 10).sendNow(List.of("a"), PAYLOAD);
+        verify(deviceTokenService, never()).removeTokens(any(Collection.class));
+    }
+
+    @Test
+    void flushHandsOffWithoutWaitingForBackoff() throws InterruptedException {
+        givenTokens(List.of("a"));
+        transport.script("a", PushTransport.Outcome.RETRYABLE);
+        PushDispatcher d = dispatcher(0, 2, 1_000);
+
+        d.enqueue(List.of("a"), PAYLOAD);
+        long start = System.nanoTime();
+        d.flush();
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 500, "flush bloqueó el scheduler");
+
+        // El reintento llega después del backoff, en el hilo del dispatcher
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (transport.getSent().size() < 2 && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+        assertEquals(2, transport.getSent().size());
+    }
+}
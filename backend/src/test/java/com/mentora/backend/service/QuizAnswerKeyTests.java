@@ -0,0 +1,72 @@
+package com.mentora.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QuizAnswerKeyTests {
+
+    // Respuestas 1..6; correctas 2, 4 y 6
+    private final QuizAnswerKey key = new QuizAnswerKey(new long[] {6, 1, 4, 3, 2, 5}, new long[] {6, 2, 4});
+
+    @Test
+    void gradesAllCorrect() {
+        assertEquals(100, key.grade(List.of(2L, 4L, 6L)));
+    }
+
+    @Test
+    void countsDuplicatesOnce() {
+        assertEquals(33, key.grade(List.of(2L, 2L, 2L)));
+        assertEquals(67, key.grade(List.of(4L, 2L, 4L, 2L)));
+    }
+
+    @Test
+    void ignoresForeignAndNullIds() {
+        assertEquals(33, key.grade(Arrays.asList(2L, 99L, null, -1L)));
+        assertEquals(0, key.grade(List.of(99L, 100L)));
+    }
+
+    @Test
+    void wrongAnswersDoNotSubtract() {
+        assertEquals(67, key.grade(List.of(1L, 2L, 3L, 4L, 5L)));
+    }
+
+    @Test
+    void noCorrectAnswersGivesZero() {
+        QuizAnswerKey empty = new QuizAnswerKey(new long[] {1, 2}, new long[0]);
+        assertEquals(0, empty.grade(List.of(1L, 2L)));
+        assertEquals(0, key.grade(List.of()));
+    }
+
+    @Test
+    void roundsToNearestPercent() {
+        // 1/3 = 33.3 -> 33, 2/3 = 66.7 -> 67
+        assertEquals(33, key.grade(List.of(6L)));
+        assertEquals(67, key.grade(List.of(6L, 4L)));
+        // 1/8 = 12.5 -> 13 (Math.round redondea .5 hacia arriba)
+        QuizAnswerKey eight = new QuizAnswerKey(new long[] {1, 2, 3, 4, 5, 6, 7, 8}, new long[] {1, 2, 3, 4, 5, 6, 7, 8});
+        assertEquals(13, eight.grade(List.of(1L)));
+    }
+
+    @Test
+    void containsOnlyQuizAnswers() {
+        assertTrue(key.contains(1));
+        assertTrue(key.contains(6));
+        assertFalse(key.contains(7));
+        assertEquals(6, key.answerCount());
+    }
+
+    @Test
+    void isNotAffectedByCallerArrays() {
+        long[] answers = {1, 2};
+        long[] correct = {2};
+        QuizAnswerKey copy = new QuizAnswerKey(answers, correct);
+        correct[0] = 1;
+        assertEquals(100, copy.grade(List.of(2L)));
+    }
+}
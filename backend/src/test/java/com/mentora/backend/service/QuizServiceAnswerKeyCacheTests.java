@@ -0,0 +1,107 @@
+package com.mentora.backend.service;
+
+import com.mentora.backend.model.Course;
+import com.mentora.backend.model.Quiz;
+import com.mentora.backend.model.QuizSubmission;
+import com.mentora.backend.model.Role;
+import com.mentora.backend.model.User;
+import com.mentora.backend.repository.QuizRepository;
+import com.mentora.backend.repository.QuizSubmissionAnswerRepository;
+import com.mentora.backend.repository.QuizSubmissionRepository;
+import com.mentora.backend.repository.UserRepository;
+import com.mentora.backend.requests.CreateQuizSubmissionRequest;
+import com.mentora.backend.requests.UpdateQuizRequest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// La clave de respuestas se arma una vez por quiz y se descarta al editarlo o borrarlo
+class QuizServiceAnswerKeyCacheTests {
+
+    private static final long QUIZ_ID = 5L;
+
+    private QuizRepository quizRepository;
+    private SimpleMeterRegistry meterRegistry;
+    private QuizService quizService;
+
+    @BeforeEach
+    void setUp() {
+        quizRepository = mock(QuizRepository.class);
+        QuizSubmissionRepository quizSubmissionRepository = mock(QuizSubmissionRepository.class);
+        UserRepository userRepository = mock(UserRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+
+        Quiz quiz = new Quiz("Parcial", null, new Course("C1", "Curso", LocalDateTime.now()), new ArrayList<>());
+        quiz.setId(QUIZ_ID);
+        when(quizRepository.findById(QUIZ_ID)).thenReturn(Optional.of(quiz));
+        when(quizRepository.save(any(Quiz.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(quizRepository.findAnswerFlags(QUIZ_ID)).thenReturn(List.of(
+                new Flag(10L, true), new Flag(11L, false), new Flag(12L, true)));
+        when(userRepository.findById(anyString())).thenAnswer(invocation -> Optional.of(
+                new User(invocation.getArgument(0), "Estudiante", "e@mentora.uy", "x", null, null, null, Role.ESTUDIANTE)));
+        when(quizSubmissionRepository.save(any(QuizSubmission.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        quizService = new QuizService(quizRepository, quizSubmissionRepository, mock(QuizSubmissionAnswerRepository.class),
+                mock(JdbcTemplate.class), userRepository, mock(UserService.class), mock(PendingItemsService.class),
+                mock(GradebookService.class), meterRegistry, 100, 300);
+    }
+
+    private int submit(String userCi, Long... answerIds) {
+        CreateQuizSubmissionRequest req = new CreateQuizSubmissionRequest();
+        req.setAnswerIds(List.of(answerIds));
+        return quizService.createQuizSubmission(QUIZ_ID, userCi, req).getNote();
+    }
+
+    private double misses() {
+        return meterRegistry.counter("quiz.answer_key.cache", "result", "miss").count();
+    }
+
+    @Test
+    void reusesKeyBetweenSubmissions() {
+        assertEquals(50, submit("1", 10L));
+        assertEquals(100, submit("2", 10L, 12L));
+
+        verify(quizRepository, times(1)).findAnswerFlags(QUIZ_ID);
+        assertEquals(1, misses());
+        assertEquals(1, meterRegistry.counter("quiz.answer_key.cache", "result", "hit").count());
+    }
+
+    @Test
+    void editQuizEvictsKey() {
+        submit("1", 10L);
+        quizService.editQuiz(QUIZ_ID, new UpdateQuizRequest());
+        submit("2", 10L);
+
+        verify(quizRepository, times(2)).findAnswerFlags(QUIZ_ID);
+        assertEquals(2, misses());
+    }
+
+    @Test
+    void deleteQuizEvictsKey() {
+        submit("1", 10L);
+        quizService.deleteQuiz(QUIZ_ID);
+        submit("2", 10L);
+
+        verify(quizRepository, times(2)).findAnswerFlags(QUIZ_ID);
+        assertEquals(2, misses());
+    }
+
+    private record Flag(Long id, Boolean correct) implements QuizRepository.AnswerFlag {
+        public Long getId() { return id; }
+        public Boolean getCorrect() { return correct; }
+    }
+}
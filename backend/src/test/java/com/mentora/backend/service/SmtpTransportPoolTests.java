@@ -0,0 +1,184 @@
+package com.mentora.backend.service;
+
+import com.icegreen.greenmail.configuration.GreenMailConfiguration;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import com.mentora.backend.model.EmailOutboxMessage;
+import com.mentora.backend.model.EmailOutboxStatus;
+import com.mentora.backend.repository.EmailOutboxRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Pool y outbox contra un servidor SMTP embebido (GreenMail), con la misma configuración spring.mail.* que en producción
+class SmtpTransportPoolTests {
+
+    private static final String USERNAME = "mentora@localhost";
+    private static final String PASSWORD = "secret";
+    private static final long BACKOFF_SECONDS = 30;
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP)
+            .withConfiguration(GreenMailConfiguration.aConfig().withUser(USERNAME, PASSWORD))
+            .withPerMethodLifecycle(true);
+
+    private final List<SmtpTransportPool> pools = new ArrayList<>();
+    private final List<EmailOutboxWorker> workers = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        workers.forEach(EmailOutboxWorker::shutdown);
+        pools.forEach(SmtpTransportPool::close);
+    }
+
+    @Test
+    void reusesConnectionAcrossBatches() throws Exception {
+        SmtpTransportPool pool = pool(PASSWORD, 1);
+        EmailService emailService = emailService(pool, mock(EmailOutboxRepository.class));
+
+        Transport first = pool.borrow();
+        pool.release(first, true);
+
+        List<EmailService.OutgoingEmail> batch = IntStream.range(0, 3)
+                .mapToObj(i -> new EmailService.OutgoingEmail("alumno" + i + "@localhost", "Aviso " + i, "Cuerpo"))
+                .toList();
+        assertEquals(List.of(), nonNull(emailService.deliver(batch)));
+        assertEquals(List.of(), nonNull(emailService.deliver(batch)));
+
+        // Con un solo permiso, los dos lotes tuvieron que usar la misma conexión autenticada
+        Transport reused = pool.borrow();
+        assertSame(first, reused);
+        assertTrue(reused.isConnected());
+        assertTrue(greenMail.waitForIncomingEmail(5_000, 6));
+
+        // Una conexión devuelta como no sana se descarta y la siguiente es nueva
+        pool.release(reused, false);
+        Transport replacement = pool.borrow();
+        assertNotSame(reused, replacement);
+        assertTrue(replacement.isConnected());
+        pool.release(replacement, true);
+    }
+
+    @Test
+    void sendsPendingMessageAndMarksItSent() throws Exception {
+        EmailOutboxMessage message = new EmailOutboxMessage("alumno@localhost", "Nueva evaluación", "Hay una evaluación nueva");
+
+        runPoll(pool(PASSWORD, 1), List.of(message), 3);
+
+        assertEquals(EmailOutboxStatus.SENT, message.getStatus());
+        assertNotNull(message.getSentAt());
+        assertEquals(0, message.getAttempts());
+        assertTrue(greenMail.waitForIncomingEmail(5_000, 1));
+        MimeMessage received = greenMail.getReceivedMessages()[0];
+        assertEquals("Nueva evaluación", received.getSubject());
+    }
+
+    @Test
+    void retriesWithBackoffAndMarksDeadAfterMaxAttempts() throws Exception {
+        // Contraseña incorrecta: GreenMail rechaza el AUTH y el pool no consigue conexión
+        SmtpTransportPool failingPool = pool("incorrecta", 1);
+        EmailOutboxMessage message = new EmailOutboxMessage("alumno@localhost", "Aviso", "Cuerpo");
+
+        LocalDateTime before = LocalDateTime.now();
+        runPoll(failingPool, List.of(message), 2);
+
+        assertEquals(EmailOutboxStatus.PENDING, message.getStatus());
+        assertEquals(1, message.getAttempts());
+        assertTrue(message.getLastError().startsWith("Conexión SMTP fallida"));
+        assertFalse(message.getNextAttemptAt().isBefore(before.plusSeconds(BACKOFF_SECONDS)));
+        assertTrue(message.getNextAttemptAt().isBefore(LocalDateTime.now().plusSeconds(BACKOFF_SECONDS + 1)));
+
+        SimpleMeterRegistry registry = runPoll(failingPool, List.of(message), 2);
+
+        assertEquals(EmailOutboxStatus.DEAD, message.getStatus());
+        assertEquals(2, message.getAttempts());
+        assertEquals(1.0, registry.get("email.outbox").tag("result", "dead").counter().count());
+        assertEquals(0, greenMail.getReceivedMessages().length);
+    }
+
+    @Test
+    void purgeDeletesFinishedMessagesInBatches() {
+        EmailOutboxRepository repository = mock(EmailOutboxRepository.class);
+        List<String> full = IntStream.range(0, 1000).mapToObj(i -> "id-" + i).toList();
+        List<String> last = List.of("a", "b", "c");
+        when(repository.findFinishedIdsBefore(any(), any(Limit.class))).thenReturn(full, full, last);
+
+        EmailOutboxWorker worker = worker(repository, emailService(pool(PASSWORD, 1), repository), 3, new SimpleMeterRegistry());
+        LocalDateTime before = LocalDateTime.now();
+        worker.purgeFinished();
+
+        ArgumentCaptor<LocalDateTime> cutoff = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(repository, times(3)).findFinishedIdsBefore(cutoff.capture(), eq(Limit.of(1000)));
+        // Retención de 30 días
+        assertFalse(cutoff.getValue().isBefore(before.minusDays(30)));
+        assertTrue(cutoff.getValue().isBefore(LocalDateTime.now().minusDays(30).plusSeconds(1)));
+        verify(repository, times(2)).deleteAllByIdInBatch(full);
+        verify(repository).deleteAllByIdInBatch(last);
+    }
+
+    // Un poll completo sobre un repositorio simulado que devuelve los mensajes como reclamados;
+    // espera a que el worker guarde el resultado
+    private SimpleMeterRegistry runPoll(SmtpTransportPool pool, List<EmailOutboxMessage> messages, int maxAttempts) {
+        EmailOutboxRepository repository = mock(EmailOutboxRepository.class);
+        when(repository.findByStatusAndNextAttemptAtLessThanEqualOrderByCreatedDateAsc(
+                eq(EmailOutboxStatus.PENDING), any(), any(Limit.class))).thenReturn(messages);
+        when(repository.claim(anyCollection(), any(), anyString())).thenReturn(messages.size());
+        when(repository.findByClaimTokenAndStatus(anyString(), eq(EmailOutboxStatus.SENDING)))
+                .thenReturn(new ArrayList<>(messages));
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        EmailOutboxWorker worker = worker(repository, emailService(pool, repository), maxAttempts, registry);
+        worker.poll();
+        verify(repository, timeout(10_000)).saveAll(any());
+        return registry;
+    }
+
+    private EmailOutboxWorker worker(EmailOutboxRepository repository, EmailService emailService,
+                                     int maxAttempts, SimpleMeterRegistry registry) {
+        EmailOutboxWorker worker = new EmailOutboxWorker(
+                repository, emailService, registry, 1, 100, maxAttempts, BACKOFF_SECONDS, 10, 30);
+        workers.add(worker);
+        return worker;
+    }
+
+    private SmtpTransportPool pool(String password, int size) {
+        SmtpTransportPool pool = new SmtpTransportPool(
+                USERNAME, password, "localhost", String.valueOf(ServerSetupTest.SMTP.getPort()), "false", size);
+        pools.add(pool);
+        return pool;
+    }
+
+    private static EmailService emailService(SmtpTransportPool pool, EmailOutboxRepository repository) {
+        return new EmailService(USERNAME, "SMTP", "", USERNAME, pool, repository);
+    }
+
+    private static List<String> nonNull(List<String> errors) {
+        return errors.stream().filter(e -> e != null).toList();
+    }
+}
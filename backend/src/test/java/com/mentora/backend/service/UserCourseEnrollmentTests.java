@@ -0,0 +1,191 @@
+package com.mentora.backend.service;
+
+import com.mentora.backend.RepositoryTestSupport;
+import com.mentora.backend.dt.DtUser;
+import com.mentora.backend.model.Course;
+import com.mentora.backend.model.Role;
+import com.mentora.backend.model.User;
+import com.mentora.backend.model.UserCourse;
+import com.mentora.backend.repository.CourseRepository;
+import com.mentora.backend.repository.UserCourseRepository;
+import com.mentora.backend.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+
+// Matriculación por lotes (findEnrolledUserCis + insert por lotes) y búsqueda de no participantes contra MySQL
+class UserCourseEnrollmentTests extends RepositoryTestSupport {
+
+    private static final String COURSE_ID = "ENR1";
+    private static final String OTHER_COURSE_ID = "ENR2";
+    private static final String MISSING_CI = "9999999";
+
+    @Autowired UserRepository userRepository;
+    @Autowired CourseRepository courseRepository;
+    @Autowired UserCourseRepository userCourseRepository;
+    @Autowired JdbcTemplate jdbcTemplate;
+    @Autowired EntityManager entityManager;
+
+    private UserCourseService userCourseService;
+    private Course course;
+    private Course otherCourse;
+
+    @BeforeEach
+    void setUp() {
+        course = courseRepository.save(new Course(COURSE_ID, "Matriculación", LocalDateTime.now()));
+        otherCourse = courseRepository.save(new Course(OTHER_COURSE_ID, "Otro curso", LocalDateTime.now()));
+        userCourseService = new UserCourseService(
+                courseRepository,
+                userRepository,
+                userCourseRepository,
+                mock(UserService.class),
+                mock(PendingItemsService.class),
+                mock(FileStorageService.class),
+                jdbcTemplate
+        );
+    }
+
+    @Test
+    void enrollsInChunksReportingDuplicatesWithinAndAcrossChunks() {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i <= 1006; i++) {
+            users.add(student(ci(i), "Estudiante " + i));
+        }
+        userRepository.saveAll(users);
+        // Ya matriculados: 0-4 en el curso; 5 solo en el otro curso
+        for (int i = 0; i < 5; i++) {
+            userCourseRepository.save(new UserCourse(course, users.get(i), null));
+        }
+        userCourseRepository.save(new UserCourse(otherCourse, users.get(5), null));
+        entityManager.flush();
+        entityManager.clear();
+
+        // Primer lote (1000): ya matriculado, repetida dentro del lote, inexistente repetida, y 995 nuevas.
+        // Segundo lote: repetidas de CIs del primer lote y una repetida dentro del propio lote
+        List<String> input = new ArrayList<>(List.of(ci(0), ci(10), ci(10), MISSING_CI, MISSING_CI));
+        List<UserCourseService.EnrollmentStatus> expected = new ArrayList<>(List.of(
+                UserCourseService.EnrollmentStatus.ALREADY_ENROLLED,
+                UserCourseService.EnrollmentStatus.ENROLLED,
+                UserCourseService.EnrollmentStatus.ALREADY_ENROLLED,
+                UserCourseService.EnrollmentStatus.NOT_FOUND,
+                UserCourseService.EnrollmentStatus.NOT_FOUND));
+        for (int i = 11; i <= 1005; i++) {
+            input.add(ci(i));
+            expected.add(UserCourseService.EnrollmentStatus.ENROLLED);
+        }
+        assertEquals(UserCourseService.ENROLLMENT_CHUNK_SIZE, input.size());
+        input.addAll(List.of(ci(10), MISSING_CI, ci(0), ci(1006), ci(1006), ci(5)));
+        expected.addAll(List.of(
+                UserCourseService.EnrollmentStatus.ALREADY_ENROLLED,
+                UserCourseService.EnrollmentStatus.NOT_FOUND,
+                UserCourseService.EnrollmentStatus.ALREADY_ENROLLED,
+                UserCourseService.EnrollmentStatus.ENROLLED,
+                UserCourseService.EnrollmentStatus.ALREADY_ENROLLED,
+                UserCourseService.EnrollmentStatus.ENROLLED));
+
+        List<Integer> chunkSizes = new ArrayList<>();
+        List<UserCourseService.Enrollment> results = new ArrayList<>();
+        userCourseService.enrollInChunks(COURSE_ID, input, chunk -> {
+            chunkSizes.add(chunk.size());
+            results.addAll(chunk);
+        });
+
+        assertEquals(List.of(1000, 6), chunkSizes);
+        assertEquals(input, results.stream().map(UserCourseService.Enrollment::ci).toList());
+        assertEquals(expected, results.stream().map(UserCourseService.Enrollment::status).toList());
+
+        // Cada usuario quedó matriculado una sola vez
+        entityManager.clear();
+        Set<String> expectedEnrolled = new HashSet<>();
+        for (int i = 0; i <= 1006; i++) {
+            if (i < 6 || i >= 10) expectedEnrolled.add(ci(i));
+        }
+        List<String> enrolled = userCourseRepository.findEnrolledUserCis(COURSE_ID, users.stream().map(User::getCi).toList());
+        assertEquals(expectedEnrolled, new HashSet<>(enrolled));
+        assertEquals(expectedEnrolled.size(), enrolled.size());
+        assertEquals(expectedEnrolled.size(), jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM user_course WHERE course_id = ?", Integer.class, COURSE_ID));
+    }
+
+    @Test
+    void findEnrolledUserCisIgnoresOtherCoursesAndUnknownCis() {
+        User enrolled = userRepository.save(student("3000001", "Matriculada"));
+        User elsewhere = userRepository.save(student("3000002", "En otro curso"));
+        userRepository.save(student("3000003", "Sin curso"));
+        userCourseRepository.save(new UserCourse(course, enrolled, null));
+        userCourseRepository.save(new UserCourse(otherCourse, elsewhere, null));
+        entityManager.flush();
+
+        assertEquals(List.of("3000001"), userCourseRepository.findEnrolledUserCis(
+                COURSE_ID, List.of("3000001", "3000002", "3000003", MISSING_CI)));
+    }
+
+    @Test
+    void nonParticipantsPrefixTreatsLikeWildcardsLiterally() {
+        userRepository.saveAll(List.of(
+                student("4000001", "100% Real"),
+                student("4000002", "1000 Días"),
+                student("4000003", "a_b"),
+                student("4000004", "axb"),
+                student("4000005", "x!y"),
+                student("4000006", "xy")));
+        User enrolled = userRepository.save(student("4000007", "100% Inscripto"));
+        userRepository.save(new User("4000008", "100% Profe", "4000008@mentora.test", "x", null, null, null, Role.PROFESOR));
+        userCourseRepository.save(new UserCourse(course, enrolled, null));
+        entityManager.flush();
+
+        assertEquals(List.of("100% Real"), names(userCourseService.getNonParticipantsFromCourse(COURSE_ID, "100%", null, null, false)));
+        assertEquals(List.of("a_b"), names(userCourseService.getNonParticipantsFromCourse(COURSE_ID, "A_", null, null, false)));
+        assertEquals(List.of("x!y"), names(userCourseService.getNonParticipantsFromCourse(COURSE_ID, "x!", null, null, false)));
+        // El prefijo también busca por CI
+        assertEquals(List.of("1000 Días"), names(userCourseService.getNonParticipantsFromCourse(COURSE_ID, "4000002", null, null, false)));
+        // Sin prefijo: los seis estudiantes no matriculados
+        assertEquals(6, userCourseService.getNonParticipantsFromCourse(COURSE_ID, null, null, null, false).size());
+    }
+
+    @Test
+    void nonParticipantsPagesByNameLowerThenCi() {
+        userRepository.saveAll(List.of(
+                student("5000003", "ana"),
+                student("5000001", "Ana"),
+                student("5000002", "ANA"),
+                student("5000004", "Bruno"),
+                student("5000000", "carla")));
+        entityManager.flush();
+        entityManager.clear();
+
+        List<String> cis = new ArrayList<>();
+        String after = null;
+        List<DtUser> page;
+        do {
+            page = userCourseService.getNonParticipantsFromCourse(COURSE_ID, null, after, 2, false);
+            page.forEach(u -> cis.add(u.getCi()));
+            after = page.isEmpty() ? null : page.get(page.size() - 1).getCi();
+        } while (page.size() == 2);
+
+        assertEquals(List.of("5000001", "5000002", "5000003", "5000004", "5000000"), cis);
+    }
+
+    private static List<String> names(List<DtUser> users) {
+        return users.stream().map(DtUser::getName).toList();
+    }
+
+    private static String ci(int i) {
+        return String.valueOf(2_000_000 + i);
+    }
+
+    private static User student(String ci, String name) {
+        return new User(ci, name, ci + "@mentora.test", "x", null, null, null, Role.ESTUDIANTE);
+    }
+}
@@ -0,0 +1,111 @@
+package com.mentora.backend.service;
+
+import com.mentora.backend.RepositoryTestSupport;
+import com.mentora.backend.dt.DtUser;
+import com.mentora.backend.model.Role;
+import com.mentora.backend.model.User;
+import com.mentora.backend.repository.ActivityRepository;
+import com.mentora.backend.repository.PasswordResetTokenRepository;
+import com.mentora.backend.repository.UserRepository;
+import com.mentora.backend.responses.BulkCreateUsersResponse;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+
+// Importación de usuarios por CSV contra MySQL con más de dos bloques de 500 filas: duplicados dentro de un bloque,
+// entre bloques, en el borde entre bloques y contra la base; los errores salen en el orden de las filas
+class UserCsvImportTests extends RepositoryTestSupport {
+
+    private static final int ROWS = 1201;
+    private static final String EXISTING_CI = "5000000";
+
+    @Autowired UserRepository userRepository;
+    @Autowired EntityManager entityManager;
+
+    private UserService userService;
+
+    @BeforeEach
+    void setUp() {
+        userRepository.save(new User(EXISTING_CI, "Ya existe", "existente@mentora.test", "x", null, null, null, Role.ESTUDIANTE));
+        entityManager.flush();
+        entityManager.clear();
+
+        userService = new UserService(userRepository, mock(PasswordEncoder.class), mock(EmailService.class),
+                mock(PasswordResetTokenRepository.class), mock(ActivityRepository.class), mock(FileStorageService.class));
+    }
+
+    @Test
+    void reportsDuplicatesWithinAndAcrossChunksInRowOrder() throws Exception {
+        // Fila d (desde 0) va en la línea d + 2 del archivo por el encabezado
+        List<String[]> rows = new ArrayList<>();
+        for (int d = 0; d < ROWS; d++) {
+            rows.add(new String[]{ci(d), "Nombre" + d, "Apellido", email(d), "Password1", "estudiante"});
+        }
+        // Primer bloque: CI repetida, email repetido con otras mayúsculas, CI y email que ya están en la base, CI inválida
+        rows.get(10)[0] = ci(3);
+        rows.get(20)[3] = "U5@MENTORA.TEST";
+        rows.get(30)[0] = EXISTING_CI;
+        rows.get(40)[3] = "EXISTENTE@mentora.test";
+        rows.get(50)[0] = "12a";
+        // Borde: la primera fila del segundo bloque repite la última del primero
+        rows.get(500)[0] = ci(499);
+        // Segundo y tercer bloque repiten CIs y emails aceptados en bloques anteriores
+        rows.get(700)[0] = ci(100);
+        rows.get(1100)[3] = email(600).toUpperCase();
+        // Dentro del tercer bloque
+        rows.get(1180)[0] = ci(1170);
+        // La fila 10 se rechazó por CI, así que su email quedó libre y se puede usar después
+        rows.get(1150)[3] = email(10);
+
+        BulkCreateUsersResponse response = userService.createUsersFromCsv(csv(rows));
+
+        assertEquals(List.of(
+                "Fila 12: CI duplicado",
+                "Fila 22: Email duplicado",
+                "Fila 32: CI duplicado",
+                "Fila 42: Email duplicado",
+                "Fila 52: CI inválido",
+                "Fila 502: CI duplicado",
+                "Fila 702: CI duplicado",
+                "Fila 1102: Email duplicado",
+                "Fila 1182: CI duplicado"
+        ), response.getErrors());
+
+        List<Integer> rejected = List.of(10, 20, 30, 40, 50, 500, 700, 1100, 1180);
+        List<String> expectedCis = new ArrayList<>();
+        for (int d = 0; d < ROWS; d++) {
+            if (!rejected.contains(d)) {
+                expectedCis.add(rows.get(d)[0]);
+            }
+        }
+        assertEquals(expectedCis, response.getCreatedUsers().stream().map(DtUser::getCi).toList());
+        assertEquals(ROWS - rejected.size() + 1, userRepository.count());
+        assertEquals(email(10), userRepository.findByCi(ci(1150)).orElseThrow().getEmail());
+    }
+
+    private static String ci(int d) {
+        return String.valueOf(6_000_000 + d);
+    }
+
+    private static String email(int d) {
+        return "u" + d + "@mentora.test";
+    }
+
+    private static ByteArrayInputStream csv(List<String[]> rows) {
+        StringBuilder sb = new StringBuilder("ci,nombre,apellido,email,password,rol\n");
+        for (String[] row : rows) {
+            sb.append(String.join(",", row)).append('\n');
+        }
+        return new ByteArrayInputStream(sb.toString().getBytes(StandardCharsets.UTF_8));
+    }
+}